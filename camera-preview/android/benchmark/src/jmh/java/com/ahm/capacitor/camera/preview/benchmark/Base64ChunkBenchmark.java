@@ -0,0 +1,56 @@
+package com.ahm.capacitor.camera.preview.benchmark;
+
+import com.ahm.capacitor.camera.preview.camerax.Base64Chunker;
+import java.util.Base64;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Base64 of a captured JPEG: one string for the whole payload against the segments
+ * Base64Chunker builds in its reused buffer. Run with -prof gc: the chunked path should allocate
+ * little more than the segment strings, the single string path the string plus a byte[] copy.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class Base64ChunkBenchmark {
+
+    /** 1 MB, and 4 MB for a 12 MP JPEG */
+    @Param({ "1048576", "4194304" })
+    public int length;
+
+    private byte[] jpeg;
+    private Base64Chunker chunker;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        jpeg = new byte[length];
+        new Random(42).nextBytes(jpeg);
+        chunker = new Base64Chunker(Base64Chunker.DEFAULT_CHUNK_BYTES);
+    }
+
+    @Benchmark
+    public String singleString() {
+        return Base64.getEncoder().encodeToString(jpeg);
+    }
+
+    @Benchmark
+    public int chunked(final Blackhole blackhole) {
+        return chunker.encode(jpeg, 0, jpeg.length, new Base64Chunker.Sink() {
+            @Override
+            public void onChunk(int index, int count, String base64) {
+                blackhole.consume(base64);
+            }
+        });
+    }
+}
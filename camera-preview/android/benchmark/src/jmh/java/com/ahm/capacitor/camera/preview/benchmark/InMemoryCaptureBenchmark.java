@@ -0,0 +1,115 @@
+package com.ahm.capacitor.camera.preview.benchmark;
+
+import com.ahm.capacitor.camera.preview.camerax.ExifOrientation;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.util.Base64;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.MemoryCacheImageOutputStream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Capture to Base64: the file round trip CameraXManager used before (write, decode, rotate,
+ * re-encode at 85) against the in-memory path (copy out of the image buffer, patch EXIF).
+ * ImageIO stands in for BitmapFactory; run with -prof gc to compare allocations.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class InMemoryCaptureBenchmark {
+
+    @Param({ "1280x960", "1920x1440" })
+    public String size;
+
+    private byte[] encoderOutput;
+    private ByteBuffer imageBuffer;
+    private File file;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        String[] dims = size.split("x");
+        int width = Integer.parseInt(dims[0]);
+        int height = Integer.parseInt(dims[1]);
+        BufferedImage frame = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Random random = new Random(42);
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                int noise = random.nextInt(32);
+                frame.setRGB(x, y, (((x / 4) & 0xFF) << 16) | (((y / 4) & 0xFF) << 8) | (((x + y) / 8 + noise) & 0xFF));
+            }
+        }
+        // Encoder output as the HAL delivers it: JPEG with an orientation tag
+        encoderOutput = ExifOrientation.apply(encode(frame, 0.95f), ExifOrientation.NORMAL);
+        imageBuffer = ByteBuffer.allocateDirect(encoderOutput.length);
+        imageBuffer.put(encoderOutput);
+        file = File.createTempFile("cpcp_bench", ".jpg");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        file.delete();
+    }
+
+    @Benchmark
+    public String fileRoundTrip() throws IOException {
+        Files.write(file.toPath(), encoderOutput);
+        BufferedImage decoded = ImageIO.read(file);
+
+        // Same work as Bitmap.createBitmap with a 90 degree matrix: read pixels, write them rotated
+        int w = decoded.getWidth();
+        int h = decoded.getHeight();
+        int[] pixels = decoded.getRGB(0, 0, w, h, null, 0, w);
+        int[] turned = new int[pixels.length];
+        for (int y = 0; y < h; y++) {
+            for (int x = 0; x < w; x++) {
+                turned[x * h + (h - 1 - y)] = pixels[y * w + x];
+            }
+        }
+        BufferedImage rotated = new BufferedImage(h, w, BufferedImage.TYPE_INT_RGB);
+        rotated.setRGB(0, 0, h, w, turned, 0, h);
+
+        return Base64.getEncoder().encodeToString(encode(rotated, 0.85f));
+    }
+
+    @Benchmark
+    public String inMemory() {
+        imageBuffer.rewind();
+        byte[] jpeg = new byte[imageBuffer.remaining()];
+        imageBuffer.get(jpeg);
+        byte[] oriented = ExifOrientation.apply(jpeg, ExifOrientation.fromRotationDegrees(90));
+        return Base64.getEncoder().encodeToString(oriented);
+    }
+
+    private static byte[] encode(BufferedImage image, float quality) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpg").next();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (MemoryCacheImageOutputStream stream = new MemoryCacheImageOutputStream(out)) {
+            writer.setOutput(stream);
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(quality);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,60 @@
+package com.ahm.capacitor.camera.preview.benchmark;
+
+import com.ahm.capacitor.camera.preview.camerax.LumaDownscaler;
+import java.nio.ByteBuffer;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Y-plane thumbnails from synthetic direct buffers laid out like camera planes. Run with
+ * -prof gc: gc.alloc.rate.norm must stay at 0 B/op for every configuration.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class LumaDownscaleBenchmark {
+
+    /** Source width x height x row stride x pixel stride */
+    @Param({ "640x480x640x1", "1280x720x1344x1", "1920x1080x1920x1", "1280x720x2560x2" })
+    public String plane;
+
+    @Param({ "160x120", "64x48" })
+    public String output;
+
+    private ByteBuffer buffer;
+    private int width;
+    private int height;
+    private int rowStride;
+    private int pixelStride;
+    private LumaDownscaler downscaler;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        String[] p = plane.split("x");
+        width = Integer.parseInt(p[0]);
+        height = Integer.parseInt(p[1]);
+        rowStride = Integer.parseInt(p[2]);
+        pixelStride = Integer.parseInt(p[3]);
+        buffer = ByteBuffer.allocateDirect(rowStride * height);
+        Random random = new Random(42);
+        for (int i = 0; i < buffer.capacity(); i++) {
+            buffer.put(i, (byte) random.nextInt(256));
+        }
+        String[] o = output.split("x");
+        downscaler = new LumaDownscaler(Integer.parseInt(o[0]), Integer.parseInt(o[1]));
+    }
+
+    @Benchmark
+    public byte[] downscale() {
+        return downscaler.downscale(buffer, rowStride, pixelStride, width, height);
+    }
+}
@@ -0,0 +1,117 @@
+package com.ahm.capacitor.camera.preview.benchmark;
+
+import com.ahm.capacitor.camera.preview.camerax.Nv21Rotator;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * NV21 rotation: the per-pixel implementation CameraActivity used before, against Nv21Rotator on
+ * the calling thread and split across a ForkJoinPool. Run with -prof gc to compare allocations:
+ * rotatorPooled must stay near 0 B/op, legacy allocates at least one frame per call.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class Nv21RotateBenchmark {
+
+    @Param({ "1280x720", "1920x1080", "3840x2160" })
+    public String size;
+
+    @Param({ "90", "180", "270" })
+    public int rotation;
+
+    private int width;
+    private int height;
+    private byte[] frame;
+    private byte[] out;
+    private Nv21Rotator sequential;
+    private Nv21Rotator parallel;
+    private ForkJoinPool pool;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        String[] dims = size.split("x");
+        width = Integer.parseInt(dims[0]);
+        height = Integer.parseInt(dims[1]);
+        frame = new byte[Nv21Rotator.frameLength(width, height)];
+        new Random(42).nextBytes(frame);
+        out = new byte[frame.length];
+        pool = new ForkJoinPool();
+        sequential = new Nv21Rotator();
+        parallel = new Nv21Rotator(pool, 0);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        pool.shutdown();
+    }
+
+    @Benchmark
+    public byte[] legacy() {
+        return legacyRotate(frame, width, height, rotation);
+    }
+
+    @Benchmark
+    public byte[] rotator() {
+        sequential.rotate(frame, width, height, rotation, out);
+        return out;
+    }
+
+    @Benchmark
+    public byte[] rotatorPooled() {
+        byte[] rotated = sequential.rotate(frame, width, height, rotation);
+        sequential.release(rotated);
+        return rotated;
+    }
+
+    @Benchmark
+    public byte[] rotatorForkJoin() {
+        parallel.rotate(frame, width, height, rotation, out);
+        return out;
+    }
+
+    /** CameraActivity.rotateNV21 before it was replaced by Nv21Rotator */
+    static byte[] legacyRotate(final byte[] yuv, final int width, final int height, final int rotation) {
+        if (rotation == 0) return yuv;
+        final byte[] output = new byte[yuv.length];
+        final int frameSize = width * height;
+        final boolean swap = rotation % 180 != 0;
+        final boolean xflip = rotation % 270 != 0;
+        final boolean yflip = rotation >= 180;
+
+        for (int j = 0; j < height; j++) {
+            for (int i = 0; i < width; i++) {
+                final int yIn = j * width + i;
+                final int uIn = frameSize + (j >> 1) * width + (i & ~1);
+                final int vIn = uIn + 1;
+
+                final int wOut = swap ? height : width;
+                final int hOut = swap ? width : height;
+                final int iSwapped = swap ? j : i;
+                final int jSwapped = swap ? i : j;
+                final int iOut = xflip ? wOut - iSwapped - 1 : iSwapped;
+                final int jOut = yflip ? hOut - jSwapped - 1 : jSwapped;
+
+                final int yOut = jOut * wOut + iOut;
+                final int uOut = frameSize + (jOut >> 1) * wOut + (iOut & ~1);
+                final int vOut = uOut + 1;
+
+                output[yOut] = (byte) (0xff & yuv[yIn]);
+                output[uOut] = (byte) (0xff & yuv[uIn]);
+                output[vOut] = (byte) (0xff & yuv[vIn]);
+            }
+        }
+        return output;
+    }
+}
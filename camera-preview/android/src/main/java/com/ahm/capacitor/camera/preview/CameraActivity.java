@@ -37,6 +37,11 @@ import android.view.ViewTreeObserver;
 import android.widget.FrameLayout;
 import android.widget.RelativeLayout;
 import androidx.exifinterface.media.ExifInterface;
+import com.ahm.capacitor.camera.preview.camerax.BitmapOrientationStrategy;
+import com.ahm.capacitor.camera.preview.camerax.CaptureOptions;
+import com.ahm.capacitor.camera.preview.camerax.ExifOrientation;
+import com.ahm.capacitor.camera.preview.camerax.JpegOrientation;
+import com.ahm.capacitor.camera.preview.camerax.Nv21Rotator;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.File;
@@ -84,6 +89,9 @@ public class CameraActivity extends Fragment {
     private int numberOfCameras;
     private int cameraCurrentlyLocked;
     private int currentQuality;
+    // Orientation strategy of the pending capture when EXIF headers are stripped, null for lossless
+    private JpegOrientation.Mode currentOrientationMode;
+    private final Nv21Rotator nv21Rotator = new Nv21Rotator();
 
     private enum RecordingState {
         INITIALIZING,
@@ -992,17 +1000,6 @@ public class CameraActivity extends Fragment {
         }
     };
 
-    private static int exifToDegrees(int exifOrientation) {
-        if (exifOrientation == ExifInterface.ORIENTATION_ROTATE_90) {
-            return 90;
-        } else if (exifOrientation == ExifInterface.ORIENTATION_ROTATE_180) {
-            return 180;
-        } else if (exifOrientation == ExifInterface.ORIENTATION_ROTATE_270) {
-            return 270;
-        }
-        return 0;
-    }
-
     private String getTempDirectoryPath() {
         File cache = null;
 
@@ -1024,28 +1021,14 @@ public class CameraActivity extends Fragment {
 
             try {
                 if (!disableExifHeaderStripping) {
-                    Matrix matrix = new Matrix();
-                    if (cameraCurrentlyLocked == Camera.CameraInfo.CAMERA_FACING_FRONT) {
-                        matrix.preScale(1.0f, -1.0f);
-                    }
-
                     ExifInterface exifInterface = new ExifInterface(new ByteArrayInputStream(data));
-                    int rotation = exifInterface.getAttributeInt(ExifInterface.TAG_ORIENTATION, ExifInterface.ORIENTATION_NORMAL);
-                    int rotationInDegrees = exifToDegrees(rotation);
-
-                    if (rotation != 0f) {
-                        matrix.preRotate(rotationInDegrees);
+                    int orientation = exifInterface.getAttributeInt(ExifInterface.TAG_ORIENTATION, ExifInterface.ORIENTATION_NORMAL);
+                    if (cameraCurrentlyLocked == Camera.CameraInfo.CAMERA_FACING_FRONT) {
+                        orientation = ExifOrientation.flipVertically(orientation);
                     }
 
-                    // Check if matrix has changed. In that case, apply matrix and override data
-                    if (!matrix.isIdentity()) {
-                        Bitmap bitmap = BitmapFactory.decodeByteArray(data, 0, data.length);
-                        bitmap = applyMatrix(bitmap, matrix);
-
-                        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
-                        bitmap.compress(CompressFormat.JPEG, currentQuality, outputStream);
-                        data = outputStream.toByteArray();
-                    }
+                    JpegOrientation.Mode mode = currentOrientationMode != null ? currentOrientationMode : JpegOrientation.defaultMode(false);
+                    data = JpegOrientation.orient(data, orientation, mode, new BitmapOrientationStrategy(currentQuality));
                 }
 
                 if (!storeToFile) {
@@ -1155,43 +1138,6 @@ public class CameraActivity extends Fragment {
         return size;
     }
 
-    static byte[] rotateNV21(final byte[] yuv, final int width, final int height, final int rotation) {
-        if (rotation == 0) return yuv;
-        if (rotation % 90 != 0 || rotation < 0 || rotation > 270) {
-            throw new IllegalArgumentException("0 <= rotation < 360, rotation % 90 == 0");
-        }
-
-        final byte[] output = new byte[yuv.length];
-        final int frameSize = width * height;
-        final boolean swap = rotation % 180 != 0;
-        final boolean xflip = rotation % 270 != 0;
-        final boolean yflip = rotation >= 180;
-
-        for (int j = 0; j < height; j++) {
-            for (int i = 0; i < width; i++) {
-                final int yIn = j * width + i;
-                final int uIn = frameSize + (j >> 1) * width + (i & ~1);
-                final int vIn = uIn + 1;
-
-                final int wOut = swap ? height : width;
-                final int hOut = swap ? width : height;
-                final int iSwapped = swap ? j : i;
-                final int jSwapped = swap ? i : j;
-                final int iOut = xflip ? wOut - iSwapped - 1 : iSwapped;
-                final int jOut = yflip ? hOut - jSwapped - 1 : jSwapped;
-
-                final int yOut = jOut * wOut + iOut;
-                final int uOut = frameSize + (jOut >> 1) * wOut + (iOut & ~1);
-                final int vOut = uOut + 1;
-
-                output[yOut] = (byte) (0xff & yuv[yIn]);
-                output[uOut] = (byte) (0xff & yuv[uIn]);
-                output[vOut] = (byte) (0xff & yuv[vIn]);
-            }
-        }
-        return output;
-    }
-
     public void setOpacity(final float opacity) {
         Log.d(TAG, "set opacity:" + opacity);
         this.opacity = opacity;
@@ -1202,15 +1148,16 @@ public class CameraActivity extends Fragment {
         mCamera.setPreviewCallback(
             new Camera.PreviewCallback() {
                 @Override
-                public void onPreviewFrame(byte[] bytes, Camera camera) {
+                public void onPreviewFrame(byte[] frame, Camera camera) {
+                    byte[] bytes = frame;
                     try {
                         Camera.Parameters parameters = camera.getParameters();
                         Camera.Size size = parameters.getPreviewSize();
                         int orientation = mPreview.getDisplayOrientation();
                         if (mPreview.getCameraFacing() == Camera.CameraInfo.CAMERA_FACING_FRONT) {
-                            bytes = rotateNV21(bytes, size.width, size.height, (360 - orientation) % 360);
+                            bytes = nv21Rotator.rotate(frame, size.width, size.height, (360 - orientation) % 360);
                         } else {
-                            bytes = rotateNV21(bytes, size.width, size.height, orientation);
+                            bytes = nv21Rotator.rotate(frame, size.width, size.height, orientation);
                         }
                         // switch width/height when rotating 90/270 deg
                         Rect rect = orientation == 90 || orientation == 270
@@ -1226,6 +1173,7 @@ public class CameraActivity extends Fragment {
                         Log.d(TAG, "CameraPreview IOException");
                         eventListener.onSnapshotTakenError("IO Error");
                     } finally {
+                        if (bytes != frame) nv21Rotator.release(bytes);
                         mCamera.setPreviewCallback(null);
                     }
                 }
@@ -1234,6 +1182,17 @@ public class CameraActivity extends Fragment {
     }
 
     public void takePicture(final int width, final int height, final int quality) {
+        takePicture(width, height, quality, null);
+    }
+
+    /**
+     * Take a picture with the size, quality and orientation strategy of the capture options
+     */
+    public void takePicture(CaptureOptions options) {
+        takePicture(options.getWidth(), options.getHeight(), options.getQuality(), options.getOrientationMode());
+    }
+
+    private void takePicture(final int width, final int height, final int quality, final JpegOrientation.Mode orientationMode) {
         Log.d(TAG, "CameraPreview takePicture width: " + width + ", height: " + height + ", quality: " + quality);
 
         if (mPreview != null) {
@@ -1250,6 +1209,7 @@ public class CameraActivity extends Fragment {
                     Camera.Size size = getOptimalPictureSize(width, height, params.getPreviewSize(), params.getSupportedPictureSizes());
                     params.setPictureSize(size.width, size.height);
                     currentQuality = quality;
+                    currentOrientationMode = orientationMode;
 
                     if (cameraCurrentlyLocked == Camera.CameraInfo.CAMERA_FACING_FRONT && !storeToFile) {
                         // The image will be recompressed in the callback
@@ -8,6 +8,9 @@ import android.content.pm.ActivityInfo;
 import android.graphics.Color;
 import android.graphics.Point;
 import android.hardware.Camera;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
 import android.util.DisplayMetrics;
 import android.util.TypedValue;
 import android.view.Display;
@@ -24,10 +27,32 @@ import com.getcapacitor.PluginMethod;
 import com.getcapacitor.annotation.CapacitorPlugin;
 import com.getcapacitor.annotation.Permission;
 import com.getcapacitor.annotation.PermissionCallback;
+import com.ahm.capacitor.camera.preview.camerax.AnalysisMetrics;
+import com.ahm.capacitor.camera.preview.camerax.Base64Chunker;
+import com.ahm.capacitor.camera.preview.camerax.BurstStats;
+import com.ahm.capacitor.camera.preview.camerax.CameraStartTimings;
 import com.ahm.capacitor.camera.preview.camerax.CameraXActivity;
+import com.ahm.capacitor.camera.preview.camerax.CameraXPrewarm;
 import com.ahm.capacitor.camera.preview.camerax.CameraXSelector;
+import com.ahm.capacitor.camera.preview.camerax.CaptureOptions;
+import com.ahm.capacitor.camera.preview.camerax.CaptureResultMode;
+import com.ahm.capacitor.camera.preview.camerax.CaptureStorageManager;
+import com.ahm.capacitor.camera.preview.camerax.FrameProcessor;
+import com.ahm.capacitor.camera.preview.camerax.FrameProcessors;
+import com.ahm.capacitor.camera.preview.camerax.JpegOrientation;
+import com.ahm.capacitor.camera.preview.camerax.LensSwitchCoordinator;
+import com.ahm.capacitor.camera.preview.camerax.LensSwitchResult;
+import com.ahm.capacitor.camera.preview.camerax.LuminanceFrameProcessor;
+import com.ahm.capacitor.camera.preview.camerax.MotionStabilityDetector;
+import com.ahm.capacitor.camera.preview.camerax.PreRollRecorder;
+import com.ahm.capacitor.camera.preview.camerax.RecordingProfile;
+import com.ahm.capacitor.camera.preview.camerax.RecordingSegmenter;
+import com.ahm.capacitor.camera.preview.camerax.RecordingStatusTracker;
+import com.ahm.capacitor.camera.preview.camerax.AndroidTraceBackend;
+import com.ahm.capacitor.camera.preview.camerax.Tracer;
 import java.io.File;
 import java.util.List;
+import java.util.Map;
 import org.json.JSONArray;
 import android.util.Log;
 import org.json.JSONObject;
@@ -38,13 +63,40 @@ public class CameraPreview extends Plugin implements CameraXActivity.CameraXActi
 
     static final String CAMERA_PERMISSION_ALIAS = "camera";
 
-    private static String VIDEO_FILE_PATH = "";
-    private static String VIDEO_FILE_EXTENSION = ".mp4";
+    // Pictures and videos in the cache directory, kept within a size and age budget
+    private CaptureStorageManager captureStorage;
+    // Output of the recording in progress, deleted if it fails
+    private File recordingFile;
 
     private String captureCallbackId = "";
     private String snapshotCallbackId = "";
+    private long snapshotRequestedAt = 0;
     private String recordCallbackId = "";
     private String cameraStartCallbackId = "";
+    private int captureChunkBytes = Base64Chunker.DEFAULT_CHUNK_BYTES;
+    private static final int MAX_BURST_COUNT = 30;
+
+    // Spans of calls that resolve from a callback, NOOP while tracing is off
+    private Tracer.Span startSpan = Tracer.Span.NOOP;
+    private Tracer.Span captureSpan = Tracer.Span.NOOP;
+    private Tracer.Span snapshotSpan = Tracer.Span.NOOP;
+    private Tracer.Span recordSpan = Tracer.Span.NOOP;
+
+    // Periodic previewStats events, off unless startPreviewStats was called
+    private final Handler previewStatsHandler = new Handler(Looper.getMainLooper());
+    private volatile long previewStatsIntervalMs = 0;
+    private final Runnable previewStatsTick = new Runnable() {
+        @Override
+        public void run() {
+            Map<String, Object> stats = fragment != null ? fragment.getPreviewStats() : null;
+            if (stats != null) {
+                notifyListeners("previewStats", toJSObject(stats));
+            }
+            if (previewStatsIntervalMs > 0) {
+                previewStatsHandler.postDelayed(this, previewStatsIntervalMs);
+            }
+        }
+    };
 
     // keep track of previously specified orientation to support locking orientation:
     private int previousOrientationRequest = -1;
@@ -52,8 +104,85 @@ public class CameraPreview extends Plugin implements CameraXActivity.CameraXActi
     private CameraXActivity fragment;
     private int containerViewId = 20;
 
+    @Override
+    public void load() {
+        super.load();
+        if (getConfig().getBoolean("prewarmOnLoad", false)) {
+            CameraXPrewarm.prewarm(getContext(), "back", null);
+        }
+        if (getConfig().getBoolean("tracing", false)) {
+            Tracer.enable(Tracer.DEFAULT_CAPACITY, new AndroidTraceBackend());
+        }
+        int maxMb = getConfig().getInt("storageMaxMb", (int) (CaptureStorageManager.DEFAULT_MAX_BYTES / (1024 * 1024)));
+        int maxAgeHours = getConfig().getInt("storageMaxAgeHours", (int) (CaptureStorageManager.DEFAULT_MAX_AGE_MS / (60 * 60 * 1000)));
+        captureStorage = new CaptureStorageManager(getContext().getCacheDir(), maxMb * 1024L * 1024, maxAgeHours * 60L * 60 * 1000);
+        // Files left by earlier runs are indexed and trimmed in the background
+        captureStorage.sweep();
+    }
+
+    @PluginMethod
+    public void getStorageStats(PluginCall call) {
+        call.resolve(toJSObject(captureStorage.getStats()));
+    }
+
+    @PluginMethod
+    public void setTracing(PluginCall call) {
+        boolean enabled = call.getBoolean("enabled", true);
+        int capacity = call.getInt("capacity", Tracer.DEFAULT_CAPACITY);
+        if (capacity < 1) {
+            call.reject("capacity must be at least 1");
+            return;
+        }
+        if (enabled) {
+            Tracer.enable(capacity, new AndroidTraceBackend());
+        } else {
+            Tracer.disable();
+        }
+        call.resolve();
+    }
+
+    @PluginMethod
+    public void getTraces(PluginCall call) {
+        JSONArray spans = new JSONArray();
+        for (Map<String, Object> span : Tracer.snapshot()) {
+            spans.put(toJSObject(span));
+        }
+        JSObject result = new JSObject();
+        result.put("enabled", Tracer.isEnabled());
+        result.put("capacity", Tracer.getCapacity());
+        result.put("dropped", Tracer.getDropped());
+        result.put("spans", spans);
+        if (call.getBoolean("clear", false)) {
+            Tracer.clear();
+        }
+        call.resolve(result);
+    }
+
+    @PluginMethod
+    public void prewarm(final PluginCall call) {
+        final String position = toCameraPosition(call.getString("position"));
+        CameraXPrewarm.prewarm(
+            getContext(),
+            position,
+            new CameraXPrewarm.Callback() {
+                @Override
+                public void onPrewarmed(long durationMs) {
+                    JSObject result = new JSObject();
+                    result.put("durationMs", durationMs);
+                    call.resolve(result);
+                }
+
+                @Override
+                public void onPrewarmError(String error) {
+                    call.reject(error);
+                }
+            }
+        );
+    }
+
     @PluginMethod
     public void start(PluginCall call) {
+        startSpan = Tracer.beginAsync("plugin.start");
         if (PermissionState.GRANTED.equals(getPermissionState(CAMERA_PERMISSION_ALIAS))) {
             startCamera(call);
         } else {
@@ -62,18 +191,23 @@ public class CameraPreview extends Plugin implements CameraXActivity.CameraXActi
     }
 
     @PluginMethod
-    public void flip(PluginCall call) {
-        try {
-            boolean ok = fragment.toggleFrontBack();
-            if (!ok) {
-                // Fallback to legacy toggle if needed
-                fragment.switchCamera();
-            }
-            call.resolve();
-        } catch (Exception e) {
-            Logger.debug(getLogTag(), "Camera flip exception: " + e);
-            call.reject("failed to flip camera");
+    public void flip(final PluginCall call) {
+        if (fragment == null) {
+            call.reject("Camera not started");
+            return;
         }
+        final Tracer.Span span = Tracer.beginAsync("plugin.flip");
+        final CameraXActivity activity = fragment;
+        // Resolves once the other camera streams; taps made meanwhile are coalesced
+        activity.toggleFrontBack().addListener(result -> {
+            span.arg("lens", result.getTarget() != null ? result.getTarget().getJsName() : null).end();
+            if (result.isSuccess()) {
+                call.resolve();
+            } else {
+                Logger.debug(getLogTag(), "Camera flip failed: " + result.getError());
+                call.reject(result.getError() != null ? result.getError() : "failed to flip camera");
+            }
+        });
     }
 
     @PluginMethod
@@ -96,12 +230,26 @@ public class CameraPreview extends Plugin implements CameraXActivity.CameraXActi
         }
         bridge.saveCall(call);
         captureCallbackId = call.getCallbackId();
+        captureSpan = Tracer.beginAsync("plugin.capture");
 
         Integer quality = call.getInt("quality", 85);
         // Image Dimensions - Optional
         Integer width = call.getInt("width", 0);
         Integer height = call.getInt("height", 0);
-        fragment.takePicture(width, height, quality);
+        // null keeps the defaults, which follow disableExifHeaderStripping and storeToFile
+        JpegOrientation.Mode orientationMode = JpegOrientation.Mode.fromString(call.getString("orientationStrategy"), null);
+        CaptureResultMode resultMode = CaptureResultMode.fromString(call.getString("resultType"), null);
+        captureChunkBytes = call.getInt("chunkSize", Base64Chunker.DEFAULT_CHUNK_BYTES);
+        captureSpan.arg("resultType", call.getString("resultType"));
+        fragment.takePicture(
+            new CaptureOptions()
+                .setSize(width, height)
+                .setQuality(quality)
+                .setOrientationMode(orientationMode)
+                .setResultMode(resultMode)
+                .setOutputUri(call.getString("outputUri"))
+                .setChunkBytes(captureChunkBytes)
+        );
     }
 
     @PluginMethod
@@ -112,13 +260,216 @@ public class CameraPreview extends Plugin implements CameraXActivity.CameraXActi
         }
         bridge.saveCall(call);
         snapshotCallbackId = call.getCallbackId();
+        snapshotRequestedAt = SystemClock.elapsedRealtime();
+        snapshotSpan = Tracer.beginAsync("plugin.captureSample");
 
         Integer quality = call.getInt("quality", 85);
         fragment.takeSnapshot(quality);
     }
 
+    @PluginMethod
+    public void captureBurst(final PluginCall call) {
+        if (this.hasCamera(call) == false) {
+            call.reject("Camera is not running");
+            return;
+        }
+        int count = call.getInt("count", 3);
+        if (count < 1 || count > MAX_BURST_COUNT) {
+            call.reject("count must be between 1 and " + MAX_BURST_COUNT);
+            return;
+        }
+        CaptureResultMode resultMode = CaptureResultMode.fromString(call.getString("resultType"), CaptureResultMode.BASE64);
+        CaptureOptions options = new CaptureOptions()
+            .setSize(call.getInt("width", 0), call.getInt("height", 0))
+            .setQuality(call.getInt("quality", 85))
+            .setOrientationMode(JpegOrientation.Mode.fromString(call.getString("orientationStrategy"), null))
+            .setResultMode(resultMode == CaptureResultMode.URI ? CaptureResultMode.URI : CaptureResultMode.BASE64);
+        final String burstId = call.getCallbackId();
+        final String valueKey = resultMode == CaptureResultMode.URI ? "path" : "value";
+        bridge.saveCall(call);
+        boolean started = fragment.captureBurst(
+            options,
+            count,
+            call.getInt("intervalMs", 0),
+            new CameraXActivity.BurstListener() {
+                @Override
+                public void onBurstFrame(int index, String value, long latencyMs) {
+                    JSObject frame = new JSObject();
+                    frame.put("burstId", burstId);
+                    frame.put("index", index);
+                    frame.put(valueKey, value);
+                    frame.put("latencyMs", latencyMs);
+                    notifyListeners("burstFrame", frame);
+                }
+
+                @Override
+                public void onBurstFrameError(int index, String message) {
+                    JSObject error = new JSObject();
+                    error.put("burstId", burstId);
+                    error.put("index", index);
+                    error.put("message", message);
+                    notifyListeners("burstFrameError", error);
+                }
+
+                @Override
+                public void onBurstComplete(BurstStats stats) {
+                    PluginCall pluginCall = bridge.getSavedCall(burstId);
+                    if (pluginCall == null) return;
+                    JSObject result = toJSObject(stats.toMap());
+                    result.put("burstId", burstId);
+                    pluginCall.resolve(result);
+                    bridge.releaseCall(pluginCall);
+                }
+            }
+        );
+        if (!started) {
+            bridge.releaseCall(call);
+            call.reject("Failed to start burst, is another burst running?");
+        }
+    }
+
+    @PluginMethod
+    public void startFrameAnalysis(PluginCall call) {
+        if (fragment == null) {
+            call.reject("Camera not started");
+            return;
+        }
+        final String processorName = call.getString("processor", LuminanceFrameProcessor.NAME);
+        FrameProcessor processor = FrameProcessors.create(processorName);
+        if (processor == null) {
+            call.reject("Unknown frame processor: " + processorName + ", available: " + FrameProcessors.names());
+            return;
+        }
+        double maxResultsPerSecond = call.getDouble("maxResultsPerSecond", 10.0);
+        boolean started = fragment.startFrameAnalysis(
+            processor,
+            result -> {
+                JSObject data = toJSObject(result);
+                data.put("processor", processorName);
+                notifyListeners("frameResult", data);
+            },
+            maxResultsPerSecond,
+            call.getInt("width", 0),
+            call.getInt("height", 0)
+        );
+        if (started) {
+            call.resolve();
+        } else {
+            call.reject("Failed to start frame analysis");
+        }
+    }
+
+    @PluginMethod
+    public void stopFrameAnalysis(PluginCall call) {
+        AnalysisMetrics metrics = fragment != null ? fragment.stopFrameAnalysis() : null;
+        call.resolve(metrics != null ? toJSObject(metrics.toMap()) : new JSObject());
+    }
+
+    @PluginMethod
+    public void getFrameAnalysisMetrics(PluginCall call) {
+        AnalysisMetrics metrics = fragment != null ? fragment.getFrameAnalysisMetrics() : null;
+        if (metrics == null) {
+            call.reject("Frame analysis is not running");
+            return;
+        }
+        call.resolve(toJSObject(metrics.toMap()));
+    }
+
+    @PluginMethod
+    public void getPreviewStats(PluginCall call) {
+        Map<String, Object> stats = fragment != null ? fragment.getPreviewStats() : null;
+        if (stats == null) {
+            call.reject("Camera not started");
+            return;
+        }
+        call.resolve(toJSObject(stats));
+    }
+
+    @PluginMethod
+    public void startPreviewStats(PluginCall call) {
+        int intervalMs = call.getInt("intervalMs", 1000);
+        if (intervalMs < 100) {
+            call.reject("intervalMs must be at least 100");
+            return;
+        }
+        previewStatsHandler.removeCallbacks(previewStatsTick);
+        previewStatsIntervalMs = intervalMs;
+        previewStatsHandler.postDelayed(previewStatsTick, intervalMs);
+        call.resolve();
+    }
+
+    @PluginMethod
+    public void stopPreviewStats(PluginCall call) {
+        stopPreviewStatsTicks();
+        call.resolve();
+    }
+
+    private void stopPreviewStatsTicks() {
+        previewStatsIntervalMs = 0;
+        previewStatsHandler.removeCallbacks(previewStatsTick);
+    }
+
+    @PluginMethod
+    public void getImageProcessingMetrics(PluginCall call) {
+        Map<String, Object> metrics = fragment != null ? fragment.getImageProcessingMetrics() : null;
+        if (metrics == null) {
+            call.reject("Camera not started");
+            return;
+        }
+        call.resolve(toJSObject(metrics));
+    }
+
+    @PluginMethod
+    public void startAutoCapture(PluginCall call) {
+        if (fragment == null) {
+            call.reject("Camera not started");
+            return;
+        }
+        MotionStabilityDetector.Config defaults = new MotionStabilityDetector.Config();
+        MotionStabilityDetector.Config config = new MotionStabilityDetector.Config()
+            .setStableThreshold(call.getDouble("stableThreshold", defaults.getStableThreshold()))
+            .setMotionThreshold(call.getDouble("motionThreshold", defaults.getMotionThreshold()))
+            .setStableFrames(call.getInt("stableFrames", defaults.getStableFrames()))
+            .setCooldownMs(call.getInt("cooldownMs", (int) defaults.getCooldownMs()))
+            .setRequireMotionToRearm(call.getBoolean("requireMotionToRearm", defaults.isRequireMotionToRearm()));
+        CaptureOptions captureOptions = new CaptureOptions()
+            .setSize(call.getInt("width", 0), call.getInt("height", 0))
+            .setQuality(call.getInt("quality", 85))
+            .setResultMode(CaptureResultMode.BASE64);
+        boolean started = fragment.startAutoCapture(
+            config,
+            captureOptions,
+            status -> notifyListeners("autoCaptureStatus", toJSObject(status)),
+            call.getDouble("maxStatusPerSecond", 4.0)
+        );
+        if (started) {
+            call.resolve();
+        } else {
+            call.reject("Failed to start auto capture");
+        }
+    }
+
+    @PluginMethod
+    public void stopAutoCapture(PluginCall call) {
+        if (fragment != null) {
+            fragment.stopFrameAnalysis();
+        }
+        call.resolve();
+    }
+
+    private static JSObject toJSObject(Map<String, Object> map) {
+        JSObject object = new JSObject();
+        for (Map.Entry<String, Object> entry : map.entrySet()) {
+            object.put(entry.getKey(), JSONObject.wrap(entry.getValue()));
+        }
+        return object;
+    }
+
     @PluginMethod
     public void stop(final PluginCall call) {
+        final Tracer.Span span = Tracer.beginAsync("plugin.stop");
+        // The camera they report on is going away
+        stopPreviewStatsTicks();
         bridge
             .getActivity()
             .runOnUiThread(
@@ -143,6 +494,7 @@ public class CameraPreview extends Plugin implements CameraXActivity.CameraXActi
                         } else {
                             call.reject("camera already stopped");
                         }
+                        span.end();
                     }
                 }
             );
@@ -173,24 +525,8 @@ public class CameraPreview extends Plugin implements CameraXActivity.CameraXActi
         }
 
         Log.d(getLogTag(), "switchToWideAngle called");
-        try {
-            // Get supported cameras first to debug
-            List<String> supportedCameras = fragment.getSupportedCameras();
-            Log.d(getLogTag(), "Supported cameras: " + supportedCameras.toString());
-            
-            // Switch to ultra-wide camera specifically
-            boolean success = fragment.switchToUltraWideCamera();
-            if (success) {
-                Log.d(getLogTag(), "Successfully switched to ultra-wide camera");
-                call.resolve();
-            } else {
-                Log.d(getLogTag(), "Failed to switch to ultra-wide camera");
-                call.reject("Failed to switch to ultra-wide camera");
-            }
-        } catch (Exception e) {
-            Log.e(getLogTag(), "Error switching to wide angle: " + e.getMessage(), e);
-            call.reject("Error switching to wide angle: " + e.getMessage());
-        }
+        // Switch to ultra-wide camera specifically
+        resolveLensSwitch(call, fragment.switchToUltraWideCamera(), "plugin.switchToWideAngle", "Failed to switch to ultra-wide camera");
     }
 
     @PluginMethod
@@ -199,12 +535,45 @@ public class CameraPreview extends Plugin implements CameraXActivity.CameraXActi
             call.reject("Camera not started");
             return;
         }
-        try {
-            boolean success = fragment.switchToMainWideCamera();
-            if (success) call.resolve(); else call.reject("Failed to switch to main wide camera");
-        } catch (Exception e) {
-            call.reject("Error switching to main wide camera: " + e.getMessage());
+        resolveLensSwitch(call, fragment.switchToMainWideCamera(), "plugin.switchToMainWide", "Failed to switch to main wide camera");
+    }
+
+    @PluginMethod
+    public void switchToTelephoto(PluginCall call) {
+        if (fragment == null) {
+            call.reject("Camera not started");
+            return;
+        }
+        resolveLensSwitch(call, fragment.switchToTelephotoCamera(), "plugin.switchToTelephoto", "Failed to switch to telephoto camera");
+    }
+
+    /** Settle call once the switch completes, with the lens the camera ended up on */
+    private void resolveLensSwitch(
+        final PluginCall call,
+        LensSwitchCoordinator.SwitchFuture future,
+        String spanName,
+        final String failureMessage
+    ) {
+        final Tracer.Span span = Tracer.beginAsync(spanName);
+        future.addListener(result -> {
+            span.arg("path", result.getPath()).end();
+            resolveLensSwitch(call, result, failureMessage);
+        });
+    }
+
+    private void resolveLensSwitch(PluginCall call, LensSwitchResult result, String failureMessage) {
+        Log.d(getLogTag(), "Lens switch: " + result);
+        if (result == null || !result.isSuccess()) {
+            call.reject(result != null && result.getError() != null ? failureMessage + ": " + result.getError() : failureMessage);
+            return;
         }
+        JSObject ret = new JSObject();
+        ret.put("lens", result.getTarget().getJsName());
+        ret.put("path", result.getPath());
+        ret.put("durationMs", result.getDurationMs());
+        ret.put("zoomRatio", result.getZoomRatio());
+        ret.put("blackFrameMs", result.getBlackFrameMs());
+        call.resolve(ret);
     }
 
     @PluginMethod
@@ -249,15 +618,25 @@ public class CameraPreview extends Plugin implements CameraXActivity.CameraXActi
             call.reject("Camera is not running");
             return;
         }
-        final String filename = "videoTmp";
-        VIDEO_FILE_PATH = getActivity().getCacheDir().toString() + "/";
+        final File outputFile = captureStorage.newFile(CaptureStorageManager.VIDEO_PREFIX + "_", CaptureStorageManager.VIDEO_EXTENSION);
 
         final String position = call.getString("position", "front");
         final Integer width = call.getInt("width", 0);
         final Integer height = call.getInt("height", 0);
         final Boolean withFlash = call.getBoolean("withFlash", false);
         final Integer maxDuration = call.getInt("maxDuration", 0);
-        // final Integer quality = call.getInt("quality", 0);
+        final RecordingProfile profile = new RecordingProfile(
+            width,
+            height,
+            call.getInt("frameRate", 0),
+            call.getInt("videoBitrate", 0),
+            maxDuration
+        );
+        final long segmentDurationMs = call.getInt("segmentDurationMs", 0);
+        final long segmentBytes = call.getInt("segmentBytes", 0);
+        final long preRollMs = call.getInt("preRollMs", 0);
+        final long preRollMaxBytes = call.getInt("preRollMaxBytes", (int) PreRollRecorder.DEFAULT_MAX_BYTES);
+        final double maxStatusPerSecond = call.getDouble("maxStatusPerSecond", RecordingStatusTracker.DEFAULT_STATUS_PER_SECOND);
         bridge.saveCall(call);
         recordCallbackId = call.getCallbackId();
 
@@ -267,8 +646,33 @@ public class CameraPreview extends Plugin implements CameraXActivity.CameraXActi
                 new Runnable() {
                     @Override
                     public void run() {
-                        // fragment.startRecord(getFilePath(filename), position, width, height, quality, withFlash);
-                        fragment.startRecord(getFilePath(filename), position, width, height, 70, withFlash, maxDuration);
+                        fragment.setRecordingStatusListener(
+                            status -> notifyListeners("recordingStatus", toJSObject(status)),
+                            maxStatusPerSecond
+                        );
+                        if (preRollMs > 0) {
+                            recordingFile = outputFile;
+                            fragment.startPreRollRecord(outputFile, preRollMs, preRollMaxBytes, profile, withFlash);
+                        } else if (segmentDurationMs > 0 || segmentBytes > 0) {
+                            RecordingSegmenter segmenter = new RecordingSegmenter(
+                                captureStorage.getDirectory(),
+                                CaptureStorageManager.VIDEO_PREFIX,
+                                segmentDurationMs,
+                                segmentBytes
+                            );
+                            fragment.startSegmentedRecord(
+                                segmenter,
+                                profile,
+                                withFlash,
+                                segment -> {
+                                    captureStorage.commit(segment.getFile());
+                                    notifyListeners("segmentReady", toJSObject(segment.toMap()));
+                                }
+                            );
+                        } else {
+                            recordingFile = outputFile;
+                            fragment.startRecord(outputFile.getAbsolutePath(), profile, withFlash);
+                        }
                     }
                 }
             );
@@ -276,6 +680,34 @@ public class CameraPreview extends Plugin implements CameraXActivity.CameraXActi
         call.resolve();
     }
 
+    @PluginMethod
+    public void pauseRecordVideo(PluginCall call) {
+        if (fragment == null || !fragment.pauseRecord()) {
+            call.reject("No recording running");
+            return;
+        }
+        call.resolve();
+    }
+
+    @PluginMethod
+    public void resumeRecordVideo(PluginCall call) {
+        if (fragment == null || !fragment.resumeRecord()) {
+            call.reject("No recording running");
+            return;
+        }
+        call.resolve();
+    }
+
+    @PluginMethod
+    public void triggerPreRoll(PluginCall call) {
+        Map<String, Object> buffered = fragment != null ? fragment.triggerPreRoll() : null;
+        if (buffered == null) {
+            call.reject("No pre-roll recording running");
+            return;
+        }
+        call.resolve(toJSObject(buffered));
+    }
+
     @PluginMethod
     public void stopRecordVideo(PluginCall call) {
         if (this.hasCamera(call) == false) {
@@ -287,6 +719,7 @@ public class CameraPreview extends Plugin implements CameraXActivity.CameraXActi
 
         bridge.saveCall(call);
         recordCallbackId = call.getCallbackId();
+        recordSpan = Tracer.beginAsync("plugin.stopRecordVideo");
 
         // bridge.getActivity().runOnUiThread(new Runnable() {
         //     @Override
@@ -313,18 +746,20 @@ public class CameraPreview extends Plugin implements CameraXActivity.CameraXActi
             startCamera(call);
         } else {
             Logger.debug(getLogTag(), "User denied camera permission: " + getPermissionState(CAMERA_PERMISSION_ALIAS).toString());
+            startSpan.arg("error", "permission").end();
             call.reject("Permission failed: user denied access to camera.");
         }
     }
 
-    private void startCamera(final PluginCall call) {
-        String position = call.getString("position");
-
+    private static String toCameraPosition(String position) {
         if (position == null || position.isEmpty() || "rear".equals(position)) {
-            position = "back";
-        } else {
-            position = "front";
+            return "back";
         }
+        return "front";
+    }
+
+    private void startCamera(final PluginCall call) {
+        String position = toCameraPosition(call.getString("position"));
 
         final Integer x = call.getInt("x", 0);
         final Integer y = call.getInt("y", 0);
@@ -337,11 +772,14 @@ public class CameraPreview extends Plugin implements CameraXActivity.CameraXActi
         final Boolean enableZoom = call.getBoolean("enableZoom", false);
         final Boolean disableExifHeaderStripping = call.getBoolean("disableExifHeaderStripping", true);
         final Boolean lockOrientation = call.getBoolean("lockAndroidOrientation", false);
+        final String lensSwitchMode = call.getString("lensSwitchMode", "auto");
         previousOrientationRequest = getBridge().getActivity().getRequestedOrientation();
 
         fragment = new CameraXActivity();
         fragment.setEventListener(this);
+        fragment.setCaptureStorage(captureStorage);
         fragment.setConfiguration(false, false, true, disableExifHeaderStripping, storeToFile, toBack, enableOpacity, enableZoom, position);
+        fragment.setLensSwitchMode(lensSwitchMode);
 
         bridge
             .getActivity()
@@ -349,6 +787,7 @@ public class CameraPreview extends Plugin implements CameraXActivity.CameraXActi
                 new Runnable() {
                     @Override
                     public void run() {
+                        Tracer.Span uiSpan = Tracer.begin("plugin.start.layout");
                         DisplayMetrics metrics = getBridge().getActivity().getResources().getDisplayMetrics();
                         // lock orientation if specified in options:
                         if (lockOrientation) {
@@ -420,8 +859,10 @@ public class CameraPreview extends Plugin implements CameraXActivity.CameraXActi
                             bridge.saveCall(call);
                             cameraStartCallbackId = call.getCallbackId();
                         } else {
+                            startSpan.arg("error", "already started").end();
                             call.reject("camera already started");
                         }
+                        uiSpan.end();
                     }
                 }
             );
@@ -432,8 +873,15 @@ public class CameraPreview extends Plugin implements CameraXActivity.CameraXActi
         super.handleOnResume();
     }
 
+    @Override
+    protected void handleOnDestroy() {
+        stopPreviewStatsTicks();
+        super.handleOnDestroy();
+    }
+
     @Override
     public void onPictureTaken(String originalPicture) {
+        captureSpan.end();
         JSObject jsObject = new JSObject();
         jsObject.put("value", originalPicture);
         bridge.getSavedCall(captureCallbackId).resolve(jsObject);
@@ -441,18 +889,76 @@ public class CameraPreview extends Plugin implements CameraXActivity.CameraXActi
 
     @Override
     public void onPictureTakenError(String message) {
+        captureSpan.arg("error", message).end();
         bridge.getSavedCall(captureCallbackId).reject(message);
     }
 
+    @Override
+    public void onPictureSaved(String path, String uri) {
+        captureSpan.end();
+        JSObject jsObject = new JSObject();
+        jsObject.put("value", path);
+        jsObject.put("outputUri", uri);
+        bridge.getSavedCall(captureCallbackId).resolve(jsObject);
+    }
+
+    @Override
+    public void onPictureData(byte[] jpeg) {
+        final PluginCall pluginCall = bridge.getSavedCall(captureCallbackId);
+        if (pluginCall == null) return;
+        // Segments are sent before the call resolves, so JS has the whole payload once it does
+        final String captureId = pluginCall.getCallbackId();
+        Base64Chunker chunker = new Base64Chunker(captureChunkBytes);
+        int chunks = chunker.encode(
+            jpeg,
+            0,
+            jpeg.length,
+            new Base64Chunker.Sink() {
+                @Override
+                public void onChunk(int index, int count, String base64) {
+                    JSObject chunk = new JSObject();
+                    chunk.put("captureId", captureId);
+                    chunk.put("index", index);
+                    chunk.put("count", count);
+                    chunk.put("data", base64);
+                    notifyListeners("captureChunk", chunk);
+                }
+            }
+        );
+        JSObject jsObject = new JSObject();
+        jsObject.put("captureId", captureId);
+        jsObject.put("chunks", chunks);
+        jsObject.put("size", jpeg.length);
+        pluginCall.resolve(jsObject);
+        captureSpan.arg("chunks", chunks).end();
+    }
+
+    @Override
+    public void onAutoCapture(String originalPicture) {
+        JSObject jsObject = new JSObject();
+        jsObject.put("value", originalPicture);
+        notifyListeners("autoCapture", jsObject);
+    }
+
+    @Override
+    public void onAutoCaptureError(String message) {
+        JSObject jsObject = new JSObject();
+        jsObject.put("message", message);
+        notifyListeners("autoCaptureError", jsObject);
+    }
+
     @Override
     public void onSnapshotTaken(String originalPicture) {
+        snapshotSpan.end();
         JSObject jsObject = new JSObject();
         jsObject.put("value", originalPicture);
+        jsObject.put("latencyMs", SystemClock.elapsedRealtime() - snapshotRequestedAt);
         bridge.getSavedCall(snapshotCallbackId).resolve(jsObject);
     }
 
     @Override
     public void onSnapshotTakenError(String message) {
+        snapshotSpan.arg("error", message).end();
         bridge.getSavedCall(snapshotCallbackId).reject(message);
     }
 
@@ -466,10 +972,23 @@ public class CameraPreview extends Plugin implements CameraXActivity.CameraXActi
     public void onBackButton() {}
 
     @Override
-    public void onCameraStarted() {
+    public void onCameraStarted(CameraStartTimings timings) {
+        startSpan.end();
         PluginCall pluginCall = bridge.getSavedCall(cameraStartCallbackId);
         if (pluginCall != null) {
-            pluginCall.resolve();
+            JSObject result = new JSObject();
+            if (timings != null) {
+                JSObject phases = new JSObject();
+                phases.put("providerMs", timings.getProviderMs());
+                phases.put("buildMs", timings.getBuildMs());
+                phases.put("bindMs", timings.getBindMs());
+                phases.put("firstFrameMs", timings.getFirstFrameMs());
+                phases.put("totalMs", timings.getTotalMs());
+                phases.put("prewarmed", timings.isPrewarmed());
+                phases.put("prewarmSavedMs", timings.getPrewarmSavedMs());
+                result.put("timings", phases);
+            }
+            pluginCall.resolve(result);
             bridge.releaseCall(pluginCall);
         } else {
             Logger.debug(getLogTag(), "onCameraStarted invoked without a pending start call");
@@ -481,11 +1000,15 @@ public class CameraPreview extends Plugin implements CameraXActivity.CameraXActi
 
     @Override
     public void onStartRecordVideoError(String message) {
+        discardRecordingFile();
         bridge.getSavedCall(recordCallbackId).reject(message);
     }
 
     @Override
     public void onStopRecordVideo(String file) {
+        recordingFile = null;
+        captureStorage.commit(new File(file));
+        recordSpan.end();
         PluginCall pluginCall = bridge.getSavedCall(recordCallbackId);
         JSObject jsObject = new JSObject();
         jsObject.put("videoFilePath", file);
@@ -494,9 +1017,17 @@ public class CameraPreview extends Plugin implements CameraXActivity.CameraXActi
 
     @Override
     public void onStopRecordVideoError(String error) {
+        discardRecordingFile();
+        recordSpan.arg("error", error).end();
         bridge.getSavedCall(recordCallbackId).reject(error);
     }
 
+    private void discardRecordingFile() {
+        File failed = recordingFile;
+        recordingFile = null;
+        if (failed != null) captureStorage.discard(failed);
+    }
+
     private boolean hasView(PluginCall call) {
         if (fragment == null) {
             return false;
@@ -510,20 +1041,6 @@ public class CameraPreview extends Plugin implements CameraXActivity.CameraXActi
         return this.hasView(call);
     }
 
-    private String getFilePath(String filename) {
-        String fileName = filename;
-
-        int i = 1;
-
-        while (new File(VIDEO_FILE_PATH + fileName + VIDEO_FILE_EXTENSION).exists()) {
-            // Add number suffix if file exists
-            fileName = filename + '_' + i;
-            i++;
-        }
-
-        return VIDEO_FILE_PATH + fileName + VIDEO_FILE_EXTENSION;
-    }
-
     private void setupBroadcast() {
         /** When touch event is triggered, relay it to camera view if needed so it can support pinch zoom */
 
@@ -0,0 +1,30 @@
+package com.ahm.capacitor.camera.preview.camerax;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Read-only view of a YUV_420_888 analysis frame.
+ *
+ * Only valid while FrameProcessor.process runs; the underlying image is closed right after.
+ * Keeps frame processors free of android.* so they can be tested with synthetic planes.
+ */
+public interface AnalysisFrame {
+    int PLANE_Y = 0;
+    int PLANE_U = 1;
+    int PLANE_V = 2;
+
+    int getWidth();
+
+    int getHeight();
+
+    /** Clockwise rotation that makes the frame upright on screen */
+    int getRotationDegrees();
+
+    long getTimestampNanos();
+
+    ByteBuffer getPlaneBuffer(int plane);
+
+    int getRowStride(int plane);
+
+    int getPixelStride(int plane);
+}
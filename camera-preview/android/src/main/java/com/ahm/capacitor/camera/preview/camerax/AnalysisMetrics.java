@@ -0,0 +1,73 @@
+package com.ahm.capacitor.camera.preview.camerax;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Snapshot of an analysis stream's counters.
+ */
+public final class AnalysisMetrics {
+    private final long framesReceived;
+    private final long framesProcessed;
+    private final long framesDropped;
+    private final long processingErrors;
+    private final long resultsEmitted;
+    private final long resultsCoalesced;
+    private final double avgProcessingMs;
+    private final double maxProcessingMs;
+    private final int queueDepth;
+    private final int maxQueueDepth;
+
+    AnalysisMetrics(
+        long framesReceived,
+        long framesProcessed,
+        long framesDropped,
+        long processingErrors,
+        long resultsEmitted,
+        long resultsCoalesced,
+        double avgProcessingMs,
+        double maxProcessingMs,
+        int queueDepth,
+        int maxQueueDepth
+    ) {
+        this.framesReceived = framesReceived;
+        this.framesProcessed = framesProcessed;
+        this.framesDropped = framesDropped;
+        this.processingErrors = processingErrors;
+        this.resultsEmitted = resultsEmitted;
+        this.resultsCoalesced = resultsCoalesced;
+        this.avgProcessingMs = avgProcessingMs;
+        this.maxProcessingMs = maxProcessingMs;
+        this.queueDepth = queueDepth;
+        this.maxQueueDepth = maxQueueDepth;
+    }
+
+    public long getFramesReceived() { return framesReceived; }
+    public long getFramesProcessed() { return framesProcessed; }
+    /** Frames the camera produced but keep-only-latest discarded, estimated from timestamp gaps */
+    public long getFramesDropped() { return framesDropped; }
+    public long getProcessingErrors() { return processingErrors; }
+    public long getResultsEmitted() { return resultsEmitted; }
+    /** Results replaced by a newer one before the rate limit let them through */
+    public long getResultsCoalesced() { return resultsCoalesced; }
+    public double getAvgProcessingMs() { return avgProcessingMs; }
+    public double getMaxProcessingMs() { return maxProcessingMs; }
+    /** Frames being processed plus results waiting for the rate limit */
+    public int getQueueDepth() { return queueDepth; }
+    public int getMaxQueueDepth() { return maxQueueDepth; }
+
+    public Map<String, Object> toMap() {
+        Map<String, Object> map = new HashMap<>();
+        map.put("framesReceived", framesReceived);
+        map.put("framesProcessed", framesProcessed);
+        map.put("framesDropped", framesDropped);
+        map.put("processingErrors", processingErrors);
+        map.put("resultsEmitted", resultsEmitted);
+        map.put("resultsCoalesced", resultsCoalesced);
+        map.put("avgProcessingMs", avgProcessingMs);
+        map.put("maxProcessingMs", maxProcessingMs);
+        map.put("queueDepth", queueDepth);
+        map.put("maxQueueDepth", maxQueueDepth);
+        return map;
+    }
+}
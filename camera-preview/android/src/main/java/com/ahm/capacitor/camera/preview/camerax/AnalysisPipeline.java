@@ -0,0 +1,161 @@
+package com.ahm.capacitor.camera.preview.camerax;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Runs a FrameProcessor over the analysis stream and rate-limits its results.
+ *
+ * Frames arrive one at a time from an ImageAnalysis analyzer using keep-only-latest, so the camera
+ * never waits on a slow processor; frames it skips are estimated from gaps in the timestamps.
+ * Results faster than the rate limit are coalesced: only the newest one is kept and sent once the
+ * interval has passed, so JS always sees fresh data and is never flooded.
+ */
+public final class AnalysisPipeline {
+
+    public interface ResultSink {
+        /** Called on the analysis thread */
+        void onResult(Map<String, Object> result);
+    }
+
+    public interface Clock {
+        long nanoTime();
+    }
+
+    private static final Clock SYSTEM_CLOCK = System::nanoTime;
+
+    /** Gaps shorter than this are not used to learn the frame interval */
+    private static final long MIN_FRAME_INTERVAL_NANOS = 1_000_000L;
+
+    private final FrameProcessor processor;
+    private final ResultSink sink;
+    private final long minEmitIntervalNanos;
+    private final Clock clock;
+
+    private long framesReceived;
+    private long framesProcessed;
+    private long framesDropped;
+    private long processingErrors;
+    private long resultsEmitted;
+    private long resultsCoalesced;
+    private long totalProcessingNanos;
+    private long maxProcessingNanos;
+    private int inFlight;
+    private int maxQueueDepth;
+
+    private long lastFrameTimestamp = -1;
+    private long frameIntervalNanos = Long.MAX_VALUE;
+    private long lastEmitNanos;
+    private boolean emitted;
+    private Map<String, Object> pendingResult;
+
+    /**
+     * @param maxResultsPerSecond results sent to the sink per second, 0 for no limit
+     */
+    public AnalysisPipeline(FrameProcessor processor, ResultSink sink, double maxResultsPerSecond) {
+        this(processor, sink, maxResultsPerSecond, SYSTEM_CLOCK);
+    }
+
+    AnalysisPipeline(FrameProcessor processor, ResultSink sink, double maxResultsPerSecond, Clock clock) {
+        if (processor == null || sink == null) throw new IllegalArgumentException("processor and sink are required");
+        this.processor = processor;
+        this.sink = sink;
+        this.minEmitIntervalNanos = maxResultsPerSecond > 0 ? (long) (1_000_000_000L / maxResultsPerSecond) : 0;
+        this.clock = clock;
+    }
+
+    /**
+     * Process one frame on the calling thread. The caller closes the frame afterwards.
+     */
+    public void onFrame(AnalysisFrame frame) {
+        long timestamp = frame.getTimestampNanos();
+        synchronized (this) {
+            framesReceived++;
+            inFlight++;
+            maxQueueDepth = Math.max(maxQueueDepth, queueDepth());
+            countDroppedFrames(timestamp);
+        }
+
+        Map<String, Object> result = null;
+        boolean failed = false;
+        long start = clock.nanoTime();
+        try {
+            result = processor.process(frame);
+        } catch (RuntimeException e) {
+            failed = true;
+        }
+        long end = clock.nanoTime();
+
+        Map<String, Object> toEmit = null;
+        synchronized (this) {
+            inFlight--;
+            long elapsed = end - start;
+            if (failed) {
+                processingErrors++;
+            } else {
+                framesProcessed++;
+                totalProcessingNanos += elapsed;
+                maxProcessingNanos = Math.max(maxProcessingNanos, elapsed);
+            }
+            if (result != null) {
+                if (pendingResult != null) resultsCoalesced++;
+                pendingResult = withTimestamp(result, timestamp);
+                maxQueueDepth = Math.max(maxQueueDepth, queueDepth());
+            }
+            if (pendingResult != null && (!emitted || end - lastEmitNanos >= minEmitIntervalNanos)) {
+                toEmit = pendingResult;
+                pendingResult = null;
+                lastEmitNanos = end;
+                emitted = true;
+                resultsEmitted++;
+            }
+        }
+        if (toEmit != null) {
+            sink.onResult(toEmit);
+        }
+    }
+
+    public synchronized AnalysisMetrics getMetrics() {
+        double avgMs = framesProcessed == 0 ? 0 : totalProcessingNanos / 1e6 / framesProcessed;
+        return new AnalysisMetrics(
+            framesReceived,
+            framesProcessed,
+            framesDropped,
+            processingErrors,
+            resultsEmitted,
+            resultsCoalesced,
+            avgMs,
+            maxProcessingNanos / 1e6,
+            queueDepth(),
+            maxQueueDepth
+        );
+    }
+
+    private int queueDepth() {
+        return inFlight + (pendingResult != null ? 1 : 0);
+    }
+
+    /**
+     * The shortest gap seen so far approximates the sensor frame interval; longer gaps are counted
+     * as that many frames discarded while the processor was busy.
+     */
+    private void countDroppedFrames(long timestamp) {
+        if (lastFrameTimestamp >= 0) {
+            long gap = timestamp - lastFrameTimestamp;
+            if (gap >= MIN_FRAME_INTERVAL_NANOS) {
+                if (gap < frameIntervalNanos) {
+                    frameIntervalNanos = gap;
+                } else {
+                    framesDropped += Math.max(0, (gap + frameIntervalNanos / 2) / frameIntervalNanos - 1);
+                }
+            }
+        }
+        lastFrameTimestamp = timestamp;
+    }
+
+    private static Map<String, Object> withTimestamp(Map<String, Object> result, long timestamp) {
+        Map<String, Object> copy = new HashMap<>(result);
+        copy.put("timestampNs", timestamp);
+        return copy;
+    }
+}
@@ -0,0 +1,42 @@
+package com.ahm.capacitor.camera.preview.camerax;
+
+import android.os.Build;
+import android.os.Trace;
+
+/**
+ * Mirrors Tracer spans to android.os.Trace so they appear in Perfetto and systrace captures.
+ * Async sections need Android 10; on older versions only the ring records them.
+ */
+public final class AndroidTraceBackend implements Tracer.Backend {
+
+    // Trace section names are limited to 127 characters
+    private static final int MAX_NAME_LENGTH = 127;
+
+    private static String sectionName(String name) {
+        return name.length() <= MAX_NAME_LENGTH ? name : name.substring(0, MAX_NAME_LENGTH);
+    }
+
+    @Override
+    public void beginSection(String name) {
+        Trace.beginSection(sectionName(name));
+    }
+
+    @Override
+    public void endSection() {
+        Trace.endSection();
+    }
+
+    @Override
+    public void beginAsyncSection(String name, int cookie) {
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.Q) {
+            Trace.beginAsyncSection(sectionName(name), cookie);
+        }
+    }
+
+    @Override
+    public void endAsyncSection(String name, int cookie) {
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.Q) {
+            Trace.endAsyncSection(sectionName(name), cookie);
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.ahm.capacitor.camera.preview.camerax;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Fires a capture once the scene has been still for a while.
+ *
+ * Each analysis frame is reduced to a small luma thumbnail and fed to a MotionStabilityDetector.
+ * The per-frame motion figures are returned as results so JS can show the state of the detector.
+ */
+public final class AutoCaptureFrameProcessor implements FrameProcessor {
+
+    public static final int DEFAULT_THUMBNAIL_WIDTH = 64;
+    public static final int DEFAULT_THUMBNAIL_HEIGHT = 48;
+
+    public interface Trigger {
+        /** Called on the analysis thread when the scene has settled */
+        void onSceneStable(long timestampNanos, double difference);
+    }
+
+    private final MotionStabilityDetector detector;
+    private final LumaDownscaler downscaler;
+    private final Trigger trigger;
+
+    public AutoCaptureFrameProcessor(MotionStabilityDetector.Config config, Trigger trigger) {
+        this(config, DEFAULT_THUMBNAIL_WIDTH, DEFAULT_THUMBNAIL_HEIGHT, trigger);
+    }
+
+    public AutoCaptureFrameProcessor(MotionStabilityDetector.Config config, int thumbnailWidth, int thumbnailHeight, Trigger trigger) {
+        this.detector = new MotionStabilityDetector(config);
+        this.downscaler = new LumaDownscaler(thumbnailWidth, thumbnailHeight);
+        this.trigger = trigger;
+    }
+
+    @Override
+    public Map<String, Object> process(AnalysisFrame frame) {
+        byte[] luma = downscaler.downscale(frame);
+        long timestamp = frame.getTimestampNanos();
+        boolean stable = detector.onFrame(luma, luma.length, timestamp);
+        if (stable) {
+            trigger.onSceneStable(timestamp, detector.getLastDifference());
+        }
+        double difference = detector.getLastDifference();
+        if (Double.isNaN(difference)) {
+            return null;
+        }
+        Map<String, Object> result = new HashMap<>();
+        result.put("difference", difference);
+        result.put("stableFrames", detector.getStableRun());
+        result.put("armed", detector.isArmed());
+        result.put("triggered", stable);
+        return result;
+    }
+}
@@ -0,0 +1,93 @@
+package com.ahm.capacitor.camera.preview.camerax;
+
+/**
+ * Base64 encodes a byte range in bounded segments so that no string of the whole payload has
+ * to exist. Every segment but the last covers a multiple of 3 bytes, so each one is valid Base64
+ * on its own and the concatenation equals the Base64 of the whole input (no line wrapping).
+ *
+ * Segments are encoded into a reusable char buffer; the only allocation per segment is the
+ * String handed to the sink.
+ */
+public final class Base64Chunker {
+
+    public interface Sink {
+        void onChunk(int index, int count, String base64);
+    }
+
+    /** 192 KiB of input per segment, i.e. 256 KiB of Base64 */
+    public static final int DEFAULT_CHUNK_BYTES = 192 * 1024;
+
+    private static final char[] ALPHABET = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789+/".toCharArray();
+
+    private final int chunkBytes;
+    private final char[] buffer;
+
+    /**
+     * @param chunkBytes input bytes per segment, rounded down to a multiple of 3
+     */
+    public Base64Chunker(int chunkBytes) {
+        this.chunkBytes = Math.max(3, chunkBytes - chunkBytes % 3);
+        this.buffer = new char[encodedLength(this.chunkBytes)];
+    }
+
+    public int getChunkBytes() {
+        return chunkBytes;
+    }
+
+    /** Largest segment handed to a sink, in characters */
+    public int getMaxChunkChars() {
+        return buffer.length;
+    }
+
+    public int chunkCount(int length) {
+        return length == 0 ? 1 : (length + chunkBytes - 1) / chunkBytes;
+    }
+
+    /**
+     * Encode data[offset, offset + length) and pass each segment to the sink in order
+     *
+     * @return number of segments
+     */
+    public int encode(byte[] data, int offset, int length, Sink sink) {
+        int count = chunkCount(length);
+        for (int index = 0; index < count; index++) {
+            int start = offset + index * chunkBytes;
+            int size = Math.min(chunkBytes, offset + length - start);
+            int chars = encode(data, start, size, buffer, 0);
+            sink.onChunk(index, count, new String(buffer, 0, chars));
+        }
+        return count;
+    }
+
+    public static int encodedLength(int length) {
+        return ((length + 2) / 3) * 4;
+    }
+
+    /**
+     * Encode src[offset, offset + length) into dst starting at dstOffset
+     *
+     * @return number of characters written
+     */
+    public static int encode(byte[] src, int offset, int length, char[] dst, int dstOffset) {
+        int end = offset + length;
+        int out = dstOffset;
+        int i = offset;
+        for (; i + 2 < end; i += 3) {
+            int bits = ((src[i] & 0xFF) << 16) | ((src[i + 1] & 0xFF) << 8) | (src[i + 2] & 0xFF);
+            dst[out++] = ALPHABET[bits >>> 18];
+            dst[out++] = ALPHABET[(bits >>> 12) & 0x3F];
+            dst[out++] = ALPHABET[(bits >>> 6) & 0x3F];
+            dst[out++] = ALPHABET[bits & 0x3F];
+        }
+        int remaining = end - i;
+        if (remaining > 0) {
+            int bits = (src[i] & 0xFF) << 16;
+            if (remaining == 2) bits |= (src[i + 1] & 0xFF) << 8;
+            dst[out++] = ALPHABET[bits >>> 18];
+            dst[out++] = ALPHABET[(bits >>> 12) & 0x3F];
+            dst[out++] = remaining == 2 ? ALPHABET[(bits >>> 6) & 0x3F] : '=';
+            dst[out++] = '=';
+        }
+        return out - dstOffset;
+    }
+}
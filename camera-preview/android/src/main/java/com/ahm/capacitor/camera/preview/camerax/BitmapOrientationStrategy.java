@@ -0,0 +1,82 @@
+package com.ahm.capacitor.camera.preview.camerax;
+
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.graphics.Matrix;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+/**
+ * Decodes the full JPEG, transforms the Bitmap and compresses it again. Needs room for two
+ * full resolution bitmaps, so it is the fallback of the other strategies.
+ */
+public final class BitmapOrientationStrategy implements JpegOrientationStrategy {
+    private final int quality;
+
+    public BitmapOrientationStrategy(int quality) {
+        this.quality = quality;
+    }
+
+    @Override
+    public byte[] orient(byte[] jpeg, int orientation) throws IOException {
+        Matrix matrix = matrixFor(orientation);
+        if (matrix.isIdentity()) {
+            return jpeg;
+        }
+        return transform(jpeg, matrix);
+    }
+
+    /**
+     * Orient and compress at this strategy's quality, also when the image is already upright
+     */
+    public byte[] reencode(byte[] jpeg, int orientation) throws IOException {
+        return transform(jpeg, matrixFor(orientation));
+    }
+
+    private byte[] transform(byte[] jpeg, Matrix matrix) throws IOException {
+        Bitmap bitmap = BitmapFactory.decodeByteArray(jpeg, 0, jpeg.length);
+        if (bitmap == null) {
+            throw new IOException("Could not decode JPEG");
+        }
+        Bitmap oriented = Bitmap.createBitmap(bitmap, 0, 0, bitmap.getWidth(), bitmap.getHeight(), matrix, true);
+        if (oriented != bitmap) {
+            bitmap.recycle();
+        }
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        oriented.compress(Bitmap.CompressFormat.JPEG, quality, outputStream);
+        oriented.recycle();
+        return outputStream.toByteArray();
+    }
+
+    public static Matrix matrixFor(int orientation) {
+        Matrix matrix = new Matrix();
+        switch (orientation) {
+            case ExifOrientation.FLIP_HORIZONTAL:
+                matrix.setScale(-1, 1);
+                break;
+            case ExifOrientation.ROTATE_180:
+                matrix.setRotate(180);
+                break;
+            case ExifOrientation.FLIP_VERTICAL:
+                matrix.setRotate(180);
+                matrix.postScale(-1, 1);
+                break;
+            case ExifOrientation.TRANSPOSE:
+                matrix.setRotate(90);
+                matrix.postScale(-1, 1);
+                break;
+            case ExifOrientation.ROTATE_90:
+                matrix.setRotate(90);
+                break;
+            case ExifOrientation.TRANSVERSE:
+                matrix.setRotate(-90);
+                matrix.postScale(-1, 1);
+                break;
+            case ExifOrientation.ROTATE_270:
+                matrix.setRotate(-90);
+                break;
+        }
+        return matrix;
+    }
+}
@@ -0,0 +1,166 @@
+package com.ahm.capacitor.camera.preview.camerax;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Timing of a burst: when each shot was requested, captured by the camera and delivered to JS.
+ *
+ * Per-shot latency runs from the request to the delivery. The sustained rate is taken between
+ * the first and the last delivery, so the startup cost of the first shot, which is reported by
+ * its latency, does not hide the steady throughput of the pipeline.
+ *
+ * Written from the camera and encoder threads; all methods are synchronized.
+ */
+public final class BurstStats {
+
+    private final int count;
+    private final long[] requestedMs;
+    private final long[] capturedMs;
+    private final long[] deliveredMs;
+    private final boolean[] settled;
+    private int delivered;
+    private int failed;
+
+    public BurstStats(int count) {
+        if (count <= 0) throw new IllegalArgumentException("Burst needs at least one shot");
+        this.count = count;
+        this.requestedMs = filled(count);
+        this.capturedMs = filled(count);
+        this.deliveredMs = filled(count);
+        this.settled = new boolean[count];
+    }
+
+    private static long[] filled(int count) {
+        long[] times = new long[count];
+        for (int i = 0; i < count; i++) times[i] = -1;
+        return times;
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    public synchronized void onRequested(int index, long atMs) {
+        requestedMs[index] = atMs;
+    }
+
+    public synchronized void onCaptured(int index, long atMs) {
+        capturedMs[index] = atMs;
+    }
+
+    /** @return true when this was the last outstanding shot */
+    public synchronized boolean onDelivered(int index, long atMs) {
+        if (!settled[index]) {
+            settled[index] = true;
+            deliveredMs[index] = atMs;
+            delivered++;
+        }
+        return isComplete();
+    }
+
+    /** @return true when this was the last outstanding shot */
+    public synchronized boolean onFailed(int index) {
+        if (!settled[index]) {
+            settled[index] = true;
+            failed++;
+        }
+        return isComplete();
+    }
+
+    public synchronized boolean isComplete() {
+        return delivered + failed >= count;
+    }
+
+    public synchronized int getDelivered() {
+        return delivered;
+    }
+
+    public synchronized int getFailed() {
+        return failed;
+    }
+
+    /** Request to delivery of one shot, -1 if it was not delivered */
+    public synchronized long getLatencyMs(int index) {
+        return span(requestedMs[index], deliveredMs[index]);
+    }
+
+    /** Request to the camera handing over the image, -1 if not captured */
+    public synchronized long getCaptureLatencyMs(int index) {
+        return span(requestedMs[index], capturedMs[index]);
+    }
+
+    private static long span(long from, long to) {
+        return from < 0 || to < 0 ? -1 : to - from;
+    }
+
+    /** Delivered shots per second between the first and last delivery; one shot uses its latency */
+    public synchronized double getSustainedFps() {
+        return rate(deliveredMs);
+    }
+
+    /** Shots per second handed over by the camera, before encoding */
+    public synchronized double getCaptureFps() {
+        return rate(capturedMs);
+    }
+
+    private double rate(long[] times) {
+        long first = Long.MAX_VALUE;
+        long last = Long.MIN_VALUE;
+        int n = 0;
+        long firstRequested = Long.MAX_VALUE;
+        for (int i = 0; i < count; i++) {
+            if (requestedMs[i] >= 0) firstRequested = Math.min(firstRequested, requestedMs[i]);
+            if (times[i] < 0) continue;
+            first = Math.min(first, times[i]);
+            last = Math.max(last, times[i]);
+            n++;
+        }
+        if (n == 0) return 0;
+        if (n == 1 || last == first) {
+            long elapsed = firstRequested == Long.MAX_VALUE ? 0 : last - firstRequested;
+            return elapsed > 0 ? 1000.0 / elapsed : 0;
+        }
+        return (n - 1) * 1000.0 / (last - first);
+    }
+
+    /** First request to last delivery */
+    public synchronized long getDurationMs() {
+        long first = Long.MAX_VALUE;
+        long last = -1;
+        for (int i = 0; i < count; i++) {
+            if (requestedMs[i] >= 0) first = Math.min(first, requestedMs[i]);
+            last = Math.max(last, deliveredMs[i]);
+        }
+        return first == Long.MAX_VALUE || last < 0 ? 0 : last - first;
+    }
+
+    public synchronized Map<String, Object> toMap() {
+        List<Long> latencies = new ArrayList<>(count);
+        long sum = 0;
+        long min = Long.MAX_VALUE;
+        long max = 0;
+        for (int i = 0; i < count; i++) {
+            long latency = getLatencyMs(i);
+            latencies.add(latency);
+            if (latency < 0) continue;
+            sum += latency;
+            min = Math.min(min, latency);
+            max = Math.max(max, latency);
+        }
+        Map<String, Object> map = new HashMap<>();
+        map.put("count", count);
+        map.put("delivered", delivered);
+        map.put("failed", failed);
+        map.put("durationMs", getDurationMs());
+        map.put("fps", getSustainedFps());
+        map.put("captureFps", getCaptureFps());
+        map.put("avgLatencyMs", delivered > 0 ? (double) sum / delivered : 0.0);
+        map.put("minLatencyMs", delivered > 0 ? min : 0L);
+        map.put("maxLatencyMs", max);
+        map.put("latenciesMs", latencies);
+        return map;
+    }
+}
@@ -0,0 +1,52 @@
+package com.ahm.capacitor.camera.preview.camerax;
+
+import java.util.ArrayDeque;
+import java.util.Iterator;
+
+/**
+ * Small pool of equally sized frame buffers.
+ *
+ * Camera frames keep their size for the lifetime of a session, so buffers are matched by exact
+ * length; a size change simply lets the old buffers age out of the pool.
+ */
+public final class ByteArrayPool {
+
+    private final int maxPooled;
+    private final ArrayDeque<byte[]> free;
+
+    public ByteArrayPool(int maxPooled) {
+        if (maxPooled < 1) throw new IllegalArgumentException("maxPooled must be positive");
+        this.maxPooled = maxPooled;
+        this.free = new ArrayDeque<>(maxPooled);
+    }
+
+    /**
+     * A buffer of exactly the given length, reused when one was released before
+     */
+    public synchronized byte[] acquire(int length) {
+        Iterator<byte[]> it = free.iterator();
+        while (it.hasNext()) {
+            byte[] buffer = it.next();
+            if (buffer.length == length) {
+                it.remove();
+                return buffer;
+            }
+        }
+        return new byte[length];
+    }
+
+    /**
+     * Return a buffer for reuse. The caller must not touch it afterwards.
+     */
+    public synchronized void release(byte[] buffer) {
+        if (buffer == null) return;
+        if (free.size() >= maxPooled) {
+            free.removeLast();
+        }
+        free.addFirst(buffer);
+    }
+
+    public synchronized int size() {
+        return free.size();
+    }
+}
@@ -0,0 +1,55 @@
+package com.ahm.capacitor.camera.preview.camerax;
+
+/**
+ * Per-phase timing of a camera start or rebind, in milliseconds.
+ * A phase that did not run (or did not complete) reports -1.
+ */
+public final class CameraStartTimings {
+    private final long providerMs;
+    private final long buildMs;
+    private final long bindMs;
+    private final long firstFrameMs;
+    private final long totalMs;
+    private final boolean useCasesReused;
+    private final boolean prewarmed;
+    private final long prewarmSavedMs;
+
+    public CameraStartTimings(long providerMs, long buildMs, long bindMs, long firstFrameMs, long totalMs, boolean useCasesReused) {
+        this(providerMs, buildMs, bindMs, firstFrameMs, totalMs, useCasesReused, false, 0);
+    }
+
+    public CameraStartTimings(long providerMs, long buildMs, long bindMs, long firstFrameMs, long totalMs, boolean useCasesReused,
+                              boolean prewarmed, long prewarmSavedMs) {
+        this.providerMs = providerMs;
+        this.buildMs = buildMs;
+        this.bindMs = bindMs;
+        this.firstFrameMs = firstFrameMs;
+        this.totalMs = totalMs;
+        this.useCasesReused = useCasesReused;
+        this.prewarmed = prewarmed;
+        this.prewarmSavedMs = prewarmSavedMs;
+    }
+
+    /** Time spent waiting for ProcessCameraProvider */
+    public long getProviderMs() { return providerMs; }
+    /** Time spent building use cases, close to zero when they were reused */
+    public long getBuildMs() { return buildMs; }
+    /** Time spent in unbind + bindToLifecycle */
+    public long getBindMs() { return bindMs; }
+    /** Time from the end of binding until the preview reported STREAMING */
+    public long getFirstFrameMs() { return firstFrameMs; }
+    /** Time from the start request until the camera was reported started */
+    public long getTotalMs() { return totalMs; }
+    public boolean isUseCasesReused() { return useCasesReused; }
+    /** True when the camera provider had been prewarmed before this start */
+    public boolean isPrewarmed() { return prewarmed; }
+    /** Provider initialization time that prewarming took off this start, 0 when not prewarmed */
+    public long getPrewarmSavedMs() { return prewarmSavedMs; }
+
+    @Override
+    public String toString() {
+        return "CameraStartTimings{provider=" + providerMs + "ms, build=" + buildMs + "ms, bind=" + bindMs
+            + "ms, firstFrame=" + firstFrameMs + "ms, total=" + totalMs + "ms, reused=" + useCasesReused + ", prewarmed=" + prewarmed
+            + ", prewarmSaved=" + prewarmSavedMs + "ms}";
+    }
+}
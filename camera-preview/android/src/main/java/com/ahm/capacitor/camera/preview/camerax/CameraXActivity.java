@@ -5,10 +5,9 @@ import android.app.Fragment;
 import android.content.Context;
 import android.content.pm.PackageManager;
 import android.content.res.Configuration;
-import android.graphics.Bitmap;
-import android.graphics.BitmapFactory;
-import android.graphics.Matrix;
+import android.net.Uri;
 import android.os.Bundle;
+import android.os.SystemClock;
 import android.util.Base64;
 import android.util.DisplayMetrics;
 import android.util.Log;
@@ -22,14 +21,14 @@ import android.view.ViewTreeObserver;
 import android.widget.FrameLayout;
 import android.widget.RelativeLayout;
 
-import androidx.exifinterface.media.ExifInterface;
-
 import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
-import java.util.UUID;
+import java.io.OutputStream;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * CameraXActivity replaces the legacy CameraActivity with CameraX implementation
@@ -41,18 +40,34 @@ public class CameraXActivity extends Fragment {
     public interface CameraXActivityListener {
         void onPictureTaken(String originalPicture);
         void onPictureTakenError(String message);
+        /** Capture written to a file or content URI (CaptureResultMode.URI) */
+        void onPictureSaved(String path, String uri);
+        /** Oriented JPEG bytes to be streamed to JS (CaptureResultMode.CHUNKED) */
+        void onPictureData(byte[] jpeg);
+        /** Picture taken by the auto-capture engine once the scene settled */
+        void onAutoCapture(String originalPicture);
+        void onAutoCaptureError(String message);
         void onSnapshotTaken(String originalPicture);
         void onSnapshotTakenError(String message);
         void onFocusSet(int pointX, int pointY);
         void onFocusSetError(String message);
         void onBackButton();
-        void onCameraStarted();
+        void onCameraStarted(CameraStartTimings timings);
         void onStartRecordVideo();
         void onStartRecordVideoError(String message);
         void onStopRecordVideo(String file);
         void onStopRecordVideoError(String error);
     }
 
+    /** Results of captureBurst, called on image-processing threads */
+    public interface BurstListener {
+        /** @param value base64 JPEG, or the file path for CaptureResultMode.URI */
+        void onBurstFrame(int index, String value, long latencyMs);
+        void onBurstFrameError(int index, String message);
+        /** Called once every shot was delivered or failed */
+        void onBurstComplete(BurstStats stats);
+    }
+
     private CameraXActivityListener eventListener;
     private CameraXPreview cameraXPreview;
     private CameraXManager cameraXManager;
@@ -76,10 +91,21 @@ public class CameraXActivity extends Fragment {
     // Camera state
     private String defaultCamera = "back";
     private androidx.camera.core.CameraSelector currentCameraSelector;
+    private CameraXManager.LensSwitchMode lensSwitchMode = CameraXManager.LensSwitchMode.AUTO;
     
-    // Recording state
-    private boolean isRecording = false;
+    // Options of the capture in progress
+    private final AtomicBoolean autoCaptureInFlight = new AtomicBoolean(false);
+    private final AtomicBoolean burstInProgress = new AtomicBoolean(false);
+    
+    // Names and budgets the files written to the cache directory
+    private CaptureStorageManager captureStorage;
+
+    // Recording state is kept by the manager
     private String recordFilePath;
+    // Torch turned on for the current recording
+    private boolean recordingTorch = false;
+    // Pre-roll recording in progress; its listener runs on the recorder's worker thread
+    private volatile PreRollRecorder preRoll;
     
     // UI components
     private View view;
@@ -109,7 +135,10 @@ public class CameraXActivity extends Fragment {
         if (defaultCamera != null && getActivity() != null) {
             try {
                 // Map "back" to DEFAULT_BACK_CAMERA to avoid accidentally choosing ultra-wide
-                if ("back".equalsIgnoreCase(defaultCamera)) {
+                androidx.camera.core.CameraSelector prewarmed = CameraXPrewarm.getDefaultSelector(defaultCamera);
+                if (prewarmed != null) {
+                    currentCameraSelector = prewarmed;
+                } else if ("back".equalsIgnoreCase(defaultCamera)) {
                     currentCameraSelector = androidx.camera.core.CameraSelector.DEFAULT_BACK_CAMERA;
                 } else if ("wide".equalsIgnoreCase(defaultCamera)) {
                     currentCameraSelector = CameraXSelector.getWideCamera(getActivity());
@@ -125,12 +154,13 @@ public class CameraXActivity extends Fragment {
         
         // Initialize camera manager
         cameraXManager = new CameraXManager(getActivity());
+        cameraXManager.setLensSwitchMode(lensSwitchMode);
         cameraXManager.setCallback(new CameraXManager.CameraXCallback() {
             @Override
-            public void onCameraStarted() {
-                Log.d(TAG, "Camera started successfully");
+            public void onCameraStarted(CameraStartTimings timings) {
+                Log.d(TAG, "Camera started successfully: " + timings);
                 if (eventListener != null) {
-                    eventListener.onCameraStarted();
+                    eventListener.onCameraStarted(timings);
                 }
             }
             
@@ -139,36 +169,40 @@ public class CameraXActivity extends Fragment {
                 Log.e(TAG, "Camera error: " + error);
             }
             
+            // Pictures are requested with their own CaptureCallback, see takePicture(CaptureOptions)
             @Override
             public void onImageCaptured(File imageFile) {
                 Log.d(TAG, "Image captured: " + imageFile.getAbsolutePath());
-                if (eventListener != null) {
-                    if (storeToFile) {
-                        eventListener.onPictureTaken(imageFile.getAbsolutePath());
-                    } else {
-                        // Convert to base64
-                        try {
-                            String base64Image = convertImageToBase64(imageFile);
-                            eventListener.onPictureTaken(base64Image);
-                        } catch (IOException e) {
-                            eventListener.onPictureTakenError("Failed to convert image: " + e.getMessage());
-                        }
-                    }
-                }
+            }
+            
+            @Override
+            public void onImageCaptured(byte[] jpeg, int rotationDegrees) {
+                Log.d(TAG, "Image captured in memory: " + jpeg.length + " bytes");
             }
             
             @Override
             public void onImageCaptureError(String error) {
                 Log.e(TAG, "Image capture error: " + error);
+            }
+            
+            @Override
+            public void onSampleCaptured(byte[] jpeg, int width, int height) {
                 if (eventListener != null) {
-                    eventListener.onPictureTakenError(error);
+                    eventListener.onSnapshotTaken(Base64.encodeToString(jpeg, Base64.NO_WRAP));
+                }
+            }
+            
+            @Override
+            public void onSampleCaptureError(String error) {
+                Log.e(TAG, "Sample capture error: " + error);
+                if (eventListener != null) {
+                    eventListener.onSnapshotTakenError(error);
                 }
             }
             
             @Override
             public void onVideoRecordingStarted() {
                 Log.d(TAG, "Video recording started");
-                isRecording = true;
                 if (eventListener != null) {
                     eventListener.onStartRecordVideo();
                 }
@@ -177,8 +211,9 @@ public class CameraXActivity extends Fragment {
             @Override
             public void onVideoRecordingStopped(File videoFile) {
                 Log.d(TAG, "Video recording stopped: " + videoFile.getAbsolutePath());
-                isRecording = false;
-                if (eventListener != null) {
+                releaseRecordingTorch();
+                // A pre-roll clip is reported once its remux finishes
+                if (preRoll == null && eventListener != null) {
                     eventListener.onStopRecordVideo(videoFile.getAbsolutePath());
                 }
             }
@@ -186,7 +221,10 @@ public class CameraXActivity extends Fragment {
             @Override
             public void onVideoRecordingError(String error) {
                 Log.e(TAG, "Video recording error: " + error);
-                isRecording = false;
+                releaseRecordingTorch();
+                PreRollRecorder running = preRoll;
+                preRoll = null;
+                if (running != null) running.cancel();
                 if (eventListener != null) {
                     eventListener.onStartRecordVideoError(error);
                 }
@@ -226,7 +264,7 @@ public class CameraXActivity extends Fragment {
             
             @Override
             public void onZoomChanged(float zoomLevel) {
-                Log.d(TAG, "Zoom changed to: " + zoomLevel);
+                // Called for every pinch step, so nothing is logged here
             }
             
             @Override
@@ -269,6 +307,10 @@ public class CameraXActivity extends Fragment {
         eventListener = listener;
     }
 
+    public void setCaptureStorage(CaptureStorageManager storage) {
+        captureStorage = storage;
+    }
+
     public void setRect(int x, int y, int width, int height) {
         this.x = x;
         this.y = y;
@@ -324,143 +366,331 @@ public class CameraXActivity extends Fragment {
         }
     }
 
-    public boolean switchCamera() {
-        Log.d(TAG, "switchCamera called");
-        if (cameraXManager != null) {
-            try {
-                boolean success = cameraXManager.switchCamera();
-                if (success) {
-                    Log.d(TAG, "Camera switched successfully");
-                    return true;
-                } else {
-                    Log.e(TAG, "Failed to switch camera");
-                    return false;
-                }
-            } catch (Exception e) {
-                Log.e(TAG, "Error switching camera: " + e.getMessage(), e);
-                return false;
-            }
+    /**
+     * Lens switches complete asynchronously, once the new camera streams its first frame; see
+     * CameraXManager.switchToLens.
+     */
+    public LensSwitchCoordinator.SwitchFuture switchToUltraWideCamera() {
+        Log.d(TAG, "switchToUltraWideCamera called");
+        if (cameraXManager == null) {
+            Log.e(TAG, "CameraXManager is null");
+            return notInitialized(LensTarget.ULTRA_WIDE);
+        }
+        // If already on (or switching to) ultra-wide, toggle back to main wide
+        if (cameraXManager.getRequestedLens() == LensTarget.ULTRA_WIDE) {
+            Log.d(TAG, "Already ultra-wide, toggling back to main wide");
+            return switchToMainWideCamera();
         }
-        Log.e(TAG, "CameraXManager is null");
-        return false;
+        return switchToLens(LensTarget.ULTRA_WIDE);
     }
 
-    public boolean switchToUltraWideCamera() {
-        Log.d(TAG, "switchToUltraWideCamera called");
+    public LensSwitchCoordinator.SwitchFuture switchToMainWideCamera() {
+        Log.d(TAG, "switchToMainWideCamera called");
+        return switchToLens(LensTarget.WIDE);
+    }
+
+    public LensSwitchCoordinator.SwitchFuture switchToTelephotoCamera() {
+        Log.d(TAG, "switchToTelephotoCamera called");
+        return switchToLens(LensTarget.TELEPHOTO);
+    }
+
+    private LensSwitchCoordinator.SwitchFuture switchToLens(LensTarget target) {
+        if (cameraXManager == null) {
+            return notInitialized(target);
+        }
+        return track(cameraXManager.switchToLens(target));
+    }
+
+    /** Remember the selector a successful switch bound, so a restarted preview reopens it */
+    private LensSwitchCoordinator.SwitchFuture track(LensSwitchCoordinator.SwitchFuture future) {
+        final CameraXManager manager = cameraXManager;
+        future.addListener(result -> {
+            Log.d(TAG, "Lens switch result: " + result);
+            if (result.isSuccess()) {
+                currentCameraSelector = manager.getCurrentCameraSelector();
+            }
+        });
+        return future;
+    }
+
+    private static LensSwitchCoordinator.SwitchFuture notInitialized(LensTarget target) {
+        return LensSwitchCoordinator.SwitchFuture.completed(
+            LensSwitchResult.failed(target, LensSwitchResult.PATH_NONE, 0, "Camera not initialized"));
+    }
+
+    public void setLensSwitchMode(String mode) {
+        this.lensSwitchMode = "rebind".equalsIgnoreCase(mode)
+            ? CameraXManager.LensSwitchMode.REBIND
+            : CameraXManager.LensSwitchMode.AUTO;
         if (cameraXManager != null) {
+            cameraXManager.setLensSwitchMode(lensSwitchMode);
+        }
+    }
+
+    public LensSwitchCoordinator.SwitchFuture switchToFrontCamera() {
+        Log.d(TAG, "switchToFrontCamera called");
+        return switchToLens(LensTarget.FRONT);
+    }
+
+    public LensSwitchCoordinator.SwitchFuture switchToBackCamera() {
+        Log.d(TAG, "switchToBackCamera called");
+        return switchToLens(LensTarget.WIDE);
+    }
+
+    public LensSwitchCoordinator.SwitchFuture toggleFrontBack() {
+        Log.d(TAG, "toggleFrontBack called");
+        if (cameraXManager == null) {
+            return notInitialized(LensTarget.FRONT);
+        }
+        return track(cameraXManager.toggleFrontBack());
+    }
+
+    public void takePicture(int width, int height, int quality) {
+        takePicture(new CaptureOptions().setSize(width, height).setQuality(quality));
+    }
+
+    public void takePicture(final CaptureOptions options) {
+        if (cameraXPreview != null) {
             try {
-                // If already on ultra-wide, toggle back to main wide
-                if (cameraXPreview != null && cameraXPreview.getCameraManager() != null) {
-                    androidx.camera.core.CameraInfo info = cameraXPreview.getCameraManager().getCurrentCameraInfo();
-                    if (info != null && CameraXSelector.isUltraWide(getActivity(), info)) {
-                        Log.d(TAG, "Already ultra-wide, toggling back to main wide");
-                        return switchToMainWideCamera();
+                final int encoderQuality = cameraXPreview.configureCapture(options.getWidth(), options.getHeight(), options.getQuality());
+                // The result is handled with the options of its own request, whatever was asked since
+                CameraXManager.CaptureCallback target = new CameraXManager.CaptureCallback() {
+                    @Override
+                    public void onImageCaptured(File imageFile) {
+                        deliverCapture(imageFile, options, encoderQuality);
                     }
-                }
-                // Try smart zoom path first
-                if (cameraXManager.switchToUltraWideSmart()) {
-                    Log.d(TAG, "Ultra-wide achieved via logical zoom");
-                    return true;
-                }
-                // Fallback to rebind with ultra-wide selector
-                androidx.camera.core.CameraSelector ultraWideSelector = CameraXSelector.getUltraWideCamera(getActivity().getApplicationContext());
-                if (ultraWideSelector != null) {
-                    Log.d(TAG, "Ultra-wide camera selector found, switching...");
-                    boolean success = cameraXManager.switchToCamera(ultraWideSelector);
-                    if (success) {
-                        Log.d(TAG, "Successfully switched to ultra-wide camera");
-                        currentCameraSelector = ultraWideSelector;
-                        return true;
+
+                    @Override
+                    public void onImageCaptured(byte[] jpeg, int rotationDegrees) {
+                        deliverCapture(jpeg, rotationDegrees, options, encoderQuality);
                     }
+
+                    @Override
+                    public void onImageCaptureError(String error) {
+                        deliverCaptureError(error, options);
+                    }
+                };
+                if (options.getResultMode() == null && storeToFile && !options.isAutoCapture()) {
+                    File outputFile = newCaptureFile();
+                    cameraXPreview.takePicture(outputFile, target);
                 } else {
-                    Log.w(TAG, "No ultra-wide camera available");
+                    // Base64, chunked and URI results are produced from memory, skipping the cache file
+                    cameraXPreview.takePictureInMemory(target);
                 }
-                return false;
             } catch (Exception e) {
-                Log.e(TAG, "Error switching to ultra-wide camera: " + e.getMessage(), e);
-                return false;
+                Log.e(TAG, "Error taking picture", e);
+                deliverCaptureError("Failed to take picture: " + e.getMessage(), options);
             }
+        } else if (options.isAutoCapture()) {
+            autoCaptureInFlight.set(false);
         }
-        Log.e(TAG, "CameraXManager is null");
-        return false;
     }
 
-    public boolean switchToMainWideCamera() {
-        Log.d(TAG, "switchToMainWideCamera called");
-        if (cameraXManager != null) {
+    private void deliverCapture(File imageFile, CaptureOptions options, int encoderQuality) {
+        if (eventListener == null) return;
+        if (needsReencode(encoderQuality, options)) {
             try {
-                if (cameraXManager.switchToMainWideSmart()) {
-                    Log.d(TAG, "Main wide achieved via logical zoom");
-                    return true;
-                }
-                androidx.camera.core.CameraSelector wideSelector = CameraXSelector.getWideCamera(getActivity());
-                if (wideSelector == null) {
-                    wideSelector = androidx.camera.core.CameraSelector.DEFAULT_BACK_CAMERA;
-                }
-                boolean success = cameraXManager.switchToCamera(wideSelector);
-                if (success) {
-                    currentCameraSelector = wideSelector;
-                    return true;
-                }
-                return false;
-            } catch (Exception e) {
-                Log.e(TAG, "Error switching to main wide camera: " + e.getMessage(), e);
-                return false;
+                byte[] jpeg = readFile(imageFile);
+                writeFile(imageFile, reencode(jpeg, ExifOrientation.read(jpeg), options));
+            } catch (IOException e) {
+                getCaptureStorage().discard(imageFile);
+                eventListener.onPictureTakenError("Failed to convert image: " + e.getMessage());
+                return;
+            }
+        }
+        if (storeToFile) {
+            getCaptureStorage().commit(imageFile);
+            eventListener.onPictureTaken(imageFile.getAbsolutePath());
+        } else {
+            // Convert to base64
+            try {
+                String base64Image = convertImageToBase64(imageFile, options);
+                eventListener.onPictureTaken(base64Image);
+            } catch (IOException e) {
+                eventListener.onPictureTakenError("Failed to convert image: " + e.getMessage());
             }
         }
-        return false;
     }
 
-    public boolean switchToFrontCamera() {
-        Log.d(TAG, "switchToFrontCamera called");
-        if (cameraXManager != null) {
-            return cameraXManager.switchToFrontCamera();
+    private void deliverCapture(byte[] jpeg, int rotationDegrees, CaptureOptions options, int encoderQuality) {
+        if (options.isAutoCapture()) {
+            deliverAutoCapture(jpeg, rotationDegrees, options, encoderQuality);
+            return;
+        }
+        if (eventListener == null) return;
+        try {
+            byte[] oriented = orientInMemoryJpeg(jpeg, rotationDegrees, options, encoderQuality);
+            if (options.getResultMode() == CaptureResultMode.URI) {
+                Uri saved = writeCapture(oriented, options.getOutputUri());
+                String path = "file".equals(saved.getScheme()) ? saved.getPath() : saved.toString();
+                eventListener.onPictureSaved(path, saved.toString());
+            } else if (options.getResultMode() == CaptureResultMode.CHUNKED) {
+                eventListener.onPictureData(oriented);
+            } else {
+                eventListener.onPictureTaken(Base64.encodeToString(oriented, Base64.NO_WRAP));
+            }
+        } catch (Exception e) {
+            eventListener.onPictureTakenError("Failed to convert image: " + e.getMessage());
         }
-        return false;
     }
 
-    public boolean switchToBackCamera() {
-        Log.d(TAG, "switchToBackCamera called");
-        if (cameraXManager != null) {
-            return cameraXManager.switchToBackCamera(getActivity());
+    private void deliverCaptureError(String error, CaptureOptions options) {
+        Log.e(TAG, "Image capture error: " + error);
+        if (options.isAutoCapture()) {
+            autoCaptureInFlight.set(false);
+            if (eventListener != null) eventListener.onAutoCaptureError(error);
+            return;
+        }
+        if (eventListener != null) {
+            eventListener.onPictureTakenError(error);
         }
-        return false;
     }
 
-    public boolean toggleFrontBack() {
-        Log.d(TAG, "toggleFrontBack called");
-        if (cameraXManager != null) {
-            return cameraXManager.toggleFrontBack(getActivity());
+    /**
+     * Stream analysis frames to a processor; results are rate-limited to maxResultsPerSecond
+     */
+    public boolean startFrameAnalysis(FrameProcessor processor, AnalysisPipeline.ResultSink sink,
+                                      double maxResultsPerSecond, int width, int height) {
+        if (cameraXManager == null) return false;
+        return cameraXManager.startAnalysis(processor, sink, maxResultsPerSecond, width, height);
+    }
+
+    public AnalysisMetrics stopFrameAnalysis() {
+        return cameraXManager != null ? cameraXManager.stopAnalysis() : null;
+    }
+
+    public AnalysisMetrics getFrameAnalysisMetrics() {
+        return cameraXManager != null ? cameraXManager.getAnalysisMetrics() : null;
+    }
+
+    public Map<String, Object> getPreviewStats() {
+        return cameraXManager != null ? cameraXManager.getPreviewStats() : null;
+    }
+
+    public Map<String, Object> getImageProcessingMetrics() {
+        return cameraXManager != null ? cameraXManager.getImageProcessingMetrics() : null;
+    }
+
+    /**
+     * Run the auto-capture engine on the analysis stream: a picture is taken with captureOptions
+     * each time the scene settles, and delivered through onAutoCapture. Replaces any running
+     * frame analysis; stop it with stopFrameAnalysis().
+     */
+    public boolean startAutoCapture(MotionStabilityDetector.Config config, final CaptureOptions captureOptions,
+                                    AnalysisPipeline.ResultSink statusSink, double maxStatusPerSecond) {
+        captureOptions.setAutoCapture(true);
+        autoCaptureInFlight.set(false);
+        AutoCaptureFrameProcessor processor = new AutoCaptureFrameProcessor(config, (timestamp, difference) -> {
+            if (!autoCaptureInFlight.compareAndSet(false, true)) {
+                Log.d(TAG, "Scene stable but the previous auto capture is still running");
+                return;
+            }
+            Log.d(TAG, "Scene stable (difference " + difference + "), auto capturing");
+            takePicture(captureOptions);
+        });
+        return startFrameAnalysis(processor, statusSink, maxStatusPerSecond, 0, 0);
+    }
+
+    private void deliverAutoCapture(byte[] jpeg, int rotationDegrees, CaptureOptions options, int encoderQuality) {
+        try {
+            if (eventListener == null) return;
+            byte[] oriented = orientInMemoryJpeg(jpeg, rotationDegrees, options, encoderQuality);
+            eventListener.onAutoCapture(Base64.encodeToString(oriented, Base64.NO_WRAP));
+        } catch (Exception e) {
+            eventListener.onAutoCaptureError("Failed to convert image: " + e.getMessage());
+        } finally {
+            autoCaptureInFlight.set(false);
         }
-        return false;
     }
 
-    public void takePicture(int width, int height, int quality) {
-        if (cameraXPreview != null) {
-            try {
-                File outputFile = new File(getTempFilePath());
-                cameraXPreview.takePicture(outputFile);
-            } catch (Exception e) {
-                Log.e(TAG, "Error taking picture", e);
-                if (eventListener != null) {
-                    eventListener.onPictureTakenError("Failed to take picture: " + e.getMessage());
+    /**
+     * Take count pictures with options, intervalMs apart or as fast as the camera allows when 0.
+     * All shots are requested up front; each one is oriented and encoded on the image-processing
+     * executor while the camera captures the next, and reaches the listener as soon as it is ready.
+     *
+     * @return false when the camera is not ready or another burst is running
+     */
+    public boolean captureBurst(final CaptureOptions options, int count, long intervalMs, final BurstListener listener) {
+        if (cameraXPreview == null || !burstInProgress.compareAndSet(false, true)) {
+            return false;
+        }
+        final BurstStats stats = new BurstStats(count);
+        boolean started;
+        try {
+            final int encoderQuality = cameraXPreview.configureCapture(options.getWidth(), options.getHeight(), options.getQuality());
+            started = cameraXPreview.takeBurst(stats, intervalMs, new CameraXManager.BurstCallback() {
+                @Override
+                public void onBurstShot(int index, byte[] jpeg, int rotationDegrees) {
+                    String value;
+                    try {
+                        byte[] oriented = orientInMemoryJpeg(jpeg, rotationDegrees, options, encoderQuality);
+                        if (options.getResultMode() == CaptureResultMode.URI) {
+                            value = writeCapture(oriented, null).getPath();
+                        } else {
+                            value = Base64.encodeToString(oriented, Base64.NO_WRAP);
+                        }
+                    } catch (Exception e) {
+                        onBurstShotError(index, "Failed to convert image: " + e.getMessage());
+                        return;
+                    }
+                    boolean complete = stats.onDelivered(index, SystemClock.elapsedRealtime());
+                    listener.onBurstFrame(index, value, stats.getLatencyMs(index));
+                    if (complete) finishBurst(stats, listener);
                 }
-            }
+
+                @Override
+                public void onBurstShotError(int index, String error) {
+                    boolean complete = stats.onFailed(index);
+                    listener.onBurstFrameError(index, error);
+                    if (complete) finishBurst(stats, listener);
+                }
+            });
+        } catch (Exception e) {
+            Log.e(TAG, "Error starting burst", e);
+            started = false;
+        }
+        if (!started) {
+            burstInProgress.set(false);
         }
+        return started;
     }
 
+    private void finishBurst(BurstStats stats, BurstListener listener) {
+        Log.d(TAG, "Burst done: " + stats.toMap());
+        burstInProgress.set(false);
+        listener.onBurstComplete(stats);
+    }
+
+    /**
+     * Encode the current preview frame, without going through a still capture
+     */
     public void takeSnapshot(int quality) {
-        // For now, use takePicture as snapshot
-        // In a full implementation, this would capture from preview
-        takePicture(0, 0, quality);
+        if (cameraXPreview != null) {
+            cameraXPreview.captureSample(quality);
+        } else if (eventListener != null) {
+            eventListener.onSnapshotTakenError("Camera not ready");
+        }
     }
 
     public void startRecord(String filePath, String camera, int width, int height, int quality, boolean withFlash, int maxDuration) {
-        if (cameraXPreview != null && !isRecording) {
+        startRecord(filePath, new RecordingProfile(width, height, 0, 0, maxDuration), withFlash);
+    }
+
+    /**
+     * Start recording with the profile's size, frame rate, bitrate and duration limit
+     *
+     * @param withFlash keep the torch on while recording
+     */
+    public void startRecord(String filePath, RecordingProfile profile, boolean withFlash) {
+        if (cameraXPreview != null && !isRecording()) {
             try {
                 recordFilePath = filePath;
                 File outputFile = new File(filePath);
-                cameraXPreview.startRecording(outputFile);
+                if (withFlash) {
+                    cameraXPreview.getCameraManager().enableTorch(true);
+                    recordingTorch = true;
+                }
+                cameraXPreview.startRecording(outputFile, profile);
             } catch (Exception e) {
                 Log.e(TAG, "Error starting video recording", e);
                 if (eventListener != null) {
@@ -470,12 +700,116 @@ public class CameraXActivity extends Fragment {
         }
     }
 
+    /**
+     * Record into files of segmenter's length or size, handing each finished one to onSegment
+     */
+    public void startSegmentedRecord(RecordingSegmenter segmenter, RecordingProfile profile, boolean withFlash,
+                                     CameraXManager.SegmentCallback onSegment) {
+        if (cameraXPreview != null && !isRecording()) {
+            try {
+                recordFilePath = null;
+                if (withFlash) {
+                    cameraXPreview.getCameraManager().enableTorch(true);
+                    recordingTorch = true;
+                }
+                cameraXPreview.getCameraManager().startSegmentedRecording(segmenter, profile, onSegment);
+            } catch (Exception e) {
+                Log.e(TAG, "Error starting segmented video recording", e);
+                if (eventListener != null) {
+                    eventListener.onStartRecordVideoError("Failed to start recording: " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    /**
+     * Record while keeping the last preRollMs in memory; the clip written to output starts that
+     * far before triggerPreRoll() and ends at stopRecord()
+     */
+    public void startPreRollRecord(File output, long preRollMs, long maxBytes, RecordingProfile profile, boolean withFlash) {
+        if (cameraXPreview == null || isRecording()) return;
+        final PreRollRecorder recorder = new PreRollRecorder(preRollMs, maxBytes, output, new PreRollRecorder.Listener() {
+            @Override
+            public void onPreRollSaved(File file, Map<String, Object> stats) {
+                preRoll = null;
+                if (eventListener != null) eventListener.onStopRecordVideo(file.getAbsolutePath());
+            }
+
+            @Override
+            public void onPreRollError(String message) {
+                preRoll = null;
+                if (eventListener != null) eventListener.onStopRecordVideoError(message);
+            }
+        });
+        try {
+            preRoll = recorder;
+            recordFilePath = output.getAbsolutePath();
+            if (withFlash) {
+                cameraXPreview.getCameraManager().enableTorch(true);
+                recordingTorch = true;
+            }
+            cameraXPreview.getCameraManager().startPreRollRecording(recorder, profile);
+        } catch (Exception e) {
+            Log.e(TAG, "Error starting pre-roll recording", e);
+            preRoll = null;
+            recorder.cancel();
+            if (eventListener != null) {
+                eventListener.onStartRecordVideoError("Failed to start recording: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Keep the buffered footage and everything recorded from now on
+     *
+     * @return the buffer's state at the trigger, or null when no pre-roll recording is running
+     */
+    public Map<String, Object> triggerPreRoll() {
+        PreRollRecorder recorder = preRoll;
+        if (recorder == null) return null;
+        Map<String, Object> stats = recorder.getBufferStats();
+        recorder.trigger();
+        return stats;
+    }
+
+    private void releaseRecordingTorch() {
+        if (recordingTorch && cameraXPreview != null) {
+            cameraXPreview.getCameraManager().enableTorch(false);
+        }
+        recordingTorch = false;
+    }
+
     public void stopRecord() {
-        if (cameraXPreview != null && isRecording) {
+        if (cameraXPreview != null && isRecording()) {
             cameraXPreview.stopRecording();
         }
     }
 
+    /** From the start request until the file is finalized, paused or not */
+    public boolean isRecording() {
+        return cameraXManager != null && cameraXManager.isRecording();
+    }
+
+    /** @return false when no recording is running */
+    public boolean pauseRecord() {
+        return cameraXManager != null && cameraXManager.pauseRecording();
+    }
+
+    /** @return false when no recording is running */
+    public boolean resumeRecord() {
+        return cameraXManager != null && cameraXManager.resumeRecording();
+    }
+
+    /**
+     * Receive the state and progress of recordings, progress at most maxStatusPerSecond times a
+     * second; null stops the reports
+     */
+    public void setRecordingStatusListener(CameraXManager.RecordingStatusListener listener, double maxStatusPerSecond) {
+        if (cameraXManager != null) {
+            cameraXManager.setRecordingStatusListener(listener, maxStatusPerSecond);
+        }
+    }
+
     public void setOpacity(float opacity) {
         if (cameraXPreview != null) {
             cameraXPreview.setOpacity(opacity);
@@ -534,56 +868,103 @@ public class CameraXActivity extends Fragment {
         return CameraXSelector.getAvailableCameraTypes(getActivity());
     }
 
-    private String getTempDirectoryPath() {
-        File cache = getActivity().getCacheDir();
-        cache.mkdirs();
-        return cache.getAbsolutePath();
+    private CaptureStorageManager getCaptureStorage() {
+        if (captureStorage == null) {
+            captureStorage = new CaptureStorageManager(getActivity().getCacheDir(),
+                CaptureStorageManager.DEFAULT_MAX_BYTES, CaptureStorageManager.DEFAULT_MAX_AGE_MS);
+        }
+        return captureStorage;
     }
 
-    private String getTempFilePath() {
-        return getTempDirectoryPath() + "/cpcp_capture_" + UUID.randomUUID().toString().replace("-", "").substring(0, 8) + ".jpg";
+    private File newCaptureFile() {
+        return getCaptureStorage().newFile(CaptureStorageManager.CAPTURE_PREFIX, CaptureStorageManager.CAPTURE_EXTENSION);
     }
 
-    private String convertImageToBase64(File imageFile) throws IOException {
-        Bitmap bitmap = BitmapFactory.decodeFile(imageFile.getAbsolutePath());
-        
-        // Apply EXIF rotation if needed
-        if (!disableExifHeaderStripping) {
+    private String convertImageToBase64(File imageFile, CaptureOptions options) throws IOException {
+        byte[] jpeg = readFile(imageFile);
+        int orientation = ExifOrientation.read(jpeg);
+        return Base64.encodeToString(orientJpeg(jpeg, orientation, options), Base64.NO_WRAP);
+    }
+
+    /**
+     * Orient an in-memory JPEG. Upright images are passed through untouched, otherwise the
+     * capture's orientation strategy is applied. A picture the encoder compressed at another
+     * quality than requested is re-encoded instead.
+     */
+    private byte[] orientInMemoryJpeg(byte[] jpeg, int rotationDegrees, CaptureOptions options, int encoderQuality) throws IOException {
+        if (needsReencode(encoderQuality, options)) {
+            return reencode(jpeg, ExifOrientation.fromRotationDegrees(rotationDegrees), options);
+        }
+        if (rotationDegrees == 0) {
+            return jpeg;
+        }
+        return orientJpeg(jpeg, ExifOrientation.fromRotationDegrees(rotationDegrees), options);
+    }
+
+    /** The capture was taken while others were in flight, before ImageCapture took its quality */
+    private static boolean needsReencode(int encoderQuality, CaptureOptions options) {
+        return encoderQuality != CameraXManager.clampQuality(options.getQuality());
+    }
+
+    private static byte[] reencode(byte[] jpeg, int orientation, CaptureOptions options) throws IOException {
+        return new BitmapOrientationStrategy(CameraXManager.clampQuality(options.getQuality())).reencode(jpeg, orientation);
+    }
+
+    private byte[] orientJpeg(byte[] jpeg, int orientation, CaptureOptions options) throws IOException {
+        JpegOrientation.Mode mode = options.getOrientationMode() != null
+            ? options.getOrientationMode()
+            : JpegOrientation.defaultMode(disableExifHeaderStripping);
+        return JpegOrientation.orient(jpeg, orientation, mode, new BitmapOrientationStrategy(options.getQuality()));
+    }
+
+    /**
+     * Stream a capture to the requested content URI, or to a cache file when none is given
+     *
+     * @return URI of the written JPEG
+     */
+    private Uri writeCapture(byte[] jpeg, String outputUri) throws IOException {
+        if (outputUri != null && !outputUri.isEmpty()) {
+            Uri uri = Uri.parse(outputUri);
+            OutputStream out = getActivity().getContentResolver().openOutputStream(uri);
+            if (out == null) {
+                throw new IOException("Cannot open " + outputUri);
+            }
             try {
-                ExifInterface exif = new ExifInterface(imageFile.getAbsolutePath());
-                int orientation = exif.getAttributeInt(ExifInterface.TAG_ORIENTATION, ExifInterface.ORIENTATION_NORMAL);
-                bitmap = rotateBitmap(bitmap, orientation);
-            } catch (Exception e) {
-                Log.w(TAG, "Error reading EXIF data", e);
+                out.write(jpeg);
+            } finally {
+                out.close();
             }
+            return uri;
         }
-        
-        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
-        bitmap.compress(Bitmap.CompressFormat.JPEG, 85, outputStream);
-        byte[] imageBytes = outputStream.toByteArray();
-        outputStream.close();
-        
-        return Base64.encodeToString(imageBytes, Base64.NO_WRAP);
-    }
-
-    private Bitmap rotateBitmap(Bitmap source, int orientation) {
-        Matrix matrix = new Matrix();
-        switch (orientation) {
-            case ExifInterface.ORIENTATION_ROTATE_90:
-                matrix.postRotate(90);
-                break;
-            case ExifInterface.ORIENTATION_ROTATE_180:
-                matrix.postRotate(180);
-                break;
-            case ExifInterface.ORIENTATION_ROTATE_270:
-                matrix.postRotate(270);
-                break;
+        File file = newCaptureFile();
+        writeFile(file, jpeg);
+        getCaptureStorage().commit(file);
+        return Uri.fromFile(file);
+    }
+
+    private static void writeFile(File file, byte[] data) throws IOException {
+        FileOutputStream out = new FileOutputStream(file);
+        try {
+            out.write(data);
+        } finally {
+            out.close();
         }
-        
-        if (!matrix.isIdentity()) {
-            return Bitmap.createBitmap(source, 0, 0, source.getWidth(), source.getHeight(), matrix, true);
+    }
+
+    private static byte[] readFile(File file) throws IOException {
+        byte[] data = new byte[(int) file.length()];
+        FileInputStream in = new FileInputStream(file);
+        try {
+            int offset = 0;
+            while (offset < data.length) {
+                int read = in.read(data, offset, data.length - offset);
+                if (read < 0) throw new IOException("Unexpected end of " + file.getName());
+                offset += read;
+            }
+        } finally {
+            in.close();
         }
-        return source;
+        return data;
     }
 
     @Override
@@ -1,24 +1,46 @@
 package com.ahm.capacitor.camera.preview.camerax;
 
 import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.ImageFormat;
+import android.hardware.camera2.CameraCaptureSession;
+import android.hardware.camera2.CaptureRequest;
+import android.hardware.camera2.CaptureResult;
+import android.hardware.camera2.TotalCaptureResult;
+import android.os.Build;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
 import android.util.Log;
+import android.util.Range;
 
 import androidx.annotation.NonNull;
+import androidx.camera.camera2.interop.Camera2Interop;
 import androidx.camera.core.AspectRatio;
 import androidx.camera.core.Camera;
+import androidx.camera.core.CameraInfo;
 import androidx.camera.core.CameraSelector;
 import androidx.camera.core.FocusMeteringAction;
+import androidx.camera.core.ImageAnalysis;
 import androidx.camera.core.ImageCapture;
 import androidx.camera.core.ImageCaptureException;
+import androidx.camera.core.ImageProxy;
 import androidx.camera.core.MeteringPoint;
 import androidx.camera.core.Preview;
 import androidx.camera.core.SurfaceOrientedMeteringPointFactory;
+import androidx.camera.core.UseCase;
 import androidx.camera.core.ZoomState;
+import androidx.camera.core.resolutionselector.AspectRatioStrategy;
+import androidx.camera.core.resolutionselector.ResolutionSelector;
+import androidx.camera.core.resolutionselector.ResolutionStrategy;
 import androidx.camera.lifecycle.ProcessCameraProvider;
+import androidx.camera.core.DynamicRange;
+import androidx.camera.video.FallbackStrategy;
 import androidx.camera.video.FileOutputOptions;
 import androidx.camera.video.PendingRecording;
 import androidx.camera.video.Recorder;
 import androidx.camera.video.Recording;
+import androidx.camera.video.RecordingStats;
 import androidx.camera.video.VideoCapture;
 import androidx.camera.video.VideoRecordEvent;
 import androidx.camera.video.Quality;
@@ -26,17 +48,25 @@ import androidx.camera.video.QualitySelector;
 import androidx.camera.view.PreviewView;
 import androidx.core.content.ContextCompat;
 import androidx.lifecycle.LifecycleOwner;
+import androidx.lifecycle.Observer;
 
 import com.google.common.util.concurrent.ListenableFuture;
 
+import java.io.ByteArrayOutputStream;
 import java.io.File;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.Callable;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * CameraXManager handles all CameraX operations including camera lifecycle,
@@ -47,6 +77,8 @@ public class CameraXManager {
 
     private final Context context;
     private final ExecutorService cameraExecutor;
+    // Orienting, encoding and writing pictures; CameraX callbacks only hand work over to it
+    private final ImageProcessingExecutor imageProcessor;
 
     private ProcessCameraProvider cameraProvider;
     private Camera camera;
@@ -55,40 +87,168 @@ public class CameraXManager {
     private VideoCapture<Recorder> videoCapture;
     private Recording recording;
 
+    // Use cases are built once and reused across rebinds; VideoCapture is only bound once recording is requested
+    private boolean videoCaptureRequested = false;
+    // Profile of the next recording, and the one videoCapture was built for
+    private RecordingProfile recordingProfile = RecordingProfile.defaults();
+    private RecordingProfile videoCaptureProfile;
+    // Segmented recording in progress, null for a single file
+    private RecordingSegmenter segmenter;
+    private SegmentCallback segmentCallback;
+    private boolean stopRequested = false;
+    // State of the recording, the only place it is kept; status reports go to statusListener
+    private final RecordingStatusTracker recordingStatus = new RecordingStatusTracker(RecordingStatusTracker.DEFAULT_STATUS_PER_SECOND);
+    private RecordingStatusListener statusListener;
+    private PreviewView surfaceProviderView;
+    private FirstFrameWatcher firstFrameWatcher;
+    // Handed to the watcher of the next bind; the lens switch in flight completes through it
+    private FirstFrameAction firstFrameAction;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private static final long FIRST_FRAME_TIMEOUT_MS = 3000;
+
+    // Prewarm outcome of the start in progress, reported once with its timings
+    private boolean pendingPrewarmed = false;
+    private long pendingPrewarmSavedMs = 0;
+
+    // Frame analysis stream, bound next to Preview and ImageCapture while a processor is attached
+    private ImageAnalysis imageAnalysis;
+    private AnalysisPipeline analysisPipeline;
+    private ExecutorService analysisExecutor;
+    private static final int DEFAULT_ANALYSIS_WIDTH = 640;
+    private static final int DEFAULT_ANALYSIS_HEIGHT = 480;
+
     private PreviewView boundPreviewView;
 
+    // Preview frame timing, fed by the capture results of the preview's session
+    private final PreviewStatsRecorder previewStats = new PreviewStatsRecorder(PreviewStatsRecorder.DEFAULT_CAPACITY);
+    private String lastBoundCameraId;
+
     private CameraSelector currentCameraSelector;
     private boolean isCameraBound = false;
 
+    // Picture size and JPEG quality ImageCapture was built with; changing them rebuilds it
+    private volatile CaptureResolutionStrategy captureResolution = new CaptureResolutionStrategy(0, 0);
+    private volatile int jpegQuality = DEFAULT_JPEG_QUALITY;
+    private static final int DEFAULT_JPEG_QUALITY = 85;
+    // Captures requested from ImageCapture and not answered yet, burst shots included
+    private final AtomicInteger capturesInFlight = new AtomicInteger();
+    // Settings asked for while captures were in flight, applied once they drain; guarded by capturesInFlight
+    private CaptureResolutionStrategy pendingResolution;
+    private int pendingQuality;
+    // Burst shots waiting for their interval on the main handler; release() fails them
+    private final List<ScheduledShot> scheduledShots = new ArrayList<>();
+
     // Camera state
     private int flashMode = ImageCapture.FLASH_MODE_OFF;
     private float zoomLevel = 1.0f;
-    private boolean isRecording = false;
     private long lastCameraSwitchTime = 0;
     private static final long CAMERA_SWITCH_DEBOUNCE_MS = 500; // 500ms debounce
+    private static final long ZOOM_APPLY_TIMEOUT_MS = 1000;
+
+    /**
+     * How lens switches are performed. AUTO reaches lenses through setZoomRatio on a logical
+     * multi-camera and only rebinds on devices that expose no logical camera.
+     */
+    public enum LensSwitchMode { AUTO, REBIND }
+
+    private LensSwitchMode lensSwitchMode = LensSwitchMode.AUTO;
+
+    // Lens and facing switches, applied one at a time on the main thread
+    private final LensSwitchCoordinator lensSwitches;
+
+    // Pinch zoom, applied once per display frame; the policy is built from the lens topology on first use
+    private final ZoomDispatcher zoomDispatcher = new ZoomDispatcher(this::applyPinchZoom);
+    private ZoomLensPolicy zoomLensPolicy;
+
+    // Predictive lens preparation: a pinch heading into another lens resolves its camera early
+    private final ZoomCrossingPredictor crossingPredictor = new ZoomCrossingPredictor();
+    private LensBinding preparedLens;
+    // Pinch zoom of the crossing being switched, bound directly instead of applied after the first frame
+    private float crossingZoom = Float.NaN;
+    private long pinchPredictions;
+    private long pinchPredictionHits;
+    private long pinchPredictionLeadMs = -1;
+    private long pinchCrossings;
+    // Time without preview frames, from unbinding the old camera to the new one's first frame
+    private long lastUnbindAt;
+    private long lastSwitchBlackFrameMs = -1;
+    private long maxCrossingBlackFrameMs = -1;
+    private static final float MAX_PINCH_ZOOM = 10.0f;
+    // Used when focal lengths are unknown, matching the previous fixed thresholds
+    private static final float FALLBACK_ULTRA_WIDE_FACTOR = 0.5f;
+    private static final float FALLBACK_TELEPHOTO_FACTOR = 2.0f;
 
+    /**
+     * Picture and sample results are delivered on the image-processing executor, so receivers may
+     * do CPU work there; the main thread is never used for them.
+     */
     public interface CameraXCallback {
-        void onCameraStarted();
+        void onCameraStarted(CameraStartTimings timings);
         void onCameraError(String error);
         void onImageCaptured(File imageFile);
+        void onImageCaptured(byte[] jpeg, int rotationDegrees);
         void onImageCaptureError(String error);
+        /** Preview frame encoded as an upright JPEG by captureSample */
+        void onSampleCaptured(byte[] jpeg, int width, int height);
+        void onSampleCaptureError(String error);
         void onVideoRecordingStarted();
         void onVideoRecordingStopped(File videoFile);
         void onVideoRecordingError(String error);
     }
 
+    /**
+     * Outcome of one picture request, on the image-processing executor. Passed with each request
+     * so that overlapping requests, e.g. a capture during auto-capture, keep their own handling.
+     */
+    public interface CaptureCallback {
+        void onImageCaptured(File imageFile);
+        void onImageCaptured(byte[] jpeg, int rotationDegrees);
+        void onImageCaptureError(String error);
+    }
+
+    /** Per-shot results of takeBurst, called on the image-processing executor */
+    public interface BurstCallback {
+        void onBurstShot(int index, byte[] jpeg, int rotationDegrees);
+        void onBurstShotError(int index, String error);
+    }
+
+    /** Finished files of a segmented recording, called on the main thread */
+    public interface SegmentCallback {
+        void onSegmentReady(RecordingSegmenter.Segment segment);
+    }
+
+    /** State changes and rate-limited progress of a recording, called on the main thread */
+    public interface RecordingStatusListener {
+        void onRecordingStatus(Map<String, Object> status);
+    }
+
     private CameraXCallback callback;
 
     public CameraXManager(Context context) {
         this.context = context;
         this.cameraExecutor = Executors.newSingleThreadExecutor();
+        this.imageProcessor = new ImageProcessingExecutor(
+            ImageProcessingExecutor.DEFAULT_THREADS,
+            ImageProcessingExecutor.DEFAULT_QUEUE_CAPACITY,
+            "CameraImageProcessing",
+            Looper.getMainLooper().getThread()
+        );
         this.currentCameraSelector = CameraSelector.DEFAULT_BACK_CAMERA;
+        this.lensSwitches = new LensSwitchCoordinator(this::applyLensSwitch, ContextCompat.getMainExecutor(context));
     }
 
     public void setCallback(CameraXCallback callback) {
         this.callback = callback;
     }
 
+    public void setLensSwitchMode(LensSwitchMode mode) {
+        this.lensSwitchMode = mode != null ? mode : LensSwitchMode.AUTO;
+    }
+
+    public LensSwitchMode getLensSwitchMode() {
+        return lensSwitchMode;
+    }
+
     /**
      * Start the camera with the specified camera selector
      */
@@ -100,14 +260,22 @@ public class CameraXManager {
         }
 
         this.currentCameraSelector = selector;
+        final long requestedAt = SystemClock.elapsedRealtime();
+        final Tracer.Span providerSpan = Tracer.beginAsync("camerax.provider");
 
+        // Reuses the prewarmed provider future when prewarm() ran before start
         ListenableFuture<ProcessCameraProvider> cameraProviderFuture =
-            ProcessCameraProvider.getInstance(context);
+            CameraXPrewarm.getProviderFuture(context);
 
         cameraProviderFuture.addListener(() -> {
+            providerSpan.end();
             try {
                 ProcessCameraProvider provider = cameraProviderFuture.get();
-                bindCameraUseCases(provider, previewView, selector);
+                long providerMs = SystemClock.elapsedRealtime() - requestedAt;
+                long coldInitMs = CameraXPrewarm.getProviderInitMs();
+                pendingPrewarmed = coldInitMs >= 0;
+                pendingPrewarmSavedMs = pendingPrewarmed ? Math.max(0, coldInitMs - providerMs) : 0;
+                bindCameraUseCases(provider, previewView, selector, requestedAt, providerMs);
             } catch (ExecutionException | InterruptedException e) {
                 Log.e(TAG, "Error starting camera", e);
                 if (callback != null) {
@@ -123,10 +291,22 @@ public class CameraXManager {
     private void bindCameraUseCases(ProcessCameraProvider provider,
                                    PreviewView previewView,
                                    CameraSelector selector) {
+        bindCameraUseCases(provider, previewView, selector, SystemClock.elapsedRealtime(), 0);
+    }
+
+    private void bindCameraUseCases(ProcessCameraProvider provider,
+                                   PreviewView previewView,
+                                   CameraSelector selector,
+                                   long requestedAt,
+                                   long providerMs) {
         try {
+            cancelFirstFrameWatcher();
+
             // Unbind any existing use cases
             if (this.cameraProvider != null) {
+                Tracer.Span unbindSpan = Tracer.begin("camerax.unbind");
                 this.cameraProvider.unbindAll();
+                unbindSpan.end();
             }
 
             this.cameraProvider = provider;
@@ -134,45 +314,54 @@ public class CameraXManager {
                 this.boundPreviewView = previewView;
             }
 
-            // Create preview use case
-            preview = new Preview.Builder()
-                .setTargetAspectRatio(AspectRatio.RATIO_16_9)
-                .build();
-
-            // Create image capture use case
-            imageCapture = new ImageCapture.Builder()
-                .setCaptureMode(ImageCapture.CAPTURE_MODE_ZERO_SHUTTER_LAG)
-                .setTargetAspectRatio(AspectRatio.RATIO_16_9)
-                .setFlashMode(flashMode)
-                .build();
-
-            // Create video capture use case
-            Recorder recorder = new Recorder.Builder()
-                .setQualitySelector(QualitySelector.from(Quality.HIGHEST))
-                .build();
-            videoCapture = VideoCapture.withOutput(recorder);
-
-            // Bind use cases to camera
-            camera = provider.bindToLifecycle(
-                (LifecycleOwner) context,
-                selector,
-                preview,
-                imageCapture,
-                videoCapture
-            );
+            long buildStart = SystemClock.elapsedRealtime();
+            boolean reused = preview != null && imageCapture != null;
+            Tracer.Span buildSpan = Tracer.begin("camerax.build").arg("reused", reused);
+            ensureUseCases();
+            buildSpan.end();
+            long buildMs = SystemClock.elapsedRealtime() - buildStart;
+
+            long bindStart = SystemClock.elapsedRealtime();
+            boolean wasStreaming = boundPreviewView != null
+                && boundPreviewView.getPreviewStreamState().getValue() == PreviewView.StreamState.STREAMING;
+
+            // Bind use cases to camera; VideoCapture only when this session asked for recording
+            List<UseCase> useCases = new ArrayList<>(4);
+            useCases.add(preview);
+            useCases.add(imageCapture);
+            if (videoCaptureRequested) {
+                ensureVideoCapture();
+                useCases.add(videoCapture);
+            }
+            if (imageAnalysis != null) {
+                useCases.add(imageAnalysis);
+            }
+            Tracer.Span bindSpan = Tracer.begin("camerax.bind").arg("useCases", useCases.size());
+            try {
+                camera = provider.bindToLifecycle((LifecycleOwner) context, selector, useCases.toArray(new UseCase[0]));
+            } finally {
+                bindSpan.end();
+            }
 
             // Connect preview to PreviewView
-            if (this.boundPreviewView != null) {
+            if (this.boundPreviewView != null && this.boundPreviewView != surfaceProviderView) {
                 preview.setSurfaceProvider(this.boundPreviewView.getSurfaceProvider());
+                if (surfaceProviderView != null) {
+                    surfaceProviderView.getPreviewStreamState().removeObserver(streamStateObserver);
+                }
+                this.boundPreviewView.getPreviewStreamState().observe((LifecycleOwner) context, streamStateObserver);
+                surfaceProviderView = this.boundPreviewView;
             }
+            notePreviewSession();
+            long bindMs = SystemClock.elapsedRealtime() - bindStart;
 
             isCameraBound = true;
+            zoomLevel = 1.0f;
 
-            Log.d(TAG, "Camera use cases bound successfully");
+            Log.d(TAG, "Camera use cases bound successfully (reused=" + reused + ", video=" + videoCaptureRequested
+                + ", analysis=" + (imageAnalysis != null) + ")");
 
-            if (callback != null) {
-                callback.onCameraStarted();
-            }
+            awaitFirstFrame(requestedAt, providerMs, buildMs, bindMs, reused, wasStreaming);
 
         } catch (Exception e) {
             Log.e(TAG, "Error binding camera use cases", e);
@@ -183,20 +372,453 @@ public class CameraXManager {
     }
 
     /**
-     * Switch to a different camera
+     * Build the long-lived Preview and ImageCapture use cases on first use
+     */
+    private void ensureUseCases() {
+        if (preview == null) {
+            Preview.Builder previewBuilder = new Preview.Builder()
+                .setTargetAspectRatio(AspectRatio.RATIO_16_9);
+            new Camera2Interop.Extender<>(previewBuilder).setSessionCaptureCallback(previewStatsCallback);
+            preview = previewBuilder.build();
+        }
+        if (imageCapture == null) {
+            imageCapture = buildImageCapture();
+        } else {
+            imageCapture.setFlashMode(flashMode);
+        }
+    }
+
+    private ImageCapture buildImageCapture() {
+        return new ImageCapture.Builder()
+            .setCaptureMode(ImageCapture.CAPTURE_MODE_ZERO_SHUTTER_LAG)
+            .setResolutionSelector(buildCaptureResolutionSelector(captureResolution))
+            .setJpegQuality(jpegQuality)
+            .setFlashMode(flashMode)
+            .build();
+    }
+
+    /**
+     * 16:9 full resolution by default, as before. A requested size moves the strategy's choice to
+     * the front of the candidates so CameraX binds it when the session allows.
+     */
+    private static ResolutionSelector buildCaptureResolutionSelector(final CaptureResolutionStrategy strategy) {
+        ResolutionSelector.Builder builder = new ResolutionSelector.Builder();
+        if (strategy.isDefault()) {
+            return builder.setAspectRatioStrategy(AspectRatioStrategy.RATIO_16_9_FALLBACK_AUTO_STRATEGY).build();
+        }
+        builder.setAspectRatioStrategy(strategy.prefers4by3()
+            ? AspectRatioStrategy.RATIO_4_3_FALLBACK_AUTO_STRATEGY
+            : AspectRatioStrategy.RATIO_16_9_FALLBACK_AUTO_STRATEGY);
+        builder.setResolutionFilter((supportedSizes, rotationDegrees) -> {
+            List<CaptureResolutionStrategy.Size> candidates = new ArrayList<>(supportedSizes.size());
+            for (android.util.Size size : supportedSizes) {
+                candidates.add(new CaptureResolutionStrategy.Size(size.getWidth(), size.getHeight()));
+            }
+            CaptureResolutionStrategy.Size selected = strategy.select(candidates);
+            if (selected == null) return supportedSizes;
+            List<android.util.Size> ordered = new ArrayList<>(supportedSizes.size());
+            android.util.Size preferred = new android.util.Size(selected.getWidth(), selected.getHeight());
+            ordered.add(preferred);
+            for (android.util.Size size : supportedSizes) {
+                if (!size.equals(preferred)) ordered.add(size);
+            }
+            Log.d(TAG, "Capture resolution " + selected + " for request " + strategy);
+            return ordered;
+        });
+        return builder.build();
+    }
+
+    /**
+     * Apply the picture size and JPEG quality of the next capture. ImageCapture fixes both when it
+     * is built, so it is rebuilt and rebound only when they differ from the current ones. Unbinding
+     * would fail captures in flight, so while there are any the new settings are kept and applied
+     * once the last one settles, and the next capture is taken with the current ones.
+     *
+     * @param width requested width, 0 for the device default
+     * @param height requested height, 0 for the device default
+     * @param quality JPEG quality 1-100
+     * @return the JPEG quality the next capture is encoded with; callers re-encode when it differs
+     */
+    public int configureCapture(int width, int height, int quality) {
+        final CaptureResolutionStrategy resolution = new CaptureResolutionStrategy(width, height);
+        final int clampedQuality = clampQuality(quality);
+        synchronized (capturesInFlight) {
+            if (resolution.equals(captureResolution) && clampedQuality == jpegQuality) {
+                // The latest request wins over one still waiting
+                pendingResolution = null;
+                return jpegQuality;
+            }
+            if (capturesInFlight.get() > 0) {
+                Log.d(TAG, "Captures in flight, " + resolution + " q=" + clampedQuality + " applied once they settle");
+                pendingResolution = resolution;
+                pendingQuality = clampedQuality;
+                return jpegQuality;
+            }
+            pendingResolution = null;
+        }
+        callOnMain(() -> rebuildImageCapture(resolution, clampedQuality));
+        return jpegQuality;
+    }
+
+    public static int clampQuality(int quality) {
+        return Math.max(1, Math.min(100, quality));
+    }
+
+    /** A capture in flight was answered; the last one applies the settings that waited for it */
+    private void captureSettled() {
+        if (capturesInFlight.decrementAndGet() > 0) return;
+        mainHandler.post(() -> {
+            CaptureResolutionStrategy resolution;
+            int quality;
+            synchronized (capturesInFlight) {
+                if (pendingResolution == null || capturesInFlight.get() > 0) return;
+                resolution = pendingResolution;
+                quality = pendingQuality;
+                pendingResolution = null;
+            }
+            rebuildImageCapture(resolution, quality);
+        });
+    }
+
+    private boolean rebuildImageCapture(CaptureResolutionStrategy resolution, int quality) {
+        CaptureResolutionStrategy previousResolution = captureResolution;
+        int previousQuality = jpegQuality;
+        ImageCapture previous = imageCapture;
+        captureResolution = resolution;
+        jpegQuality = quality;
+        if (previous == null) {
+            // Built with the new settings on the next bind
+            return true;
+        }
+        long start = SystemClock.elapsedRealtime();
+        imageCapture = buildImageCapture();
+        if (cameraProvider == null || !isCameraBound || !cameraProvider.isBound(previous)) {
+            return true;
+        }
+        try {
+            cameraProvider.unbind(previous);
+            camera = cameraProvider.bindToLifecycle((LifecycleOwner) context, currentCameraSelector, imageCapture);
+            Log.d(TAG, "ImageCapture rebound for " + resolution + " q=" + quality + " in " + (SystemClock.elapsedRealtime() - start) + "ms");
+            return true;
+        } catch (Exception e) {
+            Log.e(TAG, "Error rebinding ImageCapture, keeping previous settings", e);
+            captureResolution = previousResolution;
+            jpegQuality = previousQuality;
+            imageCapture = previous;
+            try {
+                camera = cameraProvider.bindToLifecycle((LifecycleOwner) context, currentCameraSelector, previous);
+            } catch (Exception rebindError) {
+                Log.e(TAG, "Error restoring ImageCapture", rebindError);
+            }
+            return false;
+        }
+    }
+
+    /**
+     * Build the VideoCapture use case on first recording request, from the recording profile and
+     * what the bound camera supports
+     */
+    private void ensureVideoCapture() {
+        if (videoCapture != null) return;
+        RecordingProfile profile = recordingProfile;
+        CameraInfo cameraInfo = camera != null ? camera.getCameraInfo() : null;
+        RecordingProfile.Tier tier = profile.selectTier(supportedVideoTiers(cameraInfo));
+        Quality quality = qualityFor(tier);
+        Recorder.Builder recorderBuilder = new Recorder.Builder()
+            .setQualitySelector(QualitySelector.from(quality, FallbackStrategy.lowerQualityOrHigherThan(quality)));
+        int bitRate = profile.bitRateFor(tier);
+        if (bitRate > 0) recorderBuilder.setTargetVideoEncodingBitRate(bitRate);
+        VideoCapture.Builder<Recorder> builder = new VideoCapture.Builder<>(recorderBuilder.build());
+        int[] fpsRange = cameraInfo != null ? profile.selectFrameRateRange(supportedFrameRates(cameraInfo)) : null;
+        if (fpsRange != null) builder.setTargetFrameRate(new Range<>(fpsRange[0], fpsRange[1]));
+        videoCapture = builder.build();
+        videoCaptureProfile = profile;
+        Log.d(TAG, "VideoCapture built for " + profile + ": " + tier + ", bitRate=" + bitRate
+            + (fpsRange != null ? ", fps=" + fpsRange[0] + "-" + fpsRange[1] : ""));
+    }
+
+    /** Drop a VideoCapture built for another profile so the next bind builds it again */
+    private void applyRecordingProfile(RecordingProfile profile) {
+        recordingProfile = profile;
+        if (videoCapture == null || profile.hasSameEncoding(videoCaptureProfile)) return;
+        if (cameraProvider != null && cameraProvider.isBound(videoCapture)) {
+            cameraProvider.unbind(videoCapture);
+        }
+        videoCapture = null;
+        videoCaptureProfile = null;
+    }
+
+    private static List<RecordingProfile.Tier> supportedVideoTiers(CameraInfo cameraInfo) {
+        List<RecordingProfile.Tier> tiers = new ArrayList<>(4);
+        if (cameraInfo == null) return tiers;
+        try {
+            for (Quality quality : Recorder.getVideoCapabilities(cameraInfo).getSupportedQualities(DynamicRange.SDR)) {
+                RecordingProfile.Tier tier = tierFor(quality);
+                if (tier != null) tiers.add(tier);
+            }
+        } catch (Exception e) {
+            Log.w(TAG, "Could not read video capabilities: " + e.getMessage());
+        }
+        return tiers;
+    }
+
+    private static List<int[]> supportedFrameRates(CameraInfo cameraInfo) {
+        List<int[]> ranges = new ArrayList<>();
+        for (Range<Integer> range : cameraInfo.getSupportedFrameRateRanges()) {
+            ranges.add(new int[] { range.getLower(), range.getUpper() });
+        }
+        return ranges;
+    }
+
+    private static Quality qualityFor(RecordingProfile.Tier tier) {
+        switch (tier) {
+            case SD:
+                return Quality.SD;
+            case HD:
+                return Quality.HD;
+            case UHD:
+                return Quality.UHD;
+            case FHD:
+            default:
+                return Quality.FHD;
+        }
+    }
+
+    private static RecordingProfile.Tier tierFor(Quality quality) {
+        if (quality == Quality.SD) return RecordingProfile.Tier.SD;
+        if (quality == Quality.HD) return RecordingProfile.Tier.HD;
+        if (quality == Quality.FHD) return RecordingProfile.Tier.FHD;
+        if (quality == Quality.UHD) return RecordingProfile.Tier.UHD;
+        return null;
+    }
+
+    /**
+     * Add VideoCapture to the running session without rebinding Preview and ImageCapture
+     */
+    private boolean bindVideoCaptureIfNeeded() {
+        videoCaptureRequested = true;
+        if (cameraProvider == null || !isCameraBound) return false;
+        ensureVideoCapture();
+        if (cameraProvider.isBound(videoCapture)) return true;
+        try {
+            long start = SystemClock.elapsedRealtime();
+            camera = cameraProvider.bindToLifecycle((LifecycleOwner) context, currentCameraSelector, videoCapture);
+            Log.d(TAG, "VideoCapture bound lazily in " + (SystemClock.elapsedRealtime() - start) + "ms");
+            return true;
+        } catch (Exception e) {
+            Log.e(TAG, "Error binding VideoCapture", e);
+            return false;
+        }
+    }
+
+    /**
+     * Report the camera as started once the preview streams its first frame, or after a timeout
+     */
+    private void awaitFirstFrame(long requestedAt, long providerMs, long buildMs, long bindMs, boolean reused, boolean wasStreaming) {
+        final long bindDone = SystemClock.elapsedRealtime();
+        FirstFrameAction action = firstFrameAction;
+        firstFrameAction = null;
+        if (boundPreviewView == null) {
+            deliverCameraStarted(new CameraStartTimings(providerMs, buildMs, bindMs, -1, bindDone - requestedAt, reused));
+            if (action != null) action.onFirstFrame(-1);
+            return;
+        }
+        firstFrameWatcher = new FirstFrameWatcher(boundPreviewView, requestedAt, bindDone, providerMs, buildMs, bindMs, reused, wasStreaming,
+            action);
+        boundPreviewView.getPreviewStreamState().observe((LifecycleOwner) context, firstFrameWatcher);
+        mainHandler.postDelayed(firstFrameWatcher, FIRST_FRAME_TIMEOUT_MS);
+    }
+
+    /**
+     * Reads timing, exposure, active physical camera and zoom of every preview frame. Runs on the
+     * camera's callback thread for each frame, so it only copies a few values into the recorder.
+     */
+    private final CameraCaptureSession.CaptureCallback previewStatsCallback = new CameraCaptureSession.CaptureCallback() {
+        @Override
+        public void onCaptureCompleted(@NonNull CameraCaptureSession session, @NonNull CaptureRequest request,
+                                       @NonNull TotalCaptureResult result) {
+            long start = System.nanoTime();
+            Long timestamp = result.get(CaptureResult.SENSOR_TIMESTAMP);
+            if (timestamp == null) return;
+            Long exposure = result.get(CaptureResult.SENSOR_EXPOSURE_TIME);
+            String physicalId = null;
+            if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.Q) {
+                physicalId = result.get(CaptureResult.LOGICAL_MULTI_CAMERA_ACTIVE_PHYSICAL_ID);
+            }
+            float zoom = Float.NaN;
+            if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.R) {
+                Float ratio = result.get(CaptureResult.CONTROL_ZOOM_RATIO);
+                if (ratio != null) zoom = ratio;
+            }
+            previewStats.onFrame(timestamp, exposure != null ? exposure : -1, physicalId, zoom, SystemClock.elapsedRealtime());
+            previewStats.recordOverhead(System.nanoTime() - start);
+        }
+    };
+
+    private final Observer<PreviewView.StreamState> streamStateObserver =
+        state -> previewStats.setStreaming(state == PreviewView.StreamState.STREAMING);
+
+    /** A bind starts a new frame sequence; binding another camera counts as a lens switch */
+    private void notePreviewSession() {
+        previewStats.onSessionRestart();
+        String boundId = null;
+        try {
+            boundId = androidx.camera.camera2.interop.Camera2CameraInfo.from(camera.getCameraInfo()).getCameraId();
+        } catch (Exception e) {
+            Log.w(TAG, "Could not resolve bound camera id: " + e.getMessage());
+        }
+        if (lastBoundCameraId != null && boundId != null && !boundId.equals(lastBoundCameraId)) {
+            previewStats.onLensSwitch(SystemClock.elapsedRealtime());
+        }
+        lastBoundCameraId = boundId;
+    }
+
+    /**
+     * Frame rate, frame interval percentiles, exposure, active camera and zoom of the preview
+     */
+    public java.util.Map<String, Object> getPreviewStats() {
+        java.util.Map<String, Object> stats = previewStats.snapshot(SystemClock.elapsedRealtime());
+        stats.put("cameraId", lastBoundCameraId);
+        if (!stats.containsKey("physicalCameraId") && lastBoundCameraId != null) {
+            stats.put("physicalCameraId", lastBoundCameraId);
+        }
+        if (!stats.containsKey("zoomRatio")) {
+            // Before Android 11 capture results carry no zoom ratio
+            stats.put("zoomRatio", (double) zoomLevel);
+        }
+        LensTarget lens = getCurrentLens();
+        if (lens != null) stats.put("lens", lens.getJsName());
+        stats.put("lensSwitchBlackFrameMs", lastSwitchBlackFrameMs);
+        stats.put("pinchCrossings", pinchCrossings);
+        stats.put("pinchCrossingMaxBlackFrameMs", maxCrossingBlackFrameMs);
+        stats.put("pinchPredictions", pinchPredictions);
+        stats.put("pinchPredictionHits", pinchPredictionHits);
+        stats.put("pinchPredictionLeadMs", pinchPredictionLeadMs);
+        return stats;
+    }
+
+    private void cancelFirstFrameWatcher() {
+        if (firstFrameWatcher != null) {
+            firstFrameWatcher.detach();
+            firstFrameWatcher = null;
+        }
+    }
+
+    private void deliverCameraStarted(CameraStartTimings timings) {
+        if (pendingPrewarmed) {
+            timings = new CameraStartTimings(timings.getProviderMs(), timings.getBuildMs(), timings.getBindMs(),
+                timings.getFirstFrameMs(), timings.getTotalMs(), timings.isUseCasesReused(), true, pendingPrewarmSavedMs);
+        }
+        pendingPrewarmed = false;
+        pendingPrewarmSavedMs = 0;
+        Log.d(TAG, "Camera started: " + timings);
+        if (callback != null) {
+            callback.onCameraStarted(timings);
+        }
+    }
+
+    private interface FirstFrameAction {
+        /** @param firstFrameMs time from bind to first frame, -1 when unknown */
+        void onFirstFrame(long firstFrameMs);
+    }
+
+    /**
+     * Waits for the PreviewView stream to (re)enter STREAMING after a bind.
+     * Also runs as the timeout task, in which case the first frame time is reported as -1.
+     * A watcher detached by a newer bind still runs its action, with -1.
+     */
+    private class FirstFrameWatcher implements Observer<PreviewView.StreamState>, Runnable {
+        private final PreviewView view;
+        private final long requestedAt;
+        private final long bindDone;
+        private final long providerMs;
+        private final long buildMs;
+        private final long bindMs;
+        private final boolean reused;
+        private FirstFrameAction action;
+        private long firstFrameMs = -1;
+        private boolean sawIdle;
+        private boolean done = false;
+        private final Tracer.Span span = Tracer.beginAsync("camerax.firstFrame");
+
+        FirstFrameWatcher(PreviewView view, long requestedAt, long bindDone, long providerMs, long buildMs, long bindMs,
+                          boolean reused, boolean wasStreaming, FirstFrameAction action) {
+            this.view = view;
+            this.requestedAt = requestedAt;
+            this.bindDone = bindDone;
+            this.providerMs = providerMs;
+            this.buildMs = buildMs;
+            this.bindMs = bindMs;
+            this.reused = reused;
+            this.action = action;
+            // A stale STREAMING value from the previous session must go through IDLE first
+            this.sawIdle = !wasStreaming;
+        }
+
+        @Override
+        public void onChanged(PreviewView.StreamState state) {
+            if (done) return;
+            if (state == PreviewView.StreamState.IDLE) {
+                sawIdle = true;
+            } else if (state == PreviewView.StreamState.STREAMING && sawIdle) {
+                finish(SystemClock.elapsedRealtime() - bindDone);
+            }
+        }
+
+        @Override
+        public void run() {
+            if (done) return;
+            Log.w(TAG, "No preview frame within " + FIRST_FRAME_TIMEOUT_MS + "ms");
+            finish(-1);
+        }
+
+        private void finish(long firstFrameMs) {
+            span.arg("firstFrameMs", firstFrameMs);
+            this.firstFrameMs = firstFrameMs;
+            detach();
+            if (firstFrameWatcher == this) firstFrameWatcher = null;
+            deliverCameraStarted(new CameraStartTimings(providerMs, buildMs, bindMs, firstFrameMs,
+                SystemClock.elapsedRealtime() - requestedAt, reused));
+        }
+
+        void detach() {
+            span.end();
+            done = true;
+            view.getPreviewStreamState().removeObserver(this);
+            mainHandler.removeCallbacks(this);
+            if (action != null) {
+                FirstFrameAction pending = action;
+                action = null;
+                pending.onFirstFrame(firstFrameMs);
+            }
+        }
+    }
+
+    /**
+     * Rebind to a different camera on the calling (main) thread. Lens switches made through
+     * switchToLens() are serialized with each other; this is only used to restart a bound camera.
      */
     public void switchCamera(CameraSelector selector) {
         if (!isCameraBound || cameraProvider == null) {
             Log.w(TAG, "Camera not bound, cannot switch");
             return;
         }
+        if (recordingStatus.isActive()) {
+            Log.w(TAG, "Cannot switch camera while recording");
+            return;
+        }
+        if (lensSwitches.isSwitching()) {
+            Log.w(TAG, "Cannot switch camera while a lens switch is in flight");
+            return;
+        }
 
         try {
             // Unbind current use cases
             cameraProvider.unbindAll();
             isCameraBound = false;
 
-            // Rebind with new selector (keep boundPreviewView)
+            // Later single use-case binds attach to currentCameraSelector, so it must follow the camera
+            currentCameraSelector = selector;
             bindCameraUseCases(cameraProvider, this.boundPreviewView, selector);
 
         } catch (Exception e) {
@@ -207,94 +829,619 @@ public class CameraXManager {
         }
     }
 
+    // Requests made without their own CaptureCallback report through the CameraXCallback
+    private final CaptureCallback sharedCapture = new CaptureCallback() {
+        @Override
+        public void onImageCaptured(File imageFile) {
+            if (callback != null) callback.onImageCaptured(imageFile);
+        }
+
+        @Override
+        public void onImageCaptured(byte[] jpeg, int rotationDegrees) {
+            if (callback != null) callback.onImageCaptured(jpeg, rotationDegrees);
+        }
+
+        @Override
+        public void onImageCaptureError(String error) {
+            if (callback != null) callback.onImageCaptureError(error);
+        }
+    };
+
+    /**
+     * Take a picture
+     */
+    public void takePicture(File outputFile) {
+        takePicture(outputFile, sharedCapture);
+    }
+
+    /**
+     * Take a picture into outputFile, reporting to target
+     */
+    public void takePicture(final File outputFile, final CaptureCallback target) {
+        if (!isCameraBound || imageCapture == null) {
+            Log.w(TAG, "Camera not bound or image capture not available");
+            target.onImageCaptureError("Camera not ready");
+            return;
+        }
+
+        ImageCapture.OutputFileOptions outputOptions =
+            new ImageCapture.OutputFileOptions.Builder(outputFile).build();
+        final Tracer.Span captureSpan = Tracer.beginAsync("camerax.capture").arg("inMemory", false);
+        capturesInFlight.incrementAndGet();
+
+        imageCapture.takePicture(
+            outputOptions,
+            cameraExecutor,
+            new ImageCapture.OnImageSavedCallback() {
+                @Override
+                public void onImageSaved(@NonNull ImageCapture.OutputFileResults output) {
+                    captureSettled();
+                    captureSpan.end();
+                    Log.d(TAG, "Image saved successfully: " + outputFile.getAbsolutePath());
+                    process(() -> target.onImageCaptured(outputFile), captureDropped(target));
+                }
+
+                @Override
+                public void onError(@NonNull ImageCaptureException exception) {
+                    captureSettled();
+                    captureSpan.arg("error", exception.getImageCaptureError()).end();
+                    Log.e(TAG, "Image capture failed", exception);
+                    target.onImageCaptureError("Image capture failed: " + exception.getMessage());
+                }
+            }
+        );
+    }
+
+    /**
+     * Take a picture without writing it to disk. The encoder's JPEG bytes are copied once out of
+     * the ImageProxy and delivered with the rotation still to be applied, on the camera executor.
+     */
+    public void takePictureInMemory() {
+        takePictureInMemory(sharedCapture);
+    }
+
+    /**
+     * Take a picture without writing it to disk, reporting to target
+     */
+    public void takePictureInMemory(final CaptureCallback target) {
+        if (!isCameraBound || imageCapture == null) {
+            Log.w(TAG, "Camera not bound or image capture not available");
+            target.onImageCaptureError("Camera not ready");
+            return;
+        }
+
+        final Tracer.Span captureSpan = Tracer.beginAsync("camerax.capture").arg("inMemory", true);
+        capturesInFlight.incrementAndGet();
+        imageCapture.takePicture(
+            cameraExecutor,
+            new ImageCapture.OnImageCapturedCallback() {
+                @Override
+                public void onCaptureSuccess(@NonNull ImageProxy image) {
+                    captureSettled();
+                    captureSpan.end();
+                    int rotationDegrees = image.getImageInfo().getRotationDegrees();
+                    int format = image.getFormat();
+                    byte[] jpeg = copyJpeg(image);
+                    if (jpeg == null) {
+                        target.onImageCaptureError("Unexpected image format: " + format);
+                        return;
+                    }
+                    Log.d(TAG, "Image captured in memory: " + jpeg.length + " bytes, rotation=" + rotationDegrees);
+                    process(() -> target.onImageCaptured(jpeg, rotationDegrees), captureDropped(target));
+                }
+
+                @Override
+                public void onError(@NonNull ImageCaptureException exception) {
+                    captureSettled();
+                    captureSpan.arg("error", exception.getImageCaptureError()).end();
+                    Log.e(TAG, "Image capture failed", exception);
+                    target.onImageCaptureError("Image capture failed: " + exception.getMessage());
+                }
+            }
+        );
+    }
+
+    /**
+     * Queue count still captures, intervalMs apart or back-to-back when 0, without waiting for
+     * the previous shot to be delivered. The ZSL capture mode ImageCapture is built with lets the
+     * camera hand over consecutive frames quickly; each shot's JPEG is copied out on the camera
+     * executor and handed to the image-processing executor, so encoding runs while the next shot
+     * is captured.
+     *
+     * @return false when the camera is not ready, in which case no shot is requested
+     */
+    public boolean takeBurst(final BurstStats stats, long intervalMs, final BurstCallback burstCallback) {
+        if (!isCameraBound || imageCapture == null) {
+            Log.w(TAG, "Camera not bound or image capture not available");
+            return false;
+        }
+        final ImageCapture capture = imageCapture;
+        // All shots count from the start, so no rebuild lands between two of them
+        capturesInFlight.addAndGet(stats.getCount());
+        for (int i = 0; i < stats.getCount(); i++) {
+            final int index = i;
+            Runnable shot = () -> {
+                stats.onRequested(index, SystemClock.elapsedRealtime());
+                capture.takePicture(
+                    cameraExecutor,
+                    new ImageCapture.OnImageCapturedCallback() {
+                        @Override
+                        public void onCaptureSuccess(@NonNull ImageProxy image) {
+                            captureSettled();
+                            stats.onCaptured(index, SystemClock.elapsedRealtime());
+                            int rotationDegrees = image.getImageInfo().getRotationDegrees();
+                            byte[] jpeg = copyJpeg(image);
+                            if (jpeg == null) {
+                                burstCallback.onBurstShotError(index, "Unexpected image format");
+                                return;
+                            }
+                            process(
+                                () -> burstCallback.onBurstShot(index, jpeg, rotationDegrees),
+                                () -> burstCallback.onBurstShotError(index, "Capture cancelled")
+                            );
+                        }
+
+                        @Override
+                        public void onError(@NonNull ImageCaptureException exception) {
+                            captureSettled();
+                            Log.e(TAG, "Burst shot " + index + " failed", exception);
+                            burstCallback.onBurstShotError(index, "Image capture failed: " + exception.getMessage());
+                        }
+                    }
+                );
+            };
+            if (intervalMs <= 0) {
+                shot.run();
+            } else {
+                ScheduledShot scheduled = new ScheduledShot(index, shot, burstCallback);
+                synchronized (scheduledShots) {
+                    scheduledShots.add(scheduled);
+                }
+                mainHandler.postDelayed(scheduled, i * intervalMs);
+            }
+        }
+        return true;
+    }
+
+    /** A burst shot posted for later, run at most once unless cancelled first */
+    private final class ScheduledShot implements Runnable {
+        private final int index;
+        private final Runnable shot;
+        private final BurstCallback burstCallback;
+
+        ScheduledShot(int index, Runnable shot, BurstCallback burstCallback) {
+            this.index = index;
+            this.shot = shot;
+            this.burstCallback = burstCallback;
+        }
+
+        @Override
+        public void run() {
+            synchronized (scheduledShots) {
+                if (!scheduledShots.remove(this)) return;
+            }
+            shot.run();
+        }
+    }
+
+    /** Drop the burst shots not requested yet, failing each so the burst still settles */
+    private void cancelScheduledShots(String reason) {
+        List<ScheduledShot> cancelled;
+        synchronized (scheduledShots) {
+            cancelled = new ArrayList<>(scheduledShots);
+            scheduledShots.clear();
+        }
+        for (ScheduledShot scheduled : cancelled) {
+            mainHandler.removeCallbacks(scheduled);
+            captureSettled();
+            scheduled.burstCallback.onBurstShotError(scheduled.index, reason);
+        }
+    }
+
+    private static Runnable captureDropped(final CaptureCallback target) {
+        return () -> target.onImageCaptureError("Capture cancelled");
+    }
+
+    /**
+     * Run post-capture work on the image-processing executor. onDropped runs instead when the job
+     * is cancelled or cannot be queued, and after it when it throws, e.g. out of memory while
+     * decoding a full-size picture, so the capture's call still settles.
+     */
+    private void process(final Runnable job, Runnable onDropped) {
+        try {
+            imageProcessor.submit(() -> {
+                Tracer.Span span = Tracer.begin("image.process");
+                try {
+                    job.run();
+                } catch (Throwable t) {
+                    Log.e(TAG, "Image processing job failed", t);
+                    throw t;
+                } finally {
+                    span.end();
+                }
+            }, onDropped);
+        } catch (RejectedExecutionException e) {
+            Log.w(TAG, "Image processing queue rejected a job: " + imageProcessor.toMap());
+            onDropped.run();
+        }
+    }
+
+    /** Queue depth, wait and run times of the image-processing executor */
+    public java.util.Map<String, Object> getImageProcessingMetrics() {
+        return imageProcessor.toMap();
+    }
+
+    /**
+     * Copy the encoder's JPEG out of the image and close it
+     *
+     * @return the JPEG, or null if the image is not a JPEG
+     */
+    private static byte[] copyJpeg(ImageProxy image) {
+        try {
+            if (image.getFormat() != ImageFormat.JPEG) {
+                return null;
+            }
+            ByteBuffer buffer = image.getPlanes()[0].getBuffer();
+            buffer.rewind();
+            byte[] jpeg = new byte[buffer.remaining()];
+            buffer.get(jpeg);
+            return jpeg;
+        } finally {
+            image.close();
+        }
+    }
+
+    /**
+     * Grab the frame the preview is showing and encode it as a JPEG. Unlike a still capture this
+     * skips the shutter pipeline and 3A convergence; the sample has the preview's size and is
+     * already upright. The bitmap is read on the main thread and encoded on the image-processing
+     * executor.
+     */
+    public void captureSample(final int quality) {
+        final PreviewView view = boundPreviewView;
+        if (!isCameraBound || view == null) {
+            Log.w(TAG, "Camera not bound or preview not available");
+            if (callback != null) {
+                callback.onSampleCaptureError("Camera not ready");
+            }
+            return;
+        }
+        final int clampedQuality = Math.max(0, Math.min(100, quality));
+        Runnable grab = () -> {
+            final long start = SystemClock.elapsedRealtime();
+            final Bitmap bitmap = view.getBitmap();
+            if (bitmap == null) {
+                if (callback != null) {
+                    callback.onSampleCaptureError("No preview frame available");
+                }
+                return;
+            }
+            final long grabbedAt = SystemClock.elapsedRealtime();
+            process(() -> {
+                ByteArrayOutputStream out = new ByteArrayOutputStream(bitmap.getWidth() * bitmap.getHeight() / 4);
+                boolean encoded = bitmap.compress(Bitmap.CompressFormat.JPEG, clampedQuality, out);
+                int width = bitmap.getWidth();
+                int height = bitmap.getHeight();
+                bitmap.recycle();
+                if (!encoded) {
+                    if (callback != null) callback.onSampleCaptureError("Failed to encode preview frame");
+                    return;
+                }
+                byte[] jpeg = out.toByteArray();
+                Log.d(TAG, "Sample " + width + "x" + height + " " + jpeg.length + " bytes: grab=" + (grabbedAt - start)
+                    + "ms, encode=" + (SystemClock.elapsedRealtime() - grabbedAt) + "ms");
+                if (callback != null) {
+                    callback.onSampleCaptured(jpeg, width, height);
+                }
+            }, () -> {
+                bitmap.recycle();
+                if (callback != null) callback.onSampleCaptureError("Preview frame dropped, image processing is busy");
+            });
+        };
+        if (Looper.myLooper() == Looper.getMainLooper()) {
+            grab.run();
+        } else {
+            mainHandler.post(grab);
+        }
+    }
+
+    /**
+     * Stream frames to a processor through an ImageAnalysis use case on a dedicated thread,
+     * replacing any running analysis. Keep-only-latest backpressure makes a slow processor skip
+     * frames instead of stalling the camera. Started before the camera, it is bound with it.
+     *
+     * @param width target analysis width in sensor orientation, 0 for 640
+     * @param height target analysis height in sensor orientation, 0 for 480
+     */
+    public boolean startAnalysis(FrameProcessor processor, AnalysisPipeline.ResultSink sink,
+                                 double maxResultsPerSecond, int width, int height) {
+        final AnalysisPipeline pipeline = new AnalysisPipeline(processor, sink, maxResultsPerSecond);
+        final android.util.Size targetSize = new android.util.Size(
+            width > 0 ? width : DEFAULT_ANALYSIS_WIDTH,
+            height > 0 ? height : DEFAULT_ANALYSIS_HEIGHT
+        );
+        return callOnMain(() -> {
+            if (analysisExecutor == null) {
+                analysisExecutor = Executors.newSingleThreadExecutor();
+            }
+            detachAnalysis();
+            ImageAnalysis analysis = new ImageAnalysis.Builder()
+                .setBackpressureStrategy(ImageAnalysis.STRATEGY_KEEP_ONLY_LATEST)
+                .setOutputImageFormat(ImageAnalysis.OUTPUT_IMAGE_FORMAT_YUV_420_888)
+                .setResolutionSelector(new ResolutionSelector.Builder()
+                    .setResolutionStrategy(new ResolutionStrategy(targetSize, ResolutionStrategy.FALLBACK_RULE_CLOSEST_LOWER_THEN_HIGHER))
+                    .build())
+                .build();
+            analysis.setAnalyzer(analysisExecutor, image -> {
+                try {
+                    pipeline.onFrame(new ImageProxyFrame(image));
+                } finally {
+                    image.close();
+                }
+            });
+            imageAnalysis = analysis;
+            analysisPipeline = pipeline;
+            if (cameraProvider == null || !isCameraBound) {
+                return true;
+            }
+            try {
+                long start = SystemClock.elapsedRealtime();
+                camera = cameraProvider.bindToLifecycle((LifecycleOwner) context, currentCameraSelector, analysis);
+                Log.d(TAG, "ImageAnalysis bound in " + (SystemClock.elapsedRealtime() - start) + "ms, target " + targetSize);
+                return true;
+            } catch (Exception e) {
+                Log.e(TAG, "Error binding ImageAnalysis", e);
+                detachAnalysis();
+                return false;
+            }
+        });
+    }
+
+    /**
+     * Stop the analysis stream and unbind its use case
+     *
+     * @return final metrics of the stream, or null when none was running
+     */
+    public AnalysisMetrics stopAnalysis() {
+        final AnalysisPipeline pipeline = analysisPipeline;
+        callOnMain(() -> {
+            detachAnalysis();
+            return true;
+        });
+        return pipeline != null ? pipeline.getMetrics() : null;
+    }
+
+    /**
+     * Metrics of the running analysis stream, or null when none is running
+     */
+    public AnalysisMetrics getAnalysisMetrics() {
+        AnalysisPipeline pipeline = analysisPipeline;
+        return pipeline != null ? pipeline.getMetrics() : null;
+    }
+
+    private void detachAnalysis() {
+        if (imageAnalysis == null) return;
+        imageAnalysis.clearAnalyzer();
+        if (cameraProvider != null && cameraProvider.isBound(imageAnalysis)) {
+            cameraProvider.unbind(imageAnalysis);
+        }
+        imageAnalysis = null;
+        analysisPipeline = null;
+    }
+
+    /**
+     * Start video recording
+     */
+    public void startRecording(File outputFile) {
+        startRecording(outputFile, RecordingProfile.defaults());
+    }
+
     /**
-     * Take a picture
+     * Start video recording with the given size, frame rate, bitrate and duration limit
      */
-    public void takePicture(File outputFile) {
-        if (!isCameraBound || imageCapture == null) {
-            Log.w(TAG, "Camera not bound or image capture not available");
-            if (callback != null) {
-                callback.onImageCaptureError("Camera not ready");
-            }
-            return;
-        }
-
-        ImageCapture.OutputFileOptions outputOptions =
-            new ImageCapture.OutputFileOptions.Builder(outputFile).build();
-
-        imageCapture.takePicture(
-            outputOptions,
-            ContextCompat.getMainExecutor(context),
-            new ImageCapture.OnImageSavedCallback() {
-                @Override
-                public void onImageSaved(@NonNull ImageCapture.OutputFileResults output) {
-                    Log.d(TAG, "Image saved successfully: " + outputFile.getAbsolutePath());
-                    if (callback != null) {
-                        callback.onImageCaptured(outputFile);
-                    }
-                }
+    public void startRecording(File outputFile, RecordingProfile profile) {
+        if (!prepareRecording(profile)) return;
+        segmenter = null;
+        segmentCallback = null;
+        startRecordingFile(outputFile, profile, true);
+    }
 
-                @Override
-                public void onError(@NonNull ImageCaptureException exception) {
-                    Log.e(TAG, "Image capture failed", exception);
-                    if (callback != null) {
-                        callback.onImageCaptureError("Image capture failed: " + exception.getMessage());
-                    }
-                }
-            }
-        );
+    /**
+     * Record into consecutive files of segmenter's length or size. Each finished file is handed
+     * to segmentCallback on the main thread while the next one is already recording.
+     */
+    public void startSegmentedRecording(RecordingSegmenter segmenter, RecordingProfile profile, SegmentCallback segmentCallback) {
+        if (!prepareRecording(profile)) return;
+        this.segmenter = segmenter;
+        this.segmentCallback = segmentCallback;
+        startRecordingFile(segmenter.nextFile(), profile, true);
     }
 
     /**
-     * Start video recording
+     * Record in short segments that feed preRoll's buffer of the last few seconds; the clip is
+     * written once preRoll is triggered and the recording stopped
      */
-    public void startRecording(File outputFile) {
-        if (!isCameraBound || videoCapture == null || isRecording) {
-            Log.w(TAG, "Cannot start recording: camera not bound, video capture not available, or already recording");
+    public void startPreRollRecording(PreRollRecorder preRoll, RecordingProfile profile) {
+        File segmentDir = new File(context.getCacheDir(), "preroll");
+        if (!segmentDir.isDirectory() && !segmentDir.mkdirs()) {
+            if (callback != null) callback.onVideoRecordingError("Cannot create pre-roll directory");
             return;
         }
+        // Buffering runs until the clip is stopped, however long that takes
+        startSegmentedRecording(new RecordingSegmenter(segmentDir, "preroll", PreRollRecorder.DEFAULT_SEGMENT_MS, 0),
+            profile.withMaxDurationMs(0), preRoll);
+    }
+
+    private boolean prepareRecording(RecordingProfile profile) {
+        if (!isCameraBound || recordingStatus.isActive()) {
+            Log.w(TAG, "Cannot start recording: camera not bound or already recording");
+            return false;
+        }
+        applyRecordingProfile(profile);
+        if (!bindVideoCaptureIfNeeded()) {
+            if (callback != null) callback.onVideoRecordingError("Video capture not available");
+            return false;
+        }
+        stopRequested = false;
+        return recordingStatus.start();
+    }
 
+    private void startRecordingFile(final File outputFile, final RecordingProfile profile, final boolean firstFile) {
+        final RecordingSegmenter activeSegmenter = segmenter;
         try {
-            FileOutputOptions outputOptions = new FileOutputOptions.Builder(outputFile).build();
+            FileOutputOptions.Builder outputBuilder = new FileOutputOptions.Builder(outputFile);
+            if (activeSegmenter != null) {
+                long durationLimitMs = activeSegmenter.nextDurationLimitMs(profile.getMaxDurationMs());
+                if (durationLimitMs > 0) outputBuilder.setDurationLimitMillis(durationLimitMs);
+                if (activeSegmenter.getSegmentBytes() > 0) outputBuilder.setFileSizeLimit(activeSegmenter.getSegmentBytes());
+            } else if (profile.getMaxDurationMs() > 0) {
+                outputBuilder.setDurationLimitMillis(profile.getMaxDurationMs());
+            }
+            FileOutputOptions outputOptions = outputBuilder.build();
             PendingRecording pending = videoCapture.getOutput()
                 .prepareRecording(context, outputOptions)
                 .withAudioEnabled();
 
             recording = pending.start(ContextCompat.getMainExecutor(context), event -> {
-                if (event instanceof VideoRecordEvent.Start) {
-                    isRecording = true;
-                    if (callback != null) callback.onVideoRecordingStarted();
-                    Log.d(TAG, "Video recording started");
-                } else if (event instanceof VideoRecordEvent.Finalize) {
-                    isRecording = false;
-                    VideoRecordEvent.Finalize fin = (VideoRecordEvent.Finalize) event;
-                    if (fin.hasError()) {
-                        Log.e(TAG, "Video recording failed: " + fin.getError());
-                        if (callback != null) callback.onVideoRecordingError("Video recording failed: " + fin.getError());
-                    } else {
-                        Log.d(TAG, "Video saved: " + outputFile.getAbsolutePath());
-                        if (callback != null) callback.onVideoRecordingStopped(outputFile);
+                if (event instanceof VideoRecordEvent.Status) {
+                    // Sent for every encoded chunk; the tracker only builds a report at its rate
+                    RecordingStats stats = event.getRecordingStats();
+                    sendRecordingStatus(recordingStatus.onStatus(stats.getRecordedDurationNanos(), stats.getNumBytesRecorded()));
+                } else if (event instanceof VideoRecordEvent.Start) {
+                    if (firstFile) {
+                        sendRecordingStatus(recordingStatus.onStarted());
+                        if (callback != null) callback.onVideoRecordingStarted();
                     }
+                    Log.d(TAG, "Video recording started: " + outputFile.getName());
+                } else if (event instanceof VideoRecordEvent.Pause) {
+                    Log.d(TAG, "Video recording paused");
+                    sendRecordingStatus(recordingStatus.onPaused());
+                } else if (event instanceof VideoRecordEvent.Resume) {
+                    Log.d(TAG, "Video recording resumed");
+                    sendRecordingStatus(recordingStatus.onResumed());
+                } else if (event instanceof VideoRecordEvent.Finalize) {
+                    onRecordingFileFinalized((VideoRecordEvent.Finalize) event, outputFile, profile, activeSegmenter);
                 }
             });
 
         } catch (Exception e) {
             Log.e(TAG, "Error starting video recording", e);
+            endRecording();
             if (callback != null) {
                 callback.onVideoRecordingError("Failed to start recording: " + e.getMessage());
             }
         }
     }
 
+    private void onRecordingFileFinalized(VideoRecordEvent.Finalize fin, File outputFile, RecordingProfile profile,
+                                          RecordingSegmenter activeSegmenter) {
+        // Reaching a duration or size limit finalizes a complete file, and so does the camera
+        // going away under a recording
+        int error = fin.getError();
+        boolean limitReached = error == VideoRecordEvent.Finalize.ERROR_DURATION_LIMIT_REACHED
+            || error == VideoRecordEvent.Finalize.ERROR_FILE_SIZE_LIMIT_REACHED;
+        boolean sourceInactive = error == VideoRecordEvent.Finalize.ERROR_SOURCE_INACTIVE;
+        if (fin.hasError() && !limitReached && !sourceInactive) {
+            endRecording();
+            Log.e(TAG, "Video recording failed: " + error);
+            if (callback != null) callback.onVideoRecordingError("Video recording failed: " + error);
+            return;
+        }
+        RecordingStats stats = fin.getRecordingStats();
+        recordingStatus.onFileFinished(stats.getRecordedDurationNanos(), stats.getNumBytesRecorded());
+        if (activeSegmenter == null) {
+            endRecording();
+            Log.d(TAG, "Video saved: " + outputFile.getAbsolutePath());
+            if (callback != null) callback.onVideoRecordingStopped(outputFile);
+            return;
+        }
+
+        RecordingSegmenter.Segment segment = activeSegmenter.onSegmentFinished(
+            outputFile,
+            TimeUnit.NANOSECONDS.toMillis(stats.getRecordedDurationNanos()),
+            stats.getNumBytesRecorded(),
+            !limitReached || stopRequested,
+            error == VideoRecordEvent.Finalize.ERROR_DURATION_LIMIT_REACHED
+        );
+        if (!segment.isLast() && segmenter == activeSegmenter) {
+            // Roll over before anything else so the gap between files stays as short as possible
+            startRecordingFile(activeSegmenter.nextFile(), profile, false);
+            // A new file starts recording; keep a paused recording paused
+            if (recordingStatus.isPaused() && recording != null) recording.pause();
+        }
+        Log.d(TAG, "Video segment " + segment.getIndex() + " ready: " + segment.getDurationMs() + "ms, " + segment.getBytes() + " bytes");
+        SegmentCallback onSegment = segmentCallback;
+        if (onSegment != null) onSegment.onSegmentReady(segment);
+        if (segment.isLast()) {
+            endRecording();
+            if (callback != null) callback.onVideoRecordingStopped(outputFile);
+        }
+    }
+
+    /** The recording is over, with or without a file */
+    private void endRecording() {
+        recording = null;
+        segmenter = null;
+        Log.d(TAG, "Recording ended: " + recordingStatus);
+        sendRecordingStatus(recordingStatus.onStopped());
+    }
+
+    private void sendRecordingStatus(Map<String, Object> status) {
+        RecordingStatusListener listener = statusListener;
+        if (status != null && listener != null) listener.onRecordingStatus(status);
+    }
+
+    /**
+     * Receive recordingStatus reports: every state change, and the duration and bytes written at
+     * most maxStatusPerSecond times a second while recording (0 for every report of the recorder)
+     */
+    public void setRecordingStatusListener(RecordingStatusListener listener, double maxStatusPerSecond) {
+        recordingStatus.setMaxStatusPerSecond(maxStatusPerSecond);
+        statusListener = listener;
+    }
+
+    /** State, duration and bytes written of the current or last recording */
+    public Map<String, Object> getRecordingStatus() {
+        return recordingStatus.toMap();
+    }
+
     /**
-     * Stop video recording
+     * Stop video recording. The recording stays active until its file is finalized, which is
+     * reported through onVideoRecordingStopped.
      */
     public void stopRecording() {
-        if (recording != null && isRecording) {
+        stopRequested = true;
+        Map<String, Object> status = recordingStatus.onStopping();
+        if (status == null) return;
+        sendRecordingStatus(status);
+        if (recording != null) {
             recording.stop();
-            isRecording = false;
-            Log.d(TAG, "Video recording stopped");
+            Log.d(TAG, "Video recording stopping");
+        }
+    }
+
+    /**
+     * Pause the recording; nothing is written until resumeRecording()
+     *
+     * @return false when no recording is running
+     */
+    public boolean pauseRecording() {
+        RecordingStatusTracker.State state = recordingStatus.getState();
+        if (recording == null || (state != RecordingStatusTracker.State.RECORDING && state != RecordingStatusTracker.State.PAUSED)) {
+            return false;
+        }
+        recording.pause();
+        return true;
+    }
+
+    /** @return false when no recording is running */
+    public boolean resumeRecording() {
+        RecordingStatusTracker.State state = recordingStatus.getState();
+        if (recording == null || (state != RecordingStatusTracker.State.RECORDING && state != RecordingStatusTracker.State.PAUSED)) {
+            return false;
         }
+        recording.resume();
+        return true;
     }
 
     /**
@@ -337,14 +1484,24 @@ public class CameraXManager {
         this.zoomLevel = clampedZoom;
         
         Log.d(TAG, "setZoom called with: " + zoomLevel + " (clamped to: " + clampedZoom + ")");
+
+        // A logical multi-camera covers its lenses through the zoom ratio alone
+        LensTopology.Lens boundLens = getBoundLens();
+        boolean switching = lensSwitches.isSwitching();
+        if (!switching && lensSwitchMode == LensSwitchMode.AUTO && boundLens != null && boundLens.isLogical()
+            && clampedZoom >= boundLens.getMinZoom() && clampedZoom <= boundLens.getMaxZoom()) {
+            camera.getCameraControl().setZoomRatio(clampedZoom);
+            Log.d(TAG, "Set zoom ratio to: " + clampedZoom + " on logical camera " + boundLens.getId());
+            return;
+        }
         
-        // Determine target camera selector based on zoom level
-        CameraSelector targetSelector = determineCameraSelector(clampedZoom);
+        // Determine target lens based on zoom level
+        LensTarget target = determineLens(clampedZoom);
         
-        // If we need to switch cameras, rebind with new selector
-        if (targetSelector != currentCameraSelector) {
+        // If we need to switch cameras, or one is being switched to, queue behind the coordinator
+        if (switching || target != getCurrentLens()) {
             Log.d(TAG, "Switching camera lens for zoom level: " + clampedZoom);
-            switchCameraLens(targetSelector, clampedZoom);
+            switchCameraLens(target, clampedZoom);
         } else {
             // Same camera, just adjust zoom
             if (camera != null) {
@@ -354,6 +1511,119 @@ public class CameraXManager {
         }
     }
     
+    /**
+     * Zoom for a pinch gesture, relative to the main lens. Requests are coalesced to one
+     * setZoomRatio per display frame with only the latest applied. On devices whose lenses are
+     * separate cameras, crossing into another lens's range switches camera once the ratio is
+     * past the threshold by a hysteresis band (see ZoomLensPolicy).
+     *
+     * @return the zoom that will be applied, after clamping
+     */
+    public float requestZoom(float zoom) {
+        float clamped = Math.max(getMinPinchZoom(), Math.min(zoom, MAX_PINCH_ZOOM));
+        crossingPredictor.onZoom(clamped, System.nanoTime());
+        prepareLensCrossing();
+        zoomDispatcher.request(clamped);
+        return clamped;
+    }
+
+    /** The pinch gesture ended; its velocity no longer predicts anything */
+    public void onPinchEnd() {
+        crossingPredictor.reset();
+    }
+
+    /**
+     * When the pinch's velocity will carry it into another lens within the prediction horizon,
+     * resolve that lens's camera and zoom range now so the crossing only has to rebind.
+     */
+    private void prepareLensCrossing() {
+        LensTopology.Lens lens = getBoundLens();
+        if (lens == null || lens.isFront() || (lens.isLogical() && lensSwitchMode == LensSwitchMode.AUTO)) return;
+        if (cameraProvider == null || lensSwitches.isSwitching()) return;
+        LensTarget predicted = crossingPredictor.predictCrossing(getZoomLensPolicy(), getCurrentLens(),
+            ZoomCrossingPredictor.DEFAULT_HORIZON_MS);
+        if (predicted == null || (preparedLens != null && preparedLens.target == predicted)) return;
+        preparedLens = resolveLensBinding(predicted);
+        pinchPredictions++;
+        Log.d(TAG, "Pinch heading to " + predicted + ", prepared " + (preparedLens != null ? "its camera" : "nothing"));
+    }
+
+    private float getMinPinchZoom() {
+        LensTopology.Lens lens = getBoundLens();
+        if (lens != null && lens.isLogical() && lensSwitchMode == LensSwitchMode.AUTO) return lens.getMinZoom();
+        if (lens != null && lens.isFront()) return 1.0f;
+        float ultraWide = getZoomLensPolicy().getUltraWideFactor();
+        return Float.isNaN(ultraWide) ? 1.0f : ultraWide;
+    }
+
+    /** Runs on a display frame with the latest pinch zoom; false holds it until a lens switch completes */
+    private boolean applyPinchZoom(float zoom) {
+        Camera bound = camera;
+        if (bound == null) return true;
+        if (lensSwitches.isSwitching()) return false;
+
+        LensTopology.Lens lens = getBoundLens();
+        if (lens == null || lens.isFront() || (lens.isLogical() && lensSwitchMode == LensSwitchMode.AUTO)) {
+            // One camera covers the whole range; a logical camera crosses lenses itself
+            bound.getCameraControl().setZoomRatio(zoom);
+            zoomLevel = zoom;
+            return true;
+        }
+
+        ZoomLensPolicy policy = getZoomLensPolicy();
+        LensTarget current = getCurrentLens();
+        LensTarget next = policy.lensFor(current, zoom);
+        if (next != current && recordingStatus.isActive()) {
+            // A crossing would rebind and end the recording; hold at the edge of this lens
+            setZoomOnBoundCamera(policy.cameraRatio(current, zoom));
+            return true;
+        }
+        if (next != current) {
+            Log.d(TAG, "Pinch at " + zoom + "x crosses from " + current + " to " + next);
+            crossingZoom = zoom;
+            lensSwitches.request(next).addListener(result -> zoomDispatcher.resume());
+            return false;
+        }
+        bound.getCameraControl().setZoomRatio(policy.cameraRatio(current, zoom));
+        zoomLevel = zoom;
+        return true;
+    }
+
+    /** Set ratio clamped to the bound camera's zoom range; returns the ratio set, NaN without a camera */
+    private float setZoomOnBoundCamera(float ratio) {
+        Camera bound = camera;
+        if (bound == null) return Float.NaN;
+        ZoomState zoomState = bound.getCameraInfo().getZoomState().getValue();
+        if (zoomState != null) {
+            ratio = Math.max(zoomState.getMinZoomRatio(), Math.min(ratio, zoomState.getMaxZoomRatio()));
+        }
+        bound.getCameraControl().setZoomRatio(ratio);
+        return ratio;
+    }
+
+    private ZoomLensPolicy getZoomLensPolicy() {
+        if (zoomLensPolicy == null) {
+            LensTopology topology = LensTopologyRegistry.get(context);
+            String wideId = topology.getWideBackId();
+            float mainFocal = LogicalLensZoom.equivalentFocal(topology.getLens(wideId));
+            String ultraWideId = topology.getUltraWideBackId();
+            String telephotoId = topology.getTelephotoBackId();
+            float ultraWide = ultraWideId == null ? Float.NaN
+                : focalRatio(topology, ultraWideId, mainFocal, FALLBACK_ULTRA_WIDE_FACTOR);
+            float telephoto = telephotoId == null || telephotoId.equals(wideId) ? Float.NaN
+                : focalRatio(topology, telephotoId, mainFocal, FALLBACK_TELEPHOTO_FACTOR);
+            zoomLensPolicy = new ZoomLensPolicy(ultraWide, telephoto, ZoomLensPolicy.DEFAULT_BAND);
+            Log.d(TAG, "Pinch lens policy: ultraWide=" + ultraWide + "x, telephoto=" + telephoto + "x");
+        }
+        return zoomLensPolicy;
+    }
+
+    private static float focalRatio(LensTopology topology, String id, float mainFocal, float fallback) {
+        float focal = LogicalLensZoom.equivalentFocal(topology.getLens(id));
+        if (Float.isNaN(focal) || Float.isNaN(mainFocal) || mainFocal <= 0f) return fallback;
+        return focal / mainFocal;
+    }
+
     /**
      * Set smooth zoom level with smart ultra-wide switching
      * Uses CameraX's built-in smooth zoom for fluid pinch gestures
@@ -465,9 +1735,8 @@ public class CameraXManager {
             if (zoomLevel < minZoom && minZoom >= 1.0f) {
                 // We're on main camera and trying to zoom below 1.0x - switch to ultra-wide
                 Log.d(TAG, "Main camera reached minimum zoom " + minZoom + "x, switching to ultra-wide for " + zoomLevel + "x");
-                CameraSelector ultraWide = CameraXSelector.getUltraWideCamera(context);
-                if (ultraWide != null) {
-                    switchCameraLens(ultraWide, zoomLevel);
+                if (CameraXSelector.getUltraWideCamera(context) != null) {
+                    switchCameraLens(LensTarget.ULTRA_WIDE, zoomLevel);
                     return;
                 }
             }
@@ -475,9 +1744,8 @@ public class CameraXManager {
             // Check if we need to switch to telephoto (for zoom in beyond current camera's range)
             if (zoomLevel > maxZoom && zoomLevel > 2.0f) {
                 Log.d(TAG, "Requested zoom " + zoomLevel + "x is above camera maximum, trying telephoto");
-                CameraSelector telephoto = CameraXSelector.getTelephotoCamera(context);
-                if (telephoto != null) {
-                    switchCameraLens(telephoto, zoomLevel);
+                if (CameraXSelector.getTelephotoCamera(context) != null) {
+                    switchCameraLens(LensTarget.TELEPHOTO, zoomLevel);
                     return;
                 }
             }
@@ -485,11 +1753,7 @@ public class CameraXManager {
             // Special case: if we're on ultra-wide and user zooms in past its maximum, switch to main camera
             if (camera != null && CameraXSelector.isUltraWide(context, camera.getCameraInfo()) && zoomLevel > maxZoom) {
                 Log.d(TAG, "Ultra-wide camera reached maximum zoom " + maxZoom + "x, switching to main camera for " + zoomLevel + "x");
-                CameraSelector mainCamera = CameraXSelector.getWideCamera(context);
-                if (mainCamera == null) {
-                    mainCamera = CameraSelector.DEFAULT_BACK_CAMERA;
-                }
-                switchCameraLens(mainCamera, zoomLevel);
+                switchCameraLens(LensTarget.WIDE, zoomLevel);
                 return;
             }
         }
@@ -508,10 +1772,19 @@ public class CameraXManager {
         }
     }
     
+    private static Boolean emulatorEnvironment;
+
     /**
-     * Detect if running in emulator environment
+     * Detect if running in emulator environment; the build properties are only read once
      */
     private boolean isEmulatorEnvironment() {
+        if (emulatorEnvironment == null) {
+            emulatorEnvironment = readEmulatorEnvironment();
+        }
+        return emulatorEnvironment;
+    }
+
+    private static boolean readEmulatorEnvironment() {
         try {
             String product = android.os.Build.PRODUCT.toLowerCase();
             String model = android.os.Build.MODEL.toLowerCase();
@@ -528,74 +1801,64 @@ public class CameraXManager {
     }
     
     /**
-     * Determine which camera selector to use based on zoom level
+     * Determine which lens serves a zoom level
      */
-    private CameraSelector determineCameraSelector(float zoomLevel) {
+    private LensTarget determineLens(float zoomLevel) {
         if (zoomLevel < 1.0f) {
             // Ultra-wide for zoom < 1.0x
-            CameraSelector ultraWide = CameraXSelector.getUltraWideCamera(context);
-            if (ultraWide != null) {
+            if (CameraXSelector.getUltraWideCamera(context) != null) {
                 Log.d(TAG, "Selecting ultra-wide camera for zoom: " + zoomLevel);
-                return ultraWide;
+                return LensTarget.ULTRA_WIDE;
             } else {
                 Log.d(TAG, "Ultra-wide not available, using default back camera");
-                return CameraSelector.DEFAULT_BACK_CAMERA;
+                return LensTarget.WIDE;
             }
         } else if (zoomLevel > 2.0f) {
             // Telephoto for zoom > 2.0x
-            CameraSelector telephoto = CameraXSelector.getTelephotoCamera(context);
-            if (telephoto != null) {
+            if (CameraXSelector.getTelephotoCamera(context) != null) {
                 Log.d(TAG, "Selecting telephoto camera for zoom: " + zoomLevel);
-                return telephoto;
+                return LensTarget.TELEPHOTO;
             } else {
                 Log.d(TAG, "Telephoto not available, using default back camera");
-                return CameraSelector.DEFAULT_BACK_CAMERA;
+                return LensTarget.WIDE;
             }
         } else {
             // Main camera for 1.0x - 2.0x
             Log.d(TAG, "Selecting main camera for zoom: " + zoomLevel);
-            return CameraSelector.DEFAULT_BACK_CAMERA;
+            return LensTarget.WIDE;
         }
     }
     
     /**
-     * Switch to a different camera lens and set zoom
+     * Switch to a different camera lens and set zoom. The switch goes through the lens switch
+     * coordinator like any other, so it never rebinds under one in flight; the zoom is applied
+     * once the camera has settled on target.
      */
-    private void switchCameraLens(CameraSelector newSelector, float zoomLevel) {
+    private void switchCameraLens(final LensTarget target, final float zoomLevel) {
         if (cameraProvider == null) {
             Log.e(TAG, "CameraProvider is null, cannot switch lens");
             return;
         }
-        
-        try {
-            // Unbind current use cases
-            unbindCameraUseCases();
-            
-            // Update current selector
-            currentCameraSelector = newSelector;
-            
-            // Rebind with new selector
-            bindCameraUseCases(cameraProvider, boundPreviewView, currentCameraSelector);
-            
-            // Set zoom after camera is ready
-            if (camera != null) {
-                camera.getCameraControl().setZoomRatio(zoomLevel);
-                Log.d(TAG, "Successfully switched lens and set zoom to: " + zoomLevel);
-            }
-            
-        } catch (Exception e) {
-            Log.e(TAG, "Error switching camera lens: " + e.getMessage(), e);
-            // Fallback: try to recover with default back camera
-            try {
-                currentCameraSelector = CameraSelector.DEFAULT_BACK_CAMERA;
-                bindCameraUseCases(cameraProvider, boundPreviewView, currentCameraSelector);
-                if (camera != null) {
-                    camera.getCameraControl().setZoomRatio(zoomLevel);
-                }
-            } catch (Exception recoveryError) {
-                Log.e(TAG, "Failed to recover from lens switch error: " + recoveryError.getMessage());
-            }
+        if (recordingStatus.isActive()) {
+            // Stay on the recording camera and get as close to the zoom as it allows
+            float applied = setZoomOnBoundCamera(zoomLevel);
+            if (!Float.isNaN(applied)) this.zoomLevel = applied;
+            Log.d(TAG, "Recording, zoom " + zoomLevel + " kept on the current camera at " + applied);
+            return;
         }
+
+        lensSwitches.request(target).addListener(result -> {
+            if (!result.isSuccess() || result.getTarget() != target) {
+                // Failed, or a later request moved the camera elsewhere; its zoom wins
+                Log.d(TAG, "Zoom " + zoomLevel + " not applied after lens switch: " + result);
+                return;
+            }
+            LensTopology.Lens lens = getBoundLens();
+            float ratio = lens != null && lens.isLogical() ? zoomLevel : getZoomLensPolicy().cameraRatio(target, zoomLevel);
+            float applied = setZoomOnBoundCamera(ratio);
+            if (!Float.isNaN(applied)) this.zoomLevel = zoomLevel;
+            Log.d(TAG, "Switched lens to " + target + " and set zoom to: " + applied);
+        });
     }
 
     /**
@@ -662,7 +1925,7 @@ public class CameraXManager {
      * Check if recording is in progress
      */
     public boolean isRecording() {
-        return isRecording;
+        return recordingStatus.isActive();
     }
 
     /**
@@ -681,10 +1944,10 @@ public class CameraXManager {
      */
     public void unbindCameraUseCases() {
         if (cameraProvider != null) {
+            // The recording ends with the camera; stop it first so it is finalized like any other
+            if (recordingStatus.isActive()) stopRecording();
             cameraProvider.unbindAll();
             isCameraBound = false;
-            isRecording = false;
-            recording = null;
             Log.d(TAG, "Camera use cases unbound");
         }
     }
@@ -693,17 +1956,53 @@ public class CameraXManager {
      * Release resources
      */
     public void release() {
+        zoomDispatcher.cancel();
+        // Before the watcher goes, so its action cannot report the switch as done
+        lensSwitches.cancelAll("Camera released");
+        cancelFirstFrameWatcher();
+        cancelScheduledShots("Camera released");
         unbindCameraUseCases();
+        preview = null;
+        imageCapture = null;
+        videoCapture = null;
+        videoCaptureProfile = null;
+        surfaceProviderView = null;
+        videoCaptureRequested = false;
+        if (imageAnalysis != null) {
+            imageAnalysis.clearAnalyzer();
+            imageAnalysis = null;
+            analysisPipeline = null;
+        }
         if (cameraExecutor != null && !cameraExecutor.isShutdown()) {
             cameraExecutor.shutdown();
         }
+        // Pending pictures are cancelled and their calls rejected rather than left hanging
+        imageProcessor.shutdown();
+        if (analysisExecutor != null) {
+            analysisExecutor.shutdown();
+            analysisExecutor = null;
+        }
         Log.d(TAG, "CameraXManager released");
     }
 
+    private boolean callOnMain(Callable<Boolean> action) {
+        if (Looper.myLooper() == Looper.getMainLooper()) {
+            try {
+                return action.call();
+            } catch (Exception e) {
+                Log.e(TAG, "Error executing on main thread", e);
+                return false;
+            }
+        }
+        return runOnMainAndWait(action);
+    }
+
     private boolean runOnMainAndWait(Callable<Boolean> action) {
         final AtomicBoolean result = new AtomicBoolean(false);
         final CountDownLatch latch = new CountDownLatch(1);
+        final Tracer.Span hopSpan = Tracer.beginAsync("camerax.mainThreadHop");
         ContextCompat.getMainExecutor(context).execute(() -> {
+            hopSpan.end();
             try {
                 result.set(action.call());
             } catch (Exception e) {
@@ -720,202 +2019,312 @@ public class CameraXManager {
         return result.get();
     }
 
-    public boolean switchCamera() {
-        Log.d(TAG, "switchCamera called");
-        try {
-            // Get next available camera
-            androidx.camera.core.CameraSelector nextSelector = CameraXSelector.getNextCamera(
-                context, currentCameraSelector
-            );
-            if (nextSelector != null) {
-                Log.d(TAG, "Switching to next camera selector");
-                return switchToCamera(nextSelector);
-            } else {
-                Log.w(TAG, "No next camera available");
-                return false;
+    /**
+     * Switch to the given lens without blocking. Switches run one at a time on the main thread;
+     * requests made meanwhile are coalesced so only the latest target is applied, and the future
+     * completes once the new camera streams its first frame.
+     *
+     * In AUTO mode a bound logical multi-camera is driven through setZoomRatio; other devices
+     * rebind (preferring the logical camera when one exists, so the following switches can stay
+     * on the zoom path).
+     */
+    public LensSwitchCoordinator.SwitchFuture switchToLens(LensTarget target) {
+        if (target == null) {
+            return LensSwitchCoordinator.SwitchFuture.completed(
+                LensSwitchResult.failed(null, LensSwitchResult.PATH_NONE, 0, "Unsupported lens target"));
+        }
+        return lensSwitches.request(target);
+    }
+
+    /**
+     * Lens the camera is on or, while switches are pending, the lens it will end up on. Toggles
+     * use it so that repeated taps alternate from the latest request rather than the bound camera.
+     */
+    public LensTarget getRequestedLens() {
+        LensTarget requested = lensSwitches.getRequestedTarget();
+        return requested != null ? requested : getCurrentLens();
+    }
+
+    /** Performs one coalesced switch on the main thread */
+    private void applyLensSwitch(final LensTarget target, final LensSwitchCoordinator.Completion completion) {
+        final long start = SystemClock.elapsedRealtime();
+        final Tracer.Span span = Tracer.beginAsync("camerax.switchToLens").arg("lens", target.getJsName());
+        final LensSwitchCoordinator.Completion traced = result -> {
+            span.arg("path", result.getPath()).arg("success", result.isSuccess()).end();
+            Log.d(TAG, "Lens switch finished: " + result);
+            completion.complete(result);
+        };
+        if (cameraProvider == null || camera == null) {
+            traced.complete(LensSwitchResult.failed(target, LensSwitchResult.PATH_NONE, 0, "Camera not started"));
+            return;
+        }
+
+        if (target.isBack() && lensSwitchMode == LensSwitchMode.AUTO) {
+            final float ratio = LogicalLensZoom.zoomRatioFor(LensTopologyRegistry.get(context), getBoundLens(), target);
+            if (!Float.isNaN(ratio)) {
+                applyZoom(ratio, applied -> {
+                    if (applied) {
+                        previewStats.onLensSwitch(SystemClock.elapsedRealtime());
+                        long duration = SystemClock.elapsedRealtime() - start;
+                        Log.d(TAG, "Lens " + target + " reached via zoom " + ratio + "x on logical camera in " + duration + "ms");
+                        traced.complete(LensSwitchResult.zoom(target, ratio, duration));
+                    } else {
+                        rebindForLens(target, start, traced);
+                    }
+                });
+                return;
             }
-        } catch (Exception e) {
-            Log.e(TAG, "Error in switchCamera: " + e.getMessage(), e);
-            return false;
         }
+        rebindForLens(target, start, traced);
     }
 
-    public boolean switchToCamera(androidx.camera.core.CameraSelector newSelector) {
-        Log.d(TAG, "switchToCamera called with selector: " + newSelector);
-        if (newSelector == null) {
-            Log.e(TAG, "Camera selector is null");
-            return false;
+    /** Camera a lens switch binds, resolved ahead of the switch when a pinch is predicted to cross into it */
+    private static final class LensBinding {
+        final LensTarget target;
+        final CameraSelector selector;
+        final boolean logical;
+        // Ratio that selects target on this camera, NaN to keep the camera's default
+        final float ratio;
+        // Zoom range of the camera, NaN when unknown
+        final float minZoom;
+        final float maxZoom;
+        final long resolvedAt = SystemClock.elapsedRealtime();
+
+        LensBinding(LensTarget target, CameraSelector selector, boolean logical, float ratio, float minZoom, float maxZoom) {
+            this.target = target;
+            this.selector = selector;
+            this.logical = logical;
+            this.ratio = ratio;
+            this.minZoom = minZoom;
+            this.maxZoom = maxZoom;
         }
 
-        return runOnMainAndWait(() -> {
-            try {
-                // Unbind current use cases
-                unbindCameraUseCases();
-                
-                // Update current selector
-                currentCameraSelector = newSelector;
-                Log.d(TAG, "Updated current camera selector");
-                
-                // Rebind with new selector
-                bindCameraUseCases(cameraProvider, boundPreviewView, currentCameraSelector);
-                
-                // Log bound camera id and zoom range
-                if (camera != null) {
-                    String boundId = androidx.camera.camera2.interop.Camera2CameraInfo.from(camera.getCameraInfo()).getCameraId();
-                    ZoomState zs = camera.getCameraInfo().getZoomState().getValue();
-                    Log.d(TAG, "Bound cameraId=" + boundId + (zs != null ? (", zoomRange=[" + zs.getMinZoomRatio() + ", " + zs.getMaxZoomRatio() + "]") : ""));
-                }
-                
-                // Check if binding was successful
-                if (isCameraBound) {
-                    Log.d(TAG, "Successfully switched to new camera");
-                    return true;
-                } else {
-                    Log.e(TAG, "Failed to bind camera use cases for new camera");
-                    return false;
-                }
-            } catch (Exception e) {
-                Log.e(TAG, "Error switching to camera: " + e.getMessage(), e);
-                return false;
+        float clamp(float ratio) {
+            if (!Float.isNaN(minZoom)) ratio = Math.max(minZoom, ratio);
+            if (!Float.isNaN(maxZoom)) ratio = Math.min(maxZoom, ratio);
+            return ratio;
+        }
+    }
+
+    /** Selector and zoom range of the camera serving target, or null when there is none */
+    private LensBinding resolveLensBinding(LensTarget target) {
+        LensTopology topology = LensTopologyRegistry.get(context);
+        if (target.isBack() && lensSwitchMode == LensSwitchMode.AUTO) {
+            // Not on a usable logical camera yet: bind the logical one and zoom there
+            String logicalId = topology.getLogicalBackId();
+            float logicalRatio = LogicalLensZoom.zoomRatioFor(topology, topology.getLens(logicalId), target);
+            if (logicalId != null && !Float.isNaN(logicalRatio)) {
+                return withZoomRange(target, CameraXSelector.getCameraById(logicalId), true, logicalRatio);
             }
-        });
+        }
+        CameraSelector selector;
+        switch (target) {
+            case FRONT:
+                selector = CameraSelector.DEFAULT_FRONT_CAMERA;
+                break;
+            case ULTRA_WIDE:
+                selector = CameraXSelector.getUltraWideCamera(context);
+                break;
+            case TELEPHOTO:
+                selector = CameraXSelector.getTelephotoCamera(context);
+                break;
+            case WIDE:
+            default:
+                selector = CameraXSelector.getWideCamera(context);
+                if (selector == null) selector = CameraSelector.DEFAULT_BACK_CAMERA;
+                break;
+        }
+        return selector != null ? withZoomRange(target, selector, false, Float.NaN) : null;
     }
 
-    /**
-     * Fast switch to ultra-wide camera for responsive pinch gestures
-     */
-    public boolean switchToUltraWideSmart() {
+    /** Reads the zoom range from the camera's info, which is available before it is bound */
+    private LensBinding withZoomRange(LensTarget target, CameraSelector selector, boolean logical, float ratio) {
+        float minZoom = Float.NaN;
+        float maxZoom = Float.NaN;
         try {
-            Log.d(TAG, "switchToUltraWideSmart called - using fast direct switching");
-            
-            // Get ultra-wide camera selector
-            androidx.camera.core.CameraSelector ultraWideSelector = CameraXSelector.getUltraWideCamera(context);
-            if (ultraWideSelector == null) {
-                Log.w(TAG, "Ultra-wide camera not available");
-                return false;
-            }
-            
-            // Direct camera switching for faster response
-            boolean success = switchToCamera(ultraWideSelector);
-            if (success) {
-                // Set zoom to minimum on ultra-wide camera
-                if (camera != null) {
-                    androidx.camera.core.ZoomState zoomState = camera.getCameraInfo().getZoomState().getValue();
-                    if (zoomState != null) {
-                        float minZoom = zoomState.getMinZoomRatio();
-                        camera.getCameraControl().setZoomRatio(minZoom);
-                        this.zoomLevel = minZoom;
-                        Log.d(TAG, "Set ultra-wide zoom to minimum: " + minZoom + "x");
-                    }
-                }
+            List<CameraInfo> infos = selector.filter(cameraProvider.getAvailableCameraInfos());
+            if (infos.isEmpty()) return null;
+            ZoomState zoomState = infos.get(0).getZoomState().getValue();
+            if (zoomState != null) {
+                minZoom = zoomState.getMinZoomRatio();
+                maxZoom = zoomState.getMaxZoomRatio();
             }
-            
-            Log.d(TAG, "Ultra-wide switching completed: " + success);
-            return success;
-            
         } catch (Exception e) {
-            Log.e(TAG, "Error in switchToUltraWideSmart: " + e.getMessage(), e);
-            return false;
+            Log.w(TAG, "Could not read zoom range for " + target + ": " + e.getMessage());
         }
+        return new LensBinding(target, selector, logical, ratio, minZoom, maxZoom);
     }
 
-    /**
-     * Prefer switching to main wide by setting zoom to 1.0 on logical multi-camera; fallback to rebinding selector.
-     */
-    public boolean switchToMainWideSmart() {
-        try {
-            // Determine if current bound camera is ultra-wide
-            boolean isUltra = runOnMainAndWait(() -> {
-                if (camera != null) {
-                    return CameraXSelector.isUltraWide(context,
-                        camera.getCameraInfo());
-                }
-                return false;
-            });
+    /** Bind the camera serving target and complete once it streams */
+    private void rebindForLens(final LensTarget target, final long start, final LensSwitchCoordinator.Completion completion) {
+        LensBinding binding = preparedLens != null && preparedLens.target == target ? preparedLens : null;
+        preparedLens = null;
+        if (binding != null) {
+            pinchPredictionHits++;
+            pinchPredictionLeadMs = SystemClock.elapsedRealtime() - binding.resolvedAt;
+        } else {
+            binding = resolveLensBinding(target);
+        }
+        final float pinchZoom = crossingZoom;
+        crossingZoom = Float.NaN;
+        if (recordingStatus.isActive()) {
+            // Rebinding would end the recording; only the zoom path of a logical camera keeps it
+            Log.w(TAG, "Refusing to rebind for lens " + target + " while recording");
+            completion.complete(LensSwitchResult.failed(target, LensSwitchResult.PATH_NONE, SystemClock.elapsedRealtime() - start,
+                "Cannot switch lens while recording"));
+            return;
+        }
+        if (binding == null) {
+            Log.w(TAG, "No camera available for lens " + target);
+            completion.complete(LensSwitchResult.failed(target, LensSwitchResult.PATH_NONE, SystemClock.elapsedRealtime() - start,
+                "No " + target.getJsName() + " camera available"));
+            return;
+        }
 
-            if (isUltra) {
-                Log.d(TAG, "Currently bound to ultra-wide physical camera; rebinding to wide/main");
-                androidx.camera.core.CameraSelector wide = CameraXSelector.getWideCamera(context);
-                if (wide == null) wide = androidx.camera.core.CameraSelector.DEFAULT_BACK_CAMERA;
-                return switchToCamera(wide);
-            }
-
-            boolean zoomed = runOnMainAndWait(() -> {
-                if (camera != null) {
-                    ZoomState zs = camera.getCameraInfo().getZoomState().getValue();
-                    if (zs != null) {
-                        float min = zs.getMinZoomRatio();
-                        float max = zs.getMaxZoomRatio();
-                        Log.d(TAG, "switchToMainWideSmart zoomRange=[" + min + ", " + max + "]");
-                        try {
-                            // Try to set exact 1.0x if within range
-                            float target = 1.0f;
-                            target = Math.max(min, Math.min(target, max));
-                            Log.d(TAG, "Setting zoomRatio to " + target + " for main wide");
-                            camera.getCameraControl().setZoomRatio(target);
-                            return true;
-                        } catch (Exception ex) {
-                            Log.w(TAG, "Setting zoomRatio failed (" + ex.getMessage() + "), trying linear zoom ~main");
-                            try {
-                                // Heuristic: center of linear zoom often maps near main wide
-                                camera.getCameraControl().setLinearZoom(0.35f);
-                                return true;
-                            } catch (Exception ex2) {
-                                Log.w(TAG, "Linear zoom fallback failed: " + ex2.getMessage());
-                            }
-                        }
-                    } else {
-                        Log.w(TAG, "ZoomState is null; cannot set main wide");
-                    }
-                }
-                return false;
-            });
-            if (zoomed) return true;
+        // A pinch crossing binds straight at the pinch's zoom, so the first frame already matches it
+        float ratio = binding.ratio;
+        if (!Float.isNaN(pinchZoom)) {
+            ratio = binding.clamp(binding.logical ? pinchZoom : getZoomLensPolicy().cameraRatio(target, pinchZoom));
+        } else if (Float.isNaN(ratio) && target == LensTarget.ULTRA_WIDE) {
+            // Set zoom to minimum on ultra-wide camera
+            ratio = binding.minZoom;
+        }
 
-            androidx.camera.core.CameraSelector wide = CameraXSelector.getWideCamera(context);
-            if (wide == null) {
-                wide = androidx.camera.core.CameraSelector.DEFAULT_BACK_CAMERA;
+        final float[] reachedRatio = { 1.0f };
+        final boolean pinchCrossing = !Float.isNaN(pinchZoom);
+        firstFrameAction = firstFrameMs -> {
+            long now = SystemClock.elapsedRealtime();
+            long blackFrameMs = firstFrameMs >= 0 ? now - lastUnbindAt : -1;
+            lastSwitchBlackFrameMs = blackFrameMs;
+            if (pinchCrossing) {
+                pinchCrossings++;
+                maxCrossingBlackFrameMs = Math.max(maxCrossingBlackFrameMs, blackFrameMs);
             }
-            return switchToCamera(wide);
-        } catch (Exception e) {
-            Log.e(TAG, "Error in switchToMainWideSmart: " + e.getMessage(), e);
-            return false;
+            Log.d(TAG, "Lens " + target + " reached via rebind in " + (now - start) + "ms (first frame " + firstFrameMs
+                + "ms, no preview for " + blackFrameMs + "ms)");
+            completion.complete(LensSwitchResult.rebind(target, reachedRatio[0], now - start, blackFrameMs));
+        };
+        if (!bindSelector(binding.selector)) {
+            firstFrameAction = null;
+            completion.complete(LensSwitchResult.failed(target, LensSwitchResult.PATH_REBIND, SystemClock.elapsedRealtime() - start,
+                "Failed to bind " + target.getJsName() + " camera"));
+            return;
         }
-    }
 
-    public boolean switchToFrontCamera() {
-        try {
-            androidx.camera.core.CameraSelector selector = androidx.camera.core.CameraSelector.DEFAULT_FRONT_CAMERA;
-            return switchToCamera(selector);
-        } catch (Exception e) {
-            Log.e(TAG, "Error switching to front camera", e);
-            return false;
+        if (Float.isNaN(ratio) && target == LensTarget.ULTRA_WIDE && camera != null) {
+            // Zoom range was not known before binding
+            ZoomState zoomState = camera.getCameraInfo().getZoomState().getValue();
+            if (zoomState != null) ratio = zoomState.getMinZoomRatio();
+        }
+        if (!Float.isNaN(ratio) && camera != null) {
+            reachedRatio[0] = ratio;
+            camera.getCameraControl().setZoomRatio(ratio);
+            zoomLevel = ratio;
         }
     }
 
-    public boolean switchToBackCamera(Context ctx) {
+    /** Rebind the use cases to selector on the main thread */
+    private boolean bindSelector(CameraSelector selector) {
         try {
-            // Prefer main wide back camera
-            androidx.camera.core.CameraSelector selector = CameraXSelector.getWideCamera(ctx);
-            if (selector == null) selector = androidx.camera.core.CameraSelector.DEFAULT_BACK_CAMERA;
-            return switchToCamera(selector);
+            lastUnbindAt = SystemClock.elapsedRealtime();
+            unbindCameraUseCases();
+            currentCameraSelector = selector;
+            bindCameraUseCases(cameraProvider, boundPreviewView, currentCameraSelector);
+
+            // Log bound camera id and zoom range
+            if (camera != null) {
+                String boundId = androidx.camera.camera2.interop.Camera2CameraInfo.from(camera.getCameraInfo()).getCameraId();
+                ZoomState zs = camera.getCameraInfo().getZoomState().getValue();
+                Log.d(TAG, "Bound cameraId=" + boundId + (zs != null ? (", zoomRange=[" + zs.getMinZoomRatio() + ", " + zs.getMaxZoomRatio() + "]") : ""));
+            }
+            return isCameraBound;
         } catch (Exception e) {
-            Log.e(TAG, "Error switching to back camera", e);
+            Log.e(TAG, "Error switching to camera: " + e.getMessage(), e);
             return false;
         }
     }
 
-    public boolean toggleFrontBack(Context ctx) {
-        try {
-            androidx.camera.core.CameraInfo info = getCurrentCameraInfo();
-            if (info != null && CameraXSelector.isFront(ctx, info)) {
-                return switchToBackCamera(ctx);
-            } else {
-                return switchToFrontCamera();
+    private interface ZoomResult {
+        void onZoom(boolean applied);
+    }
+
+    /**
+     * Apply a zoom ratio and report once the camera confirms it, so switch timings reflect the
+     * real change. A request still unconfirmed after ZOOM_APPLY_TIMEOUT_MS is reported as applied,
+     * since it stays queued.
+     */
+    private void applyZoom(final float ratio, final ZoomResult result) {
+        final AtomicBoolean reported = new AtomicBoolean(false);
+        final ListenableFuture<Void> future = camera.getCameraControl().setZoomRatio(ratio);
+        final Runnable timeout = () -> {
+            if (reported.compareAndSet(false, true)) {
+                Log.w(TAG, "Zoom " + ratio + "x not confirmed within " + ZOOM_APPLY_TIMEOUT_MS + "ms");
+                zoomLevel = ratio;
+                result.onZoom(true);
             }
-        } catch (Exception e) {
-            Log.e(TAG, "Error toggling front/back", e);
-            return false;
-        }
+        };
+        mainHandler.postDelayed(timeout, ZOOM_APPLY_TIMEOUT_MS);
+        future.addListener(() -> {
+            if (!reported.compareAndSet(false, true)) return;
+            mainHandler.removeCallbacks(timeout);
+            try {
+                future.get();
+                zoomLevel = ratio;
+                result.onZoom(true);
+            } catch (Exception e) {
+                Log.w(TAG, "Setting zoomRatio " + ratio + " failed: " + e.getMessage());
+                result.onZoom(false);
+            }
+        }, ContextCompat.getMainExecutor(context));
+    }
+
+    /**
+     * Fast switch to ultra-wide camera for responsive pinch gestures
+     */
+    public LensSwitchCoordinator.SwitchFuture switchToUltraWideSmart() {
+        return switchToLens(LensTarget.ULTRA_WIDE);
+    }
+
+    /**
+     * Prefer switching to main wide by setting zoom to 1.0 on logical multi-camera; fallback to rebinding selector.
+     */
+    public LensSwitchCoordinator.SwitchFuture switchToMainWideSmart() {
+        return switchToLens(LensTarget.WIDE);
+    }
+
+    /**
+     * Lens currently delivering frames, derived from the bound camera and, on logical cameras, the zoom ratio
+     */
+    public LensTarget getCurrentLens() {
+        LensTopology.Lens lens = getBoundLens();
+        if (lens == null) return null;
+        if (lens.isFront()) return LensTarget.FRONT;
+        LensTopology topology = LensTopologyRegistry.get(context);
+        if (lens.isLogical()) return LogicalLensZoom.lensAtZoom(topology, lens, zoomLevel);
+        String id = lens.getId();
+        if (topology.isUltraWide(id)) return LensTarget.ULTRA_WIDE;
+        if (id.equals(topology.getTelephotoBackId()) && !id.equals(topology.getWideBackId())) return LensTarget.TELEPHOTO;
+        return LensTarget.WIDE;
+    }
+
+    private LensTopology.Lens getBoundLens() {
+        // The id is resolved once per bind by notePreviewSession, as pinch zoom asks every frame
+        String id = lastBoundCameraId;
+        if (camera == null || id == null) return null;
+        return LensTopologyRegistry.get(context).getLens(id);
+    }
+
+    public LensSwitchCoordinator.SwitchFuture switchToFrontCamera() {
+        return switchToLens(LensTarget.FRONT);
+    }
+
+    /** Back to the main wide lens */
+    public LensSwitchCoordinator.SwitchFuture switchToBackCamera() {
+        return switchToLens(LensTarget.WIDE);
+    }
+
+    public LensSwitchCoordinator.SwitchFuture toggleFrontBack() {
+        LensTarget lens = getRequestedLens();
+        return switchToLens(lens == LensTarget.FRONT ? LensTarget.WIDE : LensTarget.FRONT);
     }
 }
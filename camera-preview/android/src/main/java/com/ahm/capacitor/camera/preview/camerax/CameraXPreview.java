@@ -78,7 +78,7 @@ public class CameraXPreview extends RelativeLayout {
         cameraManager = new CameraXManager(context);
         cameraManager.setCallback(new CameraXManager.CameraXCallback() {
             @Override
-            public void onCameraStarted() {
+            public void onCameraStarted(CameraStartTimings timings) {
                 isPreviewActive = true;
                 Log.d(TAG, "Camera preview started");
             }
@@ -94,11 +94,26 @@ public class CameraXPreview extends RelativeLayout {
                 Log.d(TAG, "Image captured: " + imageFile.getAbsolutePath());
             }
             
+            @Override
+            public void onImageCaptured(byte[] jpeg, int rotationDegrees) {
+                Log.d(TAG, "Image captured in memory: " + jpeg.length + " bytes");
+            }
+            
             @Override
             public void onImageCaptureError(String error) {
                 Log.e(TAG, "Image capture error: " + error);
             }
             
+            @Override
+            public void onSampleCaptured(byte[] jpeg, int width, int height) {
+                Log.d(TAG, "Sample captured: " + width + "x" + height);
+            }
+            
+            @Override
+            public void onSampleCaptureError(String error) {
+                Log.e(TAG, "Sample capture error: " + error);
+            }
+            
             @Override
             public void onVideoRecordingStarted() {
                 Log.d(TAG, "Video recording started");
@@ -144,6 +159,7 @@ public class CameraXPreview extends RelativeLayout {
         // Enhanced scale gesture detector with better emulator support
         scaleGestureDetector = new ScaleGestureDetector(getContext(), new ScaleGestureDetector.SimpleOnScaleGestureListener() {
             private float initialZoom = 1.0f;
+            private final boolean emulator = isEmulatorEnvironment();
             private long lastGestureTime = 0;
             private static final long GESTURE_DEBOUNCE_MS = 16; // ~60fps
             
@@ -167,24 +183,16 @@ public class CameraXPreview extends RelativeLayout {
                     return false;
                 }
                 
-                float scaleFactor = detector.getScaleFactor();
-                
-                // Apply sensitivity adjustment for better control
-                float adjustedScaleFactor = applySensitivityAdjustment(scaleFactor);
-                float newZoom = currentZoom * adjustedScaleFactor;
-                
-                Log.d(TAG, "Enhanced pinch zoom: scaleFactor=" + scaleFactor + 
-                      ", adjusted=" + adjustedScaleFactor + 
-                      ", currentZoom=" + currentZoom + ", newZoom=" + newZoom);
-                
-                // Use enhanced smooth zoom with better emulator support
-                setSmoothZoom(newZoom);
+                // Runs for every touch event of the gesture: no logging or camera queries here
+                float adjustedScaleFactor = applySensitivityAdjustment(detector.getScaleFactor());
+                requestPinchZoom(currentZoom * adjustedScaleFactor);
                 return true;
             }
             
             @Override
             public void onScaleEnd(ScaleGestureDetector detector) {
                 Log.d(TAG, "Enhanced pinch zoom ended, final zoom: " + currentZoom);
+                if (cameraManager != null) cameraManager.onPinchEnd();
             }
             
             /**
@@ -195,7 +203,7 @@ public class CameraXPreview extends RelativeLayout {
                 float sensitivity = 1.0f; // Full sensitivity for real devices
                 
                 // Only reduce sensitivity for emulators
-                if (isEmulatorEnvironment()) {
+                if (emulator) {
                     sensitivity = 0.7f; // Less aggressive reduction
                 }
                 
@@ -342,6 +350,61 @@ public class CameraXPreview extends RelativeLayout {
             cameraManager.takePicture(outputFile);
         }
     }
+
+    /**
+     * Take a picture, reporting to target instead of the shared callback
+     */
+    public void takePicture(File outputFile, CameraXManager.CaptureCallback target) {
+        if (cameraManager != null) {
+            cameraManager.takePicture(outputFile, target);
+        }
+    }
+    
+    /**
+     * Set the picture size and JPEG quality used by the following captures
+     *
+     * @return the JPEG quality the next capture is encoded with
+     */
+    public int configureCapture(int width, int height, int quality) {
+        if (cameraManager != null) {
+            return cameraManager.configureCapture(width, height, quality);
+        }
+        return CameraXManager.clampQuality(quality);
+    }
+    
+    /**
+     * Encode the frame currently shown by the preview
+     */
+    public void captureSample(int quality) {
+        if (cameraManager != null) {
+            cameraManager.captureSample(quality);
+        }
+    }
+    
+    /**
+     * Take a picture into memory instead of a file
+     */
+    public void takePictureInMemory() {
+        if (cameraManager != null) {
+            cameraManager.takePictureInMemory();
+        }
+    }
+
+    /**
+     * Take a picture into memory, reporting to target instead of the shared callback
+     */
+    public void takePictureInMemory(CameraXManager.CaptureCallback target) {
+        if (cameraManager != null) {
+            cameraManager.takePictureInMemory(target);
+        }
+    }
+
+    /**
+     * Queue a burst of in-memory captures
+     */
+    public boolean takeBurst(BurstStats stats, long intervalMs, CameraXManager.BurstCallback burstCallback) {
+        return cameraManager != null && cameraManager.takeBurst(stats, intervalMs, burstCallback);
+    }
     
     /**
      * Start video recording
@@ -351,6 +414,15 @@ public class CameraXPreview extends RelativeLayout {
             cameraManager.startRecording(outputFile);
         }
     }
+
+    /**
+     * Start video recording with a size, frame rate, bitrate and duration limit
+     */
+    public void startRecording(File outputFile, RecordingProfile profile) {
+        if (cameraManager != null) {
+            cameraManager.startRecording(outputFile, profile);
+        }
+    }
     
     /**
      * Stop video recording
@@ -399,6 +471,16 @@ public class CameraXPreview extends RelativeLayout {
         }
     }
     
+    /**
+     * Zoom from a pinch: the camera manager applies the latest request once per display frame
+     */
+    private void requestPinchZoom(float zoomLevel) {
+        this.currentZoom = cameraManager.requestZoom(zoomLevel);
+        if (callback != null) {
+            callback.onZoomChanged(this.currentZoom);
+        }
+    }
+
     /**
      * Set smooth zoom level with smart ultra-wide switching
      * Uses CameraX's built-in smooth zoom for fluid pinch gestures
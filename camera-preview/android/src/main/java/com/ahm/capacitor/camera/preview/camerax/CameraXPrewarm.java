@@ -0,0 +1,114 @@
+package com.ahm.capacitor.camera.preview.camerax;
+
+import android.content.Context;
+import android.os.SystemClock;
+import android.util.Log;
+
+import androidx.camera.core.CameraSelector;
+import androidx.camera.lifecycle.ProcessCameraProvider;
+
+import com.google.common.util.concurrent.ListenableFuture;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Initializes ProcessCameraProvider, the lens topology and the default selector ahead of start(),
+ * so that starting the preview only has to bind use cases.
+ */
+public final class CameraXPrewarm {
+    private static final String TAG = "CameraXPrewarm";
+
+    public interface Callback {
+        void onPrewarmed(long durationMs);
+        void onPrewarmError(String error);
+    }
+
+    private static final ExecutorService prewarmExecutor = Executors.newSingleThreadExecutor();
+
+    private static ListenableFuture<ProcessCameraProvider> providerFuture;
+    private static long prewarmStartedAt = -1;
+    private static volatile long providerInitMs = -1;
+    private static volatile long prewarmDurationMs = -1;
+    private static volatile String defaultSelectorType;
+    private static volatile CameraSelector defaultSelector;
+
+    private CameraXPrewarm() {}
+
+    /**
+     * Start prewarming in the background. Calling it again while or after prewarming only
+     * registers the callback.
+     */
+    public static synchronized void prewarm(Context context, final String defaultCamera, final Callback callback) {
+        final Context appContext = context.getApplicationContext();
+        if (providerFuture == null) {
+            prewarmStartedAt = SystemClock.elapsedRealtime();
+            providerFuture = ProcessCameraProvider.getInstance(appContext);
+            Log.d(TAG, "Prewarm started");
+        }
+        final ListenableFuture<ProcessCameraProvider> future = providerFuture;
+        final long startedAt = prewarmStartedAt;
+        future.addListener(() -> {
+            try {
+                future.get();
+                if (providerInitMs < 0) {
+                    providerInitMs = SystemClock.elapsedRealtime() - startedAt;
+                }
+                LensTopologyRegistry.get(appContext);
+                resolveDefaultSelector(appContext, defaultCamera);
+                if (prewarmDurationMs < 0) {
+                    prewarmDurationMs = SystemClock.elapsedRealtime() - startedAt;
+                }
+                Log.d(TAG, "Prewarm done: provider=" + providerInitMs + "ms, total=" + prewarmDurationMs + "ms");
+                if (callback != null) callback.onPrewarmed(prewarmDurationMs);
+            } catch (Exception e) {
+                Log.e(TAG, "Prewarm failed", e);
+                synchronized (CameraXPrewarm.class) {
+                    if (providerFuture == future) providerFuture = null;
+                }
+                if (callback != null) callback.onPrewarmError("Prewarm failed: " + e.getMessage());
+            }
+        }, prewarmExecutor);
+    }
+
+    /**
+     * Provider future for start(): the prewarmed one when available, otherwise a fresh request
+     */
+    public static synchronized ListenableFuture<ProcessCameraProvider> getProviderFuture(Context context) {
+        if (providerFuture != null) return providerFuture;
+        return ProcessCameraProvider.getInstance(context);
+    }
+
+    public static boolean isPrewarmed() {
+        return providerInitMs >= 0;
+    }
+
+    /**
+     * Cold provider initialization time measured while prewarming, -1 when not prewarmed
+     */
+    public static long getProviderInitMs() {
+        return providerInitMs;
+    }
+
+    /**
+     * Selector resolved during prewarm for the given camera type, or null when it was not prewarmed
+     */
+    public static CameraSelector getDefaultSelector(String cameraType) {
+        String type = defaultSelectorType;
+        CameraSelector selector = defaultSelector;
+        return (type != null && type.equalsIgnoreCase(cameraType)) ? selector : null;
+    }
+
+    private static void resolveDefaultSelector(Context context, String cameraType) {
+        if (cameraType == null) return;
+        try {
+            CameraSelector selector = CameraXSelector.getCameraSelectorByType(context, cameraType);
+            if (selector != null) {
+                defaultSelector = selector;
+                defaultSelectorType = cameraType;
+            }
+        } catch (Exception e) {
+            Log.w(TAG, "Could not resolve default selector for " + cameraType + ": " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.ahm.capacitor.camera.preview.camerax;
+
+/**
+ * Options of a single capture() call.
+ */
+public final class CaptureOptions {
+    private int width;
+    private int height;
+    private int quality = 85;
+    private JpegOrientation.Mode orientationMode;
+    private CaptureResultMode resultMode;
+    private String outputUri;
+    private int chunkBytes = Base64Chunker.DEFAULT_CHUNK_BYTES;
+    private boolean autoCapture;
+
+    public CaptureOptions setSize(int width, int height) {
+        this.width = width;
+        this.height = height;
+        return this;
+    }
+
+    public CaptureOptions setQuality(int quality) {
+        this.quality = quality;
+        return this;
+    }
+
+    /** null keeps the default, which follows disableExifHeaderStripping */
+    public CaptureOptions setOrientationMode(JpegOrientation.Mode orientationMode) {
+        this.orientationMode = orientationMode;
+        return this;
+    }
+
+    /** null keeps the legacy behavior driven by storeToFile */
+    public CaptureOptions setResultMode(CaptureResultMode resultMode) {
+        this.resultMode = resultMode;
+        return this;
+    }
+
+    /** Destination for CaptureResultMode.URI; a cache file is used when null */
+    public CaptureOptions setOutputUri(String outputUri) {
+        this.outputUri = outputUri;
+        return this;
+    }
+
+    public CaptureOptions setChunkBytes(int chunkBytes) {
+        this.chunkBytes = chunkBytes;
+        return this;
+    }
+
+    /** Capture fired by the auto-capture engine, reported as an event instead of a call result */
+    public CaptureOptions setAutoCapture(boolean autoCapture) {
+        this.autoCapture = autoCapture;
+        return this;
+    }
+
+    public int getWidth() { return width; }
+    public int getHeight() { return height; }
+    public int getQuality() { return quality; }
+    public JpegOrientation.Mode getOrientationMode() { return orientationMode; }
+    public CaptureResultMode getResultMode() { return resultMode; }
+    public String getOutputUri() { return outputUri; }
+    public int getChunkBytes() { return chunkBytes; }
+    public boolean isAutoCapture() { return autoCapture; }
+}
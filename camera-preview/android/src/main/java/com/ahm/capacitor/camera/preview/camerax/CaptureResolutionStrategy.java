@@ -0,0 +1,172 @@
+package com.ahm.capacitor.camera.preview.camerax;
+
+import java.util.List;
+
+/**
+ * Picks the ImageCapture resolution for a requested picture size.
+ *
+ * Supported sizes are reported in sensor orientation, so requests are compared by their long and
+ * short edges and a portrait 1080x1920 request matches a 1920x1080 output. The smallest size that
+ * covers the request wins, preferring the requested aspect ratio; when nothing is large enough
+ * the largest size is used. A request without width and height keeps the device default.
+ * Kept free of android.* so it can be tested against plain size tables.
+ */
+public final class CaptureResolutionStrategy {
+
+    public static final float ASPECT_RATIO_4_3 = 4f / 3f;
+    public static final float ASPECT_RATIO_16_9 = 16f / 9f;
+
+    /** Aspect ratios closer than this are treated as equal, e.g. 1920x1088 and 16:9 */
+    private static final float ASPECT_TOLERANCE = 0.05f;
+
+    public static final class Size {
+        private final int width;
+        private final int height;
+
+        public Size(int width, int height) {
+            this.width = width;
+            this.height = height;
+        }
+
+        public int getWidth() { return width; }
+        public int getHeight() { return height; }
+
+        long area() {
+            return (long) width * height;
+        }
+
+        int longEdge() {
+            return Math.max(width, height);
+        }
+
+        int shortEdge() {
+            return Math.min(width, height);
+        }
+
+        float aspectRatio() {
+            return shortEdge() == 0 ? 0f : (float) longEdge() / shortEdge();
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Size)) return false;
+            Size other = (Size) o;
+            return width == other.width && height == other.height;
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * width + height;
+        }
+
+        @Override
+        public String toString() {
+            return width + "x" + height;
+        }
+    }
+
+    private final int requestedLong;
+    private final int requestedShort;
+    private final float targetAspectRatio;
+
+    /**
+     * @param width requested width, 0 when not specified
+     * @param height requested height, 0 when not specified
+     */
+    public CaptureResolutionStrategy(int width, int height) {
+        int w = Math.max(0, width);
+        int h = Math.max(0, height);
+        if (w > 0 && h > 0) {
+            requestedLong = Math.max(w, h);
+            requestedShort = Math.min(w, h);
+            targetAspectRatio = (float) requestedLong / requestedShort;
+        } else {
+            // A single dimension is matched against the short edge so the picture is never
+            // smaller than asked for in either orientation; the aspect ratio follows the preview
+            requestedLong = 0;
+            requestedShort = Math.max(w, h);
+            targetAspectRatio = ASPECT_RATIO_16_9;
+        }
+    }
+
+    /** True when no size was requested and the device default resolution should be kept */
+    public boolean isDefault() {
+        return requestedLong == 0 && requestedShort == 0;
+    }
+
+    public float getTargetAspectRatio() {
+        return targetAspectRatio;
+    }
+
+    /** Whether the requested aspect ratio is closer to 4:3 than to 16:9 */
+    public boolean prefers4by3() {
+        return Math.abs(targetAspectRatio - ASPECT_RATIO_4_3) < Math.abs(targetAspectRatio - ASPECT_RATIO_16_9);
+    }
+
+    /**
+     * Best supported size for the request, or null when the request is the default or the list
+     * is empty
+     */
+    public Size select(List<Size> supported) {
+        if (isDefault() || supported == null || supported.isEmpty()) return null;
+
+        Size smallestCovering = null;
+        Size smallestCoveringMatching = null;
+        Size largest = null;
+        Size largestMatching = null;
+        for (Size size : supported) {
+            if (size == null || size.shortEdge() <= 0) continue;
+            boolean matching = Math.abs(size.aspectRatio() - targetAspectRatio) <= ASPECT_TOLERANCE;
+            if (covers(size)) {
+                if (isBetterSmallest(size, smallestCovering)) smallestCovering = size;
+                if (matching && isBetterSmallest(size, smallestCoveringMatching)) smallestCoveringMatching = size;
+            }
+            if (isBetterLargest(size, largest)) largest = size;
+            if (matching && isBetterLargest(size, largestMatching)) largestMatching = size;
+        }
+        if (smallestCoveringMatching != null) return smallestCoveringMatching;
+        if (smallestCovering != null) return smallestCovering;
+        return largestMatching != null ? largestMatching : largest;
+    }
+
+    private boolean covers(Size size) {
+        return size.longEdge() >= requestedLong && size.shortEdge() >= requestedShort;
+    }
+
+    private boolean isBetterSmallest(Size candidate, Size current) {
+        if (current == null) return true;
+        if (candidate.area() != current.area()) return candidate.area() < current.area();
+        return aspectDistance(candidate) < aspectDistance(current);
+    }
+
+    private boolean isBetterLargest(Size candidate, Size current) {
+        if (current == null) return true;
+        if (candidate.area() != current.area()) return candidate.area() > current.area();
+        return aspectDistance(candidate) < aspectDistance(current);
+    }
+
+    private float aspectDistance(Size size) {
+        return Math.abs(size.aspectRatio() - targetAspectRatio);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof CaptureResolutionStrategy)) return false;
+        CaptureResolutionStrategy other = (CaptureResolutionStrategy) o;
+        return requestedLong == other.requestedLong
+            && requestedShort == other.requestedShort
+            && targetAspectRatio == other.targetAspectRatio;
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * requestedLong + requestedShort;
+    }
+
+    @Override
+    public String toString() {
+        return isDefault() ? "default" : requestedLong + "x" + requestedShort;
+    }
+}
@@ -0,0 +1,32 @@
+package com.ahm.capacitor.camera.preview.camerax;
+
+/**
+ * How a capture is handed back to JS.
+ */
+public enum CaptureResultMode {
+    /** A single Base64 string in the capture result */
+    BASE64("base64"),
+    /** The JPEG is written to a file or a caller supplied content URI and only its handle is returned */
+    URI("uri"),
+    /** The Base64 payload is sent in bounded segments through captureChunk events */
+    CHUNKED("chunked");
+
+    private final String jsName;
+
+    CaptureResultMode(String jsName) {
+        this.jsName = jsName;
+    }
+
+    public String getJsName() {
+        return jsName;
+    }
+
+    public static CaptureResultMode fromString(String value, CaptureResultMode fallback) {
+        if (value != null) {
+            for (CaptureResultMode mode : values()) {
+                if (mode.jsName.equalsIgnoreCase(value)) return mode;
+            }
+        }
+        return fallback;
+    }
+}
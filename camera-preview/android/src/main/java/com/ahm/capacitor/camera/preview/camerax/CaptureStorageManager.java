@@ -0,0 +1,235 @@
+package com.ahm.capacitor.camera.preview.camerax;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps the pictures and videos the plugin writes to the cache directory within a size and age
+ * budget.
+ *
+ * Names are allocated from a session id and a counter, e.g. cpcp_capture_lq3x9k1-12.jpg, so no
+ * name is ever probed on disk. Finished files are registered with commit(); once the directory
+ * is over its byte budget the oldest files go first, and files older than the age budget go
+ * regardless. The plugin hands each file out once and never reads it back, so age counts from
+ * commit() and eviction is first in, first out. Files left by earlier runs are found by sweep().
+ * All disk access runs on a background thread; the index itself is a small in-memory map. Kept
+ * free of android.* so it can be tested on the JVM.
+ */
+public final class CaptureStorageManager {
+
+    public static final String CAPTURE_PREFIX = "cpcp_capture_";
+    /** Also matches the segments a RecordingSegmenter names after it */
+    public static final String VIDEO_PREFIX = "videoTmp";
+    public static final String CAPTURE_EXTENSION = ".jpg";
+    public static final String VIDEO_EXTENSION = ".mp4";
+
+    public static final long DEFAULT_MAX_BYTES = 512L * 1024 * 1024;
+    public static final long DEFAULT_MAX_AGE_MS = 7L * 24 * 60 * 60 * 1000;
+    /** The sweep leaves files this recent alone, they may still be written */
+    static final long SWEEP_GRACE_MS = 60_000;
+
+    public interface Clock {
+        long currentTimeMillis();
+    }
+
+    private static final Clock SYSTEM_CLOCK = System::currentTimeMillis;
+    private static final String[] PREFIXES = { CAPTURE_PREFIX, VIDEO_PREFIX };
+
+    private static final class Entry {
+        final File file;
+        final long bytes;
+        final long storedMs;
+
+        Entry(File file, long bytes, long storedMs) {
+            this.file = file;
+            this.bytes = bytes;
+            this.storedMs = storedMs;
+        }
+    }
+
+    private final File directory;
+    private final Executor io;
+    private final Clock clock;
+    private final String session;
+    private final AtomicLong counter = new AtomicLong();
+
+    // Oldest first
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>();
+    private long maxBytes;
+    private long maxAgeMs;
+    private long bytes;
+    private long evictedFiles;
+    private long evictedBytes;
+    private long expiredFiles;
+    private long sweptFiles;
+    private long deleteFailures;
+    private long sweepMs = -1;
+
+    public CaptureStorageManager(File directory, long maxBytes, long maxAgeMs) {
+        this(directory, maxBytes, maxAgeMs,
+            Executors.newSingleThreadExecutor(r -> new Thread(r, "CaptureStorage")), SYSTEM_CLOCK);
+    }
+
+    CaptureStorageManager(File directory, long maxBytes, long maxAgeMs, Executor io, Clock clock) {
+        this.directory = directory;
+        this.io = io;
+        this.clock = clock;
+        this.session = Long.toString(clock.currentTimeMillis(), 36);
+        this.maxBytes = maxBytes;
+        this.maxAgeMs = maxAgeMs;
+    }
+
+    public File getDirectory() {
+        return directory;
+    }
+
+    /** A name no other file of this or an earlier run has; nothing is created on disk */
+    public File newFile(String prefix, String extension) {
+        return new File(directory, prefix + session + "-" + counter.incrementAndGet() + extension);
+    }
+
+    /** Count a finished file against the budget; older files may be evicted to make room, never this one */
+    public void commit(final File file) {
+        io.execute(() -> {
+            long length = file.length();
+            if (length <= 0) return;
+            synchronized (this) {
+                // Committed again, e.g. overwritten: it moves to the end
+                Entry previous = entries.remove(file.getName());
+                entries.put(file.getName(), new Entry(file, length, clock.currentTimeMillis()));
+                if (previous != null) bytes -= previous.bytes;
+                bytes += length;
+            }
+            trim(file.getName());
+        });
+    }
+
+    /** Delete a file that is no longer needed, committed or not */
+    public void discard(final File file) {
+        io.execute(() -> {
+            synchronized (this) {
+                Entry entry = entries.remove(file.getName());
+                if (entry != null) bytes -= entry.bytes;
+            }
+            delete(file);
+        });
+    }
+
+    /** Index the files earlier runs left behind and apply the budget to them, in the background */
+    public void sweep() {
+        io.execute(this::sweepNow);
+    }
+
+    public void setBudget(long maxBytes, long maxAgeMs) {
+        synchronized (this) {
+            this.maxBytes = maxBytes;
+            this.maxAgeMs = maxAgeMs;
+        }
+        io.execute(() -> trim(null));
+    }
+
+    private void sweepNow() {
+        long start = clock.currentTimeMillis();
+        File[] files = directory.listFiles();
+        if (files == null) return;
+        List<Entry> found = new ArrayList<>();
+        for (File file : files) {
+            if (!isManaged(file.getName()) || !file.isFile()) continue;
+            long modified = file.lastModified();
+            if (start - modified < SWEEP_GRACE_MS) continue;
+            found.add(new Entry(file, file.length(), modified));
+        }
+        synchronized (this) {
+            sweptFiles = found.size();
+            for (Entry entry : entries.values()) found.add(entry);
+            Collections.sort(found, (a, b) -> Long.compare(a.storedMs, b.storedMs));
+            entries.clear();
+            bytes = 0;
+            for (Entry entry : found) {
+                Entry previous = entries.put(entry.file.getName(), entry);
+                if (previous != null) bytes -= previous.bytes;
+                bytes += entry.bytes;
+            }
+        }
+        trim(null);
+        synchronized (this) {
+            sweepMs = clock.currentTimeMillis() - start;
+        }
+    }
+
+    private static boolean isManaged(String name) {
+        for (String prefix : PREFIXES) {
+            if (name.startsWith(prefix)) return true;
+        }
+        return false;
+    }
+
+    /** Evict expired files, then the oldest until within the byte budget */
+    private void trim(String keep) {
+        List<File> victims = new ArrayList<>();
+        synchronized (this) {
+            long now = clock.currentTimeMillis();
+            Iterator<Map.Entry<String, Entry>> it = entries.entrySet().iterator();
+            while (it.hasNext()) {
+                Map.Entry<String, Entry> next = it.next();
+                Entry entry = next.getValue();
+                if (next.getKey().equals(keep)) continue;
+                boolean expired = maxAgeMs > 0 && now - entry.storedMs > maxAgeMs;
+                if (!expired && (maxBytes <= 0 || bytes <= maxBytes)) continue;
+                it.remove();
+                bytes -= entry.bytes;
+                evictedBytes += entry.bytes;
+                if (expired) {
+                    expiredFiles++;
+                } else {
+                    evictedFiles++;
+                }
+                victims.add(entry.file);
+            }
+        }
+        for (File file : victims) {
+            delete(file);
+        }
+    }
+
+    private void delete(File file) {
+        if (file.exists() && !file.delete()) {
+            synchronized (this) {
+                deleteFailures++;
+            }
+        }
+    }
+
+    public synchronized long getBytes() {
+        return bytes;
+    }
+
+    public synchronized int getFileCount() {
+        return entries.size();
+    }
+
+    public synchronized Map<String, Object> getStats() {
+        Map<String, Object> map = new HashMap<>();
+        map.put("files", entries.size());
+        map.put("bytes", bytes);
+        map.put("maxBytes", maxBytes);
+        map.put("maxAgeMs", maxAgeMs);
+        map.put("evictedFiles", evictedFiles);
+        map.put("expiredFiles", expiredFiles);
+        map.put("evictedBytes", evictedBytes);
+        map.put("sweptFiles", sweptFiles);
+        map.put("deleteFailures", deleteFailures);
+        // -1 until the startup sweep has run
+        map.put("sweepMs", sweepMs);
+        return map;
+    }
+}
@@ -0,0 +1,45 @@
+package com.ahm.capacitor.camera.preview.camerax;
+
+/**
+ * One compressed access unit of a recording: a video frame or an audio packet.
+ */
+public final class EncodedSample {
+    public static final int TRACK_VIDEO = 0;
+    public static final int TRACK_AUDIO = 1;
+
+    private final int track;
+    private final long presentationTimeUs;
+    private final boolean keyFrame;
+    private final byte[] data;
+
+    /**
+     * @param keyFrame for video, whether decoding can start here; audio packets are always
+     *     independent
+     */
+    public EncodedSample(int track, long presentationTimeUs, boolean keyFrame, byte[] data) {
+        this.track = track;
+        this.presentationTimeUs = presentationTimeUs;
+        this.keyFrame = keyFrame || track == TRACK_AUDIO;
+        this.data = data;
+    }
+
+    public int getTrack() { return track; }
+    public long getPresentationTimeUs() { return presentationTimeUs; }
+    public boolean isKeyFrame() { return keyFrame; }
+    public byte[] getData() { return data; }
+    public int getSize() { return data.length; }
+
+    public boolean isVideo() {
+        return track == TRACK_VIDEO;
+    }
+
+    /** Video key frame, where a group of pictures starts */
+    boolean startsGroup() {
+        return track == TRACK_VIDEO && keyFrame;
+    }
+
+    @Override
+    public String toString() {
+        return (isVideo() ? "video" : "audio") + "@" + presentationTimeUs + (startsGroup() ? " key" : "") + " " + data.length + "B";
+    }
+}
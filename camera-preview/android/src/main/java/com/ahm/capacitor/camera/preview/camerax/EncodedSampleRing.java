@@ -0,0 +1,127 @@
+package com.ahm.capacitor.camera.preview.camerax;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Bounded buffer of the most recent encoded samples, for pre-roll recording.
+ *
+ * Samples are kept in groups that each start with a video key frame, so whatever the ring holds
+ * can be decoded from its first sample. Whole groups are evicted from the head once the next
+ * group alone still covers the window, or when the ring is over its byte budget. A single group
+ * larger than the budget is dropped entirely rather than kept undecodable. Samples arriving
+ * before the first key frame have nothing to decode against and are dropped.
+ */
+public final class EncodedSampleRing {
+
+    private static final class Group {
+        final long startUs;
+        final List<EncodedSample> samples = new ArrayList<>();
+        long bytes;
+
+        Group(long startUs) {
+            this.startUs = startUs;
+        }
+    }
+
+    private final long maxBytes;
+    private final long windowUs;
+    private final ArrayDeque<Group> groups = new ArrayDeque<>();
+    private long bytes;
+    private long newestUs = Long.MIN_VALUE;
+    private long evictedSamples;
+    private long droppedSamples;
+
+    /**
+     * @param maxBytes memory budget for sample data
+     * @param windowUs how much footage to keep before the newest sample
+     */
+    public EncodedSampleRing(long maxBytes, long windowUs) {
+        this.maxBytes = Math.max(1, maxBytes);
+        this.windowUs = Math.max(0, windowUs);
+    }
+
+    public synchronized void add(EncodedSample sample) {
+        if (sample.startsGroup()) {
+            groups.addLast(new Group(sample.getPresentationTimeUs()));
+        } else if (groups.isEmpty()) {
+            droppedSamples++;
+            return;
+        }
+        Group group = groups.peekLast();
+        group.samples.add(sample);
+        group.bytes += sample.getSize();
+        bytes += sample.getSize();
+        if (sample.isVideo()) newestUs = Math.max(newestUs, sample.getPresentationTimeUs());
+        evict();
+    }
+
+    private void evict() {
+        while (groups.size() > 1) {
+            Iterator<Group> it = groups.iterator();
+            it.next();
+            Group next = it.next();
+            if (next.startUs > newestUs - windowUs && bytes <= maxBytes) return;
+            removeHead(false);
+        }
+        // One group over budget cannot be kept decodable
+        if (bytes > maxBytes && !groups.isEmpty()) removeHead(true);
+    }
+
+    private void removeHead(boolean overBudget) {
+        Group head = groups.removeFirst();
+        bytes -= head.bytes;
+        if (overBudget) {
+            droppedSamples += head.samples.size();
+        } else {
+            evictedSamples += head.samples.size();
+        }
+    }
+
+    /** Every buffered sample in arrival order, starting at a video key frame; the ring is emptied */
+    public synchronized List<EncodedSample> drain() {
+        List<EncodedSample> out = new ArrayList<>();
+        for (Group group : groups) out.addAll(group.samples);
+        groups.clear();
+        bytes = 0;
+        newestUs = Long.MIN_VALUE;
+        return out;
+    }
+
+    public synchronized void clear() {
+        drain();
+    }
+
+    public synchronized long getBytes() {
+        return bytes;
+    }
+
+    /** Span of the buffered video, from the first key frame to the newest frame */
+    public synchronized long getDurationUs() {
+        return groups.isEmpty() ? 0 : Math.max(0, newestUs - groups.peekFirst().startUs);
+    }
+
+    public synchronized int getSampleCount() {
+        int count = 0;
+        for (Group group : groups) count += group.samples.size();
+        return count;
+    }
+
+    public long getMaxBytes() { return maxBytes; }
+    public long getWindowUs() { return windowUs; }
+
+    public synchronized Map<String, Object> toMap() {
+        Map<String, Object> map = new HashMap<>();
+        map.put("bytes", bytes);
+        map.put("maxBytes", maxBytes);
+        map.put("durationMs", getDurationUs() / 1000);
+        map.put("windowMs", windowUs / 1000);
+        map.put("evictedSamples", evictedSamples);
+        map.put("droppedSamples", droppedSamples);
+        return map;
+    }
+}
@@ -0,0 +1,227 @@
+package com.ahm.capacitor.camera.preview.camerax;
+
+/**
+ * Reads and rewrites the EXIF orientation tag of an encoded JPEG without decoding it.
+ *
+ * Used by the in-memory capture path: the encoder output is passed through untouched and only
+ * the two bytes of the orientation value are patched, so no pixel data is copied or re-encoded.
+ * Values mirror ExifInterface.ORIENTATION_* so this class stays free of android.* imports.
+ */
+public final class ExifOrientation {
+
+    public static final int UNDEFINED = 0;
+    public static final int NORMAL = 1;
+    public static final int FLIP_HORIZONTAL = 2;
+    public static final int ROTATE_180 = 3;
+    public static final int FLIP_VERTICAL = 4;
+    public static final int TRANSPOSE = 5;
+    public static final int ROTATE_90 = 6;
+    public static final int TRANSVERSE = 7;
+    public static final int ROTATE_270 = 8;
+
+    private static final int TAG_ORIENTATION = 0x0112;
+    private static final int TYPE_SHORT = 3;
+
+    private static final int MARKER_SOI = 0xD8;
+    private static final int MARKER_APP0 = 0xE0;
+    private static final int MARKER_APP1 = 0xE1;
+    private static final int MARKER_SOS = 0xDA;
+    private static final int MARKER_EOI = 0xD9;
+
+    // findOrientationValue results: an offset (optionally tagged with BIG_ENDIAN_FLAG) or a reason
+    private static final int BIG_ENDIAN_FLAG = 1 << 30;
+    private static final int NOT_JPEG = -1;
+    private static final int NO_EXIF = -2;
+    private static final int NO_ORIENTATION_TAG = -3;
+
+    private ExifOrientation() {}
+
+    public static int fromRotationDegrees(int degrees) {
+        switch (((degrees % 360) + 360) % 360) {
+            case 90:
+                return ROTATE_90;
+            case 180:
+                return ROTATE_180;
+            case 270:
+                return ROTATE_270;
+            default:
+                return NORMAL;
+        }
+    }
+
+    /** Clockwise rotation encoded by an orientation value, ignoring mirroring */
+    public static int toRotationDegrees(int orientation) {
+        switch (orientation) {
+            case ROTATE_90:
+            case TRANSVERSE:
+                return 90;
+            case ROTATE_180:
+            case FLIP_VERTICAL:
+                return 180;
+            case ROTATE_270:
+            case TRANSPOSE:
+                return 270;
+            default:
+                return 0;
+        }
+    }
+
+    /**
+     * Orientation that applies the given one and then mirrors the result top to bottom
+     */
+    public static int flipVertically(int orientation) {
+        switch (orientation) {
+            case FLIP_HORIZONTAL:
+                return ROTATE_180;
+            case ROTATE_180:
+                return FLIP_HORIZONTAL;
+            case FLIP_VERTICAL:
+                return NORMAL;
+            case TRANSPOSE:
+                return ROTATE_270;
+            case ROTATE_90:
+                return TRANSVERSE;
+            case TRANSVERSE:
+                return ROTATE_90;
+            case ROTATE_270:
+                return TRANSPOSE;
+            default:
+                return FLIP_VERTICAL;
+        }
+    }
+
+    /**
+     * Orientation stored in the JPEG, or UNDEFINED when there is no EXIF orientation tag
+     */
+    public static int read(byte[] jpeg) {
+        int offset = findOrientationValue(jpeg);
+        if (offset < 0) return UNDEFINED;
+        return readShort(jpeg, offset & ~BIG_ENDIAN_FLAG, (offset & BIG_ENDIAN_FLAG) != 0);
+    }
+
+    /**
+     * Set the orientation of a JPEG.
+     *
+     * When the JPEG already carries an orientation tag it is patched in place and the same array
+     * is returned. A JPEG without EXIF gets a minimal APP1 segment inserted, which costs one copy.
+     * Returns null when the JPEG has EXIF data without an orientation tag or is not a JPEG;
+     * callers fall back to rotating the pixels in that case.
+     */
+    public static byte[] apply(byte[] jpeg, int orientation) {
+        int offset = findOrientationValue(jpeg);
+        if (offset >= 0) {
+            writeShort(jpeg, offset & ~BIG_ENDIAN_FLAG, orientation, (offset & BIG_ENDIAN_FLAG) != 0);
+            return jpeg;
+        }
+        if (offset == NO_EXIF) {
+            return insertExif(jpeg, orientation);
+        }
+        return null;
+    }
+
+    private static int findOrientationValue(byte[] jpeg) {
+        if (jpeg == null || jpeg.length < 4 || (jpeg[0] & 0xFF) != 0xFF || (jpeg[1] & 0xFF) != MARKER_SOI) {
+            return NOT_JPEG;
+        }
+        int pos = 2;
+        while (pos + 4 <= jpeg.length) {
+            if ((jpeg[pos] & 0xFF) != 0xFF) return NOT_JPEG;
+            int marker = jpeg[pos + 1] & 0xFF;
+            if (marker == 0xFF) {
+                // Fill byte before the marker
+                pos++;
+                continue;
+            }
+            if (marker == MARKER_SOS || marker == MARKER_EOI) break;
+            int length = readShort(jpeg, pos + 2, true);
+            if (length < 2 || pos + 2 + length > jpeg.length) return NOT_JPEG;
+            if (marker == MARKER_APP1 && isExifHeader(jpeg, pos + 4, length - 2)) {
+                return findInTiff(jpeg, pos + 10, pos + 2 + length);
+            }
+            pos += 2 + length;
+        }
+        return NO_EXIF;
+    }
+
+    private static boolean isExifHeader(byte[] jpeg, int start, int available) {
+        return available >= 6
+            && jpeg[start] == 'E'
+            && jpeg[start + 1] == 'x'
+            && jpeg[start + 2] == 'i'
+            && jpeg[start + 3] == 'f'
+            && jpeg[start + 4] == 0
+            && jpeg[start + 5] == 0;
+    }
+
+    private static int findInTiff(byte[] jpeg, int tiff, int end) {
+        if (tiff + 8 > end) return NO_ORIENTATION_TAG;
+        boolean bigEndian;
+        if (jpeg[tiff] == 'M' && jpeg[tiff + 1] == 'M') {
+            bigEndian = true;
+        } else if (jpeg[tiff] == 'I' && jpeg[tiff + 1] == 'I') {
+            bigEndian = false;
+        } else {
+            return NO_ORIENTATION_TAG;
+        }
+        if (readShort(jpeg, tiff + 2, bigEndian) != 42) return NO_ORIENTATION_TAG;
+        long ifdOffset = readInt(jpeg, tiff + 4, bigEndian) & 0xFFFFFFFFL;
+        if (ifdOffset < 8 || tiff + ifdOffset + 2 > end) return NO_ORIENTATION_TAG;
+        int ifd = tiff + (int) ifdOffset;
+        int count = readShort(jpeg, ifd, bigEndian);
+        for (int i = 0; i < count; i++) {
+            int entry = ifd + 2 + i * 12;
+            if (entry + 12 > end) break;
+            if (readShort(jpeg, entry, bigEndian) == TAG_ORIENTATION) {
+                if (readShort(jpeg, entry + 2, bigEndian) != TYPE_SHORT) return NO_ORIENTATION_TAG;
+                return (entry + 8) | (bigEndian ? BIG_ENDIAN_FLAG : 0);
+            }
+        }
+        return NO_ORIENTATION_TAG;
+    }
+
+    private static byte[] insertExif(byte[] jpeg, int orientation) {
+        // APP1: "Exif\0\0" + big endian TIFF header + IFD0 with a single orientation entry
+        byte[] segment = new byte[] {
+            (byte) 0xFF, (byte) MARKER_APP1, 0, 34,
+            'E', 'x', 'i', 'f', 0, 0,
+            'M', 'M', 0, 42, 0, 0, 0, 8,
+            0, 1,
+            0x01, 0x12, 0, TYPE_SHORT, 0, 0, 0, 1, 0, (byte) orientation, 0, 0,
+            0, 0, 0, 0
+        };
+        // Keep a leading JFIF APP0 first, as both specs want their segment right after SOI
+        int insertAt = 2;
+        if (jpeg.length > 6 && (jpeg[2] & 0xFF) == 0xFF && (jpeg[3] & 0xFF) == MARKER_APP0) {
+            int app0End = 4 + readShort(jpeg, 4, true);
+            if (app0End <= jpeg.length) insertAt = app0End;
+        }
+        byte[] out = new byte[jpeg.length + segment.length];
+        System.arraycopy(jpeg, 0, out, 0, insertAt);
+        System.arraycopy(segment, 0, out, insertAt, segment.length);
+        System.arraycopy(jpeg, insertAt, out, insertAt + segment.length, jpeg.length - insertAt);
+        return out;
+    }
+
+    private static int readShort(byte[] b, int pos, boolean bigEndian) {
+        int b0 = b[pos] & 0xFF;
+        int b1 = b[pos + 1] & 0xFF;
+        return bigEndian ? (b0 << 8) | b1 : (b1 << 8) | b0;
+    }
+
+    private static int readInt(byte[] b, int pos, boolean bigEndian) {
+        if (bigEndian) {
+            return ((b[pos] & 0xFF) << 24) | ((b[pos + 1] & 0xFF) << 16) | ((b[pos + 2] & 0xFF) << 8) | (b[pos + 3] & 0xFF);
+        }
+        return ((b[pos + 3] & 0xFF) << 24) | ((b[pos + 2] & 0xFF) << 16) | ((b[pos + 1] & 0xFF) << 8) | (b[pos] & 0xFF);
+    }
+
+    private static void writeShort(byte[] b, int pos, int value, boolean bigEndian) {
+        if (bigEndian) {
+            b[pos] = (byte) (value >> 8);
+            b[pos + 1] = (byte) value;
+        } else {
+            b[pos] = (byte) value;
+            b[pos + 1] = (byte) (value >> 8);
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package com.ahm.capacitor.camera.preview.camerax;
+
+import java.util.Map;
+
+/**
+ * Per-frame analysis plugged into the ImageAnalysis stream.
+ *
+ * Runs on the dedicated analysis thread, one frame at a time. Values of the returned map must be
+ * JSON compatible (numbers, strings, booleans, lists and maps) as they are sent to JS as-is.
+ */
+public interface FrameProcessor {
+
+    /**
+     * Analyze a frame. The frame must not be kept after returning.
+     *
+     * @return result for JS, or null when this frame produced nothing worth sending
+     */
+    Map<String, Object> process(AnalysisFrame frame);
+
+    interface Factory {
+        FrameProcessor create();
+    }
+}
@@ -0,0 +1,38 @@
+package com.ahm.capacitor.camera.preview.camerax;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Frame processors selectable by name from startFrameAnalysis().
+ *
+ * Apps register their own native processors, e.g. a barcode reader, from MainActivity.onCreate
+ * before the camera starts.
+ */
+public final class FrameProcessors {
+
+    private static final Map<String, FrameProcessor.Factory> factories = new LinkedHashMap<>();
+
+    static {
+        register(LuminanceFrameProcessor.NAME, LuminanceFrameProcessor::new);
+    }
+
+    private FrameProcessors() {}
+
+    public static synchronized void register(String name, FrameProcessor.Factory factory) {
+        if (name == null || factory == null) throw new IllegalArgumentException("name and factory are required");
+        factories.put(name, factory);
+    }
+
+    /** New processor instance, or null when no processor is registered under that name */
+    public static synchronized FrameProcessor create(String name) {
+        FrameProcessor.Factory factory = name != null ? factories.get(name) : null;
+        return factory != null ? factory.create() : null;
+    }
+
+    public static synchronized List<String> names() {
+        return new ArrayList<>(factories.keySet());
+    }
+}
@@ -0,0 +1,225 @@
+package com.ahm.capacitor.camera.preview.camerax;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Small bounded pool for post-capture CPU work: orienting, encoding, Base64 and writing files.
+ *
+ * The queue holds at most queueCapacity jobs, each pinning a full-size picture. When it is full
+ * the job runs on the submitting thread instead, which slows the camera callbacks down rather
+ * than letting pictures pile up; a submission from the main thread is refused instead, so UI
+ * work never blocks on encoding. Queued jobs can be cancelled, running their onDropped hook; the
+ * hook also runs when a job throws, errors included, since nobody reads the returned future and
+ * the job's caller would otherwise never hear back.
+ */
+public final class ImageProcessingExecutor {
+
+    public static final int DEFAULT_THREADS = 2;
+    public static final int DEFAULT_QUEUE_CAPACITY = 4;
+
+    private final ThreadPoolExecutor pool;
+    private final Thread noCallerRunsThread;
+
+    private final AtomicLong submitted = new AtomicLong();
+    private final AtomicLong completed = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong cancelled = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong callerRuns = new AtomicLong();
+    private final AtomicLong totalWaitNanos = new AtomicLong();
+    private final AtomicLong totalRunNanos = new AtomicLong();
+    private final AtomicLong maxRunNanos = new AtomicLong();
+    private final AtomicInteger maxQueueDepth = new AtomicInteger();
+
+    /**
+     * @param noCallerRunsThread thread that must never run a job itself, typically the main
+     *                           thread; null lets any caller absorb overflow
+     */
+    public ImageProcessingExecutor(int threads, int queueCapacity, final String name, Thread noCallerRunsThread) {
+        this.noCallerRunsThread = noCallerRunsThread;
+        final AtomicInteger threadCount = new AtomicInteger();
+        this.pool = new ThreadPoolExecutor(
+            threads,
+            threads,
+            0,
+            TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<Runnable>(Math.max(1, queueCapacity)),
+            new ThreadFactory() {
+                @Override
+                public Thread newThread(Runnable runnable) {
+                    Thread thread = new Thread(runnable, name + "-" + threadCount.incrementAndGet());
+                    thread.setPriority(Thread.NORM_PRIORITY - 1);
+                    return thread;
+                }
+            },
+            new ThreadPoolExecutor.AbortPolicy()
+        );
+    }
+
+    public Future<?> submit(Runnable task) {
+        return submit(task, null);
+    }
+
+    /**
+     * Queue a job, or run it on the calling thread when the queue is full
+     *
+     * @param onDropped run instead of the job if it is cancelled before it starts, or after it if
+     *                  it throws
+     * @throws RejectedExecutionException when the queue is full and the caller may not run it,
+     *                                    or after shutdown
+     */
+    public Future<?> submit(Runnable task, Runnable onDropped) {
+        Job job = new Job(task, onDropped);
+        submitted.incrementAndGet();
+        try {
+            pool.execute(job);
+        } catch (RejectedExecutionException e) {
+            if (pool.isShutdown() || Thread.currentThread() == noCallerRunsThread) {
+                rejected.incrementAndGet();
+                throw e;
+            }
+            callerRuns.incrementAndGet();
+            job.run();
+            return job;
+        }
+        int depth = pool.getQueue().size();
+        int max;
+        while (depth > (max = maxQueueDepth.get()) && !maxQueueDepth.compareAndSet(max, depth)) {
+            // retry
+        }
+        return job;
+    }
+
+    /**
+     * Cancel every job that has not started yet; running jobs finish
+     *
+     * @return number of jobs cancelled
+     */
+    public int cancelPending() {
+        List<Runnable> pending = new ArrayList<>();
+        pool.getQueue().drainTo(pending);
+        for (Runnable runnable : pending) {
+            ((Job) runnable).cancel(false);
+        }
+        return pending.size();
+    }
+
+    /** Cancel pending jobs and stop the threads once the running ones finish */
+    public void shutdown() {
+        cancelPending();
+        pool.shutdown();
+    }
+
+    public boolean isShutdown() {
+        return pool.isShutdown();
+    }
+
+    public int getQueueDepth() {
+        return pool.getQueue().size();
+    }
+
+    public int getMaxQueueDepth() {
+        return maxQueueDepth.get();
+    }
+
+    public int getActiveCount() {
+        return pool.getActiveCount();
+    }
+
+    public long getCompleted() {
+        return completed.get();
+    }
+
+    public long getCancelled() {
+        return cancelled.get();
+    }
+
+    public long getRejected() {
+        return rejected.get();
+    }
+
+    public long getCallerRuns() {
+        return callerRuns.get();
+    }
+
+    public Map<String, Object> toMap() {
+        long done = completed.get() + failed.get();
+        Map<String, Object> map = new HashMap<>();
+        map.put("submitted", submitted.get());
+        map.put("completed", completed.get());
+        map.put("failed", failed.get());
+        map.put("cancelled", cancelled.get());
+        map.put("rejected", rejected.get());
+        map.put("callerRuns", callerRuns.get());
+        map.put("queueDepth", getQueueDepth());
+        map.put("maxQueueDepth", maxQueueDepth.get());
+        map.put("active", getActiveCount());
+        map.put("avgWaitMs", done > 0 ? totalWaitNanos.get() / 1e6 / done : 0.0);
+        map.put("avgRunMs", done > 0 ? totalRunNanos.get() / 1e6 / done : 0.0);
+        map.put("maxRunMs", maxRunNanos.get() / 1e6);
+        return map;
+    }
+
+    private final class Job extends FutureTask<Void> {
+        private final long enqueuedNanos = System.nanoTime();
+        private final Runnable onDropped;
+        // Claimed by whichever of run() and cancel() comes first, so a job never does both
+        private final AtomicBoolean claimed = new AtomicBoolean();
+
+        Job(Runnable task, Runnable onDropped) {
+            super(task, null);
+            this.onDropped = onDropped;
+        }
+
+        @Override
+        public void run() {
+            if (!claimed.compareAndSet(false, true)) return;
+            long start = System.nanoTime();
+            totalWaitNanos.addAndGet(start - enqueuedNanos);
+            super.run();
+            long elapsed = System.nanoTime() - start;
+            totalRunNanos.addAndGet(elapsed);
+            long max;
+            while (elapsed > (max = maxRunNanos.get()) && !maxRunNanos.compareAndSet(max, elapsed)) {
+                // retry
+            }
+        }
+
+        @Override
+        protected void set(Void value) {
+            completed.incrementAndGet();
+            super.set(value);
+        }
+
+        @Override
+        protected void setException(Throwable t) {
+            failed.incrementAndGet();
+            super.setException(t);
+            if (onDropped != null) onDropped.run();
+        }
+
+        /** Only a job that has not started can be cancelled */
+        @Override
+        public boolean cancel(boolean mayInterruptIfRunning) {
+            if (!claimed.compareAndSet(false, true)) return false;
+            super.cancel(false);
+            cancelled.incrementAndGet();
+            pool.remove(this);
+            if (onDropped != null) onDropped.run();
+            return true;
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.ahm.capacitor.camera.preview.camerax;
+
+import androidx.camera.core.ImageProxy;
+
+import java.nio.ByteBuffer;
+
+/**
+ * AnalysisFrame over a YUV_420_888 ImageProxy. Plane buffers are handed out without copying.
+ */
+final class ImageProxyFrame implements AnalysisFrame {
+    private final ImageProxy image;
+    private final ImageProxy.PlaneProxy[] planes;
+
+    ImageProxyFrame(ImageProxy image) {
+        this.image = image;
+        this.planes = image.getPlanes();
+    }
+
+    @Override
+    public int getWidth() {
+        return image.getWidth();
+    }
+
+    @Override
+    public int getHeight() {
+        return image.getHeight();
+    }
+
+    @Override
+    public int getRotationDegrees() {
+        return image.getImageInfo().getRotationDegrees();
+    }
+
+    @Override
+    public long getTimestampNanos() {
+        return image.getImageInfo().getTimestamp();
+    }
+
+    @Override
+    public ByteBuffer getPlaneBuffer(int plane) {
+        return planes[plane].getBuffer();
+    }
+
+    @Override
+    public int getRowStride(int plane) {
+        return planes[plane].getRowStride();
+    }
+
+    @Override
+    public int getPixelStride(int plane) {
+        return planes[plane].getPixelStride();
+    }
+}
@@ -0,0 +1,87 @@
+package com.ahm.capacitor.camera.preview.camerax;
+
+import java.io.IOException;
+
+/**
+ * Orientation strategies selectable through the capture options.
+ *
+ * EXIF only rewrites the orientation tag, LOSSLESS reorients the compressed stream in the DCT
+ * domain and BITMAP decodes, rotates and re-encodes. EXIF and LOSSLESS fall back to the bitmap
+ * strategy when they cannot handle an image.
+ */
+public final class JpegOrientation {
+
+    public enum Mode {
+        EXIF("exif"),
+        LOSSLESS("lossless"),
+        BITMAP("bitmap");
+
+        private final String jsName;
+
+        Mode(String jsName) {
+            this.jsName = jsName;
+        }
+
+        public String getJsName() {
+            return jsName;
+        }
+
+        /**
+         * Parse a capture option value, returning the fallback for null or unknown values
+         */
+        public static Mode fromString(String value, Mode fallback) {
+            if (value != null) {
+                for (Mode mode : values()) {
+                    if (mode.jsName.equalsIgnoreCase(value)) return mode;
+                }
+            }
+            return fallback;
+        }
+    }
+
+    public static final JpegOrientationStrategy EXIF_TAG = new JpegOrientationStrategy() {
+        @Override
+        public byte[] orient(byte[] jpeg, int orientation) {
+            return ExifOrientation.apply(jpeg, orientation);
+        }
+    };
+
+    public static final JpegOrientationStrategy LOSSLESS = new JpegOrientationStrategy() {
+        @Override
+        public byte[] orient(byte[] jpeg, int orientation) {
+            return LosslessJpegTransform.transform(jpeg, orientation);
+        }
+    };
+
+    private JpegOrientation() {}
+
+    /**
+     * Default when no strategy is requested: keep the tag when EXIF headers are kept, otherwise
+     * produce upright pixels without re-encoding.
+     */
+    public static Mode defaultMode(boolean keepExifHeaders) {
+        return keepExifHeaders ? Mode.EXIF : Mode.LOSSLESS;
+    }
+
+    /**
+     * Orient a JPEG with the requested strategy, falling back to the bitmap strategy
+     */
+    public static byte[] orient(byte[] jpeg, int orientation, Mode mode, JpegOrientationStrategy bitmap) throws IOException {
+        if (orientation == ExifOrientation.NORMAL || orientation == ExifOrientation.UNDEFINED) {
+            return jpeg;
+        }
+        byte[] result = null;
+        if (mode == Mode.EXIF) {
+            result = EXIF_TAG.orient(jpeg, orientation);
+        } else if (mode == Mode.LOSSLESS) {
+            result = LOSSLESS.orient(jpeg, orientation);
+        }
+        if (result == null && bitmap != null) {
+            result = bitmap.orient(jpeg, orientation);
+        }
+        if (result == null) {
+            throw new IOException("Could not orient JPEG with " + mode);
+        }
+        return result;
+    }
+}
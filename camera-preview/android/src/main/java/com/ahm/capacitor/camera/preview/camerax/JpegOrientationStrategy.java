@@ -0,0 +1,14 @@
+package com.ahm.capacitor.camera.preview.camerax;
+
+import java.io.IOException;
+
+/**
+ * Brings a captured JPEG into display orientation.
+ */
+public interface JpegOrientationStrategy {
+    /**
+     * @param orientation EXIF orientation describing how the stored image must be turned
+     * @return the oriented JPEG, or null when this strategy cannot handle the input
+     */
+    byte[] orient(byte[] jpeg, int orientation) throws IOException;
+}
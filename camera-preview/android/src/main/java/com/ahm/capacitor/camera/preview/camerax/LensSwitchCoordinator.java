@@ -0,0 +1,243 @@
+package com.ahm.capacitor.camera.preview.camerax;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Serializes lens and facing switches without blocking the caller.
+ *
+ * At most one switch is applied at a time. Requests made while one is in flight are coalesced:
+ * only the latest target is applied next, and every request it replaced, including the one in
+ * flight, completes with its result. A burst of taps therefore settles on the last lens instead
+ * of replaying every hop, and no caller is told about a lens the camera is about to leave. A
+ * request for the lens already being switched to joins that switch.
+ *
+ * The Driver does the camera work on the executor, which is the main thread on devices, and
+ * reports back once the first frame from the new camera has arrived.
+ */
+public final class LensSwitchCoordinator {
+
+    /** Applies one switch; called on the coordinator's executor */
+    public interface Driver {
+        /**
+         * Switch to target and call completion exactly once, after the first frame of the new
+         * camera or on failure. May complete from any thread.
+         */
+        void apply(LensTarget target, Completion completion);
+    }
+
+    public interface Completion {
+        void complete(LensSwitchResult result);
+    }
+
+    public interface Listener {
+        void onSwitchComplete(LensSwitchResult result);
+    }
+
+    private final Driver driver;
+    private final Executor executor;
+
+    // Guarded by this
+    private LensTarget inFlightTarget;
+    private List<SwitchFuture> inFlight = new ArrayList<>();
+    private LensTarget pendingTarget;
+    private List<SwitchFuture> pending = new ArrayList<>();
+    private int generation;
+    private long requested;
+    private long applied;
+    // Requests that completed on another lens than the one they asked for
+    private long coalesced;
+    private long failed;
+
+    public LensSwitchCoordinator(Driver driver, Executor executor) {
+        this.driver = driver;
+        this.executor = executor;
+    }
+
+    /** Ask for target; the future completes once the camera has settled on the latest request */
+    public SwitchFuture request(LensTarget target) {
+        SwitchFuture future = new SwitchFuture(target);
+        synchronized (this) {
+            requested++;
+            if (inFlightTarget == null) {
+                inFlight.add(future);
+                start(target);
+            } else if (target == inFlightTarget) {
+                // Back to the lens being switched to: a queued switch away from it is dropped
+                inFlight.add(future);
+                inFlight.addAll(pending);
+                pending = new ArrayList<>();
+                pendingTarget = null;
+            } else {
+                // Everything still waiting now completes with this switch instead
+                pending.addAll(inFlight);
+                pending.add(future);
+                inFlight = new ArrayList<>();
+                pendingTarget = target;
+            }
+        }
+        return future;
+    }
+
+    /** Target the camera will end up on once queued switches finish, null when none is running */
+    public synchronized LensTarget getRequestedTarget() {
+        return pendingTarget != null ? pendingTarget : inFlightTarget;
+    }
+
+    public synchronized boolean isSwitching() {
+        return inFlightTarget != null;
+    }
+
+    /** Fail the running and queued switches, e.g. when the camera is released */
+    public void cancelAll(String reason) {
+        List<SwitchFuture> cancelled = new ArrayList<>();
+        synchronized (this) {
+            generation++;
+            cancelled.addAll(inFlight);
+            cancelled.addAll(pending);
+            inFlight = new ArrayList<>();
+            pending = new ArrayList<>();
+            inFlightTarget = null;
+            pendingTarget = null;
+        }
+        for (SwitchFuture future : cancelled) {
+            future.set(LensSwitchResult.failed(future.getTarget(), LensSwitchResult.PATH_NONE, 0, reason));
+        }
+    }
+
+    public synchronized Map<String, Object> toMap() {
+        Map<String, Object> map = new HashMap<>();
+        map.put("requested", requested);
+        map.put("applied", applied);
+        map.put("coalesced", coalesced);
+        map.put("failed", failed);
+        map.put("switching", inFlightTarget != null);
+        return map;
+    }
+
+    // Caller holds the lock
+    private void start(final LensTarget target) {
+        inFlightTarget = target;
+        applied++;
+        final int startedGeneration = generation;
+        executor.execute(() -> {
+            try {
+                driver.apply(target, result -> onApplied(startedGeneration, result));
+            } catch (RuntimeException e) {
+                onApplied(startedGeneration, LensSwitchResult.failed(target, LensSwitchResult.PATH_NONE, 0, String.valueOf(e.getMessage())));
+            }
+        });
+    }
+
+    private void onApplied(int appliedGeneration, LensSwitchResult result) {
+        List<SwitchFuture> done;
+        synchronized (this) {
+            // Completed after cancelAll, or twice
+            if (appliedGeneration != generation || inFlightTarget == null) return;
+            generation++;
+            if (!result.isSuccess()) failed++;
+            done = inFlight;
+            for (SwitchFuture future : done) {
+                if (future.getTarget() != result.getTarget()) coalesced++;
+            }
+            inFlight = pending;
+            pending = new ArrayList<>();
+            inFlightTarget = null;
+            if (pendingTarget != null) {
+                LensTarget next = pendingTarget;
+                pendingTarget = null;
+                start(next);
+            }
+        }
+        for (SwitchFuture future : done) {
+            future.set(result);
+        }
+    }
+
+    /** Completes with the result of the switch the request ended up in; cannot be cancelled */
+    public static final class SwitchFuture implements Future<LensSwitchResult> {
+        private final LensTarget target;
+        private final CountDownLatch done = new CountDownLatch(1);
+        private LensSwitchResult result;
+        private List<Listener> listeners = new ArrayList<>();
+
+        SwitchFuture(LensTarget target) {
+            this.target = target;
+        }
+
+        /** A future that already holds result, for requests refused before reaching the coordinator */
+        public static SwitchFuture completed(LensSwitchResult result) {
+            SwitchFuture future = new SwitchFuture(result.getTarget());
+            future.set(result);
+            return future;
+        }
+
+        /** Lens this request asked for; the result's target differs when it was coalesced */
+        public LensTarget getTarget() {
+            return target;
+        }
+
+        /** Run listener with the result, immediately when it is already known, else on the completing thread */
+        public void addListener(Listener listener) {
+            LensSwitchResult known;
+            synchronized (this) {
+                if (listeners != null) {
+                    listeners.add(listener);
+                    return;
+                }
+                known = result;
+            }
+            listener.onSwitchComplete(known);
+        }
+
+        void set(LensSwitchResult value) {
+            List<Listener> toNotify;
+            synchronized (this) {
+                if (listeners == null) return;
+                result = value;
+                toNotify = listeners;
+                listeners = null;
+            }
+            done.countDown();
+            for (Listener listener : toNotify) {
+                listener.onSwitchComplete(value);
+            }
+        }
+
+        @Override
+        public boolean cancel(boolean mayInterruptIfRunning) {
+            return false;
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return false;
+        }
+
+        @Override
+        public boolean isDone() {
+            return done.getCount() == 0;
+        }
+
+        @Override
+        public LensSwitchResult get() throws InterruptedException {
+            done.await();
+            return result;
+        }
+
+        @Override
+        public LensSwitchResult get(long timeout, TimeUnit unit) throws InterruptedException, TimeoutException {
+            if (!done.await(timeout, unit)) {
+                throw new TimeoutException("Lens switch to " + target + " still running");
+            }
+            return result;
+        }
+    }
+}
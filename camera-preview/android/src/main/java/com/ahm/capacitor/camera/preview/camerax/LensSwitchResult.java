@@ -0,0 +1,65 @@
+package com.ahm.capacitor.camera.preview.camerax;
+
+/**
+ * Outcome of a lens switch: which path was taken and how long it took.
+ */
+public final class LensSwitchResult {
+    /** Lens reached by changing the zoom ratio of the bound logical camera */
+    public static final String PATH_ZOOM = "zoom";
+    /** Lens reached by unbinding and binding another camera */
+    public static final String PATH_REBIND = "rebind";
+    /** Nothing was changed */
+    public static final String PATH_NONE = "none";
+
+    private final boolean success;
+    private final LensTarget target;
+    private final String path;
+    private final long durationMs;
+    private final float zoomRatio;
+    private final String error;
+    // Time the preview showed no frames, -1 when unknown
+    private final long blackFrameMs;
+
+    private LensSwitchResult(boolean success, LensTarget target, String path, long durationMs, float zoomRatio, String error,
+                             long blackFrameMs) {
+        this.success = success;
+        this.target = target;
+        this.path = path;
+        this.durationMs = durationMs;
+        this.zoomRatio = zoomRatio;
+        this.error = error;
+        this.blackFrameMs = blackFrameMs;
+    }
+
+    /** The preview keeps streaming through a zoom switch, so there are no black frames */
+    public static LensSwitchResult zoom(LensTarget target, float zoomRatio, long durationMs) {
+        return new LensSwitchResult(true, target, PATH_ZOOM, durationMs, zoomRatio, null, 0);
+    }
+
+    public static LensSwitchResult rebind(LensTarget target, float zoomRatio, long durationMs) {
+        return rebind(target, zoomRatio, durationMs, -1);
+    }
+
+    /** @param blackFrameMs time from unbinding the old camera to the first frame of the new one */
+    public static LensSwitchResult rebind(LensTarget target, float zoomRatio, long durationMs, long blackFrameMs) {
+        return new LensSwitchResult(true, target, PATH_REBIND, durationMs, zoomRatio, null, blackFrameMs);
+    }
+
+    public static LensSwitchResult failed(LensTarget target, String path, long durationMs, String error) {
+        return new LensSwitchResult(false, target, path, durationMs, Float.NaN, error, -1);
+    }
+
+    public boolean isSuccess() { return success; }
+    public LensTarget getTarget() { return target; }
+    public String getPath() { return path; }
+    public long getDurationMs() { return durationMs; }
+    public float getZoomRatio() { return zoomRatio; }
+    public String getError() { return error; }
+    public long getBlackFrameMs() { return blackFrameMs; }
+
+    @Override
+    public String toString() {
+        return "LensSwitchResult{" + (success ? "ok" : "failed: " + error) + ", target=" + target + ", path=" + path
+            + ", durationMs=" + durationMs + ", zoom=" + zoomRatio + ", blackFrameMs=" + blackFrameMs + "}";
+    }
+}
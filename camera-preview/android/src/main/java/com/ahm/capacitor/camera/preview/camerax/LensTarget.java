@@ -0,0 +1,25 @@
+package com.ahm.capacitor.camera.preview.camerax;
+
+/**
+ * Lens a switch request can target. The names match the camera types reported to JS.
+ */
+public enum LensTarget {
+    ULTRA_WIDE("ultra-wide"),
+    WIDE("wide"),
+    TELEPHOTO("telephoto"),
+    FRONT("front");
+
+    private final String jsName;
+
+    LensTarget(String jsName) {
+        this.jsName = jsName;
+    }
+
+    public String getJsName() {
+        return jsName;
+    }
+
+    public boolean isBack() {
+        return this != FRONT;
+    }
+}
@@ -0,0 +1,319 @@
+package com.ahm.capacitor.camera.preview.camerax;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Immutable snapshot of the device lens layout (facing, focal lengths, sensor size,
+ * zoom range and logical/physical membership).
+ *
+ * The snapshot is plain Java so the classification rules used by CameraXSelector can be
+ * exercised on the JVM. Android specific reading lives in LensTopologyRegistry.
+ */
+public final class LensTopology {
+
+    // Mirrors CameraCharacteristics.LENS_FACING_* so this class stays free of android.* imports
+    public static final int FACING_FRONT = 0;
+    public static final int FACING_BACK = 1;
+    public static final int FACING_EXTERNAL = 2;
+    public static final int FACING_UNKNOWN = -1;
+
+    // Focal length thresholds (mm) used to classify back lenses
+    static final float ULTRA_WIDE_MAX_FOCAL = 1.8f;
+    static final float WIDE_MAX_FOCAL = 2.2f;
+    static final float TELEPHOTO_MIN_FOCAL = 3.0f;
+    static final float SAME_LENS_FOCAL_TOLERANCE = 0.05f;
+
+    public static final LensTopology EMPTY = new LensTopology(Collections.<Lens>emptyList());
+
+    /**
+     * Reads lens information for a camera id. Implemented on top of CameraManager on device
+     * and by fakes in unit tests.
+     */
+    public interface Source {
+        String[] getCameraIdList() throws Exception;
+        Lens describe(String cameraId) throws Exception;
+    }
+
+    /**
+     * Static description of one camera id.
+     */
+    public static final class Lens {
+        private final String id;
+        private final int facing;
+        private final float[] focalLengths;
+        private final float minFocal;
+        private final float sensorWidthMm;
+        private final float sensorHeightMm;
+        private final float minZoom;
+        private final float maxZoom;
+        private final List<String> physicalIds;
+        private final boolean exposed;
+        private final String logicalParentId;
+
+        public Lens(String id, int facing, float[] focalLengths, float sensorWidthMm, float sensorHeightMm,
+                    float minZoom, float maxZoom, List<String> physicalIds) {
+            this(id, facing, focalLengths, sensorWidthMm, sensorHeightMm, minZoom, maxZoom, physicalIds, true, null);
+        }
+
+        private Lens(String id, int facing, float[] focalLengths, float sensorWidthMm, float sensorHeightMm,
+                     float minZoom, float maxZoom, List<String> physicalIds, boolean exposed, String logicalParentId) {
+            this.id = id;
+            this.facing = facing;
+            this.focalLengths = focalLengths != null ? focalLengths.clone() : new float[0];
+            float localMin = Float.MAX_VALUE;
+            for (float f : this.focalLengths) localMin = Math.min(localMin, f);
+            this.minFocal = localMin;
+            this.sensorWidthMm = sensorWidthMm;
+            this.sensorHeightMm = sensorHeightMm;
+            this.minZoom = minZoom;
+            this.maxZoom = maxZoom;
+            this.physicalIds = physicalIds != null
+                ? Collections.unmodifiableList(new ArrayList<>(physicalIds))
+                : Collections.<String>emptyList();
+            this.exposed = exposed;
+            this.logicalParentId = logicalParentId;
+        }
+
+        Lens withMembership(boolean exposed, String logicalParentId) {
+            return new Lens(id, facing, focalLengths, sensorWidthMm, sensorHeightMm, minZoom, maxZoom, physicalIds,
+                exposed, logicalParentId);
+        }
+
+        public String getId() { return id; }
+        public int getFacing() { return facing; }
+        public float[] getFocalLengths() { return focalLengths.clone(); }
+        public boolean hasFocalLengths() { return focalLengths.length > 0; }
+        /** Smallest advertised focal length, Float.MAX_VALUE when none is reported */
+        public float getMinFocal() { return minFocal; }
+        public float getSensorWidthMm() { return sensorWidthMm; }
+        public float getSensorHeightMm() { return sensorHeightMm; }
+        public float getMinZoom() { return minZoom; }
+        public float getMaxZoom() { return maxZoom; }
+        public List<String> getPhysicalIds() { return physicalIds; }
+        /** True for logical multi-cameras that fuse several physical sensors */
+        public boolean isLogical() { return !physicalIds.isEmpty(); }
+        /** False for hidden physical sensors only reachable through their logical parent */
+        public boolean isExposed() { return exposed; }
+        public String getLogicalParentId() { return logicalParentId; }
+        public boolean isBack() { return facing == FACING_BACK; }
+        public boolean isFront() { return facing == FACING_FRONT; }
+
+        @Override
+        public String toString() {
+            return "Lens{id=" + id + ", facing=" + facing + ", focal=" + Arrays.toString(focalLengths)
+                + ", zoom=[" + minZoom + "-" + maxZoom + "]"
+                + (isLogical() ? ", physical=" + physicalIds : "")
+                + (logicalParentId != null ? ", parent=" + logicalParentId : "") + "}";
+        }
+    }
+
+    private final List<Lens> lenses;
+    private final Map<String, Lens> lensesById;
+    private final String ultraWideBackId;
+    private final String wideBackId;
+    private final String telephotoBackId;
+    private final String logicalBackId;
+    private final float minBackFocal;
+    private final boolean hasFront;
+    private final boolean hasUltraWide;
+    private final boolean hasTelephoto;
+    private final List<String> availableCameraTypes;
+
+    private LensTopology(List<Lens> lenses) {
+        this.lenses = Collections.unmodifiableList(new ArrayList<>(lenses));
+        Map<String, Lens> byId = new LinkedHashMap<>();
+        for (Lens lens : lenses) byId.put(lens.getId(), lens);
+        this.lensesById = Collections.unmodifiableMap(byId);
+
+        String ultraWide = null;
+        String tele = null;
+        String logicalBack = null;
+        float ultraWideFocal = Float.MAX_VALUE;
+        float teleFocal = -Float.MAX_VALUE;
+        float minBack = Float.MAX_VALUE;
+        boolean front = false;
+        boolean anyUltraWide = false;
+        boolean anyTele = false;
+        List<Lens> backWithFocal = new ArrayList<>();
+        List<String> types = new ArrayList<>();
+
+        for (Lens lens : lenses) {
+            if (!lens.isExposed()) continue;
+            if (lens.isFront()) {
+                front = true;
+                types.add("front");
+                continue;
+            }
+            if (!lens.isBack()) continue;
+            if (logicalBack == null && lens.isLogical()) logicalBack = lens.getId();
+            if (!lens.hasFocalLengths()) {
+                types.add("back");
+                continue;
+            }
+            float localMin = lens.getMinFocal();
+            backWithFocal.add(lens);
+            minBack = Math.min(minBack, localMin);
+            if (localMin < ultraWideFocal) {
+                ultraWideFocal = localMin;
+                ultraWide = lens.getId();
+            }
+            // Telephoto keeps the historical "first advertised focal length" scoring
+            float primaryFocal = lens.focalLengths[0];
+            if (primaryFocal > teleFocal) {
+                teleFocal = primaryFocal;
+                tele = lens.getId();
+            }
+            if (localMin <= WIDE_MAX_FOCAL) anyUltraWide = true;
+            if (localMin > TELEPHOTO_MIN_FOCAL) anyTele = true;
+
+            if (localMin <= ULTRA_WIDE_MAX_FOCAL) {
+                types.add("ultra-wide");
+            } else if (localMin <= WIDE_MAX_FOCAL) {
+                types.add("wide");
+            } else if (localMin > TELEPHOTO_MIN_FOCAL) {
+                types.add("telephoto");
+            } else {
+                types.add("back");
+            }
+        }
+
+        String wide = null;
+        if (!backWithFocal.isEmpty()) {
+            // Sort ascending by focal length (ultra-wide -> wide/main -> tele)
+            List<Lens> sorted = new ArrayList<>(backWithFocal);
+            Collections.sort(sorted, Comparator.comparingDouble(Lens::getMinFocal));
+            wide = sorted.size() == 1 ? sorted.get(0).getId() : sorted.get(1).getId();
+        }
+
+        this.ultraWideBackId = ultraWide;
+        this.wideBackId = wide;
+        this.telephotoBackId = tele;
+        this.logicalBackId = logicalBack;
+        this.minBackFocal = minBack;
+        this.hasFront = front;
+        this.hasUltraWide = anyUltraWide;
+        this.hasTelephoto = anyTele;
+        this.availableCameraTypes = Collections.unmodifiableList(types);
+    }
+
+    /**
+     * Build a snapshot by enumerating the source once. Hidden physical sensors of logical
+     * cameras are described as well and flagged as not exposed.
+     */
+    public static LensTopology build(Source source) throws Exception {
+        String[] ids = source.getCameraIdList();
+        List<Lens> lenses = new ArrayList<>();
+        Set<String> seen = new HashSet<>(Arrays.asList(ids));
+        List<Lens> logicals = new ArrayList<>();
+
+        for (String id : ids) {
+            Lens lens;
+            try {
+                lens = source.describe(id);
+            } catch (Exception e) {
+                continue;
+            }
+            if (lens == null) continue;
+            lenses.add(lens);
+            if (lens.isLogical()) logicals.add(lens);
+        }
+
+        for (Lens logical : logicals) {
+            for (String physicalId : logical.getPhysicalIds()) {
+                if (seen.contains(physicalId)) {
+                    // Exposed physical camera: record its parent without changing visibility
+                    for (int i = 0; i < lenses.size(); i++) {
+                        Lens lens = lenses.get(i);
+                        if (lens.getId().equals(physicalId) && lens.getLogicalParentId() == null) {
+                            lenses.set(i, lens.withMembership(true, logical.getId()));
+                        }
+                    }
+                    continue;
+                }
+                seen.add(physicalId);
+                try {
+                    Lens hidden = source.describe(physicalId);
+                    if (hidden != null) lenses.add(hidden.withMembership(false, logical.getId()));
+                } catch (Exception ignore) {}
+            }
+        }
+        return new LensTopology(lenses);
+    }
+
+    public List<Lens> getLenses() {
+        return lenses;
+    }
+
+    public Lens getLens(String cameraId) {
+        return cameraId != null ? lensesById.get(cameraId) : null;
+    }
+
+    /** Back lens with the smallest focal length, or null when no back lens reports one */
+    public String getUltraWideBackId() {
+        return ultraWideBackId;
+    }
+
+    /** Main back lens: the second shortest focal length when there are several back lenses */
+    public String getWideBackId() {
+        return wideBackId;
+    }
+
+    /** Back lens with the longest focal length, or null when no back lens reports one */
+    public String getTelephotoBackId() {
+        return telephotoBackId;
+    }
+
+    /** First exposed back camera that is a logical multi-camera, or null */
+    public String getLogicalBackId() {
+        return logicalBackId;
+    }
+
+    public boolean hasFrontCamera() {
+        return hasFront;
+    }
+
+    public boolean hasUltraWideCamera() {
+        return hasUltraWide;
+    }
+
+    public boolean hasTelephotoCamera() {
+        return hasTelephoto;
+    }
+
+    public List<String> getAvailableCameraTypes() {
+        return availableCameraTypes;
+    }
+
+    public boolean isFront(String cameraId) {
+        Lens lens = getLens(cameraId);
+        return lens != null && lens.isFront();
+    }
+
+    public boolean isBack(String cameraId) {
+        Lens lens = getLens(cameraId);
+        return lens != null && lens.isBack();
+    }
+
+    /**
+     * A back lens is treated as ultra-wide when its focal length matches the shortest one
+     * among the exposed back lenses.
+     */
+    public boolean isUltraWide(String cameraId) {
+        Lens lens = getLens(cameraId);
+        if (lens == null || !lens.isBack() || !lens.hasFocalLengths()) return false;
+        return lens.getMinFocal() <= minBackFocal + SAME_LENS_FOCAL_TOLERANCE;
+    }
+
+    @Override
+    public String toString() {
+        return "LensTopology" + lenses;
+    }
+}
@@ -0,0 +1,69 @@
+package com.ahm.capacitor.camera.preview.camerax;
+
+/**
+ * Lazily builds a LensTopology once and keeps it until the camera set changes.
+ *
+ * Availability callbacks fire every time any app opens or closes a camera, so only
+ * events that can change the set of lenses invalidate the snapshot: an unknown id
+ * becoming available, or an external camera going away.
+ */
+public final class LensTopologyCache {
+
+    private final LensTopology.Source source;
+    private volatile LensTopology snapshot;
+    private int buildCount = 0;
+
+    public LensTopologyCache(LensTopology.Source source) {
+        this.source = source;
+    }
+
+    /**
+     * Current snapshot. A failed enumeration returns LensTopology.EMPTY without caching it,
+     * so the next call retries.
+     */
+    public LensTopology get() {
+        LensTopology current = snapshot;
+        if (current != null) return current;
+        synchronized (this) {
+            if (snapshot == null) {
+                try {
+                    snapshot = LensTopology.build(source);
+                    buildCount++;
+                } catch (Exception e) {
+                    return LensTopology.EMPTY;
+                }
+            }
+            return snapshot;
+        }
+    }
+
+    /** The current snapshot without triggering a build, or null */
+    public LensTopology peek() {
+        return snapshot;
+    }
+
+    public void invalidate() {
+        snapshot = null;
+    }
+
+    public void onCameraAvailable(String cameraId) {
+        LensTopology current = snapshot;
+        if (current != null && current.getLens(cameraId) == null) {
+            invalidate();
+        }
+    }
+
+    public void onCameraUnavailable(String cameraId) {
+        LensTopology current = snapshot;
+        if (current == null) return;
+        LensTopology.Lens lens = current.getLens(cameraId);
+        if (lens != null && lens.getFacing() == LensTopology.FACING_EXTERNAL) {
+            invalidate();
+        }
+    }
+
+    /** Number of successful builds, exposed for diagnostics and tests */
+    public synchronized int getBuildCount() {
+        return buildCount;
+    }
+}
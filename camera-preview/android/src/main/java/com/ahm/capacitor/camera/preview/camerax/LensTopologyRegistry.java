@@ -0,0 +1,145 @@
+package com.ahm.capacitor.camera.preview.camerax;
+
+import android.content.Context;
+import android.hardware.camera2.CameraCharacteristics;
+import android.hardware.camera2.CameraManager;
+import android.os.Build;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+import android.util.Range;
+import android.util.SizeF;
+
+import androidx.annotation.NonNull;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Process-wide holder of the LensTopology snapshot, backed by CameraManager.
+ * The snapshot is built on first use and invalidated through CameraManager.AvailabilityCallback.
+ */
+public final class LensTopologyRegistry {
+    private static final String TAG = "LensTopologyRegistry";
+
+    private static volatile LensTopologyCache cache;
+
+    private LensTopologyRegistry() {}
+
+    /**
+     * Get the current lens topology, building it on first use
+     */
+    public static LensTopology get(Context context) {
+        LensTopologyCache current = cache;
+        if (current == null) {
+            current = init(context);
+        }
+        return current != null ? current.get() : LensTopology.EMPTY;
+    }
+
+    /**
+     * Drop the cached snapshot so the next lookup re-enumerates the cameras
+     */
+    public static void invalidate() {
+        LensTopologyCache current = cache;
+        if (current != null) current.invalidate();
+    }
+
+    private static synchronized LensTopologyCache init(Context context) {
+        if (cache != null) return cache;
+        CameraManager cameraManager = (CameraManager) context.getApplicationContext().getSystemService(Context.CAMERA_SERVICE);
+        if (cameraManager == null) {
+            Log.e(TAG, "CameraManager is null");
+            return null;
+        }
+        final LensTopologyCache created = new LensTopologyCache(new Camera2Source(cameraManager));
+        try {
+            cameraManager.registerAvailabilityCallback(new CameraManager.AvailabilityCallback() {
+                @Override
+                public void onCameraAvailable(@NonNull String cameraId) {
+                    created.onCameraAvailable(cameraId);
+                }
+
+                @Override
+                public void onCameraUnavailable(@NonNull String cameraId) {
+                    created.onCameraUnavailable(cameraId);
+                }
+            }, new Handler(Looper.getMainLooper()));
+        } catch (Exception e) {
+            Log.w(TAG, "Could not register availability callback: " + e.getMessage());
+        }
+        cache = created;
+        return created;
+    }
+
+    /**
+     * LensTopology.Source reading CameraCharacteristics
+     */
+    static final class Camera2Source implements LensTopology.Source {
+        private final CameraManager cameraManager;
+
+        Camera2Source(CameraManager cameraManager) {
+            this.cameraManager = cameraManager;
+        }
+
+        @Override
+        public String[] getCameraIdList() throws Exception {
+            return cameraManager.getCameraIdList();
+        }
+
+        @Override
+        public LensTopology.Lens describe(String cameraId) throws Exception {
+            CameraCharacteristics characteristics = cameraManager.getCameraCharacteristics(cameraId);
+
+            Integer facing = characteristics.get(CameraCharacteristics.LENS_FACING);
+            float[] focalLengths = characteristics.get(CameraCharacteristics.LENS_INFO_AVAILABLE_FOCAL_LENGTHS);
+
+            SizeF sensorSize = characteristics.get(CameraCharacteristics.SENSOR_INFO_PHYSICAL_SIZE);
+            float sensorWidth = sensorSize != null ? sensorSize.getWidth() : 0f;
+            float sensorHeight = sensorSize != null ? sensorSize.getHeight() : 0f;
+
+            float minZoom = 1.0f;
+            float maxZoom = 1.0f;
+            Range<Float> zoomRange = null;
+            if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.R) {
+                zoomRange = characteristics.get(CameraCharacteristics.CONTROL_ZOOM_RATIO_RANGE);
+            }
+            if (zoomRange != null) {
+                minZoom = zoomRange.getLower();
+                maxZoom = zoomRange.getUpper();
+            } else {
+                Float maxDigitalZoom = characteristics.get(CameraCharacteristics.SCALER_AVAILABLE_MAX_DIGITAL_ZOOM);
+                if (maxDigitalZoom != null) maxZoom = maxDigitalZoom;
+            }
+
+            List<String> physicalIds = new ArrayList<>();
+            if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.P && isLogicalMultiCamera(characteristics)) {
+                physicalIds.addAll(characteristics.getPhysicalCameraIds());
+            }
+
+            LensTopology.Lens lens = new LensTopology.Lens(
+                cameraId,
+                facing != null ? facing : LensTopology.FACING_UNKNOWN,
+                focalLengths,
+                sensorWidth,
+                sensorHeight,
+                minZoom,
+                maxZoom,
+                physicalIds
+            );
+            Log.d(TAG, "Described " + lens);
+            return lens;
+        }
+
+        private static boolean isLogicalMultiCamera(CameraCharacteristics characteristics) {
+            int[] capabilities = characteristics.get(CameraCharacteristics.REQUEST_AVAILABLE_CAPABILITIES);
+            if (capabilities == null) return false;
+            for (int capability : capabilities) {
+                if (capability == CameraCharacteristics.REQUEST_AVAILABLE_CAPABILITIES_LOGICAL_MULTI_CAMERA) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.ahm.capacitor.camera.preview.camerax;
+
+/**
+ * Maps lens targets to zoom ratios on a logical multi-camera.
+ *
+ * On a logical camera 1.0x is the main sensor, ratios below 1.0 are served by the
+ * ultra-wide sensor and higher ratios eventually hand over to the telephoto sensor,
+ * so a lens change only needs setZoomRatio instead of a rebind.
+ */
+final class LogicalLensZoom {
+
+    private static final float FULL_FRAME_DIAGONAL_MM = 43.27f;
+    private static final float EPSILON = 0.01f;
+    // A physical lens counts as telephoto when it is at least this much longer than the main one
+    private static final float MIN_TELEPHOTO_RATIO = 1.5f;
+
+    private LogicalLensZoom() {}
+
+    /**
+     * Zoom ratio that selects the target lens on the logical camera, or NaN when the
+     * logical camera cannot reach it.
+     */
+    static float zoomRatioFor(LensTopology topology, LensTopology.Lens logical, LensTarget target) {
+        if (logical == null || !logical.isLogical() || target == null) return Float.NaN;
+        switch (target) {
+            case ULTRA_WIDE:
+                return logical.getMinZoom() < 1.0f - EPSILON ? logical.getMinZoom() : Float.NaN;
+            case WIDE:
+                return (logical.getMinZoom() <= 1.0f && logical.getMaxZoom() >= 1.0f) ? 1.0f : Float.NaN;
+            case TELEPHOTO:
+                return telephotoRatio(topology, logical);
+            default:
+                return Float.NaN;
+        }
+    }
+
+    /**
+     * Lens currently serving a logical camera at the given zoom ratio
+     */
+    static LensTarget lensAtZoom(LensTopology topology, LensTopology.Lens logical, float zoomRatio) {
+        if (logical.isFront()) return LensTarget.FRONT;
+        if (zoomRatio < 1.0f - EPSILON && logical.getMinZoom() < 1.0f - EPSILON) return LensTarget.ULTRA_WIDE;
+        float tele = telephotoRatio(topology, logical);
+        if (!Float.isNaN(tele) && zoomRatio >= tele - EPSILON) return LensTarget.TELEPHOTO;
+        return LensTarget.WIDE;
+    }
+
+    private static float telephotoRatio(LensTopology topology, LensTopology.Lens logical) {
+        float reference = equivalentFocal(logical);
+        if (Float.isNaN(reference)) return Float.NaN;
+
+        // The physical sensor closest to the logical camera's own focal length is the 1.0x lens
+        float main = Float.NaN;
+        float longest = Float.NaN;
+        for (String physicalId : logical.getPhysicalIds()) {
+            float focal = equivalentFocal(topology.getLens(physicalId));
+            if (Float.isNaN(focal)) continue;
+            if (Float.isNaN(main) || Math.abs(focal - reference) < Math.abs(main - reference)) main = focal;
+            if (Float.isNaN(longest) || focal > longest) longest = focal;
+        }
+        if (Float.isNaN(main) || Float.isNaN(longest)) return Float.NaN;
+
+        float ratio = longest / main;
+        if (ratio < MIN_TELEPHOTO_RATIO || ratio > logical.getMaxZoom() + EPSILON) return Float.NaN;
+        return ratio;
+    }
+
+    /**
+     * 35mm equivalent focal length, or the raw focal length when the sensor size is unknown
+     */
+    static float equivalentFocal(LensTopology.Lens lens) {
+        if (lens == null || !lens.hasFocalLengths()) return Float.NaN;
+        float focal = lens.getMinFocal();
+        float width = lens.getSensorWidthMm();
+        float height = lens.getSensorHeightMm();
+        if (width <= 0f || height <= 0f) return focal;
+        return focal * FULL_FRAME_DIAGONAL_MM / (float) Math.sqrt(width * width + height * height);
+    }
+}
@@ -0,0 +1,751 @@
+package com.ahm.capacitor.camera.preview.camerax;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Rotates and mirrors baseline JPEGs in the DCT domain, the way jpegtran -perfect does.
+ *
+ * Quantized coefficients are entropy-decoded, blocks are moved and their coefficients transposed
+ * or sign-flipped, and the result is Huffman coded again with the standard Annex K tables.
+ * Nothing is dequantized, so the pixels are exactly those of the original, only reoriented.
+ *
+ * Only sequential Huffman JPEGs with a single interleaved scan are handled, and an axis can only
+ * be mirrored when the image covers whole MCUs along it (partial edge blocks would end up on the
+ * wrong side). transform() returns null otherwise so callers can fall back to another strategy.
+ */
+public final class LosslessJpegTransform {
+
+    /** Zigzag position to natural (row major) coefficient index */
+    static final int[] ZIGZAG = {
+        0, 1, 8, 16, 9, 2, 3, 10, 17, 24, 32, 25, 18, 11, 4, 5,
+        12, 19, 26, 33, 40, 48, 41, 34, 27, 20, 13, 6, 7, 14, 21, 28,
+        35, 42, 49, 56, 57, 50, 43, 36, 29, 22, 15, 23, 30, 37, 44, 51,
+        58, 59, 52, 45, 38, 31, 39, 46, 53, 60, 61, 54, 47, 55, 62, 63
+    };
+
+    // Standard Huffman tables from ITU-T T.81 Annex K.3
+    static final int[] DC_LUMA_BITS = { 0, 1, 5, 1, 1, 1, 1, 1, 1, 0, 0, 0, 0, 0, 0, 0 };
+    static final int[] DC_CHROMA_BITS = { 0, 3, 1, 1, 1, 1, 1, 1, 1, 1, 1, 0, 0, 0, 0, 0 };
+    static final int[] DC_VALUES = { 0, 1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11 };
+    static final int[] AC_LUMA_BITS = { 0, 2, 1, 3, 3, 2, 4, 3, 5, 5, 4, 4, 0, 0, 1, 0x7d };
+    static final int[] AC_LUMA_VALUES = {
+        0x01, 0x02, 0x03, 0x00, 0x04, 0x11, 0x05, 0x12, 0x21, 0x31, 0x41, 0x06, 0x13, 0x51, 0x61, 0x07,
+        0x22, 0x71, 0x14, 0x32, 0x81, 0x91, 0xa1, 0x08, 0x23, 0x42, 0xb1, 0xc1, 0x15, 0x52, 0xd1, 0xf0,
+        0x24, 0x33, 0x62, 0x72, 0x82, 0x09, 0x0a, 0x16, 0x17, 0x18, 0x19, 0x1a, 0x25, 0x26, 0x27, 0x28,
+        0x29, 0x2a, 0x34, 0x35, 0x36, 0x37, 0x38, 0x39, 0x3a, 0x43, 0x44, 0x45, 0x46, 0x47, 0x48, 0x49,
+        0x4a, 0x53, 0x54, 0x55, 0x56, 0x57, 0x58, 0x59, 0x5a, 0x63, 0x64, 0x65, 0x66, 0x67, 0x68, 0x69,
+        0x6a, 0x73, 0x74, 0x75, 0x76, 0x77, 0x78, 0x79, 0x7a, 0x83, 0x84, 0x85, 0x86, 0x87, 0x88, 0x89,
+        0x8a, 0x92, 0x93, 0x94, 0x95, 0x96, 0x97, 0x98, 0x99, 0x9a, 0xa2, 0xa3, 0xa4, 0xa5, 0xa6, 0xa7,
+        0xa8, 0xa9, 0xaa, 0xb2, 0xb3, 0xb4, 0xb5, 0xb6, 0xb7, 0xb8, 0xb9, 0xba, 0xc2, 0xc3, 0xc4, 0xc5,
+        0xc6, 0xc7, 0xc8, 0xc9, 0xca, 0xd2, 0xd3, 0xd4, 0xd5, 0xd6, 0xd7, 0xd8, 0xd9, 0xda, 0xe1, 0xe2,
+        0xe3, 0xe4, 0xe5, 0xe6, 0xe7, 0xe8, 0xe9, 0xea, 0xf1, 0xf2, 0xf3, 0xf4, 0xf5, 0xf6, 0xf7, 0xf8,
+        0xf9, 0xfa
+    };
+    static final int[] AC_CHROMA_BITS = { 0, 2, 1, 2, 4, 4, 3, 4, 7, 5, 4, 4, 0, 1, 2, 0x77 };
+    static final int[] AC_CHROMA_VALUES = {
+        0x00, 0x01, 0x02, 0x03, 0x11, 0x04, 0x05, 0x21, 0x31, 0x06, 0x12, 0x41, 0x51, 0x07, 0x61, 0x71,
+        0x13, 0x22, 0x32, 0x81, 0x08, 0x14, 0x42, 0x91, 0xa1, 0xb1, 0xc1, 0x09, 0x23, 0x33, 0x52, 0xf0,
+        0x15, 0x62, 0x72, 0xd1, 0x0a, 0x16, 0x24, 0x34, 0xe1, 0x25, 0xf1, 0x17, 0x18, 0x19, 0x1a, 0x26,
+        0x27, 0x28, 0x29, 0x2a, 0x35, 0x36, 0x37, 0x38, 0x39, 0x3a, 0x43, 0x44, 0x45, 0x46, 0x47, 0x48,
+        0x49, 0x4a, 0x53, 0x54, 0x55, 0x56, 0x57, 0x58, 0x59, 0x5a, 0x63, 0x64, 0x65, 0x66, 0x67, 0x68,
+        0x69, 0x6a, 0x73, 0x74, 0x75, 0x76, 0x77, 0x78, 0x79, 0x7a, 0x82, 0x83, 0x84, 0x85, 0x86, 0x87,
+        0x88, 0x89, 0x8a, 0x92, 0x93, 0x94, 0x95, 0x96, 0x97, 0x98, 0x99, 0x9a, 0xa2, 0xa3, 0xa4, 0xa5,
+        0xa6, 0xa7, 0xa8, 0xa9, 0xaa, 0xb2, 0xb3, 0xb4, 0xb5, 0xb6, 0xb7, 0xb8, 0xb9, 0xba, 0xc2, 0xc3,
+        0xc4, 0xc5, 0xc6, 0xc7, 0xc8, 0xc9, 0xca, 0xd2, 0xd3, 0xd4, 0xd5, 0xd6, 0xd7, 0xd8, 0xd9, 0xda,
+        0xe2, 0xe3, 0xe4, 0xe5, 0xe6, 0xe7, 0xe8, 0xe9, 0xea, 0xf2, 0xf3, 0xf4, 0xf5, 0xf6, 0xf7, 0xf8,
+        0xf9, 0xfa
+    };
+
+    private static final int SOI = 0xD8;
+    private static final int EOI = 0xD9;
+    private static final int SOS = 0xDA;
+    private static final int DQT = 0xDB;
+    private static final int DHT = 0xC4;
+    private static final int DRI = 0xDD;
+    private static final int SOF0 = 0xC0;
+    private static final int SOF1 = 0xC1;
+    private static final int COM = 0xFE;
+
+    private LosslessJpegTransform() {}
+
+    /**
+     * Transform a JPEG so that it displays upright without an orientation tag.
+     *
+     * @param orientation EXIF orientation describing how the stored image must be turned
+     * @return the transformed JPEG with its EXIF orientation reset to normal, the input itself
+     *         when no transform is needed, or null when the JPEG cannot be transformed losslessly
+     */
+    public static byte[] transform(byte[] jpeg, int orientation) {
+        if (orientation == ExifOrientation.NORMAL || orientation == ExifOrientation.UNDEFINED) {
+            return jpeg;
+        }
+        Transform transform = Transform.forOrientation(orientation);
+        if (transform == null) return null;
+        try {
+            Parsed parsed = parse(jpeg);
+            if (parsed == null || !parsed.canTransform(transform)) return null;
+            decode(jpeg, parsed);
+            byte[] out = encode(jpeg, parsed, transform);
+            if (ExifOrientation.read(out) != ExifOrientation.UNDEFINED) {
+                ExifOrientation.apply(out, ExifOrientation.NORMAL);
+            }
+            return out;
+        } catch (RuntimeException e) {
+            // Truncated or corrupt entropy data
+            return null;
+        }
+    }
+
+    /**
+     * Block level transform: transpose first, then mirror columns and/or rows of the result
+     */
+    static final class Transform {
+        final boolean transpose;
+        final boolean flipH;
+        final boolean flipV;
+
+        Transform(boolean transpose, boolean flipH, boolean flipV) {
+            this.transpose = transpose;
+            this.flipH = flipH;
+            this.flipV = flipV;
+        }
+
+        static Transform forOrientation(int orientation) {
+            switch (orientation) {
+                case ExifOrientation.FLIP_HORIZONTAL:
+                    return new Transform(false, true, false);
+                case ExifOrientation.ROTATE_180:
+                    return new Transform(false, true, true);
+                case ExifOrientation.FLIP_VERTICAL:
+                    return new Transform(false, false, true);
+                case ExifOrientation.TRANSPOSE:
+                    return new Transform(true, false, false);
+                case ExifOrientation.ROTATE_90:
+                    return new Transform(true, true, false);
+                case ExifOrientation.TRANSVERSE:
+                    return new Transform(true, true, true);
+                case ExifOrientation.ROTATE_270:
+                    return new Transform(true, false, true);
+                default:
+                    return null;
+            }
+        }
+    }
+
+    private static final class Component {
+        int id;
+        int h;
+        int v;
+        int tq;
+        int dcTable;
+        int acTable;
+        int blocksW;
+        int blocksH;
+        short[] coefficients;
+    }
+
+    private static final class Parsed {
+        final List<int[]> keptSegments = new ArrayList<>();
+        final int[][] quantTables = new int[4][];
+        final int[] quantPrecision = new int[4];
+        final HuffmanDecoder[] dcTables = new HuffmanDecoder[4];
+        final HuffmanDecoder[] acTables = new HuffmanDecoder[4];
+        int sofMarker;
+        int width;
+        int height;
+        int hMax = 1;
+        int vMax = 1;
+        int mcusX;
+        int mcusY;
+        int restartInterval;
+        Component[] components;
+        int scanStart;
+
+        boolean canTransform(Transform t) {
+            int mcuW = 8 * (t.transpose ? vMax : hMax);
+            int mcuH = 8 * (t.transpose ? hMax : vMax);
+            int outW = t.transpose ? height : width;
+            int outH = t.transpose ? width : height;
+            return (!t.flipH || outW % mcuW == 0) && (!t.flipV || outH % mcuH == 0);
+        }
+    }
+
+    private static Parsed parse(byte[] jpeg) {
+        if (jpeg.length < 4 || (jpeg[0] & 0xFF) != 0xFF || (jpeg[1] & 0xFF) != SOI) return null;
+        Parsed p = new Parsed();
+        int pos = 2;
+        while (pos + 4 <= jpeg.length) {
+            if ((jpeg[pos] & 0xFF) != 0xFF) return null;
+            int marker = jpeg[pos + 1] & 0xFF;
+            if (marker == 0xFF) {
+                pos++;
+                continue;
+            }
+            int length = u16(jpeg, pos + 2);
+            int start = pos + 4;
+            int end = pos + 2 + length;
+            if (length < 2 || end > jpeg.length) return null;
+
+            if ((marker >= 0xE0 && marker <= 0xEF) || marker == COM) {
+                p.keptSegments.add(new int[] { pos, end });
+            } else if (marker == DQT) {
+                int q = start;
+                while (q < end) {
+                    int pq = (jpeg[q] & 0xFF) >> 4;
+                    int tq = jpeg[q] & 0x0F;
+                    if (tq > 3) return null;
+                    q++;
+                    int[] table = new int[64];
+                    for (int k = 0; k < 64; k++) {
+                        table[k] = pq == 0 ? jpeg[q++] & 0xFF : u16(jpeg, (q += 2) - 2);
+                    }
+                    p.quantTables[tq] = table;
+                    p.quantPrecision[tq] = pq;
+                }
+            } else if (marker == DHT) {
+                int q = start;
+                while (q < end) {
+                    int tc = (jpeg[q] & 0xFF) >> 4;
+                    int th = jpeg[q] & 0x0F;
+                    if (th > 3 || tc > 1) return null;
+                    int[] bits = new int[16];
+                    int total = 0;
+                    for (int i = 0; i < 16; i++) {
+                        bits[i] = jpeg[q + 1 + i] & 0xFF;
+                        total += bits[i];
+                    }
+                    q += 17;
+                    if (total > 256 || q + total > end) return null;
+                    int[] values = new int[total];
+                    for (int i = 0; i < total; i++) values[i] = jpeg[q + i] & 0xFF;
+                    q += total;
+                    HuffmanDecoder decoder = new HuffmanDecoder(bits, values);
+                    if (tc == 0) p.dcTables[th] = decoder;
+                    else p.acTables[th] = decoder;
+                }
+            } else if (marker == DRI) {
+                p.restartInterval = u16(jpeg, start);
+            } else if (marker == SOF0 || marker == SOF1) {
+                if (p.components != null || (jpeg[start] & 0xFF) != 8) return null;
+                p.sofMarker = marker;
+                p.height = u16(jpeg, start + 1);
+                p.width = u16(jpeg, start + 3);
+                int count = jpeg[start + 5] & 0xFF;
+                if (p.width == 0 || p.height == 0 || count < 1 || count > 4) return null;
+                p.components = new Component[count];
+                for (int i = 0; i < count; i++) {
+                    Component c = new Component();
+                    int o = start + 6 + i * 3;
+                    c.id = jpeg[o] & 0xFF;
+                    c.h = (jpeg[o + 1] & 0xFF) >> 4;
+                    c.v = jpeg[o + 1] & 0x0F;
+                    c.tq = jpeg[o + 2] & 0x0F;
+                    if (c.h < 1 || c.h > 4 || c.v < 1 || c.v > 4 || c.tq > 3) return null;
+                    p.hMax = Math.max(p.hMax, c.h);
+                    p.vMax = Math.max(p.vMax, c.v);
+                    p.components[i] = c;
+                }
+            } else if (marker >= 0xC2 && marker <= 0xCF && marker != DHT) {
+                // Progressive, lossless, hierarchical or arithmetic coded
+                return null;
+            } else if (marker == SOS) {
+                if (p.components == null) return null;
+                int ns = jpeg[start] & 0xFF;
+                // A single scan must carry every component; multi-scan sequential files are rare
+                if (ns != p.components.length) return null;
+                for (int i = 0; i < ns; i++) {
+                    int cs = jpeg[start + 1 + i * 2] & 0xFF;
+                    int tables = jpeg[start + 2 + i * 2] & 0xFF;
+                    Component c = p.components[i];
+                    if (c.id != cs) return null;
+                    c.dcTable = tables >> 4;
+                    c.acTable = tables & 0x0F;
+                    if (c.dcTable > 3 || c.acTable > 3 || p.dcTables[c.dcTable] == null || p.acTables[c.acTable] == null) {
+                        return null;
+                    }
+                    if (p.quantTables[c.tq] == null) return null;
+                }
+                int ss = jpeg[start + 1 + ns * 2] & 0xFF;
+                int se = jpeg[start + 2 + ns * 2] & 0xFF;
+                int ahal = jpeg[start + 3 + ns * 2] & 0xFF;
+                if (ss != 0 || se != 63 || ahal != 0) return null;
+                p.scanStart = end;
+                p.mcusX = (p.width + 8 * p.hMax - 1) / (8 * p.hMax);
+                p.mcusY = (p.height + 8 * p.vMax - 1) / (8 * p.vMax);
+                for (Component c : p.components) {
+                    if (ns == 1) {
+                        // Non-interleaved scan: blocks cover the component, not whole MCUs
+                        c.blocksW = ((p.width * c.h + p.hMax - 1) / p.hMax + 7) / 8;
+                        c.blocksH = ((p.height * c.v + p.vMax - 1) / p.vMax + 7) / 8;
+                    } else {
+                        c.blocksW = p.mcusX * c.h;
+                        c.blocksH = p.mcusY * c.v;
+                    }
+                }
+                return p;
+            } else if (marker == EOI) {
+                return null;
+            }
+            pos = end;
+        }
+        return null;
+    }
+
+    private static void decode(byte[] jpeg, Parsed p) {
+        BitReader reader = new BitReader(jpeg, p.scanStart);
+        Component[] components = p.components;
+        int[] predictors = new int[components.length];
+        for (Component c : components) {
+            c.coefficients = new short[c.blocksW * c.blocksH * 64];
+        }
+        boolean interleaved = components.length > 1;
+        int unitsX = interleaved ? p.mcusX : components[0].blocksW;
+        int unitsY = interleaved ? p.mcusY : components[0].blocksH;
+        int restartsLeft = p.restartInterval;
+
+        for (int my = 0; my < unitsY; my++) {
+            for (int mx = 0; mx < unitsX; mx++) {
+                if (p.restartInterval > 0) {
+                    if (restartsLeft == 0) {
+                        reader.restart();
+                        for (int i = 0; i < predictors.length; i++) predictors[i] = 0;
+                        restartsLeft = p.restartInterval;
+                    }
+                    restartsLeft--;
+                }
+                if (!interleaved) {
+                    Component c = components[0];
+                    predictors[0] = decodeBlock(reader, p, c, (my * c.blocksW + mx) * 64, predictors[0]);
+                    continue;
+                }
+                for (int ci = 0; ci < components.length; ci++) {
+                    Component c = components[ci];
+                    for (int by = 0; by < c.v; by++) {
+                        int row = my * c.v + by;
+                        for (int bx = 0; bx < c.h; bx++) {
+                            int offset = (row * c.blocksW + mx * c.h + bx) * 64;
+                            predictors[ci] = decodeBlock(reader, p, c, offset, predictors[ci]);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    private static int decodeBlock(BitReader reader, Parsed p, Component c, int offset, int predictor) {
+        short[] out = c.coefficients;
+        int t = p.dcTables[c.dcTable].decode(reader);
+        int dc = predictor + (t == 0 ? 0 : extend(reader.read(t), t));
+        out[offset] = (short) dc;
+        HuffmanDecoder ac = p.acTables[c.acTable];
+        for (int k = 1; k < 64; ) {
+            int rs = ac.decode(reader);
+            int s = rs & 0x0F;
+            int r = rs >> 4;
+            if (s == 0) {
+                if (r != 15) break;
+                k += 16;
+                continue;
+            }
+            k += r;
+            if (k > 63) throw new IllegalStateException("Coefficient index out of range");
+            out[offset + ZIGZAG[k]] = (short) extend(reader.read(s), s);
+            k++;
+        }
+        return dc;
+    }
+
+    private static int extend(int value, int size) {
+        return value < (1 << (size - 1)) ? value - (1 << size) + 1 : value;
+    }
+
+    private static byte[] encode(byte[] jpeg, Parsed p, Transform t) {
+        Component[] components = p.components;
+        int outWidth = t.transpose ? p.height : p.width;
+        int outHeight = t.transpose ? p.width : p.height;
+
+        // Per output zigzag position: source natural index and sign
+        int[] source = new int[64];
+        int[] sign = new int[64];
+        for (int k = 0; k < 64; k++) {
+            int n = ZIGZAG[k];
+            int u = n >> 3;
+            int v = n & 7;
+            source[k] = t.transpose ? (v << 3) | u : n;
+            boolean negate = (t.flipH && (v & 1) == 1) ^ (t.flipV && (u & 1) == 1);
+            sign[k] = negate ? -1 : 1;
+        }
+
+        ByteSink sink = new ByteSink(jpeg.length + jpeg.length / 8);
+        sink.marker(SOI);
+        // APPn (EXIF, JFIF, ICC) and COM segments are copied verbatim
+        for (int[] segment : p.keptSegments) {
+            sink.bytes(jpeg, segment[0], segment[1] - segment[0]);
+        }
+
+        for (int tq = 0; tq < 4; tq++) {
+            int[] table = p.quantTables[tq];
+            if (table == null) continue;
+            int pq = p.quantPrecision[tq];
+            sink.marker(DQT);
+            sink.u16(2 + 1 + 64 * (pq == 0 ? 1 : 2));
+            sink.u8((pq << 4) | tq);
+            for (int k = 0; k < 64; k++) {
+                int value = t.transpose ? table[zigzagOfTransposed(k)] : table[k];
+                if (pq == 0) sink.u8(value);
+                else sink.u16(value);
+            }
+        }
+
+        sink.marker(p.sofMarker);
+        sink.u16(8 + 3 * components.length);
+        sink.u8(8);
+        sink.u16(outHeight);
+        sink.u16(outWidth);
+        sink.u8(components.length);
+        for (Component c : components) {
+            int h = t.transpose ? c.v : c.h;
+            int v = t.transpose ? c.h : c.v;
+            sink.u8(c.id);
+            sink.u8((h << 4) | v);
+            sink.u8(c.tq);
+        }
+
+        HuffmanEncoder[] dc = {
+            new HuffmanEncoder(DC_LUMA_BITS, DC_VALUES),
+            new HuffmanEncoder(DC_CHROMA_BITS, DC_VALUES)
+        };
+        HuffmanEncoder[] ac = {
+            new HuffmanEncoder(AC_LUMA_BITS, AC_LUMA_VALUES),
+            new HuffmanEncoder(AC_CHROMA_BITS, AC_CHROMA_VALUES)
+        };
+        int tableCount = components.length > 1 ? 2 : 1;
+        for (int i = 0; i < tableCount; i++) {
+            writeHuffmanTable(sink, 0, i, i == 0 ? DC_LUMA_BITS : DC_CHROMA_BITS, DC_VALUES);
+            writeHuffmanTable(sink, 1, i, i == 0 ? AC_LUMA_BITS : AC_CHROMA_BITS, i == 0 ? AC_LUMA_VALUES : AC_CHROMA_VALUES);
+        }
+
+        sink.marker(SOS);
+        sink.u16(6 + 2 * components.length);
+        sink.u8(components.length);
+        for (int i = 0; i < components.length; i++) {
+            int table = i == 0 ? 0 : 1;
+            sink.u8(components[i].id);
+            sink.u8((table << 4) | table);
+        }
+        sink.u8(0);
+        sink.u8(63);
+        sink.u8(0);
+
+        BitWriter writer = new BitWriter(sink);
+        int[] predictors = new int[components.length];
+        boolean interleaved = components.length > 1;
+        if (interleaved) {
+            int mcusX = t.transpose ? p.mcusY : p.mcusX;
+            int mcusY = t.transpose ? p.mcusX : p.mcusY;
+            for (int my = 0; my < mcusY; my++) {
+                for (int mx = 0; mx < mcusX; mx++) {
+                    for (int ci = 0; ci < components.length; ci++) {
+                        Component c = components[ci];
+                        int h = t.transpose ? c.v : c.h;
+                        int v = t.transpose ? c.h : c.v;
+                        int table = ci == 0 ? 0 : 1;
+                        for (int by = 0; by < v; by++) {
+                            for (int bx = 0; bx < h; bx++) {
+                                int offset = sourceBlockOffset(c, t, mx * h + bx, my * v + by);
+                                predictors[ci] = encodeBlock(writer, c.coefficients, offset, source, sign, predictors[ci], dc[table], ac[table]);
+                            }
+                        }
+                    }
+                }
+            }
+        } else {
+            Component c = components[0];
+            int blocksW = t.transpose ? c.blocksH : c.blocksW;
+            int blocksH = t.transpose ? c.blocksW : c.blocksH;
+            for (int by = 0; by < blocksH; by++) {
+                for (int bx = 0; bx < blocksW; bx++) {
+                    int offset = sourceBlockOffset(c, t, bx, by);
+                    predictors[0] = encodeBlock(writer, c.coefficients, offset, source, sign, predictors[0], dc[0], ac[0]);
+                }
+            }
+        }
+        writer.flush();
+        sink.marker(EOI);
+        return sink.toByteArray();
+    }
+
+    /** Offset of the source block that lands on output block (bx, by) */
+    private static int sourceBlockOffset(Component c, Transform t, int bx, int by) {
+        int outBlocksW = t.transpose ? c.blocksH : c.blocksW;
+        int outBlocksH = t.transpose ? c.blocksW : c.blocksH;
+        int x = t.flipH ? outBlocksW - 1 - bx : bx;
+        int y = t.flipV ? outBlocksH - 1 - by : by;
+        int sx = t.transpose ? y : x;
+        int sy = t.transpose ? x : y;
+        return (sy * c.blocksW + sx) * 64;
+    }
+
+    private static int encodeBlock(BitWriter writer, short[] coefficients, int offset, int[] source, int[] sign,
+                                   int predictor, HuffmanEncoder dc, HuffmanEncoder ac) {
+        int value = coefficients[offset];
+        int diff = value - predictor;
+        int size = magnitude(diff);
+        dc.write(writer, size);
+        if (size > 0) writer.write(diff < 0 ? diff - 1 : diff, size);
+
+        int run = 0;
+        for (int k = 1; k < 64; k++) {
+            int coefficient = coefficients[offset + source[k]] * sign[k];
+            if (coefficient == 0) {
+                run++;
+                continue;
+            }
+            while (run > 15) {
+                ac.write(writer, 0xF0);
+                run -= 16;
+            }
+            int s = magnitude(coefficient);
+            ac.write(writer, (run << 4) | s);
+            writer.write(coefficient < 0 ? coefficient - 1 : coefficient, s);
+            run = 0;
+        }
+        if (run > 0) ac.write(writer, 0x00);
+        return value;
+    }
+
+    private static int magnitude(int value) {
+        return 32 - Integer.numberOfLeadingZeros(Math.abs(value));
+    }
+
+    private static int zigzagOfTransposed(int k) {
+        int n = ZIGZAG[k];
+        int transposed = ((n & 7) << 3) | (n >> 3);
+        for (int i = 0; i < 64; i++) {
+            if (ZIGZAG[i] == transposed) return i;
+        }
+        throw new IllegalStateException();
+    }
+
+    private static void writeHuffmanTable(ByteSink sink, int tableClass, int id, int[] bits, int[] values) {
+        sink.marker(DHT);
+        sink.u16(2 + 1 + 16 + values.length);
+        sink.u8((tableClass << 4) | id);
+        for (int b : bits) sink.u8(b);
+        for (int value : values) sink.u8(value);
+    }
+
+    private static int u16(byte[] b, int pos) {
+        return ((b[pos] & 0xFF) << 8) | (b[pos + 1] & 0xFF);
+    }
+
+    /**
+     * Canonical Huffman decoder with a 9 bit lookahead table
+     */
+    static final class HuffmanDecoder {
+        private static final int LOOKAHEAD = 9;
+        private final int[] lookup = new int[1 << LOOKAHEAD];
+        private final int[] maxCode = new int[17];
+        private final int[] minCode = new int[17];
+        private final int[] valueIndex = new int[17];
+        private final int[] values;
+
+        HuffmanDecoder(int[] bits, int[] values) {
+            this.values = values;
+            int code = 0;
+            int k = 0;
+            for (int length = 1; length <= 16; length++) {
+                valueIndex[length] = k;
+                minCode[length] = code;
+                int count = bits[length - 1];
+                for (int i = 0; i < count; i++, k++, code++) {
+                    if (length <= LOOKAHEAD) {
+                        int shift = LOOKAHEAD - length;
+                        int base = code << shift;
+                        for (int fill = 0; fill < (1 << shift); fill++) {
+                            lookup[base + fill] = (length << 8) | values[k];
+                        }
+                    }
+                }
+                maxCode[length] = count > 0 ? code - 1 : -1;
+                code <<= 1;
+            }
+        }
+
+        int decode(BitReader reader) {
+            int entry = lookup[reader.peek(LOOKAHEAD)];
+            if (entry != 0) {
+                reader.skip(entry >> 8);
+                return entry & 0xFF;
+            }
+            int code = 0;
+            for (int length = 1; length <= 16; length++) {
+                code = (code << 1) | reader.read(1);
+                if (code <= maxCode[length]) {
+                    return values[valueIndex[length] + code - minCode[length]];
+                }
+            }
+            throw new IllegalStateException("Invalid Huffman code");
+        }
+    }
+
+    static final class HuffmanEncoder {
+        private final int[] codes = new int[256];
+        private final int[] sizes = new int[256];
+
+        HuffmanEncoder(int[] bits, int[] values) {
+            int code = 0;
+            int k = 0;
+            for (int length = 1; length <= 16; length++) {
+                for (int i = 0; i < bits[length - 1]; i++, k++, code++) {
+                    codes[values[k]] = code;
+                    sizes[values[k]] = length;
+                }
+                code <<= 1;
+            }
+        }
+
+        void write(BitWriter writer, int symbol) {
+            int size = sizes[symbol];
+            if (size == 0) throw new IllegalStateException("No code for symbol " + symbol);
+            writer.write(codes[symbol], size);
+        }
+    }
+
+    /**
+     * Reads entropy coded bits, removing stuffed zero bytes and stopping at markers
+     */
+    static final class BitReader {
+        private final byte[] data;
+        private int pos;
+        private long buffer;
+        private int bits;
+        private boolean atMarker;
+
+        BitReader(byte[] data, int pos) {
+            this.data = data;
+            this.pos = pos;
+        }
+
+        private void fill() {
+            while (bits <= 56) {
+                int b = 0;
+                if (!atMarker && pos < data.length) {
+                    b = data[pos] & 0xFF;
+                    if (b == 0xFF) {
+                        int next = pos + 1 < data.length ? data[pos + 1] & 0xFF : 0xD9;
+                        if (next == 0) {
+                            pos += 2;
+                        } else {
+                            atMarker = true;
+                            b = 0;
+                        }
+                    } else {
+                        pos++;
+                    }
+                }
+                buffer = (buffer << 8) | b;
+                bits += 8;
+            }
+        }
+
+        int peek(int n) {
+            if (bits < n) fill();
+            return (int) ((buffer >>> (bits - n)) & ((1L << n) - 1));
+        }
+
+        void skip(int n) {
+            bits -= n;
+        }
+
+        int read(int n) {
+            int value = peek(n);
+            bits -= n;
+            return value;
+        }
+
+        /** Drop buffered bits and move past the next RSTn marker */
+        void restart() {
+            buffer = 0;
+            bits = 0;
+            atMarker = false;
+            while (pos + 1 < data.length) {
+                int marker = data[pos + 1] & 0xFF;
+                if ((data[pos] & 0xFF) == 0xFF && marker >= 0xD0 && marker <= 0xD7) {
+                    pos += 2;
+                    return;
+                }
+                pos++;
+            }
+        }
+    }
+
+    static final class BitWriter {
+        private final ByteSink sink;
+        private long buffer;
+        private int bits;
+
+        BitWriter(ByteSink sink) {
+            this.sink = sink;
+        }
+
+        void write(int value, int size) {
+            buffer = (buffer << size) | (value & ((1L << size) - 1));
+            bits += size;
+            while (bits >= 8) {
+                int b = (int) (buffer >> (bits - 8)) & 0xFF;
+                sink.u8(b);
+                if (b == 0xFF) sink.u8(0);
+                bits -= 8;
+            }
+        }
+
+        /** Pad the last byte with one bits */
+        void flush() {
+            if (bits > 0) write((1 << (8 - bits)) - 1, 8 - bits);
+        }
+    }
+
+    static final class ByteSink {
+        private byte[] data;
+        private int size;
+
+        ByteSink(int capacity) {
+            data = new byte[capacity];
+        }
+
+        void u8(int value) {
+            if (size == data.length) grow(1);
+            data[size++] = (byte) value;
+        }
+
+        void u16(int value) {
+            u8(value >> 8);
+            u8(value);
+        }
+
+        void marker(int marker) {
+            u8(0xFF);
+            u8(marker);
+        }
+
+        void bytes(byte[] src, int offset, int length) {
+            if (size + length > data.length) grow(length);
+            System.arraycopy(src, offset, data, size, length);
+            size += length;
+        }
+
+        private void grow(int needed) {
+            byte[] bigger = new byte[Math.max(data.length * 2, size + needed)];
+            System.arraycopy(data, 0, bigger, 0, size);
+            data = bigger;
+        }
+
+        byte[] toByteArray() {
+            byte[] out = new byte[size];
+            System.arraycopy(data, 0, out, 0, size);
+            return out;
+        }
+    }
+}
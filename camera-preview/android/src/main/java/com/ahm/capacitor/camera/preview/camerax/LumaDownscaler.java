@@ -0,0 +1,134 @@
+package com.ahm.capacitor.camera.preview.camerax;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Box-filtered grayscale thumbnail straight from a Y plane.
+ *
+ * Reads the plane in place, honoring row and pixel strides, and averages each source block into
+ * one output byte. The output array, the accumulators and the column table are reused, so once
+ * the frame geometry is known no memory is allocated per frame. The output stays in sensor
+ * orientation; callers apply getRotationDegrees() themselves if they need it upright.
+ *
+ * Not thread-safe: use one instance per analysis thread.
+ */
+public final class LumaDownscaler {
+
+    private final int outWidth;
+    private final int outHeight;
+    private final byte[] output;
+    private final int[] sums;
+
+    // Per source geometry: first source column of each output column, plus the end
+    private int[] columnStarts;
+    private byte[] rowBuffer;
+    private int sourceWidth = -1;
+
+    public LumaDownscaler(int outWidth, int outHeight) {
+        if (outWidth <= 0 || outHeight <= 0) throw new IllegalArgumentException("Output size must be positive");
+        this.outWidth = outWidth;
+        this.outHeight = outHeight;
+        this.output = new byte[outWidth * outHeight];
+        this.sums = new int[outWidth];
+    }
+
+    public int getOutputWidth() {
+        return outWidth;
+    }
+
+    public int getOutputHeight() {
+        return outHeight;
+    }
+
+    /** The buffer returned by downscale(), row-major outputWidth x outputHeight */
+    public byte[] getOutput() {
+        return output;
+    }
+
+    public byte[] downscale(AnalysisFrame frame) {
+        return downscale(
+            frame.getPlaneBuffer(AnalysisFrame.PLANE_Y),
+            frame.getRowStride(AnalysisFrame.PLANE_Y),
+            frame.getPixelStride(AnalysisFrame.PLANE_Y),
+            frame.getWidth(),
+            frame.getHeight()
+        );
+    }
+
+    /**
+     * Downscale width x height luma samples starting at the plane's position. The plane's
+     * position is restored before returning.
+     *
+     * @return the reused output buffer, overwritten by the next call
+     */
+    public byte[] downscale(ByteBuffer plane, int rowStride, int pixelStride, int width, int height) {
+        if (width < outWidth || height < outHeight) {
+            throw new IllegalArgumentException("Cannot upscale " + width + "x" + height + " to " + outWidth + "x" + outHeight);
+        }
+        prepare(width);
+        final int[] starts = columnStarts;
+        final byte[] row = rowBuffer;
+        final int base = plane.position();
+        try {
+            int y0 = 0;
+            for (int oy = 0; oy < outHeight; oy++) {
+                int y1 = (int) ((long) (oy + 1) * height / outHeight);
+                for (int i = 0; i < outWidth; i++) sums[i] = 0;
+                for (int y = y0; y < y1; y++) {
+                    int rowStart = base + y * rowStride;
+                    if (pixelStride == 1) {
+                        plane.position(rowStart);
+                        plane.get(row, 0, width);
+                        accumulate(row, starts);
+                    } else {
+                        accumulateStrided(plane, rowStart, pixelStride, starts);
+                    }
+                }
+                int rows = y1 - y0;
+                int o = oy * outWidth;
+                for (int ox = 0; ox < outWidth; ox++) {
+                    int count = (starts[ox + 1] - starts[ox]) * rows;
+                    output[o + ox] = (byte) ((sums[ox] + count / 2) / count);
+                }
+                y0 = y1;
+            }
+        } finally {
+            plane.position(base);
+        }
+        return output;
+    }
+
+    private void accumulate(byte[] row, int[] starts) {
+        int x = starts[0];
+        for (int ox = 0; ox < outWidth; ox++) {
+            int end = starts[ox + 1];
+            int sum = 0;
+            for (; x < end; x++) {
+                sum += row[x] & 0xFF;
+            }
+            sums[ox] += sum;
+        }
+    }
+
+    private void accumulateStrided(ByteBuffer plane, int rowStart, int pixelStride, int[] starts) {
+        int x = starts[0];
+        for (int ox = 0; ox < outWidth; ox++) {
+            int end = starts[ox + 1];
+            int sum = 0;
+            for (; x < end; x++) {
+                sum += plane.get(rowStart + x * pixelStride) & 0xFF;
+            }
+            sums[ox] += sum;
+        }
+    }
+
+    private void prepare(int width) {
+        if (width == sourceWidth) return;
+        columnStarts = new int[outWidth + 1];
+        for (int ox = 0; ox <= outWidth; ox++) {
+            columnStarts[ox] = (int) ((long) ox * width / outWidth);
+        }
+        rowBuffer = new byte[width];
+        sourceWidth = width;
+    }
+}
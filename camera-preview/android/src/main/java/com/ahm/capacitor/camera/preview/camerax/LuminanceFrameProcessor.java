@@ -0,0 +1,44 @@
+package com.ahm.capacitor.camera.preview.camerax;
+
+import java.nio.ByteBuffer;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Mean luminance (0-255) of the Y plane, sampled on a sparse grid.
+ */
+public final class LuminanceFrameProcessor implements FrameProcessor {
+
+    public static final String NAME = "luminance";
+
+    private final int step;
+
+    public LuminanceFrameProcessor() {
+        this(4);
+    }
+
+    /** @param step distance in pixels between samples in both directions */
+    public LuminanceFrameProcessor(int step) {
+        this.step = Math.max(1, step);
+    }
+
+    @Override
+    public Map<String, Object> process(AnalysisFrame frame) {
+        ByteBuffer y = frame.getPlaneBuffer(AnalysisFrame.PLANE_Y);
+        int rowStride = frame.getRowStride(AnalysisFrame.PLANE_Y);
+        int pixelStride = frame.getPixelStride(AnalysisFrame.PLANE_Y);
+        int base = y.position();
+        long sum = 0;
+        int count = 0;
+        for (int row = 0; row < frame.getHeight(); row += step) {
+            int offset = base + row * rowStride;
+            for (int col = 0; col < frame.getWidth(); col += step) {
+                sum += y.get(offset + col * pixelStride) & 0xFF;
+                count++;
+            }
+        }
+        Map<String, Object> result = new HashMap<>();
+        result.put("luminance", count == 0 ? 0.0 : (double) sum / count);
+        return result;
+    }
+}
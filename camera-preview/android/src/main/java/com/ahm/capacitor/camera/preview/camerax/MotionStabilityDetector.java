@@ -0,0 +1,142 @@
+package com.ahm.capacitor.camera.preview.camerax;
+
+/**
+ * Decides when a scene has settled, from consecutive downscaled luma frames.
+ *
+ * The mean absolute difference between a frame and the previous one measures motion. A run of
+ * stableFrames frames below stableThreshold fires once, then the detector waits for the cooldown
+ * and, unless disabled, for motion above motionThreshold before it can fire again, so a static
+ * scene is not captured over and over.
+ *
+ * Not thread-safe: feed it from the analysis thread only.
+ */
+public final class MotionStabilityDetector {
+
+    public static final class Config {
+        private double stableThreshold = 3.0;
+        private double motionThreshold = 10.0;
+        private int stableFrames = 10;
+        private long cooldownMs = 2000;
+        private boolean requireMotionToRearm = true;
+
+        /** Mean absolute luma difference (0-255) below which a frame counts as still */
+        public Config setStableThreshold(double stableThreshold) {
+            this.stableThreshold = stableThreshold;
+            return this;
+        }
+
+        /** Mean absolute luma difference above which the scene counts as changed */
+        public Config setMotionThreshold(double motionThreshold) {
+            this.motionThreshold = motionThreshold;
+            return this;
+        }
+
+        /** Consecutive still frames needed to fire */
+        public Config setStableFrames(int stableFrames) {
+            this.stableFrames = Math.max(1, stableFrames);
+            return this;
+        }
+
+        /** Minimum time between two firings */
+        public Config setCooldownMs(long cooldownMs) {
+            this.cooldownMs = Math.max(0, cooldownMs);
+            return this;
+        }
+
+        /** Whether the scene must change after a firing before the next one */
+        public Config setRequireMotionToRearm(boolean requireMotionToRearm) {
+            this.requireMotionToRearm = requireMotionToRearm;
+            return this;
+        }
+
+        public double getStableThreshold() { return stableThreshold; }
+        public double getMotionThreshold() { return motionThreshold; }
+        public int getStableFrames() { return stableFrames; }
+        public long getCooldownMs() { return cooldownMs; }
+        public boolean isRequireMotionToRearm() { return requireMotionToRearm; }
+    }
+
+    private final Config config;
+    private byte[] previous;
+    private int previousLength = -1;
+    private double lastDifference = Double.NaN;
+    private int stableRun;
+    private boolean armed = true;
+    private boolean fired;
+    private long lastFiredNanos;
+
+    public MotionStabilityDetector(Config config) {
+        this.config = config;
+    }
+
+    /**
+     * Feed the next frame.
+     *
+     * @param luma downscaled luma samples; only the first length bytes are read and they are
+     *             copied, so the array may be reused by the caller
+     * @return true when this frame completes a stable run and a capture should be taken
+     */
+    public boolean onFrame(byte[] luma, int length, long timestampNanos) {
+        if (previous == null || previous.length < length) {
+            previous = new byte[length];
+            previousLength = -1;
+        }
+        if (length != previousLength) {
+            // First frame or a new geometry: nothing to compare against yet
+            System.arraycopy(luma, 0, previous, 0, length);
+            previousLength = length;
+            lastDifference = Double.NaN;
+            stableRun = 0;
+            return false;
+        }
+
+        long sum = 0;
+        for (int i = 0; i < length; i++) {
+            int current = luma[i] & 0xFF;
+            int diff = current - (previous[i] & 0xFF);
+            sum += diff < 0 ? -diff : diff;
+            previous[i] = luma[i];
+        }
+        lastDifference = length == 0 ? 0 : (double) sum / length;
+
+        if (lastDifference >= config.motionThreshold) {
+            armed = true;
+        }
+        if (lastDifference < config.stableThreshold) {
+            stableRun++;
+        } else {
+            stableRun = 0;
+        }
+
+        boolean cooledDown = !fired || timestampNanos - lastFiredNanos >= config.cooldownMs * 1_000_000L;
+        if (armed && cooledDown && stableRun >= config.stableFrames) {
+            fired = true;
+            lastFiredNanos = timestampNanos;
+            stableRun = 0;
+            armed = !config.requireMotionToRearm;
+            return true;
+        }
+        return false;
+    }
+
+    /** Mean absolute difference of the last frame, NaN before two frames of the same size */
+    public double getLastDifference() {
+        return lastDifference;
+    }
+
+    public int getStableRun() {
+        return stableRun;
+    }
+
+    public boolean isArmed() {
+        return armed;
+    }
+
+    public void reset() {
+        previousLength = -1;
+        lastDifference = Double.NaN;
+        stableRun = 0;
+        armed = true;
+        fired = false;
+    }
+}
@@ -0,0 +1,322 @@
+package com.ahm.capacitor.camera.preview.camerax;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Clockwise rotation of NV21 frames into reusable buffers.
+ *
+ * Luma and chroma are rotated in separate loops specialized per rotation: each VU pair is read
+ * and written once instead of once per covered luma pixel, and the strided source rows of the
+ * 90/270 cases come from an offset table built once per frame geometry. Output rows are written
+ * sequentially, which lets large frames be split into row bands across a ForkJoinPool.
+ */
+public final class Nv21Rotator {
+
+    /** Frames at least this large are split across the pool when one is given */
+    public static final int DEFAULT_PARALLEL_THRESHOLD = 1920 * 1080;
+
+    /** Output luma rows per fork-join task; even so luma and chroma bands stay aligned */
+    private static final int ROWS_PER_TASK = 64;
+
+    private final ByteArrayPool pool;
+    private final ForkJoinPool forkJoinPool;
+    private final int parallelThreshold;
+    private volatile Tables tables;
+
+    public Nv21Rotator() {
+        this(null, DEFAULT_PARALLEL_THRESHOLD);
+    }
+
+    /**
+     * @param forkJoinPool pool for large frames, null to always rotate on the calling thread
+     * @param parallelThreshold minimum width * height handed to the pool
+     */
+    public Nv21Rotator(ForkJoinPool forkJoinPool, int parallelThreshold) {
+        this.pool = new ByteArrayPool(2);
+        this.forkJoinPool = forkJoinPool;
+        this.parallelThreshold = parallelThreshold;
+    }
+
+    public static int frameLength(int width, int height) {
+        return width * height * 3 / 2;
+    }
+
+    /**
+     * Rotate into a pooled buffer. Hand it back with {@link #release(byte[])} once consumed.
+     * Rotation 0 returns the input itself.
+     */
+    public byte[] rotate(byte[] nv21, int width, int height, int rotation) {
+        if (rotation == 0) return nv21;
+        byte[] out = pool.acquire(frameLength(width, height));
+        rotate(nv21, width, height, rotation, out);
+        return out;
+    }
+
+    public void release(byte[] buffer) {
+        pool.release(buffer);
+    }
+
+    /**
+     * Rotate into the given buffer, which must hold width * height * 3 / 2 bytes and must not be
+     * the input. The output is height x width for 90 and 270.
+     */
+    public void rotate(byte[] nv21, int width, int height, int rotation, byte[] out) {
+        checkArguments(nv21, width, height, rotation, out);
+        if (rotation == 0) {
+            System.arraycopy(nv21, 0, out, 0, frameLength(width, height));
+            return;
+        }
+        Tables t = tablesFor(width, height, rotation);
+        int outRows = rotation == 180 ? height : width;
+        if (forkJoinPool != null && width * height >= parallelThreshold) {
+            forkJoinPool.invoke(new Band(t, nv21, out, 0, outRows));
+        } else {
+            rotateRows(t, nv21, out, 0, outRows);
+        }
+    }
+
+    /**
+     * Pack a YUV_420_888 image (planes as exposed by Image/ImageProxy) into NV21 and rotate it.
+     * The buffers' positions are left untouched.
+     */
+    public void rotate(
+        ByteBuffer yPlane,
+        int yRowStride,
+        ByteBuffer uPlane,
+        ByteBuffer vPlane,
+        int uvRowStride,
+        int uvPixelStride,
+        int width,
+        int height,
+        int rotation,
+        byte[] out
+    ) {
+        byte[] packed = rotation == 0 ? out : pool.acquire(frameLength(width, height));
+        try {
+            packNv21(yPlane, yRowStride, uPlane, vPlane, uvRowStride, uvPixelStride, width, height, packed);
+            if (rotation != 0) rotate(packed, width, height, rotation, out);
+        } finally {
+            if (packed != out) pool.release(packed);
+        }
+    }
+
+    static void packNv21(
+        ByteBuffer yPlane,
+        int yRowStride,
+        ByteBuffer uPlane,
+        ByteBuffer vPlane,
+        int uvRowStride,
+        int uvPixelStride,
+        int width,
+        int height,
+        byte[] out
+    ) {
+        ByteBuffer y = yPlane.duplicate();
+        int yBase = y.position();
+        for (int row = 0; row < height; row++) {
+            y.position(yBase + row * yRowStride);
+            y.get(out, row * width, width);
+        }
+        int uBase = uPlane.position();
+        int vBase = vPlane.position();
+        int o = width * height;
+        for (int row = 0; row < height / 2; row++) {
+            int in = row * uvRowStride;
+            for (int col = 0; col < width / 2; col++) {
+                out[o++] = vPlane.get(vBase + in);
+                out[o++] = uPlane.get(uBase + in);
+                in += uvPixelStride;
+            }
+        }
+    }
+
+    private static void checkArguments(byte[] nv21, int width, int height, int rotation, byte[] out) {
+        if (rotation % 90 != 0 || rotation < 0 || rotation > 270) {
+            throw new IllegalArgumentException("0 <= rotation < 360, rotation % 90 == 0");
+        }
+        if (width <= 0 || height <= 0 || (width & 1) != 0 || (height & 1) != 0) {
+            throw new IllegalArgumentException("NV21 needs even, positive dimensions: " + width + "x" + height);
+        }
+        int length = frameLength(width, height);
+        if (nv21.length < length || out.length < length) {
+            throw new IllegalArgumentException("Buffers must hold " + length + " bytes");
+        }
+        if (nv21 == out) {
+            throw new IllegalArgumentException("In-place rotation is not supported");
+        }
+    }
+
+    private Tables tablesFor(int width, int height, int rotation) {
+        Tables t = tables;
+        if (t == null || t.width != width || t.height != height || t.rotation != rotation) {
+            t = new Tables(width, height, rotation);
+            tables = t;
+        }
+        return t;
+    }
+
+    /**
+     * Source row offsets indexed by output column. Only needed when rows become columns.
+     */
+    private static final class Tables {
+        final int width;
+        final int height;
+        final int rotation;
+        final int[] lumaRows;
+        final int[] chromaRows;
+
+        Tables(int width, int height, int rotation) {
+            this.width = width;
+            this.height = height;
+            this.rotation = rotation;
+            if (rotation == 180) {
+                lumaRows = null;
+                chromaRows = null;
+                return;
+            }
+            int frameSize = width * height;
+            int chromaHeight = height / 2;
+            lumaRows = new int[height];
+            chromaRows = new int[chromaHeight];
+            for (int c = 0; c < height; c++) {
+                int srcRow = rotation == 90 ? height - 1 - c : c;
+                lumaRows[c] = srcRow * width;
+            }
+            for (int c = 0; c < chromaHeight; c++) {
+                int srcRow = rotation == 90 ? chromaHeight - 1 - c : c;
+                chromaRows[c] = frameSize + srcRow * width;
+            }
+        }
+    }
+
+    /**
+     * Output luma rows [from, to) and the chroma rows they cover; from and to are even
+     */
+    private static void rotateRows(Tables t, byte[] in, byte[] out, int from, int to) {
+        switch (t.rotation) {
+            case 90:
+                rotate90Luma(t, in, out, from, to);
+                rotate90Chroma(t, in, out, from / 2, to / 2);
+                break;
+            case 180:
+                rotate180Luma(t, in, out, from, to);
+                rotate180Chroma(t, in, out, from / 2, to / 2);
+                break;
+            default:
+                rotate270Luma(t, in, out, from, to);
+                rotate270Chroma(t, in, out, from / 2, to / 2);
+                break;
+        }
+    }
+
+    // 90: output (r, c) = input (y = h - 1 - c, x = r)
+    private static void rotate90Luma(Tables t, byte[] in, byte[] out, int from, int to) {
+        final int[] rows = t.lumaRows;
+        final int outWidth = t.height;
+        for (int r = from; r < to; r++) {
+            int o = r * outWidth;
+            for (int c = 0; c < outWidth; c++) {
+                out[o + c] = in[rows[c] + r];
+            }
+        }
+    }
+
+    private static void rotate90Chroma(Tables t, byte[] in, byte[] out, int from, int to) {
+        final int[] rows = t.chromaRows;
+        final int pairs = t.height / 2;
+        final int base = t.width * t.height;
+        for (int r = from; r < to; r++) {
+            int o = base + r * t.height;
+            int x = r * 2;
+            for (int c = 0; c < pairs; c++) {
+                int i = rows[c] + x;
+                out[o++] = in[i];
+                out[o++] = in[i + 1];
+            }
+        }
+    }
+
+    // 270: output (r, c) = input (y = c, x = w - 1 - r)
+    private static void rotate270Luma(Tables t, byte[] in, byte[] out, int from, int to) {
+        final int[] rows = t.lumaRows;
+        final int outWidth = t.height;
+        for (int r = from; r < to; r++) {
+            int o = r * outWidth;
+            int x = t.width - 1 - r;
+            for (int c = 0; c < outWidth; c++) {
+                out[o + c] = in[rows[c] + x];
+            }
+        }
+    }
+
+    private static void rotate270Chroma(Tables t, byte[] in, byte[] out, int from, int to) {
+        final int[] rows = t.chromaRows;
+        final int pairs = t.height / 2;
+        final int base = t.width * t.height;
+        for (int r = from; r < to; r++) {
+            int o = base + r * t.height;
+            int x = t.width - 2 - r * 2;
+            for (int c = 0; c < pairs; c++) {
+                int i = rows[c] + x;
+                out[o++] = in[i];
+                out[o++] = in[i + 1];
+            }
+        }
+    }
+
+    // 180: output (r, c) = input (h - 1 - r, w - 1 - c), VU pairs keep their byte order
+    private static void rotate180Luma(Tables t, byte[] in, byte[] out, int from, int to) {
+        final int width = t.width;
+        for (int r = from; r < to; r++) {
+            int o = r * width;
+            int i = (t.height - r) * width - 1;
+            for (int c = 0; c < width; c++) {
+                out[o + c] = in[i - c];
+            }
+        }
+    }
+
+    private static void rotate180Chroma(Tables t, byte[] in, byte[] out, int from, int to) {
+        final int width = t.width;
+        final int base = width * t.height;
+        final int chromaHeight = t.height / 2;
+        for (int r = from; r < to; r++) {
+            int o = base + r * width;
+            int i = base + (chromaHeight - r) * width - 2;
+            for (int c = 0; c < width; c += 2) {
+                out[o + c] = in[i - c];
+                out[o + c + 1] = in[i - c + 1];
+            }
+        }
+    }
+
+    private static final class Band extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final Tables tables;
+        private final byte[] in;
+        private final byte[] out;
+        private final int from;
+        private final int to;
+
+        Band(Tables tables, byte[] in, byte[] out, int from, int to) {
+            this.tables = tables;
+            this.in = in;
+            this.out = out;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= ROWS_PER_TASK) {
+                rotateRows(tables, in, out, from, to);
+                return;
+            }
+            int mid = (from + (to - from) / 2) & ~1;
+            invokeAll(new Band(tables, in, out, from, mid), new Band(tables, in, out, mid, to));
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.ahm.capacitor.camera.preview.camerax;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes the pre-roll buffer followed by the live samples as one continuous stream.
+ *
+ * Output starts at the first video key frame, whose time becomes zero; everything earlier is
+ * dropped, as are audio packets that would land before it. Timestamps are kept strictly
+ * increasing per track, which the MP4 muxer requires, even where the buffered and the live
+ * samples overlap by a frame. Kept free of android.* so the ordering can be tested with
+ * synthetic samples; the Sink is MediaMuxer on devices.
+ */
+public final class PreRollMuxer {
+
+    public interface Sink {
+        /** Write sample at presentationTimeUs, already rebased to the start of the output */
+        void write(EncodedSample sample, long presentationTimeUs);
+    }
+
+    private final Sink sink;
+    private boolean started;
+    private long baseUs;
+    private final long[] lastUs = { Long.MIN_VALUE, Long.MIN_VALUE };
+    private long written;
+    private long dropped;
+    private long bytes;
+    private long preRollUs;
+
+    public PreRollMuxer(Sink sink) {
+        this.sink = sink;
+    }
+
+    /** The buffered samples, oldest first; their span is reported as the pre-roll duration */
+    public void writePreRoll(List<EncodedSample> samples) {
+        for (EncodedSample sample : samples) write(sample);
+        preRollUs = getDurationUs();
+    }
+
+    public void write(EncodedSample sample) {
+        if (!started) {
+            if (!sample.startsGroup()) {
+                dropped++;
+                return;
+            }
+            started = true;
+            baseUs = sample.getPresentationTimeUs();
+        }
+        long timeUs = sample.getPresentationTimeUs() - baseUs;
+        int track = sample.getTrack();
+        if (timeUs < 0 && track != EncodedSample.TRACK_VIDEO) {
+            dropped++;
+            return;
+        }
+        if (timeUs <= lastUs[track]) timeUs = lastUs[track] + 1;
+        lastUs[track] = timeUs;
+        sink.write(sample, timeUs);
+        written++;
+        bytes += sample.getSize();
+    }
+
+    public boolean isStarted() { return started; }
+    public long getWritten() { return written; }
+    public long getDropped() { return dropped; }
+    public long getBytes() { return bytes; }
+
+    /** Footage before the trigger */
+    public long getPreRollUs() { return preRollUs; }
+
+    /** Time of the last video frame written */
+    public long getDurationUs() {
+        return Math.max(0, lastUs[EncodedSample.TRACK_VIDEO]);
+    }
+
+    public Map<String, Object> toMap() {
+        Map<String, Object> map = new HashMap<>();
+        map.put("preRollMs", preRollUs / 1000);
+        map.put("durationMs", getDurationUs() / 1000);
+        map.put("samples", written);
+        map.put("droppedSamples", dropped);
+        map.put("bytes", bytes);
+        return map;
+    }
+}
@@ -0,0 +1,236 @@
+package com.ahm.capacitor.camera.preview.camerax;
+
+import android.media.MediaCodec;
+import android.media.MediaExtractor;
+import android.media.MediaFormat;
+import android.media.MediaMuxer;
+import android.util.Log;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Keeps the last few seconds of a recording in memory so a clip can start before it was asked
+ * for.
+ *
+ * The camera records short segments (see RecordingSegmenter); each finished segment is read back
+ * with MediaExtractor on a background thread and its samples go to an EncodedSampleRing while
+ * buffering, or straight to the output after trigger(). The output is remuxed with MediaMuxer
+ * without re-encoding. Segment files are deleted as soon as they are read.
+ */
+public final class PreRollRecorder implements CameraXManager.SegmentCallback {
+    private static final String TAG = "PreRollRecorder";
+
+    /** Short enough that the ring is trimmed in small steps, long enough to hold a few GOPs */
+    public static final long DEFAULT_SEGMENT_MS = 2000;
+    public static final long DEFAULT_PRE_ROLL_MS = 10_000;
+    public static final long DEFAULT_MAX_BYTES = 48L * 1024 * 1024;
+    // Used when the track format does not say how large a sample can be
+    private static final int DEFAULT_SAMPLE_BUFFER = 2 * 1024 * 1024;
+
+    public interface Listener {
+        /** The output file is complete; stats are the muxer's counters */
+        void onPreRollSaved(File output, Map<String, Object> stats);
+        void onPreRollError(String message);
+    }
+
+    private final EncodedSampleRing ring;
+    private final File output;
+    private final Listener listener;
+    // Segments are read and written in order on this thread
+    private final ExecutorService worker = Executors.newSingleThreadExecutor(r -> new Thread(r, "PreRollRecorder"));
+
+    // Touched on the worker only
+    private MediaFormat videoFormat;
+    private MediaFormat audioFormat;
+    private MediaMuxer muxer;
+    private int videoTrack = -1;
+    private int audioTrack = -1;
+    private PreRollMuxer preRollMuxer;
+    private final MediaCodec.BufferInfo info = new MediaCodec.BufferInfo();
+    private ByteBuffer sampleBuffer;
+    private boolean failed;
+
+    private volatile boolean triggered;
+
+    public PreRollRecorder(long preRollMs, long maxBytes, File output, Listener listener) {
+        this.ring = new EncodedSampleRing(maxBytes, preRollMs * 1000);
+        this.output = output;
+        this.listener = listener;
+    }
+
+    /** Keep everything from the buffered footage on; without a trigger, stopping saves only the buffer */
+    public void trigger() {
+        if (triggered) return;
+        triggered = true;
+        worker.execute(this::startOutput);
+    }
+
+    public boolean isTriggered() {
+        return triggered;
+    }
+
+    /** Buffered footage, bytes and eviction counters */
+    public Map<String, Object> getBufferStats() {
+        return ring.toMap();
+    }
+
+    @Override
+    public void onSegmentReady(final RecordingSegmenter.Segment segment) {
+        worker.execute(() -> {
+            readSegment(segment);
+            if (segment.isLast()) finish();
+        });
+    }
+
+    /** Drop the buffer and any partial output without saving */
+    public void cancel() {
+        if (worker.isShutdown()) return;
+        worker.execute(() -> {
+            ring.clear();
+            releaseMuxer();
+            if (output.exists() && !output.delete()) Log.w(TAG, "Could not delete " + output);
+        });
+        worker.shutdown();
+    }
+
+    private void readSegment(RecordingSegmenter.Segment segment) {
+        File file = segment.getFile();
+        if (failed) {
+            if (!file.delete()) Log.w(TAG, "Could not delete segment " + file.getName());
+            return;
+        }
+        MediaExtractor extractor = new MediaExtractor();
+        try {
+            extractor.setDataSource(file.getAbsolutePath());
+            int[] tracks = new int[extractor.getTrackCount()];
+            int maxSampleSize = 0;
+            for (int i = 0; i < tracks.length; i++) {
+                MediaFormat format = extractor.getTrackFormat(i);
+                String mime = format.getString(MediaFormat.KEY_MIME);
+                tracks[i] = -1;
+                if (mime == null) continue;
+                if (mime.startsWith("video/")) {
+                    tracks[i] = EncodedSample.TRACK_VIDEO;
+                    if (videoFormat == null) videoFormat = format;
+                } else if (mime.startsWith("audio/")) {
+                    tracks[i] = EncodedSample.TRACK_AUDIO;
+                    if (audioFormat == null) audioFormat = format;
+                } else {
+                    continue;
+                }
+                extractor.selectTrack(i);
+                if (format.containsKey(MediaFormat.KEY_MAX_INPUT_SIZE)) {
+                    maxSampleSize = Math.max(maxSampleSize, format.getInteger(MediaFormat.KEY_MAX_INPUT_SIZE));
+                }
+            }
+            int bufferSize = maxSampleSize > 0 ? maxSampleSize : DEFAULT_SAMPLE_BUFFER;
+            if (sampleBuffer == null || sampleBuffer.capacity() < bufferSize) {
+                sampleBuffer = ByteBuffer.allocate(bufferSize);
+            }
+
+            // Each segment file starts at zero; place it on the recording's timeline
+            long offsetUs = segment.getStartMs() * 1000;
+            int size;
+            while ((size = extractor.readSampleData(sampleBuffer, 0)) >= 0) {
+                int track = tracks[extractor.getSampleTrackIndex()];
+                if (track >= 0) {
+                    byte[] data = new byte[size];
+                    sampleBuffer.position(0);
+                    sampleBuffer.get(data, 0, size);
+                    boolean sync = (extractor.getSampleFlags() & MediaExtractor.SAMPLE_FLAG_SYNC) != 0;
+                    EncodedSample sample = new EncodedSample(track, offsetUs + extractor.getSampleTime(), sync, data);
+                    if (preRollMuxer != null) {
+                        preRollMuxer.write(sample);
+                    } else {
+                        ring.add(sample);
+                    }
+                }
+                sampleBuffer.clear();
+                extractor.advance();
+            }
+        } catch (Exception e) {
+            Log.e(TAG, "Failed to read segment " + file.getName(), e);
+            fail("Failed to read recording segment: " + e.getMessage());
+        } finally {
+            extractor.release();
+            if (!file.delete()) Log.w(TAG, "Could not delete segment " + file.getName());
+        }
+    }
+
+    private void startOutput() {
+        if (failed || preRollMuxer != null) return;
+        preRollMuxer = new PreRollMuxer(this::writeSample);
+        preRollMuxer.writePreRoll(ring.drain());
+        Log.d(TAG, "Pre-roll triggered with " + (preRollMuxer.getPreRollUs() / 1000) + "ms buffered");
+    }
+
+    private void writeSample(EncodedSample sample, long presentationTimeUs) {
+        if (failed) return;
+        try {
+            if (muxer == null) startMuxer();
+            int track = sample.isVideo() ? videoTrack : audioTrack;
+            if (track < 0) return;
+            info.set(0, sample.getSize(), presentationTimeUs, sample.isKeyFrame() ? MediaCodec.BUFFER_FLAG_KEY_FRAME : 0);
+            muxer.writeSampleData(track, ByteBuffer.wrap(sample.getData()), info);
+        } catch (Exception e) {
+            Log.e(TAG, "Failed to write pre-roll output", e);
+            fail("Failed to write video: " + e.getMessage());
+        }
+    }
+
+    private void startMuxer() throws IOException {
+        muxer = new MediaMuxer(output.getAbsolutePath(), MediaMuxer.OutputFormat.MUXER_OUTPUT_MPEG_4);
+        if (videoFormat != null) {
+            if (videoFormat.containsKey(MediaFormat.KEY_ROTATION)) {
+                muxer.setOrientationHint(videoFormat.getInteger(MediaFormat.KEY_ROTATION));
+            }
+            videoTrack = muxer.addTrack(videoFormat);
+        }
+        if (audioFormat != null) {
+            audioTrack = muxer.addTrack(audioFormat);
+        }
+        muxer.start();
+    }
+
+    private void finish() {
+        // Stopped before a trigger: the buffer alone is the clip
+        startOutput();
+        PreRollMuxer written = preRollMuxer;
+        boolean empty = written == null || written.getWritten() == 0;
+        boolean ok = releaseMuxer() && !failed && !empty;
+        worker.shutdown();
+        if (ok) {
+            Log.d(TAG, "Pre-roll clip saved: " + output.getName() + " " + written.toMap());
+            listener.onPreRollSaved(output, written.toMap());
+        } else if (!failed) {
+            listener.onPreRollError("No video was recorded");
+        }
+    }
+
+    private boolean releaseMuxer() {
+        if (muxer == null) return false;
+        boolean stopped = true;
+        try {
+            muxer.stop();
+        } catch (Exception e) {
+            Log.e(TAG, "Failed to finalize pre-roll output", e);
+            stopped = false;
+        }
+        muxer.release();
+        muxer = null;
+        return stopped;
+    }
+
+    private void fail(String message) {
+        if (failed) return;
+        failed = true;
+        ring.clear();
+        releaseMuxer();
+        listener.onPreRollError(message);
+    }
+}
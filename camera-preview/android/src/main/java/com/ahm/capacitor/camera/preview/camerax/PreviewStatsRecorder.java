@@ -0,0 +1,165 @@
+package com.ahm.capacitor.camera.preview.camerax;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Frame timing of the preview stream, fed from the camera's capture results.
+ *
+ * The camera thread is the only writer: onFrame stores the sensor interval since the previous
+ * frame in a ring and publishes it with an ordered write, without locks or allocation. Readers
+ * copy the ring and compute rates and percentiles on their side. A reader racing the writer may
+ * see a slot that was just overwritten, which only shifts the window by a frame.
+ */
+public final class PreviewStatsRecorder {
+
+    public static final int DEFAULT_CAPACITY = 256;
+
+    private final int mask;
+    private final AtomicLongArray intervalsNanos;
+    private final AtomicLong intervalCount = new AtomicLong();
+
+    // Written by the camera thread only
+    private long lastTimestampNanos = -1;
+    private volatile long frames;
+    private volatile long exposureNanos = -1;
+    private volatile String physicalCameraId;
+    private volatile float zoomRatio = Float.NaN;
+    private volatile long overheadNanos;
+
+    // Written from any thread
+    private volatile boolean restart;
+    private volatile long lastLensSwitchMs = -1;
+    private volatile boolean streaming;
+
+    /** @param capacity number of intervals kept, rounded up to a power of two */
+    public PreviewStatsRecorder(int capacity) {
+        int size = Integer.highestOneBit(Math.max(2, capacity) - 1) << 1;
+        this.mask = size - 1;
+        this.intervalsNanos = new AtomicLongArray(size);
+    }
+
+    /**
+     * Record one preview frame. Duplicate or older timestamps, such as those of a still capture
+     * sharing a preview frame, are ignored.
+     *
+     * @param physicalCameraId active physical camera of a logical camera, or null if unknown
+     * @param zoomRatio zoom ratio of the frame, NaN if unknown
+     */
+    public void onFrame(long sensorTimestampNanos, long exposureNanos, String physicalCameraId, float zoomRatio, long nowMs) {
+        if (restart) {
+            restart = false;
+            lastTimestampNanos = -1;
+            this.physicalCameraId = null;
+        }
+        if (sensorTimestampNanos <= lastTimestampNanos) return;
+        if (lastTimestampNanos >= 0) {
+            long n = intervalCount.get();
+            intervalsNanos.lazySet((int) (n & mask), sensorTimestampNanos - lastTimestampNanos);
+            intervalCount.lazySet(n + 1);
+        }
+        lastTimestampNanos = sensorTimestampNanos;
+        frames = frames + 1;
+        this.exposureNanos = exposureNanos;
+        String previousId = this.physicalCameraId;
+        if (physicalCameraId != null && previousId != null && !physicalCameraId.equals(previousId)) {
+            lastLensSwitchMs = nowMs;
+        }
+        if (physicalCameraId != null) this.physicalCameraId = physicalCameraId;
+        this.zoomRatio = zoomRatio;
+    }
+
+    /** Time the caller spent collecting one frame, reported as the recorder's overhead */
+    public void recordOverhead(long nanos) {
+        overheadNanos = overheadNanos + nanos;
+    }
+
+    /** A lens was switched, by rebinding or by zoom on a logical camera */
+    public void onLensSwitch(long atMs) {
+        lastLensSwitchMs = atMs;
+    }
+
+    /**
+     * The stream restarts, e.g. after a rebind: the gap before the next frame is not an interval
+     * and a new physical camera id is not a lens switch of its own
+     */
+    public void onSessionRestart() {
+        restart = true;
+    }
+
+    public void setStreaming(boolean streaming) {
+        this.streaming = streaming;
+    }
+
+    public long getFrames() {
+        return frames;
+    }
+
+    /** Intervals currently in the window, oldest first */
+    long[] copyIntervals() {
+        long n = intervalCount.get();
+        int size = (int) Math.min(n, mask + 1);
+        long[] copy = new long[size];
+        for (int i = 0; i < size; i++) {
+            copy[i] = intervalsNanos.get((int) ((n - size + i) & mask));
+        }
+        return copy;
+    }
+
+    /**
+     * Frame rate and interval percentiles over the window, plus the latest frame's state
+     *
+     * @param nowMs same clock as the nowMs passed to onFrame
+     */
+    public Map<String, Object> snapshot(long nowMs) {
+        long[] intervals = copyIntervals();
+        Map<String, Object> map = new HashMap<>();
+        long total = frames;
+        map.put("frames", total);
+        map.put("windowFrames", intervals.length);
+        map.put("streaming", streaming);
+
+        if (intervals.length > 0) {
+            long sum = 0;
+            for (long interval : intervals) sum += interval;
+            long[] sorted = intervals.clone();
+            Arrays.sort(sorted);
+            long p50 = percentile(sorted, 50);
+            int dropped = 0;
+            for (long interval : intervals) {
+                // An interval of about k nominal frames hides k - 1 missing ones
+                long missing = (interval + p50 / 2) / p50 - 1;
+                if (missing > 0) dropped += missing;
+            }
+            map.put("fps", sum > 0 ? intervals.length * 1e9 / sum : 0.0);
+            map.put("frameIntervalP50Ms", p50 / 1e6);
+            map.put("frameIntervalP95Ms", percentile(sorted, 95) / 1e6);
+            map.put("frameIntervalP99Ms", percentile(sorted, 99) / 1e6);
+            map.put("frameIntervalMaxMs", sorted[sorted.length - 1] / 1e6);
+            map.put("droppedFrames", dropped);
+        } else {
+            map.put("fps", 0.0);
+            map.put("droppedFrames", 0);
+        }
+
+        long exposure = exposureNanos;
+        if (exposure >= 0) map.put("exposureTimeMs", exposure / 1e6);
+        String physicalId = physicalCameraId;
+        if (physicalId != null) map.put("physicalCameraId", physicalId);
+        float zoom = zoomRatio;
+        if (!Float.isNaN(zoom)) map.put("zoomRatio", (double) zoom);
+        long switchedAt = lastLensSwitchMs;
+        map.put("msSinceLensSwitch", switchedAt >= 0 ? nowMs - switchedAt : -1L);
+        map.put("collectOverheadUs", total > 0 ? overheadNanos / 1e3 / total : 0.0);
+        return map;
+    }
+
+    /** Nearest-rank percentile of a sorted, non-empty array */
+    static long percentile(long[] sorted, int percent) {
+        int rank = (int) Math.ceil(percent / 100.0 * sorted.length);
+        return sorted[Math.max(0, Math.min(sorted.length - 1, rank - 1))];
+    }
+}
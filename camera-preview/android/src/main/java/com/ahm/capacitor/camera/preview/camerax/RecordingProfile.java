@@ -0,0 +1,215 @@
+package com.ahm.capacitor.camera.preview.camerax;
+
+import java.util.List;
+
+/**
+ * Maps the recording request (size, frame rate, bitrate, duration) to what the Recorder is built
+ * with.
+ *
+ * Sizes are matched by long and short edge against the quality tiers the camera supports, and the
+ * smallest tier covering the request wins; when nothing covers it the largest supported tier is
+ * used. Without a size the tier is capped at 1080p rather than the sensor's highest, which keeps
+ * files and encoder load reasonable. The Recorder is still given a fallback to the nearest lower
+ * tier, as the supported list can differ per camera. Kept free of android.* so it can be tested
+ * against plain capability tables.
+ */
+public final class RecordingProfile {
+
+    /** Recorder quality tiers, smallest first */
+    public enum Tier {
+        SD(720, 480),
+        HD(1280, 720),
+        FHD(1920, 1080),
+        UHD(3840, 2160);
+
+        private final int longEdge;
+        private final int shortEdge;
+
+        Tier(int longEdge, int shortEdge) {
+            this.longEdge = longEdge;
+            this.shortEdge = shortEdge;
+        }
+
+        public int getLongEdge() { return longEdge; }
+        public int getShortEdge() { return shortEdge; }
+
+        boolean covers(int requestedLong, int requestedShort) {
+            return longEdge >= requestedLong && shortEdge >= requestedShort;
+        }
+    }
+
+    /** Used when no size is requested */
+    public static final Tier DEFAULT_TIER = Tier.FHD;
+    public static final int DEFAULT_FRAME_RATE = 30;
+    public static final int MAX_FRAME_RATE = 60;
+    // Requested bitrates are kept between these bits per pixel per frame, so a typo cannot ask
+    // for an unplayable or enormous file
+    static final double MIN_BITS_PER_PIXEL = 0.02;
+    static final double MAX_BITS_PER_PIXEL = 0.5;
+
+    private final int requestedLong;
+    private final int requestedShort;
+    private final int frameRate;
+    private final int bitRate;
+    private final long maxDurationMs;
+
+    /**
+     * @param width requested width, 0 when not specified
+     * @param height requested height, 0 when not specified
+     * @param frameRate frames per second, 0 for the camera default
+     * @param bitRate target video bitrate in bits per second, 0 for the encoder default
+     * @param maxDurationMs recording stops by itself after this long, 0 for no limit
+     */
+    public RecordingProfile(int width, int height, int frameRate, int bitRate, long maxDurationMs) {
+        int w = Math.max(0, width);
+        int h = Math.max(0, height);
+        if (w > 0 && h > 0) {
+            this.requestedLong = Math.max(w, h);
+            this.requestedShort = Math.min(w, h);
+        } else {
+            // A single dimension is matched against the short edge, like CaptureResolutionStrategy
+            this.requestedLong = 0;
+            this.requestedShort = Math.max(w, h);
+        }
+        this.frameRate = Math.max(0, Math.min(frameRate, MAX_FRAME_RATE));
+        this.bitRate = Math.max(0, bitRate);
+        this.maxDurationMs = Math.max(0, maxDurationMs);
+    }
+
+    private RecordingProfile(RecordingProfile other, long maxDurationMs) {
+        this.requestedLong = other.requestedLong;
+        this.requestedShort = other.requestedShort;
+        this.frameRate = other.frameRate;
+        this.bitRate = other.bitRate;
+        this.maxDurationMs = Math.max(0, maxDurationMs);
+    }
+
+    /** Nothing requested: 1080p at the camera's default rate, no limit */
+    public static RecordingProfile defaults() {
+        return new RecordingProfile(0, 0, 0, 0, 0);
+    }
+
+    /**
+     * Tier to build the Recorder with
+     *
+     * @param supported tiers the camera reports, null or empty when unknown
+     */
+    public Tier selectTier(List<Tier> supported) {
+        Tier wanted = wantedTier();
+        if (supported == null || supported.isEmpty()) return wanted;
+        Tier smallestCovering = null;
+        Tier largest = null;
+        Tier largestNotAbove = null;
+        for (Tier tier : supported) {
+            if (tier == null) continue;
+            if (largest == null || tier.ordinal() > largest.ordinal()) largest = tier;
+            if (tier.ordinal() <= wanted.ordinal() && (largestNotAbove == null || tier.ordinal() > largestNotAbove.ordinal())) {
+                largestNotAbove = tier;
+            }
+            if (tier.ordinal() >= wanted.ordinal() && (smallestCovering == null || tier.ordinal() < smallestCovering.ordinal())) {
+                smallestCovering = tier;
+            }
+        }
+        if (largest == null) return wanted;
+        if (isDefaultSize()) {
+            // Capped at the default: the best supported tier not above it
+            return largestNotAbove != null ? largestNotAbove : smallestCovering;
+        }
+        return smallestCovering != null ? smallestCovering : largest;
+    }
+
+    /** Smallest tier covering the requested size, or the default tier */
+    Tier wantedTier() {
+        if (isDefaultSize()) return DEFAULT_TIER;
+        for (Tier tier : Tier.values()) {
+            if (tier.covers(requestedLong, requestedShort)) return tier;
+        }
+        return Tier.UHD;
+    }
+
+    /**
+     * Frame rate range to request from the camera as {lower, upper}, or null to keep the default
+     *
+     * @param supported ranges the camera reports as {lower, upper} pairs
+     */
+    public int[] selectFrameRateRange(List<int[]> supported) {
+        if (frameRate == 0 || supported == null) return null;
+        int[] best = null;
+        for (int[] range : supported) {
+            if (range == null || range.length < 2 || range[0] > frameRate || range[1] < frameRate) continue;
+            // A fixed range holds the rate in low light; otherwise the narrowest one containing it
+            if (best == null || (range[1] - range[0]) < (best[1] - best[0])) best = range;
+        }
+        if (best != null) return best;
+        // Nothing contains the rate: the range whose upper bound is closest to it, narrowest first
+        for (int[] range : supported) {
+            if (range == null || range.length < 2) continue;
+            if (best == null) {
+                best = range;
+                continue;
+            }
+            int distance = Math.abs(range[1] - frameRate);
+            int bestDistance = Math.abs(best[1] - frameRate);
+            if (distance < bestDistance || (distance == bestDistance && range[1] - range[0] < best[1] - best[0])) best = range;
+        }
+        return best;
+    }
+
+    /** Bitrate to set on the Recorder for tier, 0 to let the encoder pick */
+    public int bitRateFor(Tier tier) {
+        if (bitRate == 0) return 0;
+        double pixelsPerSecond = (double) tier.getLongEdge() * tier.getShortEdge()
+            * (frameRate > 0 ? frameRate : DEFAULT_FRAME_RATE);
+        long min = Math.round(pixelsPerSecond * MIN_BITS_PER_PIXEL);
+        long max = Math.round(pixelsPerSecond * MAX_BITS_PER_PIXEL);
+        return (int) Math.max(min, Math.min(bitRate, max));
+    }
+
+    /** The same profile with another duration limit */
+    public RecordingProfile withMaxDurationMs(long maxDurationMs) {
+        return new RecordingProfile(this, maxDurationMs);
+    }
+
+    /** Whether a Recorder built for other can be reused; the duration limit applies per recording */
+    public boolean hasSameEncoding(RecordingProfile other) {
+        return other != null
+            && requestedLong == other.requestedLong
+            && requestedShort == other.requestedShort
+            && frameRate == other.frameRate
+            && bitRate == other.bitRate;
+    }
+
+    public boolean isDefaultSize() {
+        return requestedLong == 0 && requestedShort == 0;
+    }
+
+    public int getFrameRate() { return frameRate; }
+    public int getBitRate() { return bitRate; }
+    public long getMaxDurationMs() { return maxDurationMs; }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof RecordingProfile)) return false;
+        RecordingProfile other = (RecordingProfile) o;
+        return requestedLong == other.requestedLong
+            && requestedShort == other.requestedShort
+            && frameRate == other.frameRate
+            && bitRate == other.bitRate
+            && maxDurationMs == other.maxDurationMs;
+    }
+
+    @Override
+    public int hashCode() {
+        int result = 31 * requestedLong + requestedShort;
+        result = 31 * result + frameRate;
+        result = 31 * result + bitRate;
+        return 31 * result + (int) (maxDurationMs ^ (maxDurationMs >>> 32));
+    }
+
+    @Override
+    public String toString() {
+        return "RecordingProfile{" + (isDefaultSize() ? "default" : requestedLong + "x" + requestedShort)
+            + ", fps=" + frameRate + ", bitRate=" + bitRate + ", maxDurationMs=" + maxDurationMs + "}";
+    }
+}
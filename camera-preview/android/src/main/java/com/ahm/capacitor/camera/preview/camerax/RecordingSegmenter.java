@@ -0,0 +1,140 @@
+package com.ahm.capacitor.camera.preview.camerax;
+
+import java.io.File;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Splits one recording into files of at most segmentDurationMs or segmentBytes each.
+ *
+ * Segment files are named from a session id and a running index, e.g.
+ * rec-lq3x9k1-1-0003.mp4, so a name is allocated without listing or probing the directory. The
+ * session id combines the wall clock with a per-process counter, which keeps two sessions
+ * started in the same millisecond apart. Kept free of android.* so it can be tested on the JVM;
+ * the manager reports each finished file through onSegmentFinished().
+ */
+public final class RecordingSegmenter {
+
+    public static final String EXTENSION = ".mp4";
+    /** Segments shorter than this are not asked for, the encoder needs a few GOPs per file */
+    public static final long MIN_SEGMENT_DURATION_MS = 1000;
+    public static final long MIN_SEGMENT_BYTES = 256 * 1024;
+
+    private static final AtomicInteger sessions = new AtomicInteger();
+
+    /** One finished file of the recording */
+    public static final class Segment {
+        private final int index;
+        private final File file;
+        private final long durationMs;
+        private final long bytes;
+        private final long startMs;
+        private final boolean last;
+
+        Segment(int index, File file, long durationMs, long bytes, long startMs, boolean last) {
+            this.index = index;
+            this.file = file;
+            this.durationMs = durationMs;
+            this.bytes = bytes;
+            this.startMs = startMs;
+            this.last = last;
+        }
+
+        public int getIndex() { return index; }
+        public File getFile() { return file; }
+        public long getDurationMs() { return durationMs; }
+        public long getBytes() { return bytes; }
+        /** Position of the segment's first frame in the whole recording */
+        public long getStartMs() { return startMs; }
+        /** Whether the recording ended with this segment */
+        public boolean isLast() { return last; }
+
+        public Map<String, Object> toMap() {
+            Map<String, Object> map = new HashMap<>();
+            map.put("index", index);
+            map.put("path", file.getAbsolutePath());
+            map.put("durationMs", durationMs);
+            map.put("bytes", bytes);
+            map.put("startMs", startMs);
+            map.put("last", last);
+            return map;
+        }
+    }
+
+    private final File directory;
+    private final String sessionId;
+    private final long segmentDurationMs;
+    private final long segmentBytes;
+    private int nextIndex;
+    private long recordedMs;
+    private long recordedBytes;
+    // The segment being recorded ends the recording when it reaches its duration limit
+    private boolean finalSlot;
+
+    /**
+     * @param segmentDurationMs roll to a new file after this long, 0 for no time limit
+     * @param segmentBytes roll to a new file after this many bytes, 0 for no size limit
+     */
+    public RecordingSegmenter(File directory, String prefix, long segmentDurationMs, long segmentBytes) {
+        this(directory, prefix, segmentDurationMs, segmentBytes, System.currentTimeMillis());
+    }
+
+    RecordingSegmenter(File directory, String prefix, long segmentDurationMs, long segmentBytes, long nowMs) {
+        this.directory = directory;
+        this.sessionId = prefix + "-" + Long.toString(nowMs, 36) + "-" + sessions.incrementAndGet();
+        this.segmentDurationMs = segmentDurationMs > 0 ? Math.max(MIN_SEGMENT_DURATION_MS, segmentDurationMs) : 0;
+        this.segmentBytes = segmentBytes > 0 ? Math.max(MIN_SEGMENT_BYTES, segmentBytes) : 0;
+    }
+
+    /** File for the next segment; each call allocates a new index */
+    public synchronized File nextFile() {
+        return new File(directory, String.format(Locale.US, "%s-%04d%s", sessionId, nextIndex++, EXTENSION));
+    }
+
+    /**
+     * Duration limit for the next segment: the segment length, shortened so the whole recording
+     * stops at maxDurationMs; 0 for no limit
+     */
+    public synchronized long nextDurationLimitMs(long maxDurationMs) {
+        long limit = segmentDurationMs;
+        finalSlot = false;
+        if (maxDurationMs > 0) {
+            long remaining = Math.max(1, maxDurationMs - recordedMs);
+            finalSlot = limit == 0 || remaining <= limit;
+            limit = finalSlot ? remaining : limit;
+        }
+        return limit;
+    }
+
+    /**
+     * Record a finished file. It is the last one when the recording was stopped, or when it hit
+     * the duration limit that brings the recording to its maximum duration.
+     */
+    public synchronized Segment onSegmentFinished(File file, long durationMs, long bytes, boolean stopped, boolean durationLimitReached) {
+        long startMs = recordedMs;
+        recordedMs += Math.max(0, durationMs);
+        recordedBytes += Math.max(0, bytes);
+        boolean last = stopped || (finalSlot && durationLimitReached);
+        return new Segment(indexOf(file), file, durationMs, bytes, startMs, last);
+    }
+
+    private int indexOf(File file) {
+        String name = file.getName();
+        int end = name.length() - EXTENSION.length();
+        int start = name.lastIndexOf('-', end) + 1;
+        try {
+            return Integer.parseInt(name.substring(start, end));
+        } catch (RuntimeException e) {
+            return -1;
+        }
+    }
+
+    public String getSessionId() { return sessionId; }
+    public long getSegmentDurationMs() { return segmentDurationMs; }
+    public long getSegmentBytes() { return segmentBytes; }
+    public synchronized long getRecordedMs() { return recordedMs; }
+    public synchronized long getRecordedBytes() { return recordedBytes; }
+    public synchronized int getSegmentCount() { return nextIndex; }
+}
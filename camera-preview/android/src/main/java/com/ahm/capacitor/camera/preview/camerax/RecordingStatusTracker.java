@@ -0,0 +1,192 @@
+package com.ahm.capacitor.camera.preview.camerax;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Single source of truth for the state of a video recording, and the rate limiter of its
+ * recordingStatus events.
+ *
+ * The recorder reports its progress for every encoded chunk, far more often than JS needs. Each
+ * report only updates a few counters here; a status map is built when the rate limit allows one,
+ * and always on a state change, so a 4 Hz stream costs four small maps a second. Durations and
+ * bytes add up over the files of a segmented recording and leave out the time spent paused.
+ * Kept free of android.* so it can be tested on the JVM.
+ */
+public final class RecordingStatusTracker {
+
+    public enum State {
+        IDLE,
+        /** Asked to record, the recorder has not confirmed yet */
+        STARTING,
+        RECORDING,
+        PAUSED,
+        /** Asked to stop, the file is being finalized */
+        STOPPING;
+
+        public String getJsName() {
+            return name().toLowerCase(Locale.US);
+        }
+    }
+
+    public static final double DEFAULT_STATUS_PER_SECOND = 4.0;
+
+    private static final AnalysisPipeline.Clock SYSTEM_CLOCK = System::nanoTime;
+
+    private final AnalysisPipeline.Clock clock;
+    private long minEmitIntervalNanos;
+
+    private State state = State.IDLE;
+    // Totals of the files already finalized, and the progress of the current one
+    private long finishedNanos;
+    private long finishedBytes;
+    private long fileNanos;
+    private long fileBytes;
+
+    private long statusEvents;
+    private long statusEmitted;
+    private long lastEmitNanos;
+    private boolean emitted;
+
+    /**
+     * @param maxStatusPerSecond progress maps returned per second, 0 for every report
+     */
+    public RecordingStatusTracker(double maxStatusPerSecond) {
+        this(maxStatusPerSecond, SYSTEM_CLOCK);
+    }
+
+    RecordingStatusTracker(double maxStatusPerSecond, AnalysisPipeline.Clock clock) {
+        this.clock = clock;
+        setMaxStatusPerSecond(maxStatusPerSecond);
+    }
+
+    public synchronized void setMaxStatusPerSecond(double maxStatusPerSecond) {
+        minEmitIntervalNanos = maxStatusPerSecond > 0 ? (long) (1_000_000_000L / maxStatusPerSecond) : 0;
+    }
+
+    /** Claim the recorder for a new recording; false while another one is still active */
+    public synchronized boolean start() {
+        if (state != State.IDLE) return false;
+        state = State.STARTING;
+        finishedNanos = 0;
+        finishedBytes = 0;
+        fileNanos = 0;
+        fileBytes = 0;
+        statusEvents = 0;
+        statusEmitted = 0;
+        emitted = false;
+        return true;
+    }
+
+    /** The first file started recording */
+    public synchronized Map<String, Object> onStarted() {
+        if (state != State.STARTING) return null;
+        return transition(State.RECORDING);
+    }
+
+    /**
+     * Progress of the file being recorded
+     *
+     * @return the status to send, or null when it falls inside the rate limit
+     */
+    public synchronized Map<String, Object> onStatus(long recordedNanos, long bytes) {
+        if (state == State.IDLE) return null;
+        statusEvents++;
+        fileNanos = recordedNanos;
+        fileBytes = bytes;
+        long now = clock.nanoTime();
+        if (emitted && now - lastEmitNanos < minEmitIntervalNanos) return null;
+        return emit(now);
+    }
+
+    public synchronized Map<String, Object> onPaused() {
+        if (state != State.RECORDING) return null;
+        return transition(State.PAUSED);
+    }
+
+    public synchronized Map<String, Object> onResumed() {
+        if (state != State.PAUSED) return null;
+        return transition(State.RECORDING);
+    }
+
+    /** A file was finalized with these totals; the next file of a segmented recording adds to them */
+    public synchronized void onFileFinished(long recordedNanos, long bytes) {
+        if (state == State.IDLE) return;
+        finishedNanos += recordedNanos;
+        finishedBytes += bytes;
+        fileNanos = 0;
+        fileBytes = 0;
+    }
+
+    /** @return the status to send, or null when there is nothing to stop */
+    public synchronized Map<String, Object> onStopping() {
+        if (state == State.IDLE || state == State.STOPPING) return null;
+        return transition(State.STOPPING);
+    }
+
+    /** The recording ended, normally or not; returns its final status */
+    public synchronized Map<String, Object> onStopped() {
+        if (state == State.IDLE) return null;
+        return transition(State.IDLE);
+    }
+
+    private Map<String, Object> transition(State next) {
+        state = next;
+        return emit(clock.nanoTime());
+    }
+
+    private Map<String, Object> emit(long now) {
+        lastEmitNanos = now;
+        emitted = true;
+        statusEmitted++;
+        return toMap();
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+
+    /** From start() until the recording is finalized, including while paused or stopping */
+    public synchronized boolean isActive() {
+        return state != State.IDLE;
+    }
+
+    public synchronized boolean isPaused() {
+        return state == State.PAUSED;
+    }
+
+    public synchronized long getDurationMs() {
+        return (finishedNanos + fileNanos) / 1_000_000L;
+    }
+
+    public synchronized long getBytes() {
+        return finishedBytes + fileBytes;
+    }
+
+    public synchronized long getStatusEvents() {
+        return statusEvents;
+    }
+
+    public synchronized long getStatusEmitted() {
+        return statusEmitted;
+    }
+
+    public synchronized Map<String, Object> toMap() {
+        long durationMs = getDurationMs();
+        long bytes = getBytes();
+        Map<String, Object> map = new HashMap<>();
+        map.put("state", state.getJsName());
+        map.put("durationMs", durationMs);
+        map.put("bytes", bytes);
+        // Average since the start, bits per second
+        map.put("bitrate", durationMs > 0 ? bytes * 8000 / durationMs : 0);
+        return map;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "RecordingStatus{" + state.getJsName() + " " + getDurationMs() + "ms " + getBytes() + "B, "
+            + statusEmitted + "/" + statusEvents + " reports sent}";
+    }
+}
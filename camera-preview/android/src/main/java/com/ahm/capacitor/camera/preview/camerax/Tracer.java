@@ -0,0 +1,203 @@
+package com.ahm.capacitor.camera.preview.camerax;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Latency spans of plugin calls and camera phases.
+ *
+ * Finished spans go to a fixed-size ring that keeps the most recent ones, and each span is also
+ * mirrored to a Backend, android.os.Trace on devices, so it shows up in Perfetto. Disabled, which
+ * is the default, begin() is a single branch returning a shared no-op span.
+ *
+ * A span from begin() must end on the thread that began it, as platform trace sections nest per
+ * thread. Phases that finish elsewhere, like a capture completing on a camera thread, use
+ * beginAsync().
+ */
+public final class Tracer {
+
+    public static final int DEFAULT_CAPACITY = 512;
+
+    /** Receives every span as it begins and ends */
+    public interface Backend {
+        void beginSection(String name);
+        void endSection();
+        void beginAsyncSection(String name, int cookie);
+        void endAsyncSection(String name, int cookie);
+    }
+
+    private static volatile boolean enabled;
+    private static volatile Backend backend;
+    private static volatile Ring ring = new Ring(DEFAULT_CAPACITY);
+    private static final AtomicInteger nextId = new AtomicInteger();
+    private static final long epochNanos = System.nanoTime();
+
+    private Tracer() {}
+
+    /**
+     * Start recording, into a fresh ring when the capacity changes
+     *
+     * @param backend platform trace sink, null to record into the ring only
+     */
+    public static synchronized void enable(int capacity, Backend backend) {
+        if (ring.capacity() != capacity) {
+            ring = new Ring(capacity);
+        }
+        Tracer.backend = backend;
+        enabled = true;
+    }
+
+    /** Stop recording; the spans recorded so far stay available */
+    public static void disable() {
+        enabled = false;
+    }
+
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    public static Span begin(String name) {
+        if (!enabled) return Span.NOOP;
+        return new Recording(name, false, backend);
+    }
+
+    /** A span that may end on another thread */
+    public static Span beginAsync(String name) {
+        if (!enabled) return Span.NOOP;
+        return new Recording(name, true, backend);
+    }
+
+    /** Finished spans, oldest first */
+    public static List<Map<String, Object>> snapshot() {
+        List<Recording> spans = ring.copy();
+        List<Map<String, Object>> out = new ArrayList<>(spans.size());
+        for (Recording span : spans) out.add(span.toMap());
+        return out;
+    }
+
+    /** Spans overwritten in the ring before they could be read */
+    public static long getDropped() {
+        return ring.dropped();
+    }
+
+    public static int getCapacity() {
+        return ring.capacity();
+    }
+
+    public static synchronized void clear() {
+        ring = new Ring(ring.capacity());
+    }
+
+    public static class Span {
+        static final Span NOOP = new Span();
+
+        Span() {}
+
+        /** Attach a detail such as a lens or a result size */
+        public Span arg(String key, Object value) {
+            return this;
+        }
+
+        /** Finish the span; later calls are ignored */
+        public void end() {}
+    }
+
+    private static final class Recording extends Span {
+        private final int id = nextId.incrementAndGet();
+        private final String name;
+        private final boolean async;
+        private final Backend backend;
+        private final String thread = Thread.currentThread().getName();
+        private final long startNanos = System.nanoTime();
+        private final AtomicBoolean ended = new AtomicBoolean();
+        private volatile long endNanos;
+        private Map<String, Object> args;
+
+        Recording(String name, boolean async, Backend backend) {
+            this.name = name;
+            this.async = async;
+            this.backend = backend;
+            if (backend != null) {
+                if (async) {
+                    backend.beginAsyncSection(name, id);
+                } else {
+                    backend.beginSection(name);
+                }
+            }
+        }
+
+        @Override
+        public synchronized Span arg(String key, Object value) {
+            if (args == null) args = new LinkedHashMap<>();
+            args.put(key, value);
+            return this;
+        }
+
+        @Override
+        public void end() {
+            if (!ended.compareAndSet(false, true)) return;
+            endNanos = System.nanoTime();
+            if (backend != null) {
+                if (async) {
+                    backend.endAsyncSection(name, id);
+                } else {
+                    backend.endSection();
+                }
+            }
+            ring.add(this);
+        }
+
+        synchronized Map<String, Object> toMap() {
+            Map<String, Object> map = new HashMap<>();
+            map.put("id", id);
+            map.put("name", name);
+            map.put("startMs", (startNanos - epochNanos) / 1e6);
+            map.put("durationMs", (endNanos - startNanos) / 1e6);
+            map.put("thread", thread);
+            map.put("async", async);
+            if (args != null) map.put("args", new HashMap<>(args));
+            return map;
+        }
+    }
+
+    /** Multi-producer ring: each writer claims its own slot, the oldest spans are overwritten */
+    private static final class Ring {
+        private final AtomicReferenceArray<Recording> slots;
+        private final AtomicLong written = new AtomicLong();
+
+        Ring(int capacity) {
+            slots = new AtomicReferenceArray<>(Math.max(1, capacity));
+        }
+
+        int capacity() {
+            return slots.length();
+        }
+
+        void add(Recording span) {
+            long index = written.getAndIncrement();
+            slots.set((int) (index % slots.length()), span);
+        }
+
+        long dropped() {
+            return Math.max(0, written.get() - slots.length());
+        }
+
+        List<Recording> copy() {
+            long n = written.get();
+            int size = (int) Math.min(n, slots.length());
+            List<Recording> out = new ArrayList<>(size);
+            for (long i = n - size; i < n; i++) {
+                Recording span = slots.get((int) (i % slots.length()));
+                if (span != null) out.add(span);
+            }
+            return out;
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.ahm.capacitor.camera.preview.camerax;
+
+/**
+ * Keeps only the latest zoom request between two display frames.
+ *
+ * Scale gestures deliver ratios faster than the camera can apply them, and each setZoomRatio
+ * cancels the one before, so applying every event only adds work. offer() records the latest
+ * ratio and tells the caller whether a frame callback still has to be scheduled; the frame
+ * callback then take()s whatever is latest.
+ */
+final class ZoomCoalescer {
+
+    private float pending = Float.NaN;
+    private boolean scheduled;
+    private long offered;
+    private long superseded;
+
+    /** @return true when the caller has to schedule a frame callback for this request */
+    synchronized boolean offer(float ratio) {
+        offered++;
+        if (!Float.isNaN(pending)) superseded++;
+        pending = ratio;
+        if (scheduled) return false;
+        scheduled = true;
+        return true;
+    }
+
+    /** Latest ratio offered since the last take, or NaN */
+    synchronized float take() {
+        scheduled = false;
+        float ratio = pending;
+        pending = Float.NaN;
+        return ratio;
+    }
+
+    /**
+     * Put a taken ratio back without scheduling, e.g. while a lens switch is in flight. A ratio
+     * offered in the meantime is newer and wins.
+     */
+    synchronized void hold(float ratio) {
+        if (Float.isNaN(ratio)) return;
+        if (Float.isNaN(pending)) {
+            pending = ratio;
+        } else {
+            superseded++;
+        }
+    }
+
+    /** @return true when a held ratio is waiting and the caller has to schedule a frame callback */
+    synchronized boolean resume() {
+        if (scheduled || Float.isNaN(pending)) return false;
+        scheduled = true;
+        return true;
+    }
+
+    synchronized void clear() {
+        pending = Float.NaN;
+        scheduled = false;
+    }
+
+    synchronized long getOffered() {
+        return offered;
+    }
+
+    /** Requests that were superseded before a frame applied them */
+    synchronized long getCoalesced() {
+        return superseded;
+    }
+}
@@ -0,0 +1,55 @@
+package com.ahm.capacitor.camera.preview.camerax;
+
+/**
+ * Estimates where a pinch is heading from its zoom velocity, so the camera of the next lens can
+ * be resolved before the pinch actually crosses into it.
+ *
+ * Velocity is tracked in log-zoom per second, as a pinch scales the ratio multiplicatively, and
+ * smoothed so a single jittery touch event does not trigger a prediction.
+ */
+final class ZoomCrossingPredictor {
+
+    /** How far ahead a crossing is anticipated */
+    static final long DEFAULT_HORIZON_MS = 250;
+    private static final double SMOOTHING = 0.5;
+
+    private float lastZoom = Float.NaN;
+    private long lastNanos;
+    private double velocity;
+    private boolean hasVelocity;
+
+    /** Forget the previous gesture */
+    void reset() {
+        lastZoom = Float.NaN;
+        velocity = 0;
+        hasVelocity = false;
+    }
+
+    void onZoom(float zoom, long nanos) {
+        if (!Float.isNaN(lastZoom) && nanos > lastNanos && zoom > 0f) {
+            double instant = Math.log(zoom / lastZoom) / ((nanos - lastNanos) / 1e9);
+            velocity = hasVelocity ? velocity + SMOOTHING * (instant - velocity) : instant;
+            hasVelocity = true;
+        }
+        lastZoom = zoom;
+        lastNanos = nanos;
+    }
+
+    /** Smoothed rate of change in log-zoom per second, positive when zooming in */
+    double getVelocity() {
+        return velocity;
+    }
+
+    /** Zoom the gesture reaches after horizonMs at its current velocity */
+    float predictZoom(long horizonMs) {
+        if (Float.isNaN(lastZoom)) return Float.NaN;
+        return (float) (lastZoom * Math.exp(velocity * horizonMs / 1000.0));
+    }
+
+    /** Lens the gesture moves into within horizonMs, or null when it stays on current */
+    LensTarget predictCrossing(ZoomLensPolicy policy, LensTarget current, long horizonMs) {
+        if (!hasVelocity || current == null) return null;
+        LensTarget next = policy.lensFor(current, predictZoom(horizonMs));
+        return next != current ? next : null;
+    }
+}
@@ -0,0 +1,65 @@
+package com.ahm.capacitor.camera.preview.camerax;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.view.Choreographer;
+
+/**
+ * Applies pinch zoom requests at most once per display frame. Requests are coalesced by a
+ * ZoomCoalescer and the latest one is handed to the Target from a Choreographer frame callback
+ * on the main thread.
+ */
+final class ZoomDispatcher implements Choreographer.FrameCallback {
+
+    interface Target {
+        /** @return false to keep the ratio for a later frame, see resume() */
+        boolean applyZoom(float ratio);
+    }
+
+    private final Target target;
+    private final ZoomCoalescer coalescer = new ZoomCoalescer();
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+
+    ZoomDispatcher(Target target) {
+        this.target = target;
+    }
+
+    void request(float ratio) {
+        if (coalescer.offer(ratio)) schedule();
+    }
+
+    /** Retry a ratio the target held back */
+    void resume() {
+        if (coalescer.resume()) schedule();
+    }
+
+    /** Drop the pending request */
+    void cancel() {
+        coalescer.clear();
+        if (Looper.myLooper() == Looper.getMainLooper()) {
+            Choreographer.getInstance().removeFrameCallback(this);
+        } else {
+            mainHandler.post(() -> Choreographer.getInstance().removeFrameCallback(this));
+        }
+    }
+
+    long getCoalesced() {
+        return coalescer.getCoalesced();
+    }
+
+    @Override
+    public void doFrame(long frameTimeNanos) {
+        float ratio = coalescer.take();
+        if (Float.isNaN(ratio)) return;
+        if (!target.applyZoom(ratio)) coalescer.hold(ratio);
+    }
+
+    private void schedule() {
+        // Choreographer belongs to the looper of the calling thread
+        if (Looper.myLooper() == Looper.getMainLooper()) {
+            Choreographer.getInstance().postFrameCallback(this);
+        } else {
+            mainHandler.post(() -> Choreographer.getInstance().postFrameCallback(this));
+        }
+    }
+}
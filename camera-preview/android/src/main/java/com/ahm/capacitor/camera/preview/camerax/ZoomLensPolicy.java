@@ -0,0 +1,68 @@
+package com.ahm.capacitor.camera.preview.camerax;
+
+/**
+ * Decides which back lens serves a pinch zoom ratio when lenses are separate cameras, and the
+ * ratio to set on that camera.
+ *
+ * Zoom ratios are relative to the main lens: the ultra-wide takes over below 1.0x and the
+ * telephoto from its focal length ratio to the main lens. Each crossing needs the ratio to get
+ * past the threshold by a hysteresis band, so a pinch hovering around a threshold does not
+ * rebind back and forth.
+ */
+final class ZoomLensPolicy {
+
+    static final float DEFAULT_BAND = 0.05f;
+
+    private final float ultraWideFactor;
+    private final float telephotoFactor;
+    private final float band;
+
+    /**
+     * @param ultraWideFactor field of view of the ultra-wide as a zoom ratio of the main lens, e.g. 0.5; NaN without one
+     * @param telephotoFactor zoom ratio of the telephoto relative to the main lens, e.g. 3.0; NaN without one
+     * @param band relative margin past a threshold before the lens changes
+     */
+    ZoomLensPolicy(float ultraWideFactor, float telephotoFactor, float band) {
+        this.ultraWideFactor = ultraWideFactor;
+        this.telephotoFactor = telephotoFactor;
+        this.band = band;
+    }
+
+    /** Lens that should serve zoom, given the lens that serves it now */
+    LensTarget lensFor(LensTarget current, float zoom) {
+        if (current == LensTarget.FRONT) return LensTarget.FRONT;
+        boolean hasUltraWide = !Float.isNaN(ultraWideFactor);
+        boolean hasTelephoto = !Float.isNaN(telephotoFactor);
+        float ultraWideBelow = 1.0f * (1 - band);
+        float ultraWideAbove = 1.0f * (1 + band);
+
+        if (current == LensTarget.ULTRA_WIDE) {
+            if (hasTelephoto && zoom >= telephotoFactor * (1 + band)) return LensTarget.TELEPHOTO;
+            return zoom >= ultraWideAbove || !hasUltraWide ? LensTarget.WIDE : LensTarget.ULTRA_WIDE;
+        }
+        if (current == LensTarget.TELEPHOTO) {
+            if (!hasTelephoto || zoom < telephotoFactor * (1 - band)) {
+                return hasUltraWide && zoom < ultraWideBelow ? LensTarget.ULTRA_WIDE : LensTarget.WIDE;
+            }
+            return LensTarget.TELEPHOTO;
+        }
+        if (hasUltraWide && zoom < ultraWideBelow) return LensTarget.ULTRA_WIDE;
+        if (hasTelephoto && zoom >= telephotoFactor * (1 + band)) return LensTarget.TELEPHOTO;
+        return LensTarget.WIDE;
+    }
+
+    /** Ratio to set on the camera of lens so the picture matches zoom on the main lens */
+    float cameraRatio(LensTarget lens, float zoom) {
+        if (lens == LensTarget.ULTRA_WIDE && !Float.isNaN(ultraWideFactor)) return zoom / ultraWideFactor;
+        if (lens == LensTarget.TELEPHOTO && !Float.isNaN(telephotoFactor)) return zoom / telephotoFactor;
+        return zoom;
+    }
+
+    float getUltraWideFactor() {
+        return ultraWideFactor;
+    }
+
+    float getTelephotoFactor() {
+        return telephotoFactor;
+    }
+}
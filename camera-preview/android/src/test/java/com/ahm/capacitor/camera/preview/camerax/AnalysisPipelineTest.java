@@ -0,0 +1,163 @@
+package com.ahm.capacitor.camera.preview.camerax;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import org.junit.Test;
+
+public class AnalysisPipelineTest {
+
+    private static final long MS = 1_000_000L;
+    private static final long FRAME = 33 * MS;
+
+    /** Clock under test control; processors advance it to simulate work */
+    private static final class FakeClock implements AnalysisPipeline.Clock {
+        long now;
+
+        @Override
+        public long nanoTime() {
+            return now;
+        }
+    }
+
+    private static final class RecordingSink implements AnalysisPipeline.ResultSink {
+        final List<Map<String, Object>> results = new ArrayList<>();
+
+        @Override
+        public void onResult(Map<String, Object> result) {
+            results.add(result);
+        }
+    }
+
+    /** Emits a counter per frame and takes workMs of fake time */
+    private static FrameProcessor counting(final FakeClock clock, final long workMs) {
+        return new FrameProcessor() {
+            int count;
+
+            @Override
+            public Map<String, Object> process(AnalysisFrame frame) {
+                clock.now += workMs * MS;
+                return Collections.<String, Object>singletonMap("count", ++count);
+            }
+        };
+    }
+
+    @Test
+    public void unthrottledPipelineEmitsEveryResult() {
+        FakeClock clock = new FakeClock();
+        RecordingSink sink = new RecordingSink();
+        AnalysisPipeline pipeline = new AnalysisPipeline(counting(clock, 2), sink, 0, clock);
+        SyntheticFrame frame = new SyntheticFrame(4, 4);
+        for (int i = 0; i < 5; i++) {
+            clock.now = i * FRAME;
+            pipeline.onFrame(frame.at(i * FRAME));
+        }
+        assertEquals(5, sink.results.size());
+        assertEquals(3, sink.results.get(2).get("count"));
+        assertEquals(2 * FRAME, sink.results.get(2).get("timestampNs"));
+
+        AnalysisMetrics metrics = pipeline.getMetrics();
+        assertEquals(5, metrics.getFramesReceived());
+        assertEquals(5, metrics.getFramesProcessed());
+        assertEquals(0, metrics.getFramesDropped());
+        assertEquals(2.0, metrics.getAvgProcessingMs(), 1e-9);
+        assertEquals(0, metrics.getQueueDepth());
+        assertEquals(1, metrics.getMaxQueueDepth());
+    }
+
+    @Test
+    public void rateLimitCoalescesToTheNewestResult() {
+        FakeClock clock = new FakeClock();
+        RecordingSink sink = new RecordingSink();
+        // 30 fps in, at most 5 results per second out
+        AnalysisPipeline pipeline = new AnalysisPipeline(counting(clock, 0), sink, 5, clock);
+        SyntheticFrame frame = new SyntheticFrame(4, 4);
+        for (int i = 0; i < 30; i++) {
+            clock.now = i * FRAME;
+            pipeline.onFrame(frame.at(i * FRAME));
+        }
+        assertEquals(5, sink.results.size());
+        // First result goes out at once, the next one is the freshest frame after 200ms
+        assertEquals(1, sink.results.get(0).get("count"));
+        assertEquals(8, sink.results.get(1).get("count"));
+
+        AnalysisMetrics metrics = pipeline.getMetrics();
+        assertEquals(5, metrics.getResultsEmitted());
+        assertEquals(24, metrics.getResultsCoalesced());
+        assertEquals(1, metrics.getQueueDepth());
+    }
+
+    @Test
+    public void gapsInTimestampsCountAsDroppedFrames() {
+        FakeClock clock = new FakeClock();
+        AnalysisPipeline pipeline = new AnalysisPipeline(counting(clock, 50), new RecordingSink(), 0, clock);
+        SyntheticFrame frame = new SyntheticFrame(4, 4);
+        long[] timestamps = { 0, FRAME, 2 * FRAME, 4 * FRAME, 7 * FRAME, 8 * FRAME };
+        for (long timestamp : timestamps) {
+            pipeline.onFrame(frame.at(timestamp));
+        }
+        AnalysisMetrics metrics = pipeline.getMetrics();
+        assertEquals(6, metrics.getFramesReceived());
+        assertEquals(3, metrics.getFramesDropped());
+        assertEquals(50.0, metrics.getMaxProcessingMs(), 1e-9);
+    }
+
+    @Test
+    public void processorFailuresAreCountedAndDoNotStopTheStream() {
+        FakeClock clock = new FakeClock();
+        RecordingSink sink = new RecordingSink();
+        FrameProcessor flaky = new FrameProcessor() {
+            int calls;
+
+            @Override
+            public Map<String, Object> process(AnalysisFrame frame) {
+                if (++calls % 2 == 0) throw new IllegalStateException("boom");
+                return Collections.<String, Object>singletonMap("call", calls);
+            }
+        };
+        AnalysisPipeline pipeline = new AnalysisPipeline(flaky, sink, 0, clock);
+        SyntheticFrame frame = new SyntheticFrame(4, 4);
+        for (int i = 0; i < 4; i++) {
+            pipeline.onFrame(frame.at(i * FRAME));
+        }
+        assertEquals(2, sink.results.size());
+        assertEquals(2, pipeline.getMetrics().getProcessingErrors());
+        assertEquals(2, pipeline.getMetrics().getFramesProcessed());
+    }
+
+    @Test
+    public void nullResultsAreNotSent() {
+        FakeClock clock = new FakeClock();
+        RecordingSink sink = new RecordingSink();
+        FrameProcessor silent = frame -> null;
+        AnalysisPipeline pipeline = new AnalysisPipeline(silent, sink, 0, clock);
+        pipeline.onFrame(new SyntheticFrame(4, 4).at(0));
+        assertTrue(sink.results.isEmpty());
+        assertEquals(1, pipeline.getMetrics().getFramesProcessed());
+    }
+
+    @Test
+    public void luminanceProcessorHonorsStrides() {
+        SyntheticFrame frame = new SyntheticFrame(8, 4, 20, 2);
+        frame.fillLuma(100);
+        // Padding bytes outside the visible samples must be ignored
+        for (int i = 0; i < frame.y.capacity(); i += 2) {
+            if (frame.y.get(i) == 0) frame.y.put(i, (byte) 255);
+        }
+        frame.y.put(1, (byte) 255);
+        Map<String, Object> result = new LuminanceFrameProcessor(1).process(frame);
+        assertEquals(100.0, (Double) result.get("luminance"), 1e-9);
+    }
+
+    @Test
+    public void registryCreatesBuiltInProcessors() {
+        assertTrue(FrameProcessors.names().contains(LuminanceFrameProcessor.NAME));
+        assertTrue(FrameProcessors.create(LuminanceFrameProcessor.NAME) instanceof LuminanceFrameProcessor);
+        assertNull(FrameProcessors.create("unknown"));
+        FrameProcessors.register("test-null", () -> frame -> null);
+        assertNotNull(FrameProcessors.create("test-null"));
+    }
+}
@@ -0,0 +1,86 @@
+package com.ahm.capacitor.camera.preview.camerax;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Random;
+import org.junit.Test;
+
+public class Base64ChunkerTest {
+
+    private static byte[] randomBytes(int length) {
+        byte[] data = new byte[length];
+        new Random(length).nextBytes(data);
+        return data;
+    }
+
+    @Test
+    public void matchesJdkEncoderForAllTailLengths() {
+        for (int length = 0; length < 64; length++) {
+            byte[] data = randomBytes(length);
+            char[] out = new char[Base64Chunker.encodedLength(length)];
+            int chars = Base64Chunker.encode(data, 0, length, out, 0);
+            assertEquals(Base64.getEncoder().encodeToString(data), new String(out, 0, chars));
+        }
+    }
+
+    @Test
+    public void segmentsConcatenateAndDecodeIndividually() {
+        byte[] data = randomBytes(10_000);
+        Base64Chunker chunker = new Base64Chunker(1000);
+        assertEquals(999, chunker.getChunkBytes());
+        final List<String> chunks = new ArrayList<>();
+        int count = chunker.encode(data, 0, data.length, new Base64Chunker.Sink() {
+            @Override
+            public void onChunk(int index, int total, String base64) {
+                assertEquals(chunks.size(), index);
+                chunks.add(base64);
+            }
+        });
+
+        assertEquals(11, count);
+        assertEquals(count, chunks.size());
+        StringBuilder joined = new StringBuilder();
+        int decoded = 0;
+        for (String chunk : chunks) {
+            assertTrue(chunk.length() <= chunker.getMaxChunkChars());
+            decoded += Base64.getDecoder().decode(chunk).length;
+            joined.append(chunk);
+        }
+        assertEquals(data.length, decoded);
+        assertEquals(Base64.getEncoder().encodeToString(data), joined.toString());
+    }
+
+    @Test
+    public void emptyInputStillProducesOneSegment() {
+        final List<String> chunks = new ArrayList<>();
+        new Base64Chunker(30).encode(new byte[0], 0, 0, new Base64Chunker.Sink() {
+            @Override
+            public void onChunk(int index, int count, String base64) {
+                chunks.add(base64);
+            }
+        });
+        assertEquals(1, chunks.size());
+        assertEquals("", chunks.get(0));
+    }
+
+    @Test
+    public void largeCaptureIsSplitIntoBoundedSegments() {
+        // 4 MB, the size of a 12 MP JPEG
+        final byte[] jpeg = randomBytes(4 * 1024 * 1024);
+        Base64Chunker chunker = new Base64Chunker(Base64Chunker.DEFAULT_CHUNK_BYTES);
+        final int[] largest = new int[1];
+        chunker.encode(jpeg, 0, jpeg.length, new Base64Chunker.Sink() {
+            @Override
+            public void onChunk(int index, int count, String base64) {
+                largest[0] = Math.max(largest[0], base64.length());
+            }
+        });
+
+        // No segment is anywhere near the size of the whole payload
+        assertTrue(largest[0] <= chunker.getMaxChunkChars());
+        assertTrue(largest[0] * 10 < Base64Chunker.encodedLength(jpeg.length));
+    }
+}
@@ -0,0 +1,67 @@
+package com.ahm.capacitor.camera.preview.camerax;
+
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import org.junit.Test;
+
+public class BurstStatsTest {
+
+    @Test
+    public void pipelinedBurstReportsSustainedRateAndLatency() {
+        // Five shots requested at once; the camera hands one over every 100ms and encoding takes 40ms
+        BurstStats stats = new BurstStats(5);
+        for (int i = 0; i < 5; i++) stats.onRequested(i, 1000);
+        for (int i = 0; i < 5; i++) {
+            stats.onCaptured(i, 1200 + i * 100);
+            assertEquals(i == 4, stats.onDelivered(i, 1240 + i * 100));
+        }
+        assertTrue(stats.isComplete());
+        assertEquals(10.0, stats.getSustainedFps(), 1e-9);
+        assertEquals(10.0, stats.getCaptureFps(), 1e-9);
+        assertEquals(240, stats.getLatencyMs(0));
+        assertEquals(640, stats.getLatencyMs(4));
+        assertEquals(200, stats.getCaptureLatencyMs(0));
+        assertEquals(640, stats.getDurationMs());
+    }
+
+    @Test
+    public void failedShotsCompleteTheBurstWithoutLatency() {
+        BurstStats stats = new BurstStats(3);
+        for (int i = 0; i < 3; i++) stats.onRequested(i, 0);
+        stats.onDelivered(0, 100);
+        assertFalse(stats.onFailed(1));
+        assertFalse("a shot settles once", stats.onFailed(1));
+        assertTrue(stats.onDelivered(2, 300));
+
+        Map<String, Object> map = stats.toMap();
+        assertEquals(2, map.get("delivered"));
+        assertEquals(1, map.get("failed"));
+        assertEquals(200.0, (Double) map.get("avgLatencyMs"), 1e-9);
+        assertEquals(100L, map.get("minLatencyMs"));
+        assertEquals(300L, map.get("maxLatencyMs"));
+        assertEquals(Arrays.asList(100L, -1L, 300L), (List<?>) map.get("latenciesMs"));
+        assertEquals(5.0, stats.getSustainedFps(), 1e-9);
+    }
+
+    @Test
+    public void singleShotRateFollowsItsLatency() {
+        BurstStats stats = new BurstStats(1);
+        stats.onRequested(0, 50);
+        stats.onDelivered(0, 300);
+        assertEquals(4.0, stats.getSustainedFps(), 1e-9);
+    }
+
+    @Test
+    public void nothingDeliveredReportsZero() {
+        BurstStats stats = new BurstStats(2);
+        stats.onRequested(0, 0);
+        stats.onFailed(0);
+        stats.onFailed(1);
+        assertEquals(0.0, stats.getSustainedFps(), 1e-9);
+        assertEquals(0, stats.getDurationMs());
+        assertEquals(0L, stats.toMap().get("minLatencyMs"));
+    }
+}
@@ -0,0 +1,115 @@
+package com.ahm.capacitor.camera.preview.camerax;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import org.junit.Test;
+
+public class CaptureResolutionStrategyTest {
+
+    /** Output sizes of a typical 12 MP back camera, largest first as CameraX reports them */
+    private static List<CaptureResolutionStrategy.Size> backCamera() {
+        return sizes(
+            4032, 3024,
+            4000, 2250,
+            3264, 2448,
+            1920, 1440,
+            1920, 1080,
+            1600, 1200,
+            1280, 960,
+            1280, 720,
+            640, 480,
+            640, 360,
+            320, 240
+        );
+    }
+
+    private static List<CaptureResolutionStrategy.Size> sizes(int... dims) {
+        List<CaptureResolutionStrategy.Size> list = new ArrayList<>();
+        for (int i = 0; i < dims.length; i += 2) {
+            list.add(new CaptureResolutionStrategy.Size(dims[i], dims[i + 1]));
+        }
+        return list;
+    }
+
+    private static CaptureResolutionStrategy.Size size(int width, int height) {
+        return new CaptureResolutionStrategy.Size(width, height);
+    }
+
+    @Test
+    public void defaultRequestKeepsDeviceDefault() {
+        CaptureResolutionStrategy strategy = new CaptureResolutionStrategy(0, 0);
+        assertTrue(strategy.isDefault());
+        assertNull(strategy.select(backCamera()));
+    }
+
+    @Test
+    public void exactMatchWins() {
+        assertEquals(size(1280, 720), new CaptureResolutionStrategy(1280, 720).select(backCamera()));
+        assertEquals(size(1600, 1200), new CaptureResolutionStrategy(1600, 1200).select(backCamera()));
+    }
+
+    @Test
+    public void portraitRequestsMatchSensorOrientedSizes() {
+        assertEquals(size(1920, 1080), new CaptureResolutionStrategy(1080, 1920).select(backCamera()));
+        assertEquals(size(640, 480), new CaptureResolutionStrategy(480, 640).select(backCamera()));
+    }
+
+    @Test
+    public void thumbnailsPickTheSmallestCoveringSizeOfTheSameAspect() {
+        // 4:3 request between table entries rounds up within 4:3 instead of taking 1280x720
+        assertEquals(size(1280, 960), new CaptureResolutionStrategy(800, 600).select(backCamera()));
+        assertEquals(size(640, 360), new CaptureResolutionStrategy(400, 225).select(backCamera()));
+    }
+
+    @Test
+    public void otherAspectIsUsedWhenNoMatchingSizeCovers() {
+        List<CaptureResolutionStrategy.Size> table = sizes(4032, 3024, 1920, 1440, 640, 480);
+        assertEquals(size(1920, 1440), new CaptureResolutionStrategy(1280, 720).select(table));
+    }
+
+    @Test
+    public void oversizedRequestFallsBackToLargestSize() {
+        assertEquals(size(4032, 3024), new CaptureResolutionStrategy(8000, 6000).select(backCamera()));
+        // Largest 16:9 size is preferred over the larger 4:3 one for a 16:9 request
+        assertEquals(size(4000, 2250), new CaptureResolutionStrategy(7680, 4320).select(backCamera()));
+    }
+
+    @Test
+    public void singleDimensionBoundsTheShortEdge() {
+        CaptureResolutionStrategy strategy = new CaptureResolutionStrategy(720, 0);
+        assertFalse(strategy.isDefault());
+        assertEquals(size(1280, 720), strategy.select(backCamera()));
+        assertEquals(size(1920, 1080), new CaptureResolutionStrategy(0, 1000).select(backCamera()));
+    }
+
+    @Test
+    public void orderOfSupportedSizesDoesNotMatter() {
+        List<CaptureResolutionStrategy.Size> table = backCamera();
+        Collections.reverse(table);
+        assertEquals(size(1280, 960), new CaptureResolutionStrategy(800, 600).select(table));
+        assertEquals(size(4032, 3024), new CaptureResolutionStrategy(8000, 6000).select(table));
+    }
+
+    @Test
+    public void aspectPreferenceFollowsTheRequest() {
+        assertTrue(new CaptureResolutionStrategy(640, 480).prefers4by3());
+        assertFalse(new CaptureResolutionStrategy(1920, 1080).prefers4by3());
+        assertFalse(new CaptureResolutionStrategy(500, 0).prefers4by3());
+    }
+
+    @Test
+    public void portraitAndLandscapeRequestsAreEqual() {
+        assertEquals(new CaptureResolutionStrategy(1920, 1080), new CaptureResolutionStrategy(1080, 1920));
+        assertEquals(new CaptureResolutionStrategy(0, 0), new CaptureResolutionStrategy(-1, 0));
+        assertNotEquals(new CaptureResolutionStrategy(640, 480), new CaptureResolutionStrategy(640, 0));
+    }
+
+    @Test
+    public void emptyTablesSelectNothing() {
+        assertNull(new CaptureResolutionStrategy(640, 480).select(new ArrayList<CaptureResolutionStrategy.Size>()));
+        assertNull(new CaptureResolutionStrategy(640, 480).select(null));
+    }
+}
@@ -0,0 +1,132 @@
+package com.ahm.capacitor.camera.preview.camerax;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.HashSet;
+import java.util.Set;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class CaptureStorageManagerTest {
+
+    private static final long HOUR = 60 * 60 * 1000L;
+
+    private File dir;
+    private final long[] now = { 1_700_000_000_000L };
+
+    @Before
+    public void setUp() throws IOException {
+        dir = Files.createTempDirectory("capture-storage").toFile();
+    }
+
+    @After
+    public void tearDown() {
+        File[] files = dir.listFiles();
+        if (files != null) for (File file : files) file.delete();
+        dir.delete();
+    }
+
+    private CaptureStorageManager storage(long maxBytes, long maxAgeMs) {
+        return new CaptureStorageManager(dir, maxBytes, maxAgeMs, Runnable::run, () -> now[0]);
+    }
+
+    private static File write(File file, int size) throws IOException {
+        FileOutputStream out = new FileOutputStream(file);
+        try {
+            out.write(new byte[size]);
+        } finally {
+            out.close();
+        }
+        return file;
+    }
+
+    @Test
+    public void namesAreUniqueWithoutTouchingTheDisk() {
+        CaptureStorageManager storage = storage(0, 0);
+        Set<String> names = new HashSet<>();
+        for (int i = 0; i < 1000; i++) {
+            File file = storage.newFile(CaptureStorageManager.CAPTURE_PREFIX, CaptureStorageManager.CAPTURE_EXTENSION);
+            assertTrue(names.add(file.getName()));
+            assertEquals(dir, file.getParentFile());
+        }
+        assertEquals(0, dir.list().length);
+        // A later run starts another session
+        now[0] += 1;
+        File next = storage(0, 0).newFile(CaptureStorageManager.CAPTURE_PREFIX, CaptureStorageManager.CAPTURE_EXTENSION);
+        assertFalse(names.contains(next.getName()));
+    }
+
+    @Test
+    public void oldestGoFirstButNeverTheNewest() throws IOException {
+        CaptureStorageManager storage = storage(3000, 0);
+        File a = write(storage.newFile(CaptureStorageManager.CAPTURE_PREFIX, ".jpg"), 1000);
+        File b = write(storage.newFile(CaptureStorageManager.CAPTURE_PREFIX, ".jpg"), 1000);
+        File c = write(storage.newFile(CaptureStorageManager.VIDEO_PREFIX, ".mp4"), 1000);
+        storage.commit(a);
+        now[0] += 1;
+        storage.commit(b);
+        now[0] += 1;
+        storage.commit(c);
+        assertEquals(3000, storage.getBytes());
+
+        File d = write(storage.newFile(CaptureStorageManager.CAPTURE_PREFIX, ".jpg"), 1500);
+        storage.commit(d);
+        assertFalse("oldest", a.exists());
+        assertFalse(b.exists());
+        assertTrue(c.exists());
+        assertTrue(d.exists());
+        assertEquals(2500, storage.getBytes());
+
+        File huge = write(storage.newFile(CaptureStorageManager.VIDEO_PREFIX, ".mp4"), 5000);
+        storage.commit(huge);
+        assertTrue("just written, kept even over budget", huge.exists());
+        assertEquals(1, storage.getFileCount());
+        assertEquals(4L, storage.getStats().get("evictedFiles"));
+    }
+
+    @Test
+    public void sweepIndexesEarlierRunsAndExpiresOldFiles() throws IOException {
+        File old = write(new File(dir, "cpcp_capture_1a2b3c4d.jpg"), 100);
+        old.setLastModified(now[0] - 48 * HOUR);
+        File recent = write(new File(dir, "videoTmp_3.mp4"), 200);
+        recent.setLastModified(now[0] - HOUR);
+        File inProgress = write(new File(dir, "videoTmp-lq3x9k1-1-0002.mp4"), 300);
+        inProgress.setLastModified(now[0] - 1000);
+        File unrelated = write(new File(dir, "other.tmp"), 400);
+        unrelated.setLastModified(now[0] - 48 * HOUR);
+
+        CaptureStorageManager storage = storage(0, 24 * HOUR);
+        storage.sweep();
+
+        assertFalse(old.exists());
+        assertTrue(recent.exists());
+        assertTrue("may still be written", inProgress.exists());
+        assertTrue("not ours", unrelated.exists());
+        assertEquals(1, storage.getFileCount());
+        assertEquals(200, storage.getBytes());
+        assertEquals(2L, storage.getStats().get("sweptFiles"));
+        assertEquals(1L, storage.getStats().get("expiredFiles"));
+
+        storage.discard(recent);
+        assertFalse(recent.exists());
+        assertEquals(0, storage.getBytes());
+    }
+
+    @Test
+    public void tighterBudgetAppliesImmediately() throws IOException {
+        CaptureStorageManager storage = storage(0, 0);
+        for (int i = 0; i < 5; i++) {
+            storage.commit(write(storage.newFile(CaptureStorageManager.CAPTURE_PREFIX, ".jpg"), 1000));
+            now[0] += 1;
+        }
+        assertEquals(5000, storage.getBytes());
+        storage.setBudget(2000, 0);
+        assertEquals(2000, storage.getBytes());
+        assertEquals(2, dir.list().length);
+    }
+}
@@ -0,0 +1,123 @@
+package com.ahm.capacitor.camera.preview.camerax;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Test;
+
+public class EncodedSampleRingTest {
+
+    /** 30 fps video with a key frame every gopFrames, and a 1024-sample AAC packet every ~21 ms */
+    private static List<EncodedSample> stream(long startUs, long durationUs, int gopFrames, int frameBytes) {
+        List<EncodedSample> samples = new ArrayList<>();
+        long frameUs = 33_333;
+        long audioUs = 21_333;
+        long nextAudio = startUs;
+        int frame = 0;
+        for (long t = startUs; t < startUs + durationUs; t += frameUs, frame++) {
+            while (nextAudio <= t) {
+                samples.add(new EncodedSample(EncodedSample.TRACK_AUDIO, nextAudio, false, new byte[64]));
+                nextAudio += audioUs;
+            }
+            boolean key = frame % gopFrames == 0;
+            samples.add(new EncodedSample(EncodedSample.TRACK_VIDEO, t, key, new byte[key ? frameBytes * 4 : frameBytes]));
+        }
+        return samples;
+    }
+
+    private static void addAll(EncodedSampleRing ring, List<EncodedSample> samples) {
+        for (EncodedSample sample : samples) ring.add(sample);
+    }
+
+    @Test
+    public void keepsTheWindowFromAKeyFrame() {
+        EncodedSampleRing ring = new EncodedSampleRing(64L * 1024 * 1024, 5_000_000);
+        addAll(ring, stream(0, 20_000_000, 30, 1000));
+
+        List<EncodedSample> kept = ring.drain();
+        EncodedSample first = kept.get(0);
+        assertTrue("starts decodable", first.isVideo() && first.isKeyFrame());
+        long newest = kept.get(kept.size() - 1).getPresentationTimeUs();
+        long span = newest - first.getPresentationTimeUs();
+        assertTrue("covers the window: " + span, span >= 5_000_000 - 33_334);
+        assertTrue("at most one extra group: " + span, span < 5_000_000 + 1_000_000);
+        assertEquals(0, ring.getBytes());
+    }
+
+    @Test
+    public void byteBudgetEvictsWholeGroups() {
+        // One second groups of about 33 KB; a 100 KB budget holds three of them at most
+        EncodedSampleRing ring = new EncodedSampleRing(100_000, 30_000_000);
+        addAll(ring, stream(0, 10_000_000, 30, 1000));
+
+        assertTrue(ring.getBytes() <= 100_000);
+        assertTrue(ring.getDurationUs() >= 1_900_000);
+        List<EncodedSample> kept = ring.drain();
+        assertTrue(kept.get(0).isVideo() && kept.get(0).isKeyFrame());
+        assertTrue((Long) ring.toMap().get("evictedSamples") > 0);
+    }
+
+    @Test
+    public void oversizedGroupIsDroppedNotCut() {
+        EncodedSampleRing ring = new EncodedSampleRing(10_000, 30_000_000);
+        addAll(ring, stream(0, 1_990_000, 60, 1000));
+
+        assertEquals("the whole two-second group exceeds the cap", 0, ring.getSampleCount());
+        assertTrue((Long) ring.toMap().get("droppedSamples") > 0);
+        ring.add(new EncodedSample(EncodedSample.TRACK_VIDEO, 2_000_000, true, new byte[500]));
+        assertEquals(1, ring.getSampleCount());
+    }
+
+    @Test
+    public void samplesBeforeTheFirstKeyFrameAreDropped() {
+        EncodedSampleRing ring = new EncodedSampleRing(1_000_000, 1_000_000);
+        ring.add(new EncodedSample(EncodedSample.TRACK_AUDIO, 0, false, new byte[10]));
+        ring.add(new EncodedSample(EncodedSample.TRACK_VIDEO, 10, false, new byte[10]));
+        assertEquals(0, ring.getSampleCount());
+        ring.add(new EncodedSample(EncodedSample.TRACK_VIDEO, 20, true, new byte[10]));
+        ring.add(new EncodedSample(EncodedSample.TRACK_AUDIO, 25, false, new byte[10]));
+        assertEquals(2, ring.getSampleCount());
+        assertEquals(2L, ring.toMap().get("droppedSamples"));
+    }
+
+    @Test
+    public void muxerRebasesAndKeepsTracksMonotonic() {
+        EncodedSampleRing ring = new EncodedSampleRing(64L * 1024 * 1024, 2_000_000);
+        addAll(ring, stream(10_000_000, 5_000_000, 30, 1000));
+
+        final List<long[]> written = new ArrayList<>();
+        PreRollMuxer muxer = new PreRollMuxer((sample, timeUs) -> written.add(new long[] { sample.getTrack(), timeUs }));
+        muxer.writePreRoll(ring.drain());
+        long preRollUs = muxer.getPreRollUs();
+        assertTrue("about two seconds buffered: " + preRollUs, preRollUs >= 1_900_000 && preRollUs < 3_100_000);
+
+        // The live segment overlaps the buffer by one frame, as segment boundaries can
+        for (EncodedSample sample : stream(15_000_000 - 33_333, 3_000_000, 30, 1000)) muxer.write(sample);
+
+        assertEquals(0L, written.get(0)[1]);
+        assertEquals(EncodedSample.TRACK_VIDEO, written.get(0)[0]);
+        long[] last = { -1, -1 };
+        for (long[] entry : written) {
+            int track = (int) entry[0];
+            assertTrue("track " + track + " goes back at " + entry[1], entry[1] > last[track]);
+            last[track] = entry[1];
+        }
+        assertTrue(muxer.getDurationUs() > preRollUs + 2_900_000);
+        assertEquals((long) written.size(), muxer.getWritten());
+    }
+
+    @Test
+    public void muxerWaitsForAKeyFrame() {
+        final List<EncodedSample> written = new ArrayList<>();
+        PreRollMuxer muxer = new PreRollMuxer((sample, timeUs) -> written.add(sample));
+        muxer.write(new EncodedSample(EncodedSample.TRACK_VIDEO, 100, false, new byte[1]));
+        muxer.write(new EncodedSample(EncodedSample.TRACK_AUDIO, 120, false, new byte[1]));
+        assertFalse(muxer.isStarted());
+        muxer.write(new EncodedSample(EncodedSample.TRACK_VIDEO, 200, true, new byte[1]));
+        muxer.write(new EncodedSample(EncodedSample.TRACK_AUDIO, 150, false, new byte[1]));
+        muxer.write(new EncodedSample(EncodedSample.TRACK_AUDIO, 210, false, new byte[1]));
+        assertEquals(2, written.size());
+        assertEquals(3, muxer.getDropped());
+    }
+}
@@ -0,0 +1,123 @@
+package com.ahm.capacitor.camera.preview.camerax;
+
+import static org.junit.Assert.*;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import javax.imageio.ImageIO;
+import org.junit.Test;
+
+public class ExifOrientationTest {
+
+    static byte[] encodeJpeg(int width, int height) throws Exception {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                image.setRGB(x, y, ((x * 255 / width) << 16) | ((y * 255 / height) << 8) | ((x ^ y) & 0xFF));
+            }
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        assertTrue(ImageIO.write(image, "jpg", out));
+        return out.toByteArray();
+    }
+
+    /** Insert a little endian EXIF segment holding the given IFD0 entries after SOI */
+    private static byte[] withLittleEndianExif(byte[] jpeg, int tag, int value) {
+        byte[] segment = new byte[] {
+            (byte) 0xFF, (byte) 0xE1, 0, 34,
+            'E', 'x', 'i', 'f', 0, 0,
+            'I', 'I', 42, 0, 8, 0, 0, 0,
+            1, 0,
+            (byte) tag, (byte) (tag >> 8), 3, 0, 1, 0, 0, 0, (byte) value, 0, 0, 0,
+            0, 0, 0, 0
+        };
+        byte[] out = new byte[jpeg.length + segment.length];
+        System.arraycopy(jpeg, 0, out, 0, 2);
+        System.arraycopy(segment, 0, out, 2, segment.length);
+        System.arraycopy(jpeg, 2, out, 2 + segment.length, jpeg.length - 2);
+        return out;
+    }
+
+    @Test
+    public void insertsExifIntoPlainJpegAfterJfifHeader() throws Exception {
+        byte[] jpeg = encodeJpeg(64, 48);
+        assertEquals(ExifOrientation.UNDEFINED, ExifOrientation.read(jpeg));
+
+        byte[] oriented = ExifOrientation.apply(jpeg, ExifOrientation.ROTATE_90);
+
+        assertNotNull(oriented);
+        assertEquals(jpeg.length + 36, oriented.length);
+        assertEquals(ExifOrientation.ROTATE_90, ExifOrientation.read(oriented));
+        assertEquals(0xE0, oriented[3] & 0xFF);
+        BufferedImage decoded = ImageIO.read(new ByteArrayInputStream(oriented));
+        assertEquals(64, decoded.getWidth());
+        assertEquals(48, decoded.getHeight());
+    }
+
+    @Test
+    public void patchesExistingTagInPlace() throws Exception {
+        byte[] jpeg = ExifOrientation.apply(encodeJpeg(32, 32), ExifOrientation.NORMAL);
+        byte[] before = jpeg.clone();
+
+        byte[] patched = ExifOrientation.apply(jpeg, ExifOrientation.ROTATE_270);
+
+        assertSame(jpeg, patched);
+        assertEquals(ExifOrientation.ROTATE_270, ExifOrientation.read(patched));
+        int changed = 0;
+        for (int i = 0; i < before.length; i++) {
+            if (before[i] != patched[i]) changed++;
+        }
+        assertEquals(1, changed);
+    }
+
+    @Test
+    public void patchesLittleEndianExif() throws Exception {
+        byte[] jpeg = withLittleEndianExif(encodeJpeg(16, 16), 0x0112, ExifOrientation.NORMAL);
+        assertEquals(ExifOrientation.NORMAL, ExifOrientation.read(jpeg));
+
+        assertSame(jpeg, ExifOrientation.apply(jpeg, ExifOrientation.ROTATE_180));
+        assertEquals(ExifOrientation.ROTATE_180, ExifOrientation.read(jpeg));
+    }
+
+    @Test
+    public void refusesExifWithoutOrientationTag() throws Exception {
+        // 0x010F (Make) instead of Orientation
+        byte[] jpeg = withLittleEndianExif(encodeJpeg(16, 16), 0x010F, 0);
+        assertEquals(ExifOrientation.UNDEFINED, ExifOrientation.read(jpeg));
+        assertNull(ExifOrientation.apply(jpeg, ExifOrientation.ROTATE_90));
+    }
+
+    @Test
+    public void rejectsNonJpegData() {
+        byte[] png = new byte[] { (byte) 0x89, 'P', 'N', 'G', 0, 0, 0, 0 };
+        assertEquals(ExifOrientation.UNDEFINED, ExifOrientation.read(png));
+        assertNull(ExifOrientation.apply(png, ExifOrientation.ROTATE_90));
+        assertNull(ExifOrientation.apply(new byte[0], ExifOrientation.ROTATE_90));
+    }
+
+    @Test
+    public void convertsBetweenDegreesAndOrientation() {
+        assertEquals(ExifOrientation.NORMAL, ExifOrientation.fromRotationDegrees(0));
+        assertEquals(ExifOrientation.ROTATE_90, ExifOrientation.fromRotationDegrees(90));
+        assertEquals(ExifOrientation.ROTATE_180, ExifOrientation.fromRotationDegrees(540));
+        assertEquals(ExifOrientation.ROTATE_270, ExifOrientation.fromRotationDegrees(-90));
+        for (int degrees = 0; degrees < 360; degrees += 90) {
+            assertEquals(degrees, ExifOrientation.toRotationDegrees(ExifOrientation.fromRotationDegrees(degrees)));
+        }
+    }
+
+    @Test
+    public void flipVerticallyComposesWithEveryOrientation() {
+        // Applying the vertical flip twice must give the original orientation back
+        for (int orientation = 1; orientation <= 8; orientation++) {
+            int flipped = ExifOrientation.flipVertically(orientation);
+            assertNotEquals(orientation, flipped);
+            assertEquals(orientation, ExifOrientation.flipVertically(flipped));
+            // Mirroring never changes whether width and height are swapped
+            assertEquals(orientation >= ExifOrientation.TRANSPOSE, flipped >= ExifOrientation.TRANSPOSE);
+        }
+        assertEquals(ExifOrientation.FLIP_VERTICAL, ExifOrientation.flipVertically(ExifOrientation.NORMAL));
+        assertEquals(ExifOrientation.TRANSVERSE, ExifOrientation.flipVertically(ExifOrientation.ROTATE_90));
+    }
+}
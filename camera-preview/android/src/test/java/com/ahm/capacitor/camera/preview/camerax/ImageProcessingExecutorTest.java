@@ -0,0 +1,143 @@
+package com.ahm.capacitor.camera.preview.camerax;
+
+import static org.junit.Assert.*;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.Test;
+
+public class ImageProcessingExecutorTest {
+
+    /** Occupies the single worker until released */
+    private static CountDownLatch blockWorker(ImageProcessingExecutor executor) throws InterruptedException {
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        executor.submit(() -> {
+            started.countDown();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException ignored) {
+            }
+        });
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        return release;
+    }
+
+    @Test
+    public void runsJobsOffTheCallingThread() throws Exception {
+        ImageProcessingExecutor executor = new ImageProcessingExecutor(2, 4, "test", null);
+        final AtomicReference<Thread> ranOn = new AtomicReference<>();
+        executor.submit(() -> ranOn.set(Thread.currentThread())).get(5, TimeUnit.SECONDS);
+        assertNotSame(Thread.currentThread(), ranOn.get());
+        assertTrue(ranOn.get().getName().startsWith("test-"));
+        assertEquals(1, executor.getCompleted());
+        executor.shutdown();
+    }
+
+    @Test
+    public void fullQueueRunsOnTheCallerButNeverOnTheProtectedThread() throws Exception {
+        ImageProcessingExecutor executor = new ImageProcessingExecutor(1, 2, "test", Thread.currentThread());
+        CountDownLatch release = blockWorker(executor);
+        executor.submit(() -> {});
+        executor.submit(() -> {});
+        assertEquals(2, executor.getQueueDepth());
+        assertEquals(2, executor.getMaxQueueDepth());
+
+        try {
+            executor.submit(() -> fail("must not run on the protected thread"));
+            fail("expected a rejection");
+        } catch (RejectedExecutionException expected) {
+        }
+        assertEquals(1, executor.getRejected());
+
+        final AtomicReference<Thread> ranOn = new AtomicReference<>();
+        Thread camera = new Thread(() -> executor.submit(() -> ranOn.set(Thread.currentThread())), "camera");
+        camera.start();
+        camera.join(5000);
+        assertSame("overflow is absorbed by the submitting thread", camera, ranOn.get());
+        assertEquals(1, executor.getCallerRuns());
+
+        release.countDown();
+        executor.shutdown();
+    }
+
+    @Test
+    public void cancelPendingSkipsQueuedJobsAndNotifiesThem() throws Exception {
+        ImageProcessingExecutor executor = new ImageProcessingExecutor(1, 4, "test", null);
+        CountDownLatch release = blockWorker(executor);
+        final AtomicInteger ran = new AtomicInteger();
+        final AtomicInteger cancelled = new AtomicInteger();
+        Future<?> first = executor.submit(ran::incrementAndGet, cancelled::incrementAndGet);
+        executor.submit(ran::incrementAndGet, cancelled::incrementAndGet);
+
+        assertEquals(2, executor.cancelPending());
+        assertTrue(first.isCancelled());
+        assertEquals(2, cancelled.get());
+        assertEquals(0, executor.getQueueDepth());
+
+        release.countDown();
+        executor.submit(() -> {}).get(5, TimeUnit.SECONDS);
+        assertEquals(0, ran.get());
+        assertEquals(2, executor.getCancelled());
+        executor.shutdown();
+    }
+
+    @Test
+    public void startedJobsCannotBeCancelled() throws Exception {
+        ImageProcessingExecutor executor = new ImageProcessingExecutor(1, 4, "test", null);
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final AtomicInteger cancelled = new AtomicInteger();
+        Future<?> running = executor.submit(() -> {
+            started.countDown();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException ignored) {
+            }
+        }, cancelled::incrementAndGet);
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        assertFalse(running.cancel(true));
+        release.countDown();
+        running.get(5, TimeUnit.SECONDS);
+        assertEquals(0, cancelled.get());
+        executor.shutdown();
+    }
+
+    @Test
+    public void jobThatThrowsRunsItsDroppedHook() throws Exception {
+        ImageProcessingExecutor executor = new ImageProcessingExecutor(1, 4, "test", null);
+        final CountDownLatch dropped = new CountDownLatch(1);
+        executor.submit(() -> {
+            throw new OutOfMemoryError("full-size bitmap");
+        }, dropped::countDown);
+        assertTrue("the caller still hears back", dropped.await(5, TimeUnit.SECONDS));
+        assertEquals(1L, executor.toMap().get("failed"));
+        assertEquals(0, executor.getCancelled());
+        executor.shutdown();
+    }
+
+    @Test
+    public void failuresAreCountedAndShutdownRejects() throws Exception {
+        ImageProcessingExecutor executor = new ImageProcessingExecutor(1, 4, "test", null);
+        Future<?> failing = executor.submit(() -> {
+            throw new IllegalStateException("boom");
+        });
+        try {
+            failing.get(5, TimeUnit.SECONDS);
+            fail("expected the job's exception");
+        } catch (java.util.concurrent.ExecutionException expected) {
+        }
+        assertEquals(1L, executor.toMap().get("failed"));
+
+        executor.shutdown();
+        try {
+            executor.submit(() -> {});
+            fail("expected a rejection after shutdown");
+        } catch (RejectedExecutionException expected) {
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package com.ahm.capacitor.camera.preview.camerax;
+
+import static org.junit.Assert.*;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.util.Base64;
+import java.util.Iterator;
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.MemoryCacheImageOutputStream;
+import org.junit.Test;
+
+/**
+ * Counts the bytes the file round-trip capture path (write, decode, rotate, re-encode at 85,
+ * Base64) and the in-memory path (copy out of the image buffer, patch EXIF, Base64) copy on the
+ * JVM. Latencies are measured by InMemoryCaptureBenchmark in the benchmark module.
+ */
+public class InMemoryCaptureTest {
+
+    private static final int WIDTH = 1280;
+    private static final int HEIGHT = 960;
+
+    private long bytesCopied;
+
+    private String fileRoundTrip(byte[] encoderOutput, File file) throws Exception {
+        Files.write(file.toPath(), encoderOutput);
+        bytesCopied += encoderOutput.length;
+
+        byte[] read = Files.readAllBytes(file.toPath());
+        bytesCopied += read.length;
+        BufferedImage decoded = ImageIO.read(file);
+        bytesCopied += (long) decoded.getWidth() * decoded.getHeight() * 4;
+
+        // Same work as Bitmap.createBitmap with a 90 degree matrix: read pixels, write them rotated
+        int w = decoded.getWidth();
+        int h = decoded.getHeight();
+        int[] pixels = decoded.getRGB(0, 0, w, h, null, 0, w);
+        int[] turned = new int[pixels.length];
+        for (int y = 0; y < h; y++) {
+            for (int x = 0; x < w; x++) {
+                turned[x * h + (h - 1 - y)] = pixels[y * w + x];
+            }
+        }
+        BufferedImage rotated = new BufferedImage(h, w, BufferedImage.TYPE_INT_RGB);
+        rotated.setRGB(0, 0, h, w, turned, 0, h);
+        bytesCopied += (long) rotated.getWidth() * rotated.getHeight() * 4;
+
+        byte[] reencoded = encode(rotated, 0.85f);
+        bytesCopied += reencoded.length * 2L;
+        String base64 = Base64.getEncoder().encodeToString(reencoded);
+        bytesCopied += base64.length();
+        return base64;
+    }
+
+    private String inMemory(ByteBuffer imageBuffer) {
+        imageBuffer.rewind();
+        byte[] jpeg = new byte[imageBuffer.remaining()];
+        imageBuffer.get(jpeg);
+        bytesCopied += jpeg.length;
+
+        byte[] oriented = ExifOrientation.apply(jpeg, ExifOrientation.fromRotationDegrees(90));
+        if (oriented != jpeg) bytesCopied += oriented.length;
+        String base64 = Base64.getEncoder().encodeToString(oriented);
+        bytesCopied += base64.length();
+        return base64;
+    }
+
+    private static byte[] encode(BufferedImage image, float quality) throws Exception {
+        Iterator<ImageWriter> writers = ImageIO.getImageWritersByFormatName("jpg");
+        ImageWriter writer = writers.next();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (MemoryCacheImageOutputStream stream = new MemoryCacheImageOutputStream(out)) {
+            writer.setOutput(stream);
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(quality);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+        return out.toByteArray();
+    }
+
+    @Test
+    public void inMemoryPathCopiesLessAndSkipsTheCodec() throws Exception {
+        BufferedImage frame = new BufferedImage(WIDTH, HEIGHT, BufferedImage.TYPE_INT_RGB);
+        java.util.Random random = new java.util.Random(42);
+        for (int y = 0; y < HEIGHT; y++) {
+            for (int x = 0; x < WIDTH; x++) {
+                int noise = random.nextInt(32);
+                frame.setRGB(x, y, (((x / 4) & 0xFF) << 16) | (((y / 4) & 0xFF) << 8) | (((x + y) / 8 + noise) & 0xFF));
+            }
+        }
+        // Encoder output as the HAL delivers it: JPEG with an orientation tag
+        byte[] encoderOutput = ExifOrientation.apply(encode(frame, 0.95f), ExifOrientation.NORMAL);
+        ByteBuffer imageBuffer = ByteBuffer.allocateDirect(encoderOutput.length);
+        imageBuffer.put(encoderOutput);
+
+        File file = File.createTempFile("cpcp_capture", ".jpg");
+        file.deleteOnExit();
+
+        bytesCopied = 0;
+        assertFalse(fileRoundTrip(encoderOutput, file).isEmpty());
+        long fileBytes = bytesCopied;
+        file.delete();
+
+        bytesCopied = 0;
+        String result = inMemory(imageBuffer);
+        long memoryBytes = bytesCopied;
+        assertFalse(result.isEmpty());
+
+        // In-memory: one copy out of the buffer plus the Base64 string, nothing proportional to pixels
+        assertEquals(encoderOutput.length + 4L * ((encoderOutput.length + 2) / 3), memoryBytes);
+        assertTrue(fileBytes > 4 * memoryBytes);
+    }
+}
@@ -0,0 +1,85 @@
+package com.ahm.capacitor.camera.preview.camerax;
+
+import static org.junit.Assert.*;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import org.junit.Test;
+
+public class JpegOrientationTest {
+
+    /** Stand-in for the Android bitmap strategy that records its use */
+    private static final class RecordingBitmapStrategy implements JpegOrientationStrategy {
+        int calls;
+
+        @Override
+        public byte[] orient(byte[] jpeg, int orientation) {
+            calls++;
+            return new byte[] { (byte) 0xFF, (byte) 0xD8, (byte) orientation };
+        }
+    }
+
+    private static byte[] sampleJpeg(int width, int height) throws Exception {
+        return LosslessJpegTransformTest.encode(new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB), 2, 2, 0, false);
+    }
+
+    @Test
+    public void parsesModesAndDefaults() {
+        assertEquals(JpegOrientation.Mode.LOSSLESS, JpegOrientation.Mode.fromString("Lossless", null));
+        assertEquals(JpegOrientation.Mode.BITMAP, JpegOrientation.Mode.fromString("bitmap", null));
+        assertNull(JpegOrientation.Mode.fromString("sideways", null));
+        assertEquals(JpegOrientation.Mode.EXIF, JpegOrientation.Mode.fromString(null, JpegOrientation.Mode.EXIF));
+        assertEquals(JpegOrientation.Mode.EXIF, JpegOrientation.defaultMode(true));
+        assertEquals(JpegOrientation.Mode.LOSSLESS, JpegOrientation.defaultMode(false));
+    }
+
+    @Test
+    public void uprightImagesAreNeverTouched() throws Exception {
+        RecordingBitmapStrategy bitmap = new RecordingBitmapStrategy();
+        byte[] jpeg = sampleJpeg(16, 16);
+        for (JpegOrientation.Mode mode : JpegOrientation.Mode.values()) {
+            assertSame(jpeg, JpegOrientation.orient(jpeg, ExifOrientation.NORMAL, mode, bitmap));
+        }
+        assertEquals(0, bitmap.calls);
+    }
+
+    @Test
+    public void exifModeOnlyRewritesTheTag() throws Exception {
+        RecordingBitmapStrategy bitmap = new RecordingBitmapStrategy();
+        byte[] jpeg = ExifOrientation.apply(sampleJpeg(16, 16), ExifOrientation.NORMAL);
+        int length = jpeg.length;
+
+        byte[] out = JpegOrientation.orient(jpeg, ExifOrientation.ROTATE_90, JpegOrientation.Mode.EXIF, bitmap);
+
+        assertSame(jpeg, out);
+        assertEquals(length, out.length);
+        assertEquals(ExifOrientation.ROTATE_90, ExifOrientation.read(out));
+        assertEquals(0, bitmap.calls);
+    }
+
+    @Test
+    public void losslessModeFallsBackToBitmapForPartialMcus() throws Exception {
+        RecordingBitmapStrategy bitmap = new RecordingBitmapStrategy();
+        byte[] whole = sampleJpeg(32, 32);
+        byte[] partial = sampleJpeg(32, 24);
+
+        assertNotNull(JpegOrientation.orient(whole, ExifOrientation.ROTATE_180, JpegOrientation.Mode.LOSSLESS, bitmap));
+        assertEquals(0, bitmap.calls);
+
+        byte[] out = JpegOrientation.orient(partial, ExifOrientation.ROTATE_180, JpegOrientation.Mode.LOSSLESS, bitmap);
+        assertEquals(1, bitmap.calls);
+        assertEquals(ExifOrientation.ROTATE_180, out[2]);
+    }
+
+    @Test
+    public void bitmapModeAlwaysUsesBitmapStrategy() throws Exception {
+        RecordingBitmapStrategy bitmap = new RecordingBitmapStrategy();
+        JpegOrientation.orient(sampleJpeg(16, 16), ExifOrientation.ROTATE_270, JpegOrientation.Mode.BITMAP, bitmap);
+        assertEquals(1, bitmap.calls);
+    }
+
+    @Test(expected = IOException.class)
+    public void failsWithoutFallback() throws Exception {
+        JpegOrientation.orient(new byte[] { 1, 2, 3, 4 }, ExifOrientation.ROTATE_90, JpegOrientation.Mode.LOSSLESS, null);
+    }
+}
@@ -0,0 +1,222 @@
+package com.ahm.capacitor.camera.preview.camerax;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import org.junit.Test;
+
+public class LensSwitchCoordinatorTest {
+
+    /** Stands in for the camera: records each switch and completes it when the test delivers its first frame */
+    private static final class FakeCamera implements LensSwitchCoordinator.Driver {
+        final List<LensTarget> applied = new ArrayList<>();
+        final List<LensSwitchCoordinator.Completion> running = new ArrayList<>();
+        LensTarget bound = LensTarget.WIDE;
+
+        @Override
+        public synchronized void apply(LensTarget target, LensSwitchCoordinator.Completion completion) {
+            applied.add(target);
+            running.add(completion);
+        }
+
+        /** First frame of the camera bound by the oldest running switch */
+        void firstFrame() {
+            LensSwitchCoordinator.Completion completion;
+            LensTarget target;
+            synchronized (this) {
+                completion = running.remove(0);
+                target = applied.get(applied.size() - 1 - running.size());
+                bound = target;
+            }
+            completion.complete(LensSwitchResult.rebind(target, 1f, 10));
+        }
+    }
+
+    /** Runs tasks when the test says so, like a main looper */
+    private static final class QueueExecutor implements Executor {
+        final List<Runnable> tasks = new ArrayList<>();
+
+        @Override
+        public void execute(Runnable task) {
+            tasks.add(task);
+        }
+
+        void runAll() {
+            while (!tasks.isEmpty()) tasks.remove(0).run();
+        }
+    }
+
+    @Test
+    public void singleSwitchCompletesOnFirstFrame() throws Exception {
+        FakeCamera camera = new FakeCamera();
+        QueueExecutor main = new QueueExecutor();
+        LensSwitchCoordinator coordinator = new LensSwitchCoordinator(camera, main);
+
+        LensSwitchCoordinator.SwitchFuture future = coordinator.request(LensTarget.FRONT);
+        assertTrue("the caller never waits for the switch", camera.applied.isEmpty());
+        main.runAll();
+        assertEquals(1, camera.applied.size());
+        assertFalse(future.isDone());
+        assertTrue(coordinator.isSwitching());
+
+        camera.firstFrame();
+        assertTrue(future.isDone());
+        assertEquals(LensTarget.FRONT, future.get().getTarget());
+        assertFalse(coordinator.isSwitching());
+        assertNull(coordinator.getRequestedTarget());
+    }
+
+    @Test
+    public void toggleStormAppliesOnlyTheLatestTarget() throws Exception {
+        FakeCamera camera = new FakeCamera();
+        QueueExecutor main = new QueueExecutor();
+        LensSwitchCoordinator coordinator = new LensSwitchCoordinator(camera, main);
+
+        List<LensSwitchCoordinator.SwitchFuture> futures = new ArrayList<>();
+        futures.add(coordinator.request(LensTarget.FRONT));
+        main.runAll();
+        // Nine more taps while the first switch is still waiting for its frame
+        for (int i = 0; i < 9; i++) {
+            LensTarget requested = coordinator.getRequestedTarget();
+            futures.add(coordinator.request(requested == LensTarget.FRONT ? LensTarget.WIDE : LensTarget.FRONT));
+        }
+        assertEquals(LensTarget.WIDE, coordinator.getRequestedTarget());
+
+        camera.firstFrame();
+        main.runAll();
+        assertEquals(2, camera.applied.size());
+        assertEquals(LensTarget.WIDE, camera.applied.get(1));
+        camera.firstFrame();
+        main.runAll();
+
+        assertEquals("ten taps, two binds", 2, camera.applied.size());
+        assertEquals(LensTarget.WIDE, camera.bound);
+        for (int i = 0; i < futures.size(); i++) {
+            assertTrue(futures.get(i).isDone());
+            assertEquals(LensTarget.WIDE, futures.get(i).get().getTarget());
+        }
+        Map<String, Object> metrics = coordinator.toMap();
+        assertEquals(10L, metrics.get("requested"));
+        assertEquals(2L, metrics.get("applied"));
+        assertEquals("the five front taps ended on the back camera", 5L, metrics.get("coalesced"));
+    }
+
+    @Test
+    public void requestForTheInFlightLensJoinsIt() throws Exception {
+        FakeCamera camera = new FakeCamera();
+        QueueExecutor main = new QueueExecutor();
+        LensSwitchCoordinator coordinator = new LensSwitchCoordinator(camera, main);
+
+        LensSwitchCoordinator.SwitchFuture first = coordinator.request(LensTarget.TELEPHOTO);
+        main.runAll();
+        LensSwitchCoordinator.SwitchFuture away = coordinator.request(LensTarget.ULTRA_WIDE);
+        LensSwitchCoordinator.SwitchFuture back = coordinator.request(LensTarget.TELEPHOTO);
+        camera.firstFrame();
+        main.runAll();
+
+        assertEquals(1, camera.applied.size());
+        assertEquals(LensTarget.TELEPHOTO, first.get().getTarget());
+        assertEquals(1L, coordinator.toMap().get("coalesced"));
+        assertEquals(LensTarget.TELEPHOTO, away.get().getTarget());
+        assertEquals(LensTarget.ULTRA_WIDE, away.getTarget());
+        assertSame(first.get(), back.get());
+        assertFalse(coordinator.isSwitching());
+    }
+
+    @Test
+    public void failuresAndLateCompletionsAreHandled() throws Exception {
+        final List<LensSwitchCoordinator.Completion> completions = new ArrayList<>();
+        LensSwitchCoordinator coordinator = new LensSwitchCoordinator(
+            (target, completion) -> {
+                if (target == LensTarget.TELEPHOTO) throw new IllegalStateException("no telephoto");
+                completions.add(completion);
+            },
+            Runnable::run
+        );
+
+        LensSwitchResult failure = coordinator.request(LensTarget.TELEPHOTO).get(1, TimeUnit.SECONDS);
+        assertFalse(failure.isSuccess());
+        assertEquals("no telephoto", failure.getError());
+
+        LensSwitchCoordinator.SwitchFuture wide = coordinator.request(LensTarget.WIDE);
+        LensSwitchCoordinator.SwitchFuture front = coordinator.request(LensTarget.FRONT);
+        coordinator.cancelAll("Camera released");
+        assertFalse(wide.get().isSuccess());
+        assertEquals("Camera released", front.get().getError());
+
+        // The driver finishing after the release changes nothing
+        completions.get(0).complete(LensSwitchResult.rebind(LensTarget.WIDE, 1f, 5));
+        assertFalse(wide.get().isSuccess());
+        assertFalse(coordinator.isSwitching());
+        assertEquals(1L, coordinator.toMap().get("failed"));
+    }
+
+    @Test
+    public void listenersRunOnceWithTheResult() throws Exception {
+        FakeCamera camera = new FakeCamera();
+        LensSwitchCoordinator coordinator = new LensSwitchCoordinator(camera, Runnable::run);
+        LensSwitchCoordinator.SwitchFuture future = coordinator.request(LensTarget.ULTRA_WIDE);
+        final List<LensSwitchResult> seen = new ArrayList<>();
+        future.addListener(seen::add);
+        try {
+            future.get(10, TimeUnit.MILLISECONDS);
+            fail("switch is still waiting for its first frame");
+        } catch (TimeoutException expected) {
+            // still running
+        }
+        camera.firstFrame();
+        future.addListener(seen::add);
+        assertEquals(2, seen.size());
+        assertSame(seen.get(0), seen.get(1));
+        assertFalse(future.cancel(true));
+    }
+
+    @Test
+    public void concurrentStormFromManyThreadsSettlesOnce() throws Exception {
+        final FakeCamera camera = new FakeCamera();
+        ExecutorService main = Executors.newSingleThreadExecutor();
+        final LensSwitchCoordinator coordinator = new LensSwitchCoordinator(camera, main);
+        ExecutorService callers = Executors.newFixedThreadPool(4);
+        final List<LensSwitchCoordinator.SwitchFuture> futures = new ArrayList<>();
+        final CountDownLatch submitted = new CountDownLatch(200);
+        try {
+            for (int i = 0; i < 200; i++) {
+                final LensTarget target = LensTarget.values()[i % LensTarget.values().length];
+                callers.execute(() -> {
+                    LensSwitchCoordinator.SwitchFuture future = coordinator.request(target);
+                    synchronized (futures) {
+                        futures.add(future);
+                    }
+                    submitted.countDown();
+                });
+            }
+            assertTrue(submitted.await(5, TimeUnit.SECONDS));
+            // Deliver first frames until nothing is left running
+            long deadline = System.currentTimeMillis() + 5000;
+            while (coordinator.isSwitching() && System.currentTimeMillis() < deadline) {
+                boolean hasRunning;
+                synchronized (camera) {
+                    hasRunning = !camera.running.isEmpty();
+                }
+                if (hasRunning) camera.firstFrame();
+                else Thread.sleep(1);
+            }
+            for (LensSwitchCoordinator.SwitchFuture future : futures) {
+                assertTrue(future.get(1, TimeUnit.SECONDS).isSuccess());
+            }
+            assertTrue(camera.applied.size() <= 200);
+            assertEquals(200L, coordinator.toMap().get("requested"));
+        } finally {
+            callers.shutdown();
+            main.shutdown();
+        }
+    }
+}
@@ -0,0 +1,168 @@
+package com.ahm.capacitor.camera.preview.camerax;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.Test;
+
+public class LensTopologyTest {
+
+    /** Fake characteristics source that counts how often it is queried */
+    private static class FakeSource implements LensTopology.Source {
+        final Map<String, LensTopology.Lens> lenses = new LinkedHashMap<>();
+        final List<String> exposedIds = new ArrayList<>();
+        int idListCalls = 0;
+        int describeCalls = 0;
+
+        FakeSource add(LensTopology.Lens lens, boolean exposed) {
+            lenses.put(lens.getId(), lens);
+            if (exposed) exposedIds.add(lens.getId());
+            return this;
+        }
+
+        @Override
+        public String[] getCameraIdList() {
+            idListCalls++;
+            return exposedIds.toArray(new String[0]);
+        }
+
+        @Override
+        public LensTopology.Lens describe(String cameraId) throws Exception {
+            describeCalls++;
+            LensTopology.Lens lens = lenses.get(cameraId);
+            if (lens == null) throw new IllegalArgumentException("unknown id " + cameraId);
+            return lens;
+        }
+    }
+
+    private static LensTopology.Lens lens(String id, int facing, float focal, float minZoom, float maxZoom, String... physicalIds) {
+        return new LensTopology.Lens(id, facing, new float[] { focal }, 6.4f, 4.8f, minZoom, maxZoom, Arrays.asList(physicalIds));
+    }
+
+    private static FakeSource threeLensPhone() {
+        return new FakeSource()
+            .add(lens("0", LensTopology.FACING_BACK, 5.4f, 0.6f, 10f, "2", "3", "4"), true)
+            .add(lens("1", LensTopology.FACING_FRONT, 2.7f, 1f, 4f), true)
+            .add(lens("2", LensTopology.FACING_BACK, 1.6f, 1f, 4f), true)
+            .add(lens("3", LensTopology.FACING_BACK, 4.3f, 1f, 8f), false)
+            .add(lens("4", LensTopology.FACING_BACK, 9.0f, 1f, 8f), false);
+    }
+
+    @Test
+    public void classifiesLensesFromSingleEnumeration() throws Exception {
+        FakeSource source = threeLensPhone();
+        LensTopologyCache cache = new LensTopologyCache(source);
+
+        for (int i = 0; i < 50; i++) {
+            LensTopology topology = cache.get();
+            assertEquals("2", topology.getUltraWideBackId());
+            assertEquals("0", topology.getWideBackId());
+            assertEquals("0", topology.getTelephotoBackId());
+            assertTrue(topology.hasUltraWideCamera());
+            assertTrue(topology.hasTelephotoCamera());
+            assertTrue(topology.hasFrontCamera());
+            assertTrue(topology.isUltraWide("2"));
+            assertFalse(topology.isUltraWide("0"));
+            assertTrue(topology.isFront("1"));
+            assertTrue(topology.isBack("0"));
+            assertEquals(Arrays.asList("telephoto", "front", "ultra-wide"), topology.getAvailableCameraTypes());
+        }
+
+        assertEquals(1, source.idListCalls);
+        // three exposed ids plus the two hidden physical sensors of the logical camera
+        assertEquals(5, source.describeCalls);
+        assertEquals(1, cache.getBuildCount());
+    }
+
+    @Test
+    public void recordsLogicalAndPhysicalMembership() throws Exception {
+        LensTopology topology = LensTopology.build(threeLensPhone());
+
+        LensTopology.Lens logical = topology.getLens("0");
+        assertTrue(logical.isLogical());
+        assertEquals(Arrays.asList("2", "3", "4"), logical.getPhysicalIds());
+        assertEquals(0.6f, logical.getMinZoom(), 0.0001f);
+
+        LensTopology.Lens exposedPhysical = topology.getLens("2");
+        assertTrue(exposedPhysical.isExposed());
+        assertEquals("0", exposedPhysical.getLogicalParentId());
+
+        LensTopology.Lens hidden = topology.getLens("4");
+        assertFalse(hidden.isExposed());
+        assertEquals("0", hidden.getLogicalParentId());
+        assertEquals(9.0f, hidden.getMinFocal(), 0.0001f);
+    }
+
+    @Test
+    public void hiddenPhysicalLensesDoNotChangeClassification() throws Exception {
+        LensTopology topology = LensTopology.build(threeLensPhone());
+        // "4" is the longest lens but it is not exposed, so it cannot be selected directly
+        assertNotEquals("4", topology.getTelephotoBackId());
+        assertEquals(3, topology.getAvailableCameraTypes().size());
+    }
+
+    @Test
+    public void invalidatesOnlyWhenLensSetChanges() throws Exception {
+        FakeSource source = threeLensPhone();
+        source.add(lens("9", LensTopology.FACING_EXTERNAL, 3.0f, 1f, 1f), true);
+        LensTopologyCache cache = new LensTopologyCache(source);
+        cache.get();
+
+        // Opening/closing a known camera is routine and must not rebuild
+        cache.onCameraUnavailable("0");
+        cache.onCameraAvailable("0");
+        cache.get();
+        assertEquals(1, source.idListCalls);
+
+        // A new id showing up rebuilds once
+        source.add(lens("7", LensTopology.FACING_FRONT, 2.0f, 1f, 1f), true);
+        cache.onCameraAvailable("7");
+        assertNull(cache.peek());
+        assertTrue(cache.get().isFront("7"));
+        assertEquals(2, source.idListCalls);
+
+        // Unplugging an external camera rebuilds
+        cache.onCameraUnavailable("9");
+        cache.get();
+        assertEquals(3, source.idListCalls);
+    }
+
+    @Test
+    public void failedEnumerationIsRetried() throws Exception {
+        final int[] attempts = { 0 };
+        final FakeSource delegate = threeLensPhone();
+        LensTopology.Source flaky = new LensTopology.Source() {
+            @Override
+            public String[] getCameraIdList() throws Exception {
+                if (attempts[0]++ == 0) throw new IllegalStateException("camera service not ready");
+                return delegate.getCameraIdList();
+            }
+
+            @Override
+            public LensTopology.Lens describe(String cameraId) throws Exception {
+                return delegate.describe(cameraId);
+            }
+        };
+        LensTopologyCache cache = new LensTopologyCache(flaky);
+
+        assertSame(LensTopology.EMPTY, cache.get());
+        assertEquals("2", cache.get().getUltraWideBackId());
+        assertEquals(2, attempts[0]);
+    }
+
+    @Test
+    public void singleBackLensIsMain() throws Exception {
+        FakeSource source = new FakeSource().add(lens("0", LensTopology.FACING_BACK, 4.0f, 1f, 8f), true);
+        LensTopology topology = LensTopology.build(source);
+        assertEquals("0", topology.getWideBackId());
+        assertEquals("0", topology.getUltraWideBackId());
+        assertFalse(topology.hasUltraWideCamera());
+        assertTrue(topology.hasTelephotoCamera());
+        assertEquals(Collections.singletonList("telephoto"), topology.getAvailableCameraTypes());
+    }
+}
@@ -0,0 +1,82 @@
+package com.ahm.capacitor.camera.preview.camerax;
+
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.junit.Test;
+
+public class LogicalLensZoomTest {
+
+    private static LensTopology topologyOf(final LensTopology.Lens... lenses) throws Exception {
+        final Map<String, LensTopology.Lens> byId = new LinkedHashMap<>();
+        for (LensTopology.Lens lens : lenses) byId.put(lens.getId(), lens);
+        return LensTopology.build(
+            new LensTopology.Source() {
+                @Override
+                public String[] getCameraIdList() {
+                    return new String[] { lenses[0].getId() };
+                }
+
+                @Override
+                public LensTopology.Lens describe(String cameraId) {
+                    return byId.get(cameraId);
+                }
+            }
+        );
+    }
+
+    private static LensTopology.Lens lens(String id, float focal, float sensorW, float sensorH, float minZoom, float maxZoom, String... physical) {
+        return new LensTopology.Lens(id, LensTopology.FACING_BACK, new float[] { focal }, sensorW, sensorH, minZoom, maxZoom, Arrays.asList(physical));
+    }
+
+    @Test
+    public void mapsTargetsOnTripleCameraLogical() throws Exception {
+        LensTopology topology = topologyOf(
+            lens("0", 6.8f, 9.8f, 7.4f, 0.6f, 20f, "2", "3", "4"),
+            lens("2", 2.2f, 5.6f, 4.2f, 1f, 2f),
+            lens("3", 6.8f, 9.8f, 7.4f, 1f, 8f),
+            lens("4", 11.1f, 4.6f, 3.4f, 1f, 8f)
+        );
+        LensTopology.Lens logical = topology.getLens("0");
+
+        assertEquals(0.6f, LogicalLensZoom.zoomRatioFor(topology, logical, LensTarget.ULTRA_WIDE), 0.001f);
+        assertEquals(1.0f, LogicalLensZoom.zoomRatioFor(topology, logical, LensTarget.WIDE), 0.001f);
+        float tele = LogicalLensZoom.zoomRatioFor(topology, logical, LensTarget.TELEPHOTO);
+        // 11.1mm on a smaller sensor is roughly a 3.4x equivalent of the 6.8mm main lens
+        assertEquals(3.4f, tele, 0.2f);
+        assertTrue(Float.isNaN(LogicalLensZoom.zoomRatioFor(topology, logical, LensTarget.FRONT)));
+
+        assertEquals(LensTarget.ULTRA_WIDE, LogicalLensZoom.lensAtZoom(topology, logical, 0.6f));
+        assertEquals(LensTarget.WIDE, LogicalLensZoom.lensAtZoom(topology, logical, 1.0f));
+        assertEquals(LensTarget.WIDE, LogicalLensZoom.lensAtZoom(topology, logical, 2.0f));
+        assertEquals(LensTarget.TELEPHOTO, LogicalLensZoom.lensAtZoom(topology, logical, tele));
+    }
+
+    @Test
+    public void logicalWithoutUltraWideRangeCannotReachUltraWide() throws Exception {
+        LensTopology topology = topologyOf(lens("0", 4.3f, 6.4f, 4.8f, 1f, 8f, "3", "4"), lens("3", 4.3f, 6.4f, 4.8f, 1f, 8f), lens("4", 4.5f, 6.4f, 4.8f, 1f, 8f));
+        LensTopology.Lens logical = topology.getLens("0");
+
+        assertTrue(Float.isNaN(LogicalLensZoom.zoomRatioFor(topology, logical, LensTarget.ULTRA_WIDE)));
+        // the second sensor is not long enough to count as telephoto
+        assertTrue(Float.isNaN(LogicalLensZoom.zoomRatioFor(topology, logical, LensTarget.TELEPHOTO)));
+        assertEquals(1.0f, LogicalLensZoom.zoomRatioFor(topology, logical, LensTarget.WIDE), 0.001f);
+    }
+
+    @Test
+    public void physicalCameraIsNeverZoomSwitched() throws Exception {
+        LensTopology.Lens single = new LensTopology.Lens("0", LensTopology.FACING_BACK, new float[] { 4.3f }, 6.4f, 4.8f, 0.5f, 8f, Collections.<String>emptyList());
+        LensTopology topology = topologyOf(single);
+        assertTrue(Float.isNaN(LogicalLensZoom.zoomRatioFor(topology, topology.getLens("0"), LensTarget.ULTRA_WIDE)));
+        assertTrue(Float.isNaN(LogicalLensZoom.zoomRatioFor(topology, null, LensTarget.WIDE)));
+    }
+
+    @Test
+    public void logicalBackIdIsDetected() throws Exception {
+        LensTopology topology = topologyOf(lens("0", 6.8f, 9.8f, 7.4f, 0.6f, 20f, "2", "3"), lens("2", 2.2f, 5.6f, 4.2f, 1f, 2f), lens("3", 6.8f, 9.8f, 7.4f, 1f, 8f));
+        assertEquals("0", topology.getLogicalBackId());
+    }
+}
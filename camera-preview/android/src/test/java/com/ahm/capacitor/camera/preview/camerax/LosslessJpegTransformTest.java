@@ -0,0 +1,237 @@
+package com.ahm.capacitor.camera.preview.camerax;
+
+import static org.junit.Assert.*;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.HashSet;
+import java.util.Set;
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageTypeSpecifier;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.metadata.IIOMetadata;
+import javax.imageio.stream.MemoryCacheImageOutputStream;
+import org.junit.Test;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+import org.w3c.dom.NodeList;
+
+public class LosslessJpegTransformTest {
+
+    private static BufferedImage sample(int width, int height, int type) {
+        BufferedImage image = new BufferedImage(width, height, type);
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                // Asymmetric content so every orientation is distinguishable
+                int r = (x * 255) / width;
+                int g = (y * 255) / height;
+                int b = ((x / 8 + y / 5) % 2) * 200;
+                image.setRGB(x, y, (r << 16) | (g << 8) | b);
+            }
+        }
+        return image;
+    }
+
+    /**
+     * Encode with ImageIO, optionally forcing luma sampling factors, a restart interval or progressive mode
+     */
+    static byte[] encode(BufferedImage image, int lumaH, int lumaV, int restartInterval, boolean progressive) throws Exception {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpg").next();
+        ImageWriteParam param = writer.getDefaultWriteParam();
+        param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+        param.setCompressionQuality(0.9f);
+        if (progressive) param.setProgressiveMode(ImageWriteParam.MODE_DEFAULT);
+        IIOMetadata metadata = writer.getDefaultImageMetadata(ImageTypeSpecifier.createFromRenderedImage(image), param);
+        String format = "javax_imageio_jpeg_image_1.0";
+        Element root = (Element) metadata.getAsTree(format);
+        Element markers = (Element) root.getElementsByTagName("markerSequence").item(0);
+        if (lumaH > 0) {
+            NodeList specs = root.getElementsByTagName("componentSpec");
+            for (int i = 0; i < specs.getLength(); i++) {
+                Element spec = (Element) specs.item(i);
+                spec.setAttribute("HsamplingFactor", String.valueOf(i == 0 ? lumaH : 1));
+                spec.setAttribute("VsamplingFactor", String.valueOf(i == 0 ? lumaV : 1));
+            }
+        }
+        if (restartInterval > 0) {
+            Element dri = new javax.imageio.metadata.IIOMetadataNode("dri");
+            dri.setAttribute("interval", String.valueOf(restartInterval));
+            Node sof = root.getElementsByTagName("sof").item(0);
+            markers.insertBefore(dri, sof);
+        }
+        metadata.setFromTree(format, root);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (MemoryCacheImageOutputStream stream = new MemoryCacheImageOutputStream(out)) {
+            writer.setOutput(stream);
+            writer.write(null, new IIOImage(image, null, metadata), param);
+        } finally {
+            writer.dispose();
+        }
+        return out.toByteArray();
+    }
+
+    private static BufferedImage decode(byte[] jpeg) throws Exception {
+        BufferedImage image = ImageIO.read(new ByteArrayInputStream(jpeg));
+        assertNotNull("decodable output", image);
+        return image;
+    }
+
+    /** Pixel (x, y) of the upright image for a stored image transformed per EXIF orientation */
+    private static int expected(BufferedImage src, int orientation, int x, int y) {
+        int w = src.getWidth();
+        int h = src.getHeight();
+        switch (orientation) {
+            case ExifOrientation.FLIP_HORIZONTAL: return src.getRGB(w - 1 - x, y);
+            case ExifOrientation.ROTATE_180: return src.getRGB(w - 1 - x, h - 1 - y);
+            case ExifOrientation.FLIP_VERTICAL: return src.getRGB(x, h - 1 - y);
+            case ExifOrientation.TRANSPOSE: return src.getRGB(y, x);
+            case ExifOrientation.ROTATE_90: return src.getRGB(y, h - 1 - x);
+            case ExifOrientation.TRANSVERSE: return src.getRGB(w - 1 - y, h - 1 - x);
+            case ExifOrientation.ROTATE_270: return src.getRGB(w - 1 - y, x);
+            default: return src.getRGB(x, y);
+        }
+    }
+
+    /** Largest per-channel difference against the pixel-domain transform of the decoded original */
+    private static int maxDifference(BufferedImage original, BufferedImage transformed, int orientation) {
+        int max = 0;
+        for (int y = 0; y < transformed.getHeight(); y++) {
+            for (int x = 0; x < transformed.getWidth(); x++) {
+                int a = expected(original, orientation, x, y);
+                int b = transformed.getRGB(x, y);
+                for (int shift = 0; shift <= 16; shift += 8) {
+                    max = Math.max(max, Math.abs(((a >> shift) & 0xFF) - ((b >> shift) & 0xFF)));
+                }
+            }
+        }
+        return max;
+    }
+
+    private static void assertAllOrientations(byte[] jpeg, int width, int height) throws Exception {
+        BufferedImage original = decode(jpeg);
+        for (int orientation = 2; orientation <= 8; orientation++) {
+            byte[] out = LosslessJpegTransform.transform(jpeg, orientation);
+            assertNotNull("orientation " + orientation, out);
+            BufferedImage transformed = decode(out);
+            boolean swapped = orientation >= ExifOrientation.TRANSPOSE;
+            assertEquals(swapped ? height : width, transformed.getWidth());
+            assertEquals(swapped ? width : height, transformed.getHeight());
+            // DCT domain transforms commute with the IDCT up to rounding in the decoder
+            int diff = maxDifference(original, transformed, orientation);
+            assertTrue("orientation " + orientation + " differs by " + diff, diff <= 6);
+        }
+    }
+
+    @Test
+    public void standardTablesCoverEveryBaselineSymbol() {
+        Set<Integer> expected = new HashSet<>();
+        expected.add(0x00);
+        expected.add(0xF0);
+        for (int run = 0; run < 16; run++) {
+            for (int size = 1; size <= 10; size++) expected.add((run << 4) | size);
+        }
+        for (int[] values : new int[][] { LosslessJpegTransform.AC_LUMA_VALUES, LosslessJpegTransform.AC_CHROMA_VALUES }) {
+            Set<Integer> actual = new HashSet<>();
+            for (int v : values) actual.add(v);
+            assertEquals(expected, actual);
+            assertEquals(162, values.length);
+        }
+        int lumaTotal = 0;
+        int chromaTotal = 0;
+        for (int i = 0; i < 16; i++) {
+            lumaTotal += LosslessJpegTransform.AC_LUMA_BITS[i];
+            chromaTotal += LosslessJpegTransform.AC_CHROMA_BITS[i];
+        }
+        assertEquals(162, lumaTotal);
+        assertEquals(162, chromaTotal);
+    }
+
+    @Test
+    public void transformsSubsampledColorJpeg() throws Exception {
+        assertAllOrientations(encode(sample(64, 48, BufferedImage.TYPE_INT_RGB), 2, 2, 0, false), 64, 48);
+    }
+
+    @Test
+    public void swapsSamplingFactorsForHorizontalSubsampling() throws Exception {
+        // 4:2:2 becomes 4:4:0 when transposed. Decoders upsample the two differently, so compare
+        // exact pixels after transforming back instead of against the pixel domain rotation
+        byte[] jpeg = encode(sample(48, 32, BufferedImage.TYPE_INT_RGB), 2, 1, 0, false);
+        BufferedImage original = decode(jpeg);
+        int[][] inverses = {
+            { ExifOrientation.ROTATE_90, ExifOrientation.ROTATE_270 },
+            { ExifOrientation.TRANSPOSE, ExifOrientation.TRANSPOSE },
+            { ExifOrientation.TRANSVERSE, ExifOrientation.TRANSVERSE },
+            { ExifOrientation.ROTATE_180, ExifOrientation.ROTATE_180 }
+        };
+        for (int[] pair : inverses) {
+            byte[] turned = LosslessJpegTransform.transform(jpeg, pair[0]);
+            assertNotNull("orientation " + pair[0], turned);
+            BufferedImage rotated = decode(turned);
+            boolean swapped = pair[0] >= ExifOrientation.TRANSPOSE;
+            assertEquals(swapped ? 32 : 48, rotated.getWidth());
+            byte[] back = LosslessJpegTransform.transform(turned, pair[1]);
+            assertNotNull("orientation " + pair[1], back);
+            assertEquals("round trip " + pair[0] + "/" + pair[1], 0, maxDifference(original, decode(back), ExifOrientation.NORMAL));
+        }
+    }
+
+    @Test
+    public void transformsGrayscaleJpeg() throws Exception {
+        assertAllOrientations(encode(sample(40, 24, BufferedImage.TYPE_BYTE_GRAY), 0, 0, 0, false), 40, 24);
+    }
+
+    @Test
+    public void handlesRestartIntervals() throws Exception {
+        assertAllOrientations(encode(sample(64, 64, BufferedImage.TYPE_INT_RGB), 2, 2, 3, false), 64, 64);
+    }
+
+    @Test
+    public void resetsExifOrientationAndKeepsOtherSegments() throws Exception {
+        byte[] jpeg = ExifOrientation.apply(encode(sample(32, 32, BufferedImage.TYPE_INT_RGB), 2, 2, 0, false), ExifOrientation.ROTATE_90);
+        byte[] out = LosslessJpegTransform.transform(jpeg, ExifOrientation.read(jpeg));
+        assertNotNull(out);
+        assertEquals(ExifOrientation.NORMAL, ExifOrientation.read(out));
+        // JFIF APP0 is still first
+        assertEquals(0xE0, out[3] & 0xFF);
+    }
+
+    @Test
+    public void normalOrientationReturnsInput() throws Exception {
+        byte[] jpeg = encode(sample(16, 16, BufferedImage.TYPE_INT_RGB), 2, 2, 0, false);
+        assertSame(jpeg, LosslessJpegTransform.transform(jpeg, ExifOrientation.NORMAL));
+    }
+
+    @Test
+    public void refusesProgressiveJpeg() throws Exception {
+        byte[] jpeg = encode(sample(32, 32, BufferedImage.TYPE_INT_RGB), 0, 0, 0, true);
+        assertNull(LosslessJpegTransform.transform(jpeg, ExifOrientation.ROTATE_90));
+    }
+
+    @Test
+    public void refusesMirroringPartialMcus() throws Exception {
+        // 40 is not a multiple of the 16 pixel MCU
+        byte[] jpeg = encode(sample(64, 40, BufferedImage.TYPE_INT_RGB), 2, 2, 0, false);
+        // Rotating 90 mirrors the old height: impossible
+        assertNull(LosslessJpegTransform.transform(jpeg, ExifOrientation.ROTATE_90));
+        assertNull(LosslessJpegTransform.transform(jpeg, ExifOrientation.ROTATE_180));
+        // Rotating 270 only mirrors the old width, transposing mirrors nothing
+        BufferedImage original = decode(jpeg);
+        for (int orientation : new int[] { ExifOrientation.ROTATE_270, ExifOrientation.TRANSPOSE, ExifOrientation.FLIP_HORIZONTAL }) {
+            byte[] out = LosslessJpegTransform.transform(jpeg, orientation);
+            assertNotNull("orientation " + orientation, out);
+            assertTrue(maxDifference(original, decode(out), orientation) <= 6);
+        }
+    }
+
+    @Test
+    public void refusesNonJpegAndTruncatedData() throws Exception {
+        assertNull(LosslessJpegTransform.transform(new byte[] { 1, 2, 3, 4, 5 }, ExifOrientation.ROTATE_90));
+        byte[] jpeg = encode(sample(32, 32, BufferedImage.TYPE_INT_RGB), 2, 2, 0, false);
+        byte[] truncated = java.util.Arrays.copyOf(jpeg, jpeg.length / 3);
+        // Either refused or decodable, never an exception
+        LosslessJpegTransform.transform(truncated, ExifOrientation.ROTATE_180);
+    }
+}
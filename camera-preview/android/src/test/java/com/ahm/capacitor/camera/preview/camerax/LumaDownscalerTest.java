@@ -0,0 +1,114 @@
+package com.ahm.capacitor.camera.preview.camerax;
+
+import static org.junit.Assert.*;
+
+import java.nio.ByteBuffer;
+import java.util.Random;
+import org.junit.Test;
+
+public class LumaDownscalerTest {
+
+    /** Straightforward box filter over a dense plane */
+    private static int[] reference(int[] luma, int width, int height, int outWidth, int outHeight) {
+        int[] out = new int[outWidth * outHeight];
+        for (int oy = 0; oy < outHeight; oy++) {
+            int y0 = oy * height / outHeight;
+            int y1 = (oy + 1) * height / outHeight;
+            for (int ox = 0; ox < outWidth; ox++) {
+                int x0 = ox * width / outWidth;
+                int x1 = (ox + 1) * width / outWidth;
+                int sum = 0;
+                for (int y = y0; y < y1; y++) {
+                    for (int x = x0; x < x1; x++) {
+                        sum += luma[y * width + x];
+                    }
+                }
+                int count = (x1 - x0) * (y1 - y0);
+                out[oy * outWidth + ox] = (sum + count / 2) / count;
+            }
+        }
+        return out;
+    }
+
+    private static SyntheticFrame randomFrame(int width, int height, int rowStride, int pixelStride, int[] luma, long seed) {
+        SyntheticFrame frame = new SyntheticFrame(width, height, rowStride, pixelStride);
+        Random random = new Random(seed);
+        // Padding is filled with noise that must never leak into the output
+        for (int i = 0; i < frame.y.capacity(); i++) frame.y.put(i, (byte) 255);
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                int value = random.nextInt(256);
+                luma[y * width + x] = value;
+                frame.setLuma(x, y, value);
+            }
+        }
+        return frame;
+    }
+
+    private static void assertMatches(int[] expected, byte[] actual) {
+        for (int i = 0; i < expected.length; i++) {
+            assertEquals("pixel " + i, expected[i], actual[i] & 0xFF);
+        }
+    }
+
+    @Test
+    public void averagesWholeBlocks() {
+        SyntheticFrame frame = new SyntheticFrame(4, 2);
+        int[] values = { 0, 10, 100, 200, 20, 30, 100, 200 };
+        for (int i = 0; i < values.length; i++) frame.setLuma(i % 4, i / 4, values[i]);
+        byte[] out = new LumaDownscaler(2, 1).downscale(frame);
+        assertEquals(15, out[0] & 0xFF);
+        assertEquals(150, out[1] & 0xFF);
+    }
+
+    @Test
+    public void matchesReferenceForUnevenRatios() {
+        int width = 641;
+        int height = 479;
+        int[] luma = new int[width * height];
+        SyntheticFrame frame = randomFrame(width, height, width, 1, luma, 1);
+        LumaDownscaler downscaler = new LumaDownscaler(80, 60);
+        assertMatches(reference(luma, width, height, 80, 60), downscaler.downscale(frame));
+    }
+
+    @Test
+    public void honorsRowAndPixelStrides() {
+        int width = 64;
+        int height = 48;
+        int[] luma = new int[width * height];
+        SyntheticFrame padded = randomFrame(width, height, 80, 1, luma, 2);
+        int[] expected = reference(luma, width, height, 16, 12);
+        assertMatches(expected, new LumaDownscaler(16, 12).downscale(padded));
+
+        SyntheticFrame interleaved = randomFrame(width, height, 2 * width + 6, 2, luma, 3);
+        expected = reference(luma, width, height, 16, 12);
+        assertMatches(expected, new LumaDownscaler(16, 12).downscale(interleaved));
+    }
+
+    @Test
+    public void readsFromThePlanePositionAndRestoresIt() {
+        SyntheticFrame frame = new SyntheticFrame(4, 4).fillLuma(90);
+        ByteBuffer shifted = ByteBuffer.allocate(frame.y.capacity() + 3);
+        shifted.position(3);
+        shifted.put(frame.y.duplicate());
+        shifted.position(3);
+        byte[] out = new LumaDownscaler(2, 2).downscale(shifted, 4, 1, 4, 4);
+        assertEquals(90, out[3] & 0xFF);
+        assertEquals(3, shifted.position());
+    }
+
+    @Test
+    public void reusesTheOutputBuffer() {
+        LumaDownscaler downscaler = new LumaDownscaler(8, 8);
+        byte[] first = downscaler.downscale(new SyntheticFrame(32, 32).fillLuma(10));
+        byte[] second = downscaler.downscale(new SyntheticFrame(32, 32).fillLuma(200));
+        assertSame(first, second);
+        assertSame(first, downscaler.getOutput());
+        assertEquals(200, second[0] & 0xFF);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void refusesToUpscale() {
+        new LumaDownscaler(64, 64).downscale(new SyntheticFrame(32, 32));
+    }
+}
@@ -0,0 +1,141 @@
+package com.ahm.capacitor.camera.preview.camerax;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.junit.Test;
+
+public class MotionStabilityDetectorTest {
+
+    private static final long FRAME_NS = 33_000_000L;
+    private static final int W = 32;
+    private static final int H = 24;
+
+    /** Flat background with a bright square at x, plus optional sensor noise of +-noise */
+    private static byte[] scene(int x, int noise, Random random) {
+        byte[] luma = new byte[W * H];
+        for (int row = 0; row < H; row++) {
+            for (int col = 0; col < W; col++) {
+                int value = (col >= x && col < x + 8 && row >= 8 && row < 16) ? 220 : 60;
+                if (noise > 0) value += random.nextInt(2 * noise + 1) - noise;
+                luma[row * W + col] = (byte) value;
+            }
+        }
+        return luma;
+    }
+
+    /** Feed frames; returns the indices of the frames that fired */
+    private static List<Integer> run(MotionStabilityDetector detector, byte[][] frames, int startIndex) {
+        List<Integer> fired = new ArrayList<>();
+        for (int i = 0; i < frames.length; i++) {
+            int index = startIndex + i;
+            if (detector.onFrame(frames[i], frames[i].length, index * FRAME_NS)) fired.add(index);
+        }
+        return fired;
+    }
+
+    private static byte[][] moving(int count) {
+        byte[][] frames = new byte[count][];
+        for (int i = 0; i < count; i++) frames[i] = scene((i * 3) % (W - 8), 0, null);
+        return frames;
+    }
+
+    private static byte[][] still(int count, int noise, long seed) {
+        Random random = new Random(seed);
+        byte[][] frames = new byte[count][];
+        for (int i = 0; i < count; i++) frames[i] = scene(4, noise, random);
+        return frames;
+    }
+
+    @Test
+    public void firesOnceAfterEnoughStillFrames() {
+        MotionStabilityDetector detector = new MotionStabilityDetector(new MotionStabilityDetector.Config().setStableFrames(5));
+        assertTrue(run(detector, moving(10), 0).isEmpty());
+        List<Integer> fired = run(detector, still(20, 0, 1), 10);
+        // Frame 10 is the first still one but still differs from the last moving frame
+        assertEquals(1, fired.size());
+        assertEquals(Integer.valueOf(15), fired.get(0));
+    }
+
+    @Test
+    public void sensorNoiseBelowThresholdCountsAsStill() {
+        MotionStabilityDetector.Config config = new MotionStabilityDetector.Config().setStableFrames(8).setStableThreshold(3);
+        MotionStabilityDetector detector = new MotionStabilityDetector(config);
+        run(detector, moving(5), 0);
+        assertEquals(1, run(detector, still(30, 2, 7), 5).size());
+        assertTrue(detector.getLastDifference() < 3);
+    }
+
+    @Test
+    public void motionRearmsAfterCooldown() {
+        MotionStabilityDetector.Config config = new MotionStabilityDetector.Config().setStableFrames(3).setCooldownMs(1000);
+        MotionStabilityDetector detector = new MotionStabilityDetector(config);
+        List<Integer> first = run(detector, still(10, 0, 1), 0);
+        assertEquals(1, first.size());
+        assertFalse(detector.isArmed());
+
+        // Still scene never fires again without motion
+        assertTrue(run(detector, still(60, 0, 1), 10).isEmpty());
+
+        run(detector, moving(5), 70);
+        assertTrue(detector.isArmed());
+        assertEquals(1, run(detector, still(10, 0, 1), 75).size());
+    }
+
+    @Test
+    public void cooldownDelaysAnEarlyRearm() {
+        MotionStabilityDetector.Config config = new MotionStabilityDetector.Config().setStableFrames(2).setCooldownMs(1000);
+        MotionStabilityDetector detector = new MotionStabilityDetector(config);
+        assertEquals(1, run(detector, still(4, 0, 1), 0).size());
+        run(detector, moving(3), 4);
+        // Armed again after 7 frames, but only ~230ms have passed: waits for the cooldown
+        List<Integer> fired = run(detector, still(40, 0, 1), 7);
+        assertEquals(1, fired.size());
+        assertTrue(fired.get(0) * FRAME_NS - 2 * FRAME_NS >= 1_000_000_000L);
+    }
+
+    @Test
+    public void continuousModeFiresEveryCooldownWithoutMotion() {
+        MotionStabilityDetector.Config config = new MotionStabilityDetector.Config()
+            .setStableFrames(2)
+            .setCooldownMs(500)
+            .setRequireMotionToRearm(false);
+        MotionStabilityDetector detector = new MotionStabilityDetector(config);
+        // 3 seconds of a static scene
+        assertEquals(6, run(detector, still(91, 0, 1), 0).size());
+    }
+
+    @Test
+    public void sizeChangeRestartsComparison() {
+        MotionStabilityDetector detector = new MotionStabilityDetector(new MotionStabilityDetector.Config().setStableFrames(2));
+        byte[] small = new byte[16];
+        assertFalse(detector.onFrame(small, 16, 0));
+        assertFalse(detector.onFrame(small, 16, FRAME_NS));
+        assertFalse(detector.onFrame(new byte[64], 64, 2 * FRAME_NS));
+        assertTrue(Double.isNaN(detector.getLastDifference()));
+        assertEquals(0, detector.getStableRun());
+    }
+
+    @Test
+    public void autoCaptureProcessorTriggersFromAnalysisFrames() {
+        final List<Long> triggers = new ArrayList<>();
+        MotionStabilityDetector.Config config = new MotionStabilityDetector.Config().setStableFrames(4);
+        AutoCaptureFrameProcessor processor = new AutoCaptureFrameProcessor(config, 16, 12, (timestamp, difference) -> triggers.add(timestamp));
+
+        SyntheticFrame frame = new SyntheticFrame(64, 48);
+        assertNull("first frame has nothing to compare against", processor.process(frame.fillLuma(0).at(0)));
+        for (int i = 1; i < 6; i++) {
+            frame.fillLuma(i * 40);
+            processor.process(frame.at(i * FRAME_NS));
+        }
+        assertTrue(triggers.isEmpty());
+        for (int i = 6; i < 12; i++) {
+            processor.process(frame.at(i * FRAME_NS));
+        }
+        assertEquals(1, triggers.size());
+        assertEquals(Long.valueOf(9 * FRAME_NS), triggers.get(0));
+        assertEquals(0.0, (Double) processor.process(frame.at(12 * FRAME_NS)).get("difference"), 1e-9);
+    }
+}
@@ -0,0 +1,137 @@
+package com.ahm.capacitor.camera.preview.camerax;
+
+import static org.junit.Assert.*;
+
+import java.nio.ByteBuffer;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import org.junit.Test;
+
+public class Nv21RotatorTest {
+
+    /** CameraActivity.rotateNV21 as it was before the rotator replaced it */
+    static byte[] legacyRotate(final byte[] yuv, final int width, final int height, final int rotation) {
+        if (rotation == 0) return yuv;
+        final byte[] output = new byte[yuv.length];
+        final int frameSize = width * height;
+        final boolean swap = rotation % 180 != 0;
+        final boolean xflip = rotation % 270 != 0;
+        final boolean yflip = rotation >= 180;
+
+        for (int j = 0; j < height; j++) {
+            for (int i = 0; i < width; i++) {
+                final int yIn = j * width + i;
+                final int uIn = frameSize + (j >> 1) * width + (i & ~1);
+                final int vIn = uIn + 1;
+
+                final int wOut = swap ? height : width;
+                final int hOut = swap ? width : height;
+                final int iSwapped = swap ? j : i;
+                final int jSwapped = swap ? i : j;
+                final int iOut = xflip ? wOut - iSwapped - 1 : iSwapped;
+                final int jOut = yflip ? hOut - jSwapped - 1 : jSwapped;
+
+                final int yOut = jOut * wOut + iOut;
+                final int uOut = frameSize + (jOut >> 1) * wOut + (iOut & ~1);
+                final int vOut = uOut + 1;
+
+                output[yOut] = (byte) (0xff & yuv[yIn]);
+                output[uOut] = (byte) (0xff & yuv[uIn]);
+                output[vOut] = (byte) (0xff & yuv[vIn]);
+            }
+        }
+        return output;
+    }
+
+    static byte[] randomFrame(int width, int height, long seed) {
+        byte[] frame = new byte[Nv21Rotator.frameLength(width, height)];
+        new Random(seed).nextBytes(frame);
+        return frame;
+    }
+
+    @Test
+    public void matchesLegacyRotationForEveryAngle() {
+        Nv21Rotator rotator = new Nv21Rotator();
+        int[][] sizes = { { 2, 2 }, { 4, 2 }, { 6, 4 }, { 64, 48 }, { 320, 240 }, { 126, 200 } };
+        for (int[] size : sizes) {
+            byte[] frame = randomFrame(size[0], size[1], size[0] * 31L + size[1]);
+            for (int rotation = 0; rotation < 360; rotation += 90) {
+                byte[] out = new byte[frame.length];
+                rotator.rotate(frame, size[0], size[1], rotation, out);
+                assertArrayEquals(size[0] + "x" + size[1] + " @" + rotation, legacyRotate(frame, size[0], size[1], rotation), out);
+            }
+        }
+    }
+
+    @Test
+    public void forkJoinBandsMatchSequentialOutput() {
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            Nv21Rotator parallel = new Nv21Rotator(pool, 0);
+            Nv21Rotator sequential = new Nv21Rotator();
+            byte[] frame = randomFrame(640, 360, 7);
+            for (int rotation = 90; rotation < 360; rotation += 90) {
+                byte[] expected = new byte[frame.length];
+                byte[] actual = new byte[frame.length];
+                sequential.rotate(frame, 640, 360, rotation, expected);
+                parallel.rotate(frame, 640, 360, rotation, actual);
+                assertArrayEquals("rotation " + rotation, expected, actual);
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void pooledBuffersAreReused() {
+        Nv21Rotator rotator = new Nv21Rotator();
+        byte[] frame = randomFrame(64, 32, 3);
+        assertSame(frame, rotator.rotate(frame, 64, 32, 0));
+        byte[] first = rotator.rotate(frame, 64, 32, 90);
+        rotator.release(first);
+        byte[] second = rotator.rotate(frame, 64, 32, 270);
+        assertSame(first, second);
+        assertArrayEquals(legacyRotate(frame, 64, 32, 270), second);
+    }
+
+    @Test
+    public void packsStridedYuv420PlanesBeforeRotating() {
+        int width = 8;
+        int height = 4;
+        byte[] nv21 = randomFrame(width, height, 11);
+        int frameSize = width * height;
+
+        // Luma rows padded to 12 bytes, chroma as interleaved VU planes with pixel stride 2
+        int yRowStride = 12;
+        byte[] yBytes = new byte[yRowStride * height];
+        for (int row = 0; row < height; row++) {
+            System.arraycopy(nv21, row * width, yBytes, row * yRowStride, width);
+        }
+        int uvRowStride = 10;
+        byte[] vu = new byte[uvRowStride * (height / 2)];
+        for (int row = 0; row < height / 2; row++) {
+            System.arraycopy(nv21, frameSize + row * width, vu, row * uvRowStride, width);
+        }
+        ByteBuffer y = ByteBuffer.wrap(yBytes);
+        ByteBuffer v = ByteBuffer.wrap(vu);
+        ByteBuffer u = ByteBuffer.wrap(vu, 1, vu.length - 1).slice();
+
+        Nv21Rotator rotator = new Nv21Rotator();
+        for (int rotation = 0; rotation < 360; rotation += 90) {
+            byte[] out = new byte[nv21.length];
+            rotator.rotate(y, yRowStride, u, v, uvRowStride, 2, width, height, rotation, out);
+            assertArrayEquals("rotation " + rotation, legacyRotate(nv21, width, height, rotation), out);
+        }
+        assertEquals(0, y.position());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsOddDimensions() {
+        new Nv21Rotator().rotate(new byte[30], 5, 4, 90, new byte[30]);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsUnsupportedAngles() {
+        new Nv21Rotator().rotate(new byte[6], 2, 2, 45, new byte[6]);
+    }
+}
@@ -0,0 +1,122 @@
+package com.ahm.capacitor.camera.preview.camerax;
+
+import static org.junit.Assert.*;
+
+import java.util.Map;
+import org.junit.Test;
+
+public class PreviewStatsRecorderTest {
+
+    private static final long FRAME_NS = 33_333_333L;
+
+    private static double number(Map<String, Object> map, String key) {
+        return ((Number) map.get(key)).doubleValue();
+    }
+
+    @Test
+    public void steadyStreamReportsRateAndPercentiles() {
+        PreviewStatsRecorder recorder = new PreviewStatsRecorder(64);
+        for (int i = 0; i < 31; i++) {
+            recorder.onFrame(i * FRAME_NS, 10_000_000L, "2", 1.0f, i * 33);
+        }
+        Map<String, Object> stats = recorder.snapshot(1000);
+        assertEquals(30.0, number(stats, "fps"), 0.01);
+        assertEquals(33.33, number(stats, "frameIntervalP50Ms"), 0.01);
+        assertEquals(33.33, number(stats, "frameIntervalP99Ms"), 0.01);
+        assertEquals(0, number(stats, "droppedFrames"), 0);
+        assertEquals(10.0, number(stats, "exposureTimeMs"), 1e-9);
+        assertEquals("2", stats.get("physicalCameraId"));
+        assertEquals(31L, stats.get("frames"));
+        assertEquals(30, stats.get("windowFrames"));
+        assertEquals(-1L, stats.get("msSinceLensSwitch"));
+    }
+
+    @Test
+    public void gapsCountAsDroppedFramesAndRaiseTheTail() {
+        PreviewStatsRecorder recorder = new PreviewStatsRecorder(256);
+        long timestamp = 0;
+        for (int i = 0; i < 100; i++) {
+            // Every 25th frame comes three frames late: two frames were dropped
+            timestamp += (i % 25 == 24) ? 3 * FRAME_NS : FRAME_NS;
+            recorder.onFrame(timestamp, -1, null, Float.NaN, 0);
+        }
+        Map<String, Object> stats = recorder.snapshot(0);
+        assertEquals(33.33, number(stats, "frameIntervalP50Ms"), 0.01);
+        assertEquals(33.33, number(stats, "frameIntervalP95Ms"), 0.01);
+        assertEquals(100.0, number(stats, "frameIntervalP99Ms"), 0.01);
+        assertEquals(8, number(stats, "droppedFrames"), 0);
+        assertFalse(stats.containsKey("exposureTimeMs"));
+        assertFalse(stats.containsKey("zoomRatio"));
+    }
+
+    @Test
+    public void windowKeepsTheMostRecentIntervals() {
+        PreviewStatsRecorder recorder = new PreviewStatsRecorder(8);
+        long timestamp = 0;
+        for (int i = 0; i < 20; i++) {
+            timestamp += i < 12 ? 2 * FRAME_NS : FRAME_NS;
+            recorder.onFrame(timestamp, -1, null, Float.NaN, 0);
+        }
+        long[] intervals = recorder.copyIntervals();
+        assertEquals(8, intervals.length);
+        for (long interval : intervals) assertEquals(FRAME_NS, interval);
+    }
+
+    @Test
+    public void duplicateTimestampsAndRestartsAreNotIntervals() {
+        PreviewStatsRecorder recorder = new PreviewStatsRecorder(16);
+        recorder.onFrame(FRAME_NS, -1, "0", 1f, 0);
+        recorder.onFrame(FRAME_NS, -1, "0", 1f, 0);
+        recorder.onFrame(2 * FRAME_NS, -1, "0", 1f, 0);
+        recorder.onSessionRestart();
+        recorder.onFrame(500 * FRAME_NS, -1, "3", 1f, 100);
+        recorder.onFrame(501 * FRAME_NS, -1, "3", 1f, 133);
+        assertArrayEquals(new long[] { FRAME_NS, FRAME_NS }, recorder.copyIntervals());
+        assertEquals("a rebind is reported by onLensSwitch, not by the id change",
+            -1L, recorder.snapshot(200).get("msSinceLensSwitch"));
+    }
+
+    @Test
+    public void physicalCameraChangeIsALensSwitch() {
+        PreviewStatsRecorder recorder = new PreviewStatsRecorder(16);
+        recorder.onFrame(FRAME_NS, -1, "2", 1.9f, 1000);
+        recorder.onFrame(2 * FRAME_NS, -1, "4", 2.0f, 1033);
+        Map<String, Object> stats = recorder.snapshot(1533);
+        assertEquals(500L, stats.get("msSinceLensSwitch"));
+        assertEquals("4", stats.get("physicalCameraId"));
+        assertEquals(2.0, number(stats, "zoomRatio"), 1e-6);
+
+        recorder.onLensSwitch(1600);
+        assertEquals(100L, recorder.snapshot(1700).get("msSinceLensSwitch"));
+    }
+
+    @Test
+    public void overheadIsAveragedPerFrame() {
+        PreviewStatsRecorder recorder = new PreviewStatsRecorder(16);
+        for (int i = 0; i < 4; i++) {
+            recorder.onFrame(i * FRAME_NS, -1, null, Float.NaN, 0);
+            recorder.recordOverhead(2_000);
+        }
+        assertEquals(2.0, number(recorder.snapshot(0), "collectOverheadUs"), 1e-9);
+    }
+
+    @Test
+    public void recordingAFrameDoesNotAllocate() {
+        java.lang.management.ThreadMXBean bean = java.lang.management.ManagementFactory.getThreadMXBean();
+        if (!(bean instanceof com.sun.management.ThreadMXBean)) return;
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) bean;
+        long id = Thread.currentThread().getId();
+        PreviewStatsRecorder recorder = new PreviewStatsRecorder(256);
+        String cameraId = "0";
+        for (int i = 0; i < 1000; i++) recorder.onFrame(i * FRAME_NS, 1, cameraId, 1f, i);
+
+        // Fixed measurement overhead cancels out between a short and a long run
+        long before = threads.getThreadAllocatedBytes(id);
+        for (int i = 1000; i < 1100; i++) recorder.onFrame(i * FRAME_NS, 1, cameraId, 1f, i);
+        long shortRun = threads.getThreadAllocatedBytes(id) - before;
+        before = threads.getThreadAllocatedBytes(id);
+        for (int i = 1100; i < 11100; i++) recorder.onFrame(i * FRAME_NS, 1, cameraId, 1f, i);
+        long longRun = threads.getThreadAllocatedBytes(id) - before;
+        assertTrue("allocated " + (longRun - shortRun) + " bytes", (longRun - shortRun) / 9900.0 < 1);
+    }
+}
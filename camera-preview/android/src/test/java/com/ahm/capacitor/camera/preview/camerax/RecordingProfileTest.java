@@ -0,0 +1,100 @@
+package com.ahm.capacitor.camera.preview.camerax;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import org.junit.Test;
+
+public class RecordingProfileTest {
+
+    private static final RecordingProfile.Tier SD = RecordingProfile.Tier.SD;
+    private static final RecordingProfile.Tier HD = RecordingProfile.Tier.HD;
+    private static final RecordingProfile.Tier FHD = RecordingProfile.Tier.FHD;
+    private static final RecordingProfile.Tier UHD = RecordingProfile.Tier.UHD;
+
+    /** Qualities of a flagship back camera, a budget back camera and a front camera */
+    private static final List<RecordingProfile.Tier> FLAGSHIP = Arrays.asList(UHD, FHD, HD, SD);
+    private static final List<RecordingProfile.Tier> BUDGET = Arrays.asList(FHD, HD, SD);
+    private static final List<RecordingProfile.Tier> FRONT = Arrays.asList(HD, SD);
+
+    /** AE frame rate ranges as a typical camera reports them */
+    private static List<int[]> frameRates(int... bounds) {
+        List<int[]> ranges = new ArrayList<>();
+        for (int i = 0; i < bounds.length; i += 2) {
+            ranges.add(new int[] { bounds[i], bounds[i + 1] });
+        }
+        return ranges;
+    }
+
+    private static RecordingProfile size(int width, int height) {
+        return new RecordingProfile(width, height, 0, 0, 0);
+    }
+
+    @Test
+    public void defaultIsCappedAt1080pInsteadOfHighest() {
+        assertEquals(FHD, RecordingProfile.defaults().selectTier(FLAGSHIP));
+        assertEquals(FHD, RecordingProfile.defaults().selectTier(BUDGET));
+        assertEquals(HD, RecordingProfile.defaults().selectTier(FRONT));
+        assertEquals("unknown capabilities rely on the recorder fallback", FHD, RecordingProfile.defaults().selectTier(null));
+    }
+
+    @Test
+    public void smallestTierCoveringTheRequestWins() {
+        assertEquals(HD, size(1280, 720).selectTier(FLAGSHIP));
+        assertEquals("portrait requests match by edge", HD, size(720, 1280).selectTier(FLAGSHIP));
+        assertEquals(FHD, size(1440, 1080).selectTier(FLAGSHIP));
+        assertEquals(SD, size(640, 480).selectTier(FLAGSHIP));
+        assertEquals(UHD, size(2560, 1440).selectTier(FLAGSHIP));
+        assertEquals("a screen-sized request records 720p", HD, size(412, 915).selectTier(FLAGSHIP));
+        assertEquals("width alone is matched against the short edge", FHD, size(1080, 0).selectTier(FLAGSHIP));
+    }
+
+    @Test
+    public void unsupportedRequestsFallBack() {
+        assertEquals("4K on a 1080p camera gets its largest tier", FHD, size(3840, 2160).selectTier(BUDGET));
+        assertEquals("a camera missing 720p goes up, not down", FHD, size(1280, 720).selectTier(Arrays.asList(UHD, FHD, SD)));
+        assertEquals(HD, size(8000, 6000).selectTier(FRONT));
+        assertEquals("nothing at or below 1080p", UHD, RecordingProfile.defaults().selectTier(Collections.singletonList(UHD)));
+    }
+
+    @Test
+    public void frameRateRangePrefersFixedRanges() {
+        List<int[]> ranges = frameRates(15, 30, 30, 30, 7, 30, 24, 24, 60, 60);
+        assertArrayEquals(new int[] { 30, 30 }, new RecordingProfile(0, 0, 30, 0, 0).selectFrameRateRange(ranges));
+        assertArrayEquals(new int[] { 24, 24 }, new RecordingProfile(0, 0, 24, 0, 0).selectFrameRateRange(ranges));
+        assertArrayEquals(new int[] { 15, 30 }, new RecordingProfile(0, 0, 20, 0, 0).selectFrameRateRange(ranges));
+        assertNull("no rate requested", RecordingProfile.defaults().selectFrameRateRange(ranges));
+    }
+
+    @Test
+    public void unsupportedFrameRateUsesTheClosestRange() {
+        List<int[]> ranges = frameRates(15, 30, 30, 30);
+        assertArrayEquals(new int[] { 30, 30 }, new RecordingProfile(0, 0, 60, 0, 0).selectFrameRateRange(ranges));
+        assertEquals("rates are capped", RecordingProfile.MAX_FRAME_RATE, new RecordingProfile(0, 0, 240, 0, 0).getFrameRate());
+    }
+
+    @Test
+    public void bitRateIsKeptSaneForTheTier() {
+        assertEquals("encoder default", 0, RecordingProfile.defaults().bitRateFor(FHD));
+        assertEquals(8_000_000, new RecordingProfile(0, 0, 0, 8_000_000, 0).bitRateFor(FHD));
+        // 1080p30 at 0.5 bits per pixel
+        assertEquals(31_104_000, new RecordingProfile(0, 0, 30, 200_000_000, 0).bitRateFor(FHD));
+        // 480p30 at 0.02 bits per pixel
+        assertEquals(207_360, new RecordingProfile(0, 0, 30, 1_000, 0).bitRateFor(SD));
+    }
+
+    @Test
+    public void durationLimitDoesNotRebuildTheRecorder() {
+        RecordingProfile short10s = new RecordingProfile(1280, 720, 30, 0, 10_000);
+        RecordingProfile unlimited = new RecordingProfile(720, 1280, 30, 0, 0);
+        assertTrue(short10s.hasSameEncoding(unlimited));
+        assertNotEquals(short10s, unlimited);
+        assertFalse(short10s.hasSameEncoding(new RecordingProfile(1280, 720, 60, 0, 10_000)));
+        assertFalse(short10s.hasSameEncoding(null));
+        assertEquals(10_000, short10s.getMaxDurationMs());
+        assertEquals(0, new RecordingProfile(0, 0, 0, 0, -5).getMaxDurationMs());
+    }
+}
@@ -0,0 +1,83 @@
+package com.ahm.capacitor.camera.preview.camerax;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.util.HashSet;
+import java.util.Set;
+import org.junit.Test;
+
+public class RecordingSegmenterTest {
+
+    private static final File DIR = new File("/cache");
+
+    @Test
+    public void namesAreAllocatedWithoutTouchingTheDirectory() {
+        RecordingSegmenter segmenter = new RecordingSegmenter(new File("/does/not/exist"), "videoTmp", 10_000, 0, 1_700_000_000_000L);
+        File first = segmenter.nextFile();
+        File second = segmenter.nextFile();
+        assertEquals(new File("/does/not/exist"), first.getParentFile());
+        assertTrue(first.getName(), first.getName().startsWith("videoTmp-" + Long.toString(1_700_000_000_000L, 36) + "-"));
+        assertTrue(first.getName().endsWith("-0000.mp4"));
+        assertTrue(second.getName().endsWith("-0001.mp4"));
+        assertEquals(2, segmenter.getSegmentCount());
+    }
+
+    @Test
+    public void sessionsInTheSameMillisecondDoNotCollide() {
+        Set<String> names = new HashSet<>();
+        for (int i = 0; i < 100; i++) {
+            RecordingSegmenter segmenter = new RecordingSegmenter(DIR, "rec", 10_000, 0, 42L);
+            assertTrue(names.add(segmenter.nextFile().getName()));
+        }
+    }
+
+    @Test
+    public void segmentsAccumulateOffsetsUntilStopped() {
+        RecordingSegmenter segmenter = new RecordingSegmenter(DIR, "rec", 10_000, 0, 0L);
+        assertEquals(10_000, segmenter.nextDurationLimitMs(0));
+        RecordingSegmenter.Segment first = segmenter.onSegmentFinished(segmenter.nextFile(), 10_000, 5_000_000, false, true);
+        assertFalse(first.isLast());
+        assertEquals(0, first.getIndex());
+        assertEquals(0, first.getStartMs());
+
+        segmenter.nextDurationLimitMs(0);
+        RecordingSegmenter.Segment second = segmenter.onSegmentFinished(segmenter.nextFile(), 4_200, 2_000_000, true, false);
+        assertTrue(second.isLast());
+        assertEquals(1, second.getIndex());
+        assertEquals(10_000, second.getStartMs());
+        assertEquals(14_200, segmenter.getRecordedMs());
+        assertEquals(7_000_000, segmenter.getRecordedBytes());
+        assertEquals(second.getFile().getAbsolutePath(), second.toMap().get("path"));
+    }
+
+    @Test
+    public void maxDurationShortensAndEndsTheLastSegment() {
+        RecordingSegmenter segmenter = new RecordingSegmenter(DIR, "rec", 10_000, 0, 0L);
+        long maxDurationMs = 25_000;
+        for (int i = 0; i < 2; i++) {
+            assertEquals(10_000, segmenter.nextDurationLimitMs(maxDurationMs));
+            assertFalse(segmenter.onSegmentFinished(segmenter.nextFile(), 9_990, 1, false, true).isLast());
+        }
+        assertEquals(5_020, segmenter.nextDurationLimitMs(maxDurationMs));
+        assertTrue("reaching the remaining time ends the recording",
+            segmenter.onSegmentFinished(segmenter.nextFile(), 5_010, 1, false, true).isLast());
+    }
+
+    @Test
+    public void sizeLimitRollsEvenInTheFinalSlot() {
+        RecordingSegmenter segmenter = new RecordingSegmenter(DIR, "rec", 0, 50_000_000, 0L);
+        assertEquals(RecordingSegmenter.MIN_SEGMENT_BYTES, new RecordingSegmenter(DIR, "rec", 0, 1, 0L).getSegmentBytes());
+        assertEquals("no time limit", 0, segmenter.nextDurationLimitMs(0));
+        assertEquals(60_000, segmenter.nextDurationLimitMs(60_000));
+        assertFalse("size limit reached before the duration limit",
+            segmenter.onSegmentFinished(segmenter.nextFile(), 20_000, 50_000_000, false, false).isLast());
+        assertEquals(40_000, segmenter.nextDurationLimitMs(60_000));
+    }
+
+    @Test
+    public void shortSegmentsAreRaisedToTheMinimum() {
+        assertEquals(RecordingSegmenter.MIN_SEGMENT_DURATION_MS, new RecordingSegmenter(DIR, "rec", 10, 0, 0L).getSegmentDurationMs());
+        assertEquals(0, new RecordingSegmenter(DIR, "rec", 0, 0, 0L).getSegmentDurationMs());
+    }
+}
@@ -0,0 +1,91 @@
+package com.ahm.capacitor.camera.preview.camerax;
+
+import static org.junit.Assert.*;
+
+import java.util.Map;
+import org.junit.Test;
+
+public class RecordingStatusTrackerTest {
+
+    private static final long MS = 1_000_000L;
+
+    private final long[] now = { 0 };
+    private final RecordingStatusTracker tracker = new RecordingStatusTracker(4.0, () -> now[0]);
+
+    @Test
+    public void statusIsLimitedToTheRate() {
+        assertTrue(tracker.start());
+        assertNotNull(tracker.onStarted());
+
+        // The recorder reports every ~10 ms for three seconds
+        int sent = 0;
+        for (int i = 1; i <= 300; i++) {
+            now[0] = i * 10 * MS;
+            if (tracker.onStatus(i * 10 * MS, i * 1000L) != null) sent++;
+        }
+        assertTrue("about 4 Hz, got " + sent, sent >= 11 && sent <= 12);
+        assertEquals(300, tracker.getStatusEvents());
+        assertEquals(3000, tracker.getDurationMs());
+        assertEquals(300_000, tracker.getBytes());
+    }
+
+    @Test
+    public void stateChangesAreAlwaysSent() {
+        tracker.start();
+        tracker.onStarted();
+        now[0] = 10 * MS;
+        assertNull("inside the interval", tracker.onStatus(10 * MS, 100));
+        Map<String, Object> paused = tracker.onPaused();
+        assertNotNull(paused);
+        assertEquals("paused", paused.get("state"));
+        assertNull("already paused", tracker.onPaused());
+        assertEquals("recording", tracker.onResumed().get("state"));
+        assertEquals("stopping", tracker.onStopping().get("state"));
+        assertNull("already stopping", tracker.onStopping());
+        assertTrue(tracker.isActive());
+        assertEquals("idle", tracker.onStopped().get("state"));
+        assertFalse(tracker.isActive());
+    }
+
+    @Test
+    public void onlyOneRecordingAtATime() {
+        assertTrue(tracker.start());
+        assertFalse(tracker.start());
+        tracker.onStopping();
+        assertFalse("still finalizing", tracker.start());
+        tracker.onStopped();
+        assertTrue(tracker.start());
+    }
+
+    @Test
+    public void segmentsAddUp() {
+        tracker.start();
+        tracker.onStarted();
+        tracker.onStatus(1900 * MS, 50_000);
+        tracker.onFileFinished(2000 * MS, 60_000);
+        assertEquals(2000, tracker.getDurationMs());
+        now[0] = 1000 * MS;
+        Map<String, Object> status = tracker.onStatus(500 * MS, 10_000);
+        assertEquals(2500L, status.get("durationMs"));
+        assertEquals(70_000L, status.get("bytes"));
+        assertEquals(70_000L * 8000 / 2500, status.get("bitrate"));
+    }
+
+    @Test
+    public void reportsAfterTheEndAreIgnored() {
+        tracker.start();
+        tracker.onStarted();
+        tracker.onStopped();
+        assertNull(tracker.onStatus(MS, 1));
+        assertNull(tracker.onStopped());
+        assertNull(tracker.onStarted());
+    }
+
+    @Test
+    public void zeroRateSendsEveryReport() {
+        RecordingStatusTracker unlimited = new RecordingStatusTracker(0, () -> now[0]);
+        unlimited.start();
+        unlimited.onStarted();
+        for (int i = 0; i < 10; i++) assertNotNull(unlimited.onStatus(i, i));
+    }
+}
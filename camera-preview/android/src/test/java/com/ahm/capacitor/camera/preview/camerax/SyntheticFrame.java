@@ -0,0 +1,69 @@
+package com.ahm.capacitor.camera.preview.camerax;
+
+import java.nio.ByteBuffer;
+
+/** In-memory YUV_420_888 frame with configurable strides for tests */
+final class SyntheticFrame implements AnalysisFrame {
+    final int width;
+    final int height;
+    final int yRowStride;
+    final int yPixelStride;
+    final ByteBuffer y;
+    final ByteBuffer u;
+    final ByteBuffer v;
+    long timestampNanos;
+    int rotationDegrees;
+
+    SyntheticFrame(int width, int height) {
+        this(width, height, width, 1);
+    }
+
+    SyntheticFrame(int width, int height, int yRowStride, int yPixelStride) {
+        this.width = width;
+        this.height = height;
+        this.yRowStride = yRowStride;
+        this.yPixelStride = yPixelStride;
+        this.y = ByteBuffer.allocate(yRowStride * height);
+        this.u = ByteBuffer.allocate(width * height / 2);
+        this.v = ByteBuffer.allocate(width * height / 2);
+    }
+
+    SyntheticFrame at(long timestampNanos) {
+        this.timestampNanos = timestampNanos;
+        return this;
+    }
+
+    /** Fill the visible luma samples with one value */
+    SyntheticFrame fillLuma(int value) {
+        for (int row = 0; row < height; row++) {
+            for (int col = 0; col < width; col++) {
+                setLuma(col, row, value);
+            }
+        }
+        return this;
+    }
+
+    void setLuma(int x, int yPos, int value) {
+        y.put(yPos * yRowStride + x * yPixelStride, (byte) value);
+    }
+
+    @Override public int getWidth() { return width; }
+    @Override public int getHeight() { return height; }
+    @Override public int getRotationDegrees() { return rotationDegrees; }
+    @Override public long getTimestampNanos() { return timestampNanos; }
+
+    @Override
+    public ByteBuffer getPlaneBuffer(int plane) {
+        return plane == PLANE_Y ? y : plane == PLANE_U ? u : v;
+    }
+
+    @Override
+    public int getRowStride(int plane) {
+        return plane == PLANE_Y ? yRowStride : width;
+    }
+
+    @Override
+    public int getPixelStride(int plane) {
+        return plane == PLANE_Y ? yPixelStride : 2;
+    }
+}
@@ -0,0 +1,121 @@
+package com.ahm.capacitor.camera.preview.camerax;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import org.junit.After;
+import org.junit.Test;
+
+public class TracerTest {
+
+    /** Records backend calls as strings */
+    private static final class RecordingBackend implements Tracer.Backend {
+        final List<String> calls = new ArrayList<>();
+
+        @Override
+        public synchronized void beginSection(String name) {
+            calls.add("begin " + name);
+        }
+
+        @Override
+        public synchronized void endSection() {
+            calls.add("end");
+        }
+
+        @Override
+        public synchronized void beginAsyncSection(String name, int cookie) {
+            calls.add("beginAsync " + name);
+        }
+
+        @Override
+        public synchronized void endAsyncSection(String name, int cookie) {
+            calls.add("endAsync " + name);
+        }
+    }
+
+    @After
+    public void tearDown() {
+        Tracer.disable();
+        Tracer.clear();
+    }
+
+    @Test
+    public void disabledTracerRecordsNothing() {
+        Tracer.disable();
+        Tracer.Span span = Tracer.begin("plugin.flip");
+        assertSame(Tracer.Span.NOOP, span);
+        assertSame(span, span.arg("lens", "wide"));
+        span.end();
+        assertTrue(Tracer.snapshot().isEmpty());
+    }
+
+    @Test
+    public void spansCarryTimingThreadAndArgs() throws Exception {
+        RecordingBackend backend = new RecordingBackend();
+        Tracer.enable(16, backend);
+        Tracer.Span outer = Tracer.begin("plugin.capture");
+        Tracer.Span inner = Tracer.begin("camerax.bind").arg("reused", true);
+        Thread.sleep(5);
+        inner.end();
+        outer.end();
+        outer.end();
+
+        List<Map<String, Object>> spans = Tracer.snapshot();
+        assertEquals(2, spans.size());
+        Map<String, Object> bind = spans.get(0);
+        assertEquals("camerax.bind", bind.get("name"));
+        assertTrue((Double) bind.get("durationMs") >= 4.0);
+        assertEquals(Thread.currentThread().getName(), bind.get("thread"));
+        assertEquals(true, ((Map<?, ?>) bind.get("args")).get("reused"));
+        assertTrue((Double) spans.get(1).get("durationMs") >= (Double) bind.get("durationMs"));
+        assertEquals(4, backend.calls.size());
+        assertEquals("begin plugin.capture", backend.calls.get(0));
+        assertEquals("begin camerax.bind", backend.calls.get(1));
+        assertEquals("end", backend.calls.get(3));
+    }
+
+    @Test
+    public void asyncSpansEndOnAnotherThread() throws Exception {
+        RecordingBackend backend = new RecordingBackend();
+        Tracer.enable(16, backend);
+        final Tracer.Span span = Tracer.beginAsync("camerax.firstFrame");
+        Thread other = new Thread(span::end, "camera");
+        other.start();
+        other.join(5000);
+
+        List<Map<String, Object>> spans = Tracer.snapshot();
+        assertEquals(1, spans.size());
+        assertEquals(true, spans.get(0).get("async"));
+        assertEquals("beginAsync camerax.firstFrame", backend.calls.get(0));
+        assertEquals("endAsync camerax.firstFrame", backend.calls.get(1));
+    }
+
+    @Test
+    public void ringKeepsTheMostRecentSpans() {
+        Tracer.enable(4, null);
+        for (int i = 0; i < 10; i++) {
+            Tracer.begin("span" + i).end();
+        }
+        List<Map<String, Object>> spans = Tracer.snapshot();
+        assertEquals(4, spans.size());
+        assertEquals("span6", spans.get(0).get("name"));
+        assertEquals("span9", spans.get(3).get("name"));
+        assertEquals(6, Tracer.getDropped());
+
+        Tracer.clear();
+        assertTrue(Tracer.snapshot().isEmpty());
+        assertEquals(4, Tracer.getCapacity());
+    }
+
+    @Test
+    public void spansStartedBeforeDisableStillFinish() {
+        Tracer.enable(8, null);
+        Tracer.Span span = Tracer.beginAsync("plugin.start");
+        Tracer.disable();
+        span.end();
+        assertEquals(1, Tracer.snapshot().size());
+        assertSame(Tracer.Span.NOOP, Tracer.begin("plugin.stop"));
+    }
+}
@@ -0,0 +1,50 @@
+package com.ahm.capacitor.camera.preview.camerax;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+public class ZoomCoalescerTest {
+
+    @Test
+    public void onlyTheLatestRatioPerFrameIsApplied() {
+        ZoomCoalescer coalescer = new ZoomCoalescer();
+        assertTrue("first request schedules a frame", coalescer.offer(1.1f));
+        assertFalse(coalescer.offer(1.2f));
+        assertFalse(coalescer.offer(1.3f));
+        assertEquals(1.3f, coalescer.take(), 0f);
+        assertTrue(Float.isNaN(coalescer.take()));
+
+        assertTrue("next request schedules again", coalescer.offer(1.4f));
+        assertEquals(1.4f, coalescer.take(), 0f);
+        assertEquals(4, coalescer.getOffered());
+        assertEquals(2, coalescer.getCoalesced());
+    }
+
+    @Test
+    public void heldRatioWaitsUntilResumedAndLosesToNewerOnes() {
+        ZoomCoalescer coalescer = new ZoomCoalescer();
+        coalescer.offer(0.8f);
+        float ratio = coalescer.take();
+        coalescer.hold(ratio);
+        assertTrue(coalescer.resume());
+        assertFalse("already scheduled", coalescer.resume());
+        assertEquals(0.8f, coalescer.take(), 0f);
+
+        coalescer.offer(0.7f);
+        ratio = coalescer.take();
+        coalescer.offer(0.6f);
+        coalescer.hold(ratio);
+        assertEquals(0.6f, coalescer.take(), 0f);
+        assertFalse("nothing left to resume", coalescer.resume());
+    }
+
+    @Test
+    public void clearDropsThePendingRequest() {
+        ZoomCoalescer coalescer = new ZoomCoalescer();
+        coalescer.offer(2f);
+        coalescer.clear();
+        assertTrue(Float.isNaN(coalescer.take()));
+        assertTrue(coalescer.offer(3f));
+    }
+}
@@ -0,0 +1,57 @@
+package com.ahm.capacitor.camera.preview.camerax;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+public class ZoomCrossingPredictorTest {
+
+    private static final long FRAME_NS = 16_666_667L;
+    private final ZoomLensPolicy policy = new ZoomLensPolicy(0.5f, 3.0f, ZoomLensPolicy.DEFAULT_BAND);
+
+    @Test
+    public void steadyPinchOutPredictsTheUltraWideBeforeItCrosses() {
+        ZoomCrossingPredictor predictor = new ZoomCrossingPredictor();
+        float zoom = 1.6f;
+        long now = 0;
+        LensTarget predictedAt = null;
+        float zoomAtPrediction = Float.NaN;
+        // Halving the zoom every second
+        while (zoom > 0.9f) {
+            predictor.onZoom(zoom, now);
+            LensTarget predicted = predictor.predictCrossing(policy, LensTarget.WIDE, ZoomCrossingPredictor.DEFAULT_HORIZON_MS);
+            if (predicted != null && predictedAt == null) {
+                predictedAt = predicted;
+                zoomAtPrediction = zoom;
+            }
+            zoom *= (float) Math.pow(0.5, FRAME_NS / 1e9);
+            now += FRAME_NS;
+        }
+        assertEquals(LensTarget.ULTRA_WIDE, predictedAt);
+        assertTrue("predicted at " + zoomAtPrediction + "x, still on the main lens", zoomAtPrediction > 0.95f);
+        assertEquals(Math.log(0.5), predictor.getVelocity(), 0.01);
+    }
+
+    @Test
+    public void slowOrStillPinchPredictsNothing() {
+        ZoomCrossingPredictor predictor = new ZoomCrossingPredictor();
+        for (int i = 0; i < 30; i++) {
+            predictor.onZoom(1.02f + (i % 2) * 0.001f, i * FRAME_NS);
+        }
+        assertNull(predictor.predictCrossing(policy, LensTarget.WIDE, ZoomCrossingPredictor.DEFAULT_HORIZON_MS));
+    }
+
+    @Test
+    public void pinchInTowardsTelephotoAndReset() {
+        ZoomCrossingPredictor predictor = new ZoomCrossingPredictor();
+        predictor.onZoom(2.8f, 0);
+        predictor.onZoom(2.9f, FRAME_NS);
+        assertEquals(LensTarget.TELEPHOTO, predictor.predictCrossing(policy, LensTarget.WIDE, ZoomCrossingPredictor.DEFAULT_HORIZON_MS));
+
+        predictor.reset();
+        assertNull(predictor.predictCrossing(policy, LensTarget.WIDE, ZoomCrossingPredictor.DEFAULT_HORIZON_MS));
+        assertTrue(Float.isNaN(predictor.predictZoom(100)));
+        predictor.onZoom(2.9f, 5 * FRAME_NS);
+        assertNull("one sample has no velocity", predictor.predictCrossing(policy, LensTarget.WIDE, 100));
+    }
+}
@@ -0,0 +1,59 @@
+package com.ahm.capacitor.camera.preview.camerax;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+public class ZoomLensPolicyTest {
+
+    private final ZoomLensPolicy policy = new ZoomLensPolicy(0.5f, 3.0f, ZoomLensPolicy.DEFAULT_BAND);
+
+    @Test
+    public void pinchHoveringAroundOneDoesNotThrash() {
+        LensTarget lens = LensTarget.WIDE;
+        int switches = 0;
+        // Jitter of +-3% around 1.0x, inside the 5% band
+        for (int i = 0; i < 100; i++) {
+            float zoom = 1.0f + (i % 2 == 0 ? -0.03f : 0.03f);
+            LensTarget next = policy.lensFor(lens, zoom);
+            if (next != lens) switches++;
+            lens = next;
+        }
+        assertEquals(0, switches);
+        assertEquals(LensTarget.WIDE, lens);
+    }
+
+    @Test
+    public void crossingsNeedToClearTheBand() {
+        assertEquals(LensTarget.WIDE, policy.lensFor(LensTarget.WIDE, 0.96f));
+        assertEquals(LensTarget.ULTRA_WIDE, policy.lensFor(LensTarget.WIDE, 0.94f));
+        assertEquals(LensTarget.ULTRA_WIDE, policy.lensFor(LensTarget.ULTRA_WIDE, 1.04f));
+        assertEquals(LensTarget.WIDE, policy.lensFor(LensTarget.ULTRA_WIDE, 1.06f));
+
+        assertEquals(LensTarget.WIDE, policy.lensFor(LensTarget.WIDE, 3.1f));
+        assertEquals(LensTarget.TELEPHOTO, policy.lensFor(LensTarget.WIDE, 3.2f));
+        assertEquals(LensTarget.TELEPHOTO, policy.lensFor(LensTarget.TELEPHOTO, 2.9f));
+        assertEquals(LensTarget.WIDE, policy.lensFor(LensTarget.TELEPHOTO, 2.8f));
+    }
+
+    @Test
+    public void largeJumpsSkipTheMiddleLens() {
+        assertEquals(LensTarget.TELEPHOTO, policy.lensFor(LensTarget.ULTRA_WIDE, 4f));
+        assertEquals(LensTarget.ULTRA_WIDE, policy.lensFor(LensTarget.TELEPHOTO, 0.6f));
+    }
+
+    @Test
+    public void missingLensesAndFrontCameraStayPut() {
+        ZoomLensPolicy mainOnly = new ZoomLensPolicy(Float.NaN, Float.NaN, ZoomLensPolicy.DEFAULT_BAND);
+        assertEquals(LensTarget.WIDE, mainOnly.lensFor(LensTarget.WIDE, 0.5f));
+        assertEquals(LensTarget.WIDE, mainOnly.lensFor(LensTarget.WIDE, 8f));
+        assertEquals(LensTarget.FRONT, policy.lensFor(LensTarget.FRONT, 0.5f));
+    }
+
+    @Test
+    public void cameraRatioIsRelativeToTheServingLens() {
+        assertEquals(1.2f, policy.cameraRatio(LensTarget.ULTRA_WIDE, 0.6f), 1e-6f);
+        assertEquals(1.5f, policy.cameraRatio(LensTarget.WIDE, 1.5f), 1e-6f);
+        assertEquals(2.0f, policy.cameraRatio(LensTarget.TELEPHOTO, 6f), 1e-6f);
+    }
+}
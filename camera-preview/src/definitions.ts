@@ -1,4 +1,9 @@
+import type { PluginListenerHandle } from '@capacitor/core';
+
 export type CameraPosition = 'rear' | 'front';
+export type CameraOrientationStrategy = 'exif' | 'lossless' | 'bitmap';
+export type CameraCaptureResultType = 'base64' | 'uri' | 'chunked';
+export type CameraLensSwitchMode = 'auto' | 'rebind';
 export interface CameraPreviewOptions {
   /** Parent element to attach the video preview element to (applicable to the web platform only) */
   parent?: string;
@@ -34,16 +39,77 @@ export interface CameraPreviewOptions {
   enableOpacity?: boolean;
   /** Defaults to false - Android only.  Set if camera preview will support pinch to zoom. */
   enableZoom?: boolean;
+  /** Defaults to 'auto' - Android only. 'auto' switches lenses through the zoom ratio of a logical multi-camera when the device has one, 'rebind' always rebinds the camera. */
+  lensSwitchMode?: CameraLensSwitchMode;
+  /** startRecordVideo, Android only - Recording stops by itself after this many milliseconds, default 0 (no limit) */
+  maxDuration?: number;
+  /** startRecordVideo, Android only - Target frame rate, default 0 (camera default, usually 30) */
+  frameRate?: number;
+  /** startRecordVideo, Android only - Target video bitrate in bits per second, default 0 (encoder default) */
+  videoBitrate?: number;
+  /** startRecordVideo only - Keep the torch on while recording, default false */
+  withFlash?: boolean;
+  /** startRecordVideo, Android only - Roll to a new file after this many milliseconds (at least 1000), default 0 (one file) */
+  segmentDurationMs?: number;
+  /** startRecordVideo, Android only - Roll to a new file after this many bytes (at least 256 KB), default 0 (one file) */
+  segmentBytes?: number;
+  /** startRecordVideo, Android only - Keep this many milliseconds in memory before `triggerPreRoll()`, default 0 (no pre-roll) */
+  preRollMs?: number;
+  /** startRecordVideo, Android only - Memory cap of the pre-roll buffer in bytes, default 48 MB */
+  preRollMaxBytes?: number;
+  /** startRecordVideo, Android only - Rate of `recordingStatus` progress events, default 4 (0 for every recorder update) */
+  maxStatusPerSecond?: number;
 }
 export interface CameraPreviewPictureOptions {
   /** The picture height, optional, default 0 (Device default) */
   height?: number;
-  /** The picture width, optional, default 0 (Device default) */
+  /** The picture width, optional, default 0 (Device default)
+   *
+   * On Android the smallest supported capture size covering `width` x `height` is used, in either
+   * orientation, so small values avoid full-sensor captures */
   width?: number;
   /** The picture quality, 0 - 100, default 85 on `iOS/Android`.
    *
    * If left undefined, the `web` implementation will export a PNG, otherwise a JPEG will be generated */
   quality?: number;
+  /** How rotated captures are oriented on Android.
+   *
+   * `exif` only rewrites the EXIF orientation tag, `lossless` rotates the compressed JPEG without
+   * re-encoding it and `bitmap` decodes, rotates and re-encodes. `exif` and `lossless` fall back to
+   * `bitmap` when an image cannot be handled. Defaults to `exif`, or `lossless` when
+   * `disableExifHeaderStripping` is false */
+  orientationStrategy?: CameraOrientationStrategy;
+  /** How the picture is returned on Android. Defaults to `base64`, or a file path when `storeToFile` is set.
+   *
+   * `uri` writes the JPEG to `outputUri` (or a cache file) and returns only its handle. `chunked`
+   * sends the Base64 payload in `captureChunk` events of at most `chunkSize` bytes before resolving */
+  resultType?: CameraCaptureResultType;
+  /** Destination `content://` or `file://` URI for `resultType: 'uri'` */
+  outputUri?: string;
+  /** Input bytes per `captureChunk` event for `resultType: 'chunked'`, default 196608 */
+  chunkSize?: number;
+}
+
+export interface CameraCaptureResult {
+  /** Base64 JPEG, or a file path with `storeToFile` or `resultType: 'uri'`. Absent for chunked results */
+  value?: string;
+  /** Handle of the written JPEG for `resultType: 'uri'` */
+  outputUri?: string;
+  /** Identifier shared by the `captureChunk` events of a chunked capture */
+  captureId?: string;
+  /** Number of `captureChunk` events sent for a chunked capture */
+  chunks?: number;
+  /** JPEG size in bytes for a chunked capture */
+  size?: number;
+}
+
+export interface CameraCaptureChunk {
+  captureId: string;
+  /** Position of this segment, starting at 0 */
+  index: number;
+  count: number;
+  /** Base64 of this segment. Segments can be decoded one by one or concatenated */
+  data: string;
 }
 
 export interface CameraSampleOptions {
@@ -51,20 +117,322 @@ export interface CameraSampleOptions {
   quality?: number;
 }
 
+export interface CameraSampleResult {
+  /** Base64 encoded JPEG of the current preview frame, at preview resolution on Android */
+  value: string;
+  /** Time from the call reaching the plugin to the promise being resolved (Android only) */
+  latencyMs?: number;
+}
+
 export type CameraPreviewFlashMode = 'off' | 'on' | 'auto' | 'red-eye' | 'torch';
 
+export interface CameraLensSwitchResult {
+  /** Lens that is active after the switch */
+  lens: 'ultra-wide' | 'wide' | 'telephoto';
+  /** 'zoom' when only the zoom ratio changed, 'rebind' when the camera had to be rebound */
+  path: 'zoom' | 'rebind';
+  /** Time the switch took in milliseconds */
+  durationMs: number;
+  /** Zoom ratio applied after the switch */
+  zoomRatio: number;
+  /** Time the preview showed no frames: 0 for 'zoom', -1 when no frame arrived */
+  blackFrameMs?: number;
+}
+
+export interface CameraStartTimings {
+  /** Time spent waiting for the camera provider */
+  providerMs: number;
+  /** Time spent building use cases (close to 0 when they are reused) */
+  buildMs: number;
+  /** Time spent binding use cases to the camera */
+  bindMs: number;
+  /** Time from the end of binding to the first preview frame, -1 if it was not observed */
+  firstFrameMs: number;
+  /** Time from the start request until the camera was reported started */
+  totalMs: number;
+  /** Whether prewarm() (or prewarmOnLoad) had initialized the camera provider before start */
+  prewarmed?: boolean;
+  /** Provider initialization time saved by prewarming, 0 when not prewarmed */
+  prewarmSavedMs?: number;
+}
+
+export interface CameraPrewarmOptions {
+  /** Camera that start() will use, so its selector can be resolved ahead of time. Defaults to rear */
+  position?: CameraPosition;
+}
+
+export interface CameraPrewarmResult {
+  /** Time spent initializing the camera provider and lens topology */
+  durationMs: number;
+}
+
+export interface CameraStartResult {
+  /** Android only - per-phase timing of the camera start */
+  timings?: CameraStartTimings;
+}
+
+export interface CameraFrameAnalysisOptions {
+  /** Name of a registered native frame processor, default `luminance` */
+  processor?: string;
+  /** Upper bound of `frameResult` events per second; newer results replace pending ones. Default 10, 0 for no limit */
+  maxResultsPerSecond?: number;
+  /** Target analysis width in sensor orientation, default 640 */
+  width?: number;
+  /** Target analysis height in sensor orientation, default 480 */
+  height?: number;
+}
+
+export interface CameraFrameResult {
+  /** Processor that produced the result */
+  processor: string;
+  /** Sensor timestamp of the analyzed frame in nanoseconds */
+  timestampNs: number;
+  /** Processor specific values, e.g. `luminance` */
+  [key: string]: unknown;
+}
+
+export interface CameraFrameAnalysisMetrics {
+  framesReceived: number;
+  framesProcessed: number;
+  /** Frames skipped by keep-only-latest backpressure, estimated from timestamp gaps */
+  framesDropped: number;
+  processingErrors: number;
+  resultsEmitted: number;
+  /** Results replaced by a newer one before the rate limit let them through */
+  resultsCoalesced: number;
+  avgProcessingMs: number;
+  maxProcessingMs: number;
+  /** Frames being processed plus results waiting for the rate limit */
+  queueDepth: number;
+  maxQueueDepth: number;
+}
+
+export interface CameraVideoSegment {
+  /** Position of the segment in the recording, from 0 */
+  index: number;
+  path: string;
+  durationMs: number;
+  bytes: number;
+  /** Offset of the segment's first frame in the whole recording */
+  startMs: number;
+  /** True for the segment the recording stopped with */
+  last: boolean;
+}
+
+export interface CameraRecordingStatus {
+  state: 'starting' | 'recording' | 'paused' | 'stopping' | 'idle';
+  /** Recorded time, without pauses, over all segments */
+  durationMs: number;
+  bytes: number;
+  /** Average since the start, bits per second */
+  bitrate: number;
+}
+
+export interface CameraPreRollBuffer {
+  /** Footage held in the buffer when the pre-roll was triggered */
+  durationMs: number;
+  windowMs: number;
+  bytes: number;
+  maxBytes: number;
+  /** Samples that left the buffer because they were older than the window or over the memory cap */
+  evictedSamples: number;
+  /** Samples that could not be kept decodable, e.g. a group of pictures larger than the cap */
+  droppedSamples: number;
+}
+
+export interface CameraPreviewStats {
+  /** Preview frames seen since the camera started */
+  frames: number;
+  /** Frame intervals in the statistics window (the last 256) */
+  windowFrames: number;
+  streaming: boolean;
+  /** Actual frame rate over the window */
+  fps: number;
+  frameIntervalP50Ms?: number;
+  frameIntervalP95Ms?: number;
+  frameIntervalP99Ms?: number;
+  frameIntervalMaxMs?: number;
+  /** Frames missing from the window, estimated from intervals longer than the median */
+  droppedFrames: number;
+  /** Sensor exposure time of the latest frame */
+  exposureTimeMs?: number;
+  /** Bound camera id */
+  cameraId?: string;
+  /** Physical camera delivering frames; the bound id when the device does not report it */
+  physicalCameraId?: string;
+  zoomRatio: number;
+  lens?: 'ultra-wide' | 'wide' | 'telephoto' | 'front';
+  /** Time since the last lens switch, -1 if none happened */
+  msSinceLensSwitch: number;
+  /** Average time spent collecting one frame's statistics, in microseconds */
+  collectOverheadUs: number;
+  /** Time without preview frames during the last rebinding lens switch, -1 if none happened */
+  lensSwitchBlackFrameMs: number;
+  /** Lens switches caused by pinch-zoom crossing a lens boundary */
+  pinchCrossings: number;
+  /** Longest time without preview frames over those crossings, -1 if none happened */
+  pinchCrossingMaxBlackFrameMs: number;
+  /** Crossings predicted from the pinch velocity, and how many of them the pinch went on to make */
+  pinchPredictions: number;
+  pinchPredictionHits: number;
+  /** How far ahead of the last predicted crossing its camera was resolved, -1 if none */
+  pinchPredictionLeadMs: number;
+}
+
+export interface CameraStorageStats {
+  /** Pictures and videos of the plugin in the cache directory */
+  files: number;
+  bytes: number;
+  /** Budget from the `storageMaxMb` and `storageMaxAgeHours` plugin config options */
+  maxBytes: number;
+  maxAgeMs: number;
+  /** Oldest files deleted to stay within maxBytes */
+  evictedFiles: number;
+  /** Files deleted for being older than maxAgeMs */
+  expiredFiles: number;
+  evictedBytes: number;
+  /** Files left by earlier runs found at load */
+  sweptFiles: number;
+  /** Duration of the background sweep at load, -1 until it has run */
+  sweepMs: number;
+  deleteFailures: number;
+}
+
+export interface CameraImageProcessingMetrics {
+  /** Post-capture jobs (orienting, encoding, Base64, writing) handed to the background executor */
+  submitted: number;
+  completed: number;
+  failed: number;
+  /** Jobs dropped before they started, e.g. when the camera stopped */
+  cancelled: number;
+  /** Jobs refused because the queue was full and the caller was the main thread */
+  rejected: number;
+  /** Jobs run on the camera thread because the queue was full */
+  callerRuns: number;
+  queueDepth: number;
+  maxQueueDepth: number;
+  active: number;
+  avgWaitMs: number;
+  avgRunMs: number;
+  maxRunMs: number;
+}
+
+export interface CameraAutoCaptureOptions {
+  /** Mean absolute luma difference (0-255) between frames below which a frame counts as still, default 3 */
+  stableThreshold?: number;
+  /** Difference above which the scene counts as changed and auto capture re-arms, default 10 */
+  motionThreshold?: number;
+  /** Consecutive still analysis frames before capturing, default 10 */
+  stableFrames?: number;
+  /** Minimum time between two captures, default 2000 */
+  cooldownMs?: number;
+  /** Require motion after a capture before the next one, default true */
+  requireMotionToRearm?: boolean;
+  /** Upper bound of `autoCaptureStatus` events per second, default 4 */
+  maxStatusPerSecond?: number;
+  /** Picture options, as for `capture` */
+  width?: number;
+  height?: number;
+  quality?: number;
+}
+
+export interface CameraAutoCaptureStatus {
+  /** Mean absolute luma difference to the previous analysis frame */
+  difference: number;
+  /** Length of the current run of still frames */
+  stableFrames: number;
+  /** Whether a capture fires once the scene is still long enough */
+  armed: boolean;
+  triggered: boolean;
+  timestampNs: number;
+}
+
+export interface CameraBurstOptions {
+  /** Number of pictures, 1 - 30, default 3 */
+  count?: number;
+  /** Delay between two requests in ms; 0, the default, queues them back-to-back */
+  intervalMs?: number;
+  /** Picture options, as for `capture` */
+  width?: number;
+  height?: number;
+  quality?: number;
+  orientationStrategy?: CameraOrientationStrategy;
+  /** 'base64' (default) puts each picture in `value`, 'uri' writes it to the cache and puts its path in `path` */
+  resultType?: 'base64' | 'uri';
+}
+
+export interface CameraBurstFrame {
+  burstId: string;
+  /** Position of the shot in the burst; frames may arrive out of order */
+  index: number;
+  value?: string;
+  path?: string;
+  /** Time from the shot's request to its delivery */
+  latencyMs: number;
+}
+
+export interface CameraBurstResult {
+  burstId: string;
+  count: number;
+  delivered: number;
+  failed: number;
+  /** First request to last delivery */
+  durationMs: number;
+  /** Sustained delivered frames per second, between the first and the last delivery */
+  fps: number;
+  /** Frames per second handed over by the camera, before encoding */
+  captureFps: number;
+  avgLatencyMs: number;
+  minLatencyMs: number;
+  maxLatencyMs: number;
+  /** Per-shot latency by index, -1 for failed shots */
+  latenciesMs: number[];
+}
+
+export interface CameraTraceSpan {
+  id: number;
+  /** e.g. plugin.capture, camerax.bind, camerax.firstFrame */
+  name: string;
+  /** Start time in ms on a monotonic clock, comparable between spans */
+  startMs: number;
+  durationMs: number;
+  /** Thread the span began on */
+  thread: string;
+  /** True for spans that may end on another thread */
+  async: boolean;
+  args?: { [key: string]: string | number | boolean };
+}
+
+export interface CameraTraces {
+  enabled: boolean;
+  capacity: number;
+  /** Spans overwritten before they were read */
+  dropped: number;
+  /** Most recent spans, oldest first */
+  spans: CameraTraceSpan[];
+}
+
 export interface CameraOpacityOptions {
   /** The percent opacity to set for camera view, default 1 */
   opacity?: number;
 }
 
 export interface CameraPreviewPlugin {
-  start(options: CameraPreviewOptions): Promise<void>;
+  start(options: CameraPreviewOptions): Promise<CameraStartResult | void>;
+  /** Initialize the camera stack in the background so a later start() only binds the preview. Android only */
+  prewarm(options?: CameraPrewarmOptions): Promise<CameraPrewarmResult>;
   startRecordVideo(options: CameraPreviewOptions): Promise<void>;
   stop(): Promise<void>;
   stopRecordVideo(): Promise<void>;
-  capture(options: CameraPreviewPictureOptions): Promise<{ value: string }>;
-  captureSample(options: CameraSampleOptions): Promise<{ value: string }>;
+  /** Pause the running recording; nothing is written until `resumeRecordVideo()`. Android only */
+  pauseRecordVideo(): Promise<void>;
+  resumeRecordVideo(): Promise<void>;
+  /** Keep the pre-roll buffer of a recording started with `preRollMs`, and everything recorded from now on. Android only */
+  triggerPreRoll(): Promise<CameraPreRollBuffer>;
+  capture(options: CameraPreviewPictureOptions): Promise<CameraCaptureResult>;
+  captureSample(options: CameraSampleOptions): Promise<CameraSampleResult>;
+  /** Take several pictures in a row; each one arrives as a `burstFrame` event and the call resolves with timings. Android only */
+  captureBurst(options?: CameraBurstOptions): Promise<CameraBurstResult>;
   getSupportedCameras(): Promise<{ result: string[] }>;
   getSupportedFlashModes(): Promise<{
     result: CameraPreviewFlashMode[];
@@ -73,5 +441,50 @@ export interface CameraPreviewPlugin {
   flip(): Promise<void>;
   setOpacity(options: CameraOpacityOptions): Promise<void>;
   isCameraStarted(): Promise<{ value: boolean }>;
-  switchToWideAngle(): Promise<void>;
+  switchToWideAngle(): Promise<CameraLensSwitchResult>;
+  switchToMainWide(): Promise<CameraLensSwitchResult>;
+  switchToTelephoto(): Promise<CameraLensSwitchResult>;
+  /** Run a native frame processor on a low-resolution analysis stream; results arrive as `frameResult` events. Android only */
+  startFrameAnalysis(options?: CameraFrameAnalysisOptions): Promise<void>;
+  /** Stop the analysis stream, resolving with its final metrics. Android only */
+  stopFrameAnalysis(): Promise<Partial<CameraFrameAnalysisMetrics>>;
+  getFrameAnalysisMetrics(): Promise<CameraFrameAnalysisMetrics>;
+  /** Frame rate and frame-time percentiles of the running preview. Android only */
+  getPreviewStats(): Promise<CameraPreviewStats>;
+  /** Emit `previewStats` events every intervalMs (default 1000, minimum 100) until stopPreviewStats. Android only */
+  startPreviewStats(options?: { intervalMs?: number }): Promise<void>;
+  stopPreviewStats(): Promise<void>;
+  /** Record latency spans of plugin calls and camera phases, also visible in Perfetto. Android only */
+  setTracing(options: { enabled: boolean; capacity?: number }): Promise<void>;
+  /** Spans recorded since tracing was enabled, optionally clearing them. Android only */
+  getTraces(options?: { clear?: boolean }): Promise<CameraTraces>;
+  /** Counters of the background executor that encodes captured pictures. Android only */
+  getImageProcessingMetrics(): Promise<CameraImageProcessingMetrics>;
+  /** Size of the pictures and videos kept in the cache directory, and what was evicted. Android only */
+  getStorageStats(): Promise<CameraStorageStats>;
+  /** Take a picture whenever the scene settles, delivered as `autoCapture` events. Uses the frame analysis stream. Android only */
+  startAutoCapture(options?: CameraAutoCaptureOptions): Promise<void>;
+  stopAutoCapture(): Promise<void>;
+  /** Segments of a capture taken with `resultType: 'chunked'`. Android only */
+  addListener(eventName: 'captureChunk', listenerFunc: (chunk: CameraCaptureChunk) => void): Promise<PluginListenerHandle>;
+  addListener(eventName: 'burstFrame', listenerFunc: (frame: CameraBurstFrame) => void): Promise<PluginListenerHandle>;
+  addListener(
+    eventName: 'burstFrameError',
+    listenerFunc: (error: { burstId: string; index: number; message: string }) => void,
+  ): Promise<PluginListenerHandle>;
+  addListener(eventName: 'previewStats', listenerFunc: (stats: CameraPreviewStats) => void): Promise<PluginListenerHandle>;
+  addListener(eventName: 'frameResult', listenerFunc: (result: CameraFrameResult) => void): Promise<PluginListenerHandle>;
+  addListener(eventName: 'autoCapture', listenerFunc: (picture: { value: string }) => void): Promise<PluginListenerHandle>;
+  addListener(eventName: 'autoCaptureError', listenerFunc: (error: { message: string }) => void): Promise<PluginListenerHandle>;
+  addListener(
+    eventName: 'autoCaptureStatus',
+    listenerFunc: (status: CameraAutoCaptureStatus) => void,
+  ): Promise<PluginListenerHandle>;
+  /** Finished files of a recording started with `segmentDurationMs` or `segmentBytes`. Android only */
+  addListener(eventName: 'segmentReady', listenerFunc: (segment: CameraVideoSegment) => void): Promise<PluginListenerHandle>;
+  /** State changes of a recording, and its progress at `maxStatusPerSecond`. Android only */
+  addListener(
+    eventName: 'recordingStatus',
+    listenerFunc: (status: CameraRecordingStatus) => void,
+  ): Promise<PluginListenerHandle>;
 }
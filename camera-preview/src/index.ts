@@ -9,7 +9,28 @@ export type {
   CameraPosition,
   CameraPreviewOptions,
   CameraPreviewPictureOptions,
+  CameraCaptureResult,
+  CameraCaptureChunk,
+  CameraCaptureResultType,
+  CameraOrientationStrategy,
   CameraSampleOptions,
+  CameraSampleResult,
+  CameraBurstOptions,
+  CameraBurstFrame,
+  CameraBurstResult,
+  CameraFrameAnalysisOptions,
+  CameraFrameResult,
+  CameraFrameAnalysisMetrics,
+  CameraImageProcessingMetrics,
+  CameraStorageStats,
+  CameraPreviewStats,
+  CameraVideoSegment,
+  CameraPreRollBuffer,
+  CameraRecordingStatus,
+  CameraTraceSpan,
+  CameraTraces,
+  CameraAutoCaptureOptions,
+  CameraAutoCaptureStatus,
   CameraPreviewFlashMode,
   CameraOpacityOptions,
   CameraPreviewPlugin
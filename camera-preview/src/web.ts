@@ -7,6 +7,19 @@ import type {
   CameraPreviewFlashMode,
   CameraSampleOptions,
   CameraOpacityOptions,
+  CameraLensSwitchResult,
+  CameraPrewarmOptions,
+  CameraPrewarmResult,
+  CameraFrameAnalysisOptions,
+  CameraFrameAnalysisMetrics,
+  CameraAutoCaptureOptions,
+  CameraBurstOptions,
+  CameraBurstResult,
+  CameraImageProcessingMetrics,
+  CameraStorageStats,
+  CameraPreviewStats,
+  CameraTraces,
+  CameraPreRollBuffer,
 } from './definitions';
 
 export class CameraPreviewWeb extends WebPlugin implements CameraPreviewPlugin {
@@ -100,6 +113,18 @@ export class CameraPreviewWeb extends WebPlugin implements CameraPreviewPlugin {
     throw this.unimplemented('Not implemented on web.');
   }
 
+  async pauseRecordVideo(): Promise<void> {
+    throw this.unimplemented('Not implemented on web.');
+  }
+
+  async resumeRecordVideo(): Promise<void> {
+    throw this.unimplemented('Not implemented on web.');
+  }
+
+  async triggerPreRoll(): Promise<CameraPreRollBuffer> {
+    throw this.unimplemented('triggerPreRoll is not implemented on web.');
+  }
+
   async stop(): Promise<any> {
     const video = document.getElementById('video') as HTMLVideoElement;
     if (video) {
@@ -179,6 +204,74 @@ export class CameraPreviewWeb extends WebPlugin implements CameraPreviewPlugin {
     throw this.unimplemented('Not implemented on web.');
   }
 
+  async switchToWideAngle(): Promise<CameraLensSwitchResult> {
+    throw this.unimplemented('switchToWideAngle is not implemented on web.');
+  }
+
+  async switchToMainWide(): Promise<CameraLensSwitchResult> {
+    throw this.unimplemented('switchToMainWide is not implemented on web.');
+  }
+
+  async switchToTelephoto(): Promise<CameraLensSwitchResult> {
+    throw this.unimplemented('switchToTelephoto is not implemented on web.');
+  }
+
+  async prewarm(_options?: CameraPrewarmOptions): Promise<CameraPrewarmResult> {
+    throw this.unimplemented('prewarm is not implemented on web.');
+  }
+
+  async captureBurst(_options?: CameraBurstOptions): Promise<CameraBurstResult> {
+    throw this.unimplemented('captureBurst is not implemented on web.');
+  }
+
+  async startFrameAnalysis(_options?: CameraFrameAnalysisOptions): Promise<void> {
+    throw this.unimplemented('startFrameAnalysis is not implemented on web.');
+  }
+
+  async stopFrameAnalysis(): Promise<Partial<CameraFrameAnalysisMetrics>> {
+    throw this.unimplemented('stopFrameAnalysis is not implemented on web.');
+  }
+
+  async getFrameAnalysisMetrics(): Promise<CameraFrameAnalysisMetrics> {
+    throw this.unimplemented('getFrameAnalysisMetrics is not implemented on web.');
+  }
+
+  async getPreviewStats(): Promise<CameraPreviewStats> {
+    throw this.unimplemented('getPreviewStats is not implemented on web.');
+  }
+
+  async startPreviewStats(_options?: { intervalMs?: number }): Promise<void> {
+    throw this.unimplemented('startPreviewStats is not implemented on web.');
+  }
+
+  async stopPreviewStats(): Promise<void> {
+    throw this.unimplemented('stopPreviewStats is not implemented on web.');
+  }
+
+  async setTracing(_options: { enabled: boolean; capacity?: number }): Promise<void> {
+    throw this.unimplemented('setTracing is not implemented on web.');
+  }
+
+  async getTraces(_options?: { clear?: boolean }): Promise<CameraTraces> {
+    throw this.unimplemented('getTraces is not implemented on web.');
+  }
+
+  async getImageProcessingMetrics(): Promise<CameraImageProcessingMetrics> {
+    throw this.unimplemented('getImageProcessingMetrics is not implemented on web.');
+  }
+
+  async getStorageStats(): Promise<CameraStorageStats> {
+    throw this.unimplemented('getStorageStats is not implemented on web.');
+  }
+
+  async startAutoCapture(_options?: CameraAutoCaptureOptions): Promise<void> {
+    throw this.unimplemented('startAutoCapture is not implemented on web.');
+  }
+
+  async stopAutoCapture(): Promise<void> {
+    throw this.unimplemented('stopAutoCapture is not implemented on web.');
+  }
+
   async setTorch(_options: { enabled: boolean }): Promise<void> {
     throw this.unimplemented('setTorch is not implemented on web.');
   }